@@ -69,6 +69,7 @@
 import net.minecraft.world.WorldProvider;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.AnvilChunkLoader;
 import net.minecraft.world.storage.MapStorage;
 import org.apache.logging.log4j.Logger;
 import org.spongepowered.api.Sponge;
@@ -99,6 +100,7 @@
 import org.spongepowered.common.item.inventory.util.ItemStackUtil;
 import org.spongepowered.common.mixin.core.block.BlockFireAccessor;
 import org.spongepowered.common.mixin.core.world.WorldAccessor;
+import org.spongepowered.common.mixin.core.world.chunk.storage.AnvilChunkLoaderAccessor;
 import org.spongepowered.common.mixin.plugin.tileentityactivation.TileEntityActivation;
 import org.spongepowered.common.registry.type.ItemTypeRegistryModule;
 import org.spongepowered.common.registry.type.entity.ProfessionRegistryModule;
@@ -235,6 +237,17 @@ public static void registerPortalAgentType(@Nullable final ForgeITeleporterBridg
         // Overwritten in SpongeForge
     }
 
+    /**
+     * Builds a chunk from data read by a chunk loading thread, adds its
+     * entities and tile entities and fires the chunk data load hooks. Only
+     * called from the server thread.
+     */
+    @Nullable
+    public static Chunk loadChunkFromData(final AnvilChunkLoader loader, final World world, final int x, final int z, final NBTTagCompound compound) {
+        // Overwritten in SpongeForge to finish the load through AnvilChunkLoader#loadChunk__Async
+        return ((AnvilChunkLoaderAccessor) loader).accessor$checkedReadChunkFromNBT(world, x, z, compound);
+    }
+
     // World provider
 
     public static boolean canDoLightning(final WorldProvider provider, final net.minecraft.world.chunk.Chunk chunk) {
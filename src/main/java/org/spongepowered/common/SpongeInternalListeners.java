@@ -63,7 +63,7 @@ public <T> void registerServiceCallback(Class<T> service, Consumer<T> callback)
 
     @Listener
     public void onServerStarting(GameStartingServerEvent event) {
-        // if we have the SpongeUserService, we start init now async (this is a filesystem scan).
+        // if we have the SpongeUserService, we start init now async (this may build the user index from a filesystem scan).
         Sponge.getServiceManager().provide(UserStorageService.class)
                 .filter(x -> x instanceof SpongeUserStorageService)
                 .ifPresent(x -> ((SpongeUserStorageService) x).init());
@@ -84,6 +84,7 @@ public void onWorldSave(SaveWorldEvent event) {
         if (Sponge.getServer().getDefaultWorld().isPresent()) {
             if (event.getTargetWorld().getUniqueId().equals(Sponge.getServer().getDefaultWorld().get().getUniqueId())) {
                 SpongeUsernameCache.save();
+                SpongeUserStorageService.saveIndex();
                 final MinecraftServer server = SpongeImpl.getServer();
                 ((PlayerProfileCacheBridge) server.getPlayerProfileCache()).bridge$setCanSave(true);
                 server.getPlayerProfileCache().save();
@@ -25,12 +25,14 @@
 package org.spongepowered.common.bridge.world;
 
 import com.flowpowered.math.vector.Vector3d;
+import com.flowpowered.math.vector.Vector3i;
 import net.minecraft.block.Block;
 import net.minecraft.block.ITileEntityProvider;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.MinecraftException;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.chunk.Chunk;
 import org.spongepowered.api.block.BlockSnapshot;
@@ -38,6 +40,7 @@
 import org.spongepowered.api.data.DataContainer;
 import org.spongepowered.api.world.BlockChangeFlag;
 import org.spongepowered.api.world.explosion.Explosion;
+import org.spongepowered.api.world.extent.worker.procedure.BlockVolumeFiller;
 import org.spongepowered.api.world.weather.Weather;
 import org.spongepowered.common.SpongeImplHooks;
 import org.spongepowered.common.block.SpongeBlockSnapshot;
@@ -45,6 +48,7 @@
 import org.spongepowered.common.event.tracking.context.MultiBlockCaptureSupplier;
 import org.spongepowered.common.event.tracking.context.SpongeProxyBlockAccess;
 import org.spongepowered.common.relocate.co.aikar.timings.WorldTimingsHandler;
+import org.spongepowered.common.world.extent.worker.WorldSectionWriter;
 import org.spongepowered.common.world.gen.SpongeChunkGenerator;
 import org.spongepowered.common.world.gen.SpongeWorldGenerator;
 
@@ -123,6 +127,21 @@ public interface WorldServerBridge {
 
     boolean bridge$isLightLevel(Chunk chunk, BlockPos pos, int level);
 
+    /**
+     * Places the blocks produced by the filler for every position between
+     * the given bounds directly into the chunk sections, one section at a
+     * time. Block physics, events and tracking are skipped, see
+     * {@link WorldSectionWriter} for how lighting and clients are updated.
+     *
+     * <p>This must only be called on the main thread.</p>
+     *
+     * @param min The minimum position, inclusive
+     * @param max The maximum position, inclusive
+     * @param filler The filler producing the blocks
+     * @return The amount of blocks that were changed
+     */
+    int bridge$setBlocks(Vector3i min, Vector3i max, BlockVolumeFiller filler);
+
     WorldTimingsHandler bridge$getTimingsHandler();
 
     int bridge$getChunkGCTickInterval();
@@ -133,6 +152,30 @@ public interface WorldServerBridge {
 
     void bridge$doChunkGC();
 
+    /**
+     * Starts an incremental auto-save, which saves the level data right
+     * away and the chunks that need saving over the following ticks. A
+     * previous pass that did not complete yet is completed first.
+     *
+     * <p>{@link org.spongepowered.api.event.world.SaveWorldEvent.Pre} is
+     * posted when the pass starts and
+     * {@link org.spongepowered.api.event.world.SaveWorldEvent.Post} once
+     * all of its chunks are saved.</p>
+     *
+     * @param interval The amount of ticks the pass should complete within
+     * @throws MinecraftException If the level data could not be saved
+     */
+    void bridge$startIncrementalSave(int interval) throws MinecraftException;
+
+    /**
+     * Saves the next chunks of the incremental auto-save in progress, if
+     * any. At least enough chunks are saved to complete the pass within its
+     * interval, and more while the time budget allows.
+     *
+     * @param budgetNanos The time to spend saving chunks, in nanoseconds
+     */
+    void bridge$tickIncrementalSave(long budgetNanos);
+
     void bridge$incrementChunkLoadCount();
 
     void bridge$updateConfigCache();
@@ -27,9 +27,9 @@
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.EnumSkyBlock;
 import net.minecraft.world.chunk.Chunk;
+import org.spongepowered.common.world.AsyncLightingEngine;
 
 import java.util.List;
-import java.util.concurrent.ExecutorService;
 
 public interface WorldServerBridge_AsyncLighting {
 
@@ -37,5 +37,5 @@ public interface WorldServerBridge_AsyncLighting {
 
     boolean asyncLightingBridge$checkLightAsync(EnumSkyBlock lightType, BlockPos pos, Chunk chunk, List<Chunk> neighbors);
 
-    ExecutorService asyncLightingBridge$getLightingExecutor();
+    AsyncLightingEngine asyncLightingBridge$getLightingEngine();
 }
@@ -69,4 +69,37 @@ public interface ChunkProviderServerBridge {
      * look at ChunkProviderServerMixin#impl$ProvideChunkForced(Chunk, int, int)
      */
     Chunk bridge$loadChunkForce(final int x, final int z);
+
+    boolean bridge$isAsyncChunkLoadingEnabled();
+
+    /**
+     * Loads the chunk at the given position without blocking the server
+     * thread on reading and decompressing it, if async chunk loading is enabled.
+     * Otherwise the chunk is loaded right away. Must be called from the
+     * server thread, and the returned future is always completed on the
+     * server thread.
+     *
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @param generate Whether to generate the chunk if it was never saved
+     * @return The future loaded chunk, completed with null if the chunk
+     *     does not exist and should not be generated
+     */
+    CompletableFuture<Chunk> bridge$loadChunkAsync(int x, int z, boolean generate);
+
+    /**
+     * Gets the amount of saved chunks that were not written to disk yet.
+     *
+     * @return The amount of pending chunk writes
+     */
+    int bridge$getPendingChunkWrites();
+
+    /**
+     * Saves the given chunk if it is still loaded and has changes that
+     * need to be saved.
+     *
+     * @param chunk The chunk to save
+     * @return True if the chunk was saved
+     */
+    boolean bridge$saveChunkIfNeeded(Chunk chunk);
 }
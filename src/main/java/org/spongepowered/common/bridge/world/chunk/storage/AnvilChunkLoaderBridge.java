@@ -24,14 +24,63 @@
  */
 package org.spongepowered.common.bridge.world.chunk.storage;
 
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import org.spongepowered.common.SpongeImplHooks;
 
+import java.io.IOException;
 import java.nio.file.Path;
 
+import javax.annotation.Nullable;
+
 public interface AnvilChunkLoaderBridge {
 
     // Forge method
     boolean bridge$chunkExists(World world, int x, int z);
 
     Path bridge$getWorldDir();
+
+    /**
+     * Gets and resets the time the chunk IO thread spent serializing and
+     * writing chunks, so it can be recorded by the server thread.
+     *
+     * @return The time spent since the last call, in nanoseconds
+     */
+    long bridge$takeSerializationTime();
+
+    /**
+     * Gets the amount of saved chunks that were not written yet.
+     *
+     * @return The amount of pending writes
+     */
+    int bridge$getPendingWrites();
+
+    /**
+     * Reads and decompresses the stored data of a chunk, either from the
+     * chunks waiting to be written or from its region file. The data is not
+     * upgraded yet. Safe to call from any thread.
+     *
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @return The chunk data, or null if the chunk was never saved
+     * @throws IOException If the region file could not be read
+     */
+    @Nullable
+    NBTTagCompound bridge$readChunkData(int x, int z) throws IOException;
+
+    /**
+     * Upgrades chunk data read by {@link #bridge$readChunkData(int, int)}
+     * and builds the chunk from it, with its entities and tile entities,
+     * through {@link SpongeImplHooks#loadChunkFromData}. Must be called from
+     * the server thread.
+     *
+     * @param world The world the chunk belongs to
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @param compound The chunk data
+     * @return The chunk, or null if the data is invalid
+     */
+    @Nullable
+    Chunk bridge$loadChunkFromData(World world, int x, int z, NBTTagCompound compound);
 }
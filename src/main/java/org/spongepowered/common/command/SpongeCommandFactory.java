@@ -97,6 +97,7 @@
 import org.spongepowered.common.bridge.world.WorldBridge;
 import org.spongepowered.common.bridge.world.WorldInfoBridge;
 import org.spongepowered.common.bridge.world.chunk.ChunkBridge;
+import org.spongepowered.common.bridge.world.chunk.ChunkProviderServerBridge;
 import org.spongepowered.common.config.SpongeConfig;
 import org.spongepowered.common.config.category.MetricsCategory;
 import org.spongepowered.common.config.type.ConfigBase;
@@ -108,6 +109,7 @@
 import org.spongepowered.common.event.SpongeEventManager;
 import org.spongepowered.common.mixin.core.world.WorldAccessor;
 import org.spongepowered.common.util.SpongeHooks;
+import org.spongepowered.common.world.storage.ChunkWriterPool;
 
 import java.io.File;
 import java.net.MalformedURLException;
@@ -372,6 +374,16 @@ protected Text processGlobal(final SpongeConfig<GlobalConfig> config, final Comm
                         source.sendMessage(Text.of("World ", Text.of(TextStyles.BOLD, world.getName()),
                             getChunksInfo(((WorldServer) world))));
                     }
+                    final ChunkWriterPool writers = ChunkWriterPool.getInstanceIfStarted();
+                    if (writers != null) {
+                        source.sendMessage(Text.of(Text.of(TextStyles.BOLD, "Chunk writers"), NEWLINE_TEXT,
+                            key("Threads: "), value(writers.getThreadCount()), NEWLINE_TEXT,
+                            key("Queued writes: "), value(writers.getQueuedWrites() + " (largest queue " + writers.getMaxQueuedWrites() + ")"), NEWLINE_TEXT,
+                            key("Chunks written: "), value(writers.getWrites()), NEWLINE_TEXT,
+                            key("Write time: "), value(String.format("%.2fms average, %.2fms max", writers.getAverageWriteTime(),
+                                writers.getMaxWriteTime())), NEWLINE_TEXT,
+                            key("Full queue waits: "), value(writers.getStalls())));
+                    }
                     return Text.of("Printed chunk info for all worlds ");
                 }
 
@@ -410,7 +422,9 @@ protected Text getChunksInfo(final WorldServer worldserver) {
                         key("Entities: "), value(worldserver.loadedEntityList.size()), NEWLINE_TEXT,
                         key("Tile Entities: "), value(worldserver.loadedTileEntityList.size()), NEWLINE_TEXT,
                         key("Removed Entities:"), value(((WorldAccessor) worldserver).accessor$getUnloadedEntityList().size()), NEWLINE_TEXT,
-                        key("Removed Tile Entities: "), value(((WorldAccessor) worldserver).accessor$getTileEntitiesToBeRemoved()), NEWLINE_TEXT
+                        key("Removed Tile Entities: "), value(((WorldAccessor) worldserver).accessor$getTileEntitiesToBeRemoved()), NEWLINE_TEXT,
+                        key("Chunks waiting to be written: "),
+                        value(((ChunkProviderServerBridge) worldserver.getChunkProvider()).bridge$getPendingChunkWrites()), NEWLINE_TEXT
                     );
                 }
             })
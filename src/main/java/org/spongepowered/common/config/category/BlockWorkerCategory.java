@@ -0,0 +1,74 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.config.category;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class BlockWorkerCategory extends ConfigCategory {
+
+    @Setting(value = "parallel-operations", comment = ""
+            + "If 'true', block worker reductions, maps and merges that only read from\n"
+            + "detached block buffers, such as schematics or archetypes, are split into\n"
+            + "chunk section sized slices which are processed on a thread pool. Plugin\n"
+            + "mappers, mergers and reducers must then be thread safe, and reductions\n"
+            + "must not depend on the order positions are visited in.")
+    private boolean parallelOperations = false;
+
+    @Setting(value = "parallel-threshold", comment = ""
+            + "The minimum amount of blocks a volume must contain before its operations\n"
+            + "are run in parallel. (Default: 65536)")
+    private int parallelThreshold = 65536;
+
+    @Setting(value = "parallelism", comment = ""
+            + "The amount of threads used to run parallel block worker operations.\n"
+            + "If '0', the amount of available processors is used. (Default: 0)")
+    private int parallelism = 0;
+
+    @Setting(value = "direct-world-writes", comment = ""
+            + "If 'true', block workers writing into a world on the main thread place the\n"
+            + "blocks directly into the chunk sections, instead of setting each block\n"
+            + "through the world. Block physics, change events and block tracking are\n"
+            + "skipped, and lighting and client updates are batched once the operation\n"
+            + "completes. This makes large pastes and arena resets far cheaper.")
+    private boolean directWorldWrites = false;
+
+    public boolean isParallelOperations() {
+        return this.parallelOperations;
+    }
+
+    public int getParallelThreshold() {
+        return this.parallelThreshold;
+    }
+
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    public boolean isDirectWorldWrites() {
+        return this.directWorldWrites;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.config.category;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class ChunkWriterCategory extends ConfigCategory {
+
+    @Setting(value = "enabled", comment = ""
+            + "If 'true', saved chunks are written to their region files by a pool of threads\n"
+            + "instead of the single vanilla file IO thread. Each region file is always written\n"
+            + "by the same thread, and a chunk saved again before it was written is only written once. (Default: false)")
+    private boolean enabled = false;
+
+    @Setting(value = "num-threads", comment = "The amount of threads to dedicate for writing chunks. (Default: 2)")
+    private int numThreads = 2;
+
+    @Setting(value = "queue-size", comment = ""
+            + "The amount of chunk writes each thread can have queued. If a queue is full, the\n"
+            + "server thread waits for it to free up instead of building an unbounded backlog. (Default: 1024)")
+    private int queueSize = 1024;
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public int getNumThreads() {
+        return this.numThreads;
+    }
+
+    public int getQueueSize() {
+        return this.queueSize;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.config.category;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigSerializable
+public class EventDispatchCategory extends ConfigCategory {
+
+    @Setting(value = "group-listener-frames", comment = ""
+            + "If 'true', consecutive listeners owned by the same plugin share a single\n"
+            + "cause stack frame and listener phase context while an event is posted on\n"
+            + "the main thread, instead of each listener pushing its own. This greatly\n"
+            + "reduces the per-listener cost of hot events such as movement or block\n"
+            + "changes, but causes pushed by one listener remain visible to the next\n"
+            + "listener of the same plugin until that plugin's run of listeners ends.")
+    private boolean groupListenerFrames = false;
+
+    @Setting(value = "concurrent-async-listener-plugins", comment = ""
+            + "The ids of plugins whose listeners may be run concurrently with each other\n"
+            + "when an event is posted off the main thread, such as chat or login events.\n"
+            + "Listeners of the same order are fanned out to a thread pool and all of them\n"
+            + "complete before listeners of the next order are called. Listeners of plugins\n"
+            + "that are not listed here are always called one after another on the posting\n"
+            + "thread. Only list plugins whose async listeners are thread safe.")
+    private List<String> concurrentAsyncListenerPlugins = new ArrayList<>();
+
+    @Setting(value = "async-listener-parallelism", comment = ""
+            + "The amount of threads used to run concurrent async listeners.\n"
+            + "If '0', the amount of available processors is used. (Default: 0)")
+    private int asyncListenerParallelism = 0;
+
+    public boolean isGroupListenerFrames() {
+        return this.groupListenerFrames;
+    }
+
+    public List<String> getConcurrentAsyncListenerPlugins() {
+        return this.concurrentAsyncListenerPlugins;
+    }
+
+    public int getAsyncListenerParallelism() {
+        return this.asyncListenerParallelism;
+    }
+}
@@ -57,6 +57,12 @@ public class OptimizationCategory extends ConfigCategory {
     @Setting(value = "async-lighting", comment = "Runs lighting updates asynchronously.")
     private AsyncLightingCategory asyncLightingCategory = new AsyncLightingCategory();
 
+    @Setting(value = "async-chunk-loading", comment = "Loads chunks from disk asynchronously where the server can wait for them.")
+    private AsyncChunkLoadingCategory asyncChunkLoadingCategory = new AsyncChunkLoadingCategory();
+
+    @Setting(value = "chunk-writer", comment = "Writes saved chunks to disk on a pool of threads.")
+    private ChunkWriterCategory chunkWriterCategory = new ChunkWriterCategory();
+
     @Setting(value = "eigen-redstone",
             comment = "Uses theosib's redstone algorithms to completely overhaul the way redstone works.")
     private EigenRedstoneCategory eigenRedstonCategory = new EigenRedstoneCategory();
@@ -125,7 +131,9 @@ public class OptimizationCategory extends ConfigCategory {
     @Setting(value = "disable-pathfinding-chunk-loads", comment = "In vanilla, pathfinding may result in loading chunks.\n" +
                     "You can disable that here, which may result in a\n" +
                     "performance improvement. This may not work well\n" +
-                    "with mods."
+                    "with mods. If async chunk loading is enabled, the\n" +
+                    "chunk is loaded in the background instead so that\n" +
+                    "a later attempt can use it."
     )
     private boolean disablePathFindingChunkLoads = false;
 
@@ -136,6 +144,23 @@ public class OptimizationCategory extends ConfigCategory {
     )
     private boolean disableRayTracingChunkLoads = false;
 
+    @Setting(value = "async-chunk-serialization", comment = ""
+            + "If 'true', saving a chunk on the server thread only copies the block data of its\n"
+            + "sections, which is then converted to NBT by the chunk IO thread before being\n"
+            + "compressed and written. Entities and tile entities are still saved on the server thread.\n"
+            + "Note: Mods reading the saved chunk data on the server thread, such as Forge\n"
+            + "ChunkDataEvent.Save listeners, won't see the block data. (Default: false)")
+    private boolean asyncChunkSerialization = false;
+
+    @Setting(value = "event-dispatch", comment = "Configuration options related to how events are dispatched to plugin listeners.")
+    private EventDispatchCategory eventDispatchCategory = new EventDispatchCategory();
+
+    @Setting(value = "block-worker", comment = "Configuration options related to how block volume workers process large volumes.")
+    private BlockWorkerCategory blockWorkerCategory = new BlockWorkerCategory();
+
+    @Setting(value = "block-buffer", comment = "Configuration options related to how detached block buffers store their blocks.")
+    private BlockBufferCategory blockBufferCategory = new BlockBufferCategory();
+
     public OptimizationCategory() {
         try {
             // Enabled by default on SpongeVanilla, disabled by default on SpongeForge.
@@ -186,6 +211,22 @@ public boolean useAsyncLighting() {
         return this.asyncLightingCategory.isEnabled();
     }
 
+    public AsyncChunkLoadingCategory getAsyncChunkLoadingCategory() {
+        return this.asyncChunkLoadingCategory;
+    }
+
+    public boolean useAsyncChunkLoading() {
+        return this.asyncChunkLoadingCategory.isEnabled();
+    }
+
+    public ChunkWriterCategory getChunkWriterCategory() {
+        return this.chunkWriterCategory;
+    }
+
+    public boolean useAsyncChunkSerialization() {
+        return this.asyncChunkSerialization;
+    }
+
     public EigenRedstoneCategory getEigenRedstoneCategory() {
         return this.eigenRedstonCategory;
     }
@@ -230,4 +271,16 @@ public boolean isDisableRayTracingChunkLoads() {
         return this.disableRayTracingChunkLoads;
     }
 
+    public EventDispatchCategory getEventDispatchCategory() {
+        return this.eventDispatchCategory;
+    }
+
+    public BlockWorkerCategory getBlockWorkerCategory() {
+        return this.blockWorkerCategory;
+    }
+
+    public BlockBufferCategory getBlockBufferCategory() {
+        return this.blockBufferCategory;
+    }
+
 }
@@ -42,6 +42,12 @@ public class PlayerBlockTracker extends ConfigCategory {
             comment = "Block IDs that will be blacklisted for player block placement tracking.")
     private List<String> blockBlacklist = new ArrayList<>();
 
+    @Setting(value = "lazy-loading", comment = ""
+            + "If 'true', the tracked block positions of a chunk are kept in a compact form when it is loaded\n"
+            + "and each 16x16x16 section is only unpacked the first time one of its positions is used.\n"
+            + "This saves memory and chunk load time for the chunks nobody ever inspects.")
+    private boolean lazyLoading = true;
+
     public boolean isEnabled() {
         return this.enabled;
     }
@@ -54,4 +60,8 @@ public List<String> getBlockBlacklist() {
         return this.blockBlacklist;
     }
 
+    public boolean isLazyLoading() {
+        return this.lazyLoading;
+    }
+
 }
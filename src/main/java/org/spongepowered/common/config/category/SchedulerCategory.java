@@ -0,0 +1,103 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.config.category;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigSerializable
+public class SchedulerCategory extends ConfigCategory {
+
+    @Setting(value = "async-core-threads", comment = ""
+            + "The amount of threads the async scheduler keeps alive while they are idle.")
+    private int asyncCoreThreads = 2;
+
+    @Setting(value = "async-max-threads", comment = ""
+            + "The maximum amount of threads the async scheduler uses to run tasks at the\n"
+            + "same time. If '0', twice the amount of available processors is used.")
+    private int asyncMaxThreads = 0;
+
+    @Setting(value = "async-thread-keep-alive", comment = ""
+            + "The amount of seconds an idle async scheduler thread above the core amount\n"
+            + "of threads is kept alive.")
+    private int asyncThreadKeepAlive = 60;
+
+    @Setting(value = "async-queue-capacity", comment = ""
+            + "The maximum amount of async tasks that may wait for a free thread. Once the\n"
+            + "queue is full, the async scheduler holds back due tasks until a thread becomes\n"
+            + "free. Other async work is always queued. If '0', the queue is unbounded.")
+    private int asyncQueueCapacity = 0;
+
+    @Setting(value = "async-max-threads-per-plugin", comment = ""
+            + "The maximum amount of async tasks of a single plugin that may run at the same time.\n"
+            + "Waiting tasks of different plugins are started in a round robin fashion, so a plugin\n"
+            + "submitting a burst of tasks can't starve the tasks of other plugins.\n"
+            + "If '0', a plugin may use all the async scheduler threads.")
+    private int asyncMaxThreadsPerPlugin = 0;
+
+    @Setting(value = "sync-tick-budget", comment = ""
+            + "The amount of milliseconds per tick that may be spent running sync tasks. Once\n"
+            + "the budget is used up, the remaining due tasks are deferred to the next tick\n"
+            + "in the order they became due. At least one task is run every tick.\n"
+            + "If '0', all due sync tasks are run in the tick they become due.")
+    private int syncTickBudget = 0;
+
+    @Setting(value = "sync-priority-plugins", comment = ""
+            + "The ids of plugins whose sync tasks are run before the tasks of other plugins\n"
+            + "and are never deferred by the sync tick budget. Tasks of Sponge itself\n"
+            + "are always treated this way.")
+    private List<String> syncPriorityPlugins = new ArrayList<>();
+
+    public int getAsyncCoreThreads() {
+        return this.asyncCoreThreads;
+    }
+
+    public int getAsyncMaxThreads() {
+        return this.asyncMaxThreads;
+    }
+
+    public int getAsyncThreadKeepAlive() {
+        return this.asyncThreadKeepAlive;
+    }
+
+    public int getAsyncQueueCapacity() {
+        return this.asyncQueueCapacity;
+    }
+
+    public int getAsyncMaxThreadsPerPlugin() {
+        return this.asyncMaxThreadsPerPlugin;
+    }
+
+    public int getSyncTickBudget() {
+        return this.syncTickBudget;
+    }
+
+    public List<String> getSyncPriorityPlugins() {
+        return this.syncPriorityPlugins;
+    }
+}
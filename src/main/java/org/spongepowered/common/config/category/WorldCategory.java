@@ -41,6 +41,19 @@ public class WorldCategory extends ConfigCategory {
             + "Note: 20 ticks is equivalent to 1 second.")
     private int autoSaveInterval = 900;
 
+    @Setting(value = "incremental-auto-save", comment = ""
+            + "If 'true', auto-saves will spread the chunks that need saving over the\n"
+            + "auto-save interval instead of saving them all at once, so a full pass\n"
+            + "completes right before the next auto-save starts. Saving with 'save-all'\n"
+            + "or stopping the server still saves all chunks immediately. (Default: false)")
+    private boolean incrementalAutoSave = false;
+
+    @Setting(value = "incremental-auto-save-tick-budget", comment = ""
+            + "The time, in milliseconds, an incremental auto-save may spend saving chunks\n"
+            + "each tick. More chunks are saved if needed to complete the pass within the\n"
+            + "auto-save interval. Set to 0 to spread chunks evenly over the interval. (Default: 2)")
+    private int incrementalAutoSaveTickBudget = 2;
+
     @Setting(value = "mob-spawn-range", comment = ""
             + "Specifies the radius (in chunks) of where creatures will spawn.\n"
             + "This value is capped to the current view distance setting in server.properties")
@@ -142,6 +155,14 @@ public int getAutoSaveInterval() {
         return this.autoSaveInterval;
     }
 
+    public boolean isIncrementalAutoSave() {
+        return this.incrementalAutoSave;
+    }
+
+    public int getIncrementalAutoSaveTickBudget() {
+        return this.incrementalAutoSaveTickBudget;
+    }
+
     public boolean isWorldEnabled() {
         return this.worldEnabled;
     }
@@ -24,11 +24,8 @@
  */
 package org.spongepowered.common.config.type;
 
-import com.google.common.base.Function;
 import com.google.common.base.Predicate;
-import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
 import ninja.leaping.configurate.objectmapping.Setting;
 import org.spongepowered.common.config.category.BrokenModCategory;
 import org.spongepowered.common.config.category.BungeeCordCategory;
@@ -42,9 +39,11 @@
 import org.spongepowered.common.config.category.OptimizationCategory;
 import org.spongepowered.common.config.category.PermissionCategory;
 import org.spongepowered.common.config.category.PhaseTrackerCategory;
+import org.spongepowered.common.config.category.SchedulerCategory;
 import org.spongepowered.common.config.category.SqlCategory;
 import org.spongepowered.common.config.category.TeleportHelperCategory;
 import org.spongepowered.common.util.IpSet;
+import org.spongepowered.common.util.IpTrie;
 
 import java.net.InetAddress;
 import java.util.HashMap;
@@ -75,6 +74,10 @@ public class GlobalConfig extends GeneralConfigBase {
             + "This can be used to restrict/grant permissions, based on the player's source or target ip.")
     private Map<String, List<IpSet>> ipSets = new HashMap<>();
 
+    // The ip sets the predicates were built from, they are rebuilt once the config is reloaded
+    @Nullable private Map<String, List<IpSet>> ipSetPredicatesSource;
+    private Map<String, Predicate<InetAddress>> ipSetPredicates = ImmutableMap.of();
+
     @Setting(value = "bungeecord", comment = ""
             + "Controls how Sponge interacts with server proxies, such as BungeeCord and Velocity.\n"
             + "Requires that the 'bungeecord' module is enabled.")
@@ -110,6 +113,9 @@ public class GlobalConfig extends GeneralConfigBase {
     @Setting(value = "metrics", comment = "Configuration options related to metric collection.")
     private MetricsCategory metricsCategory = new MetricsCategory();
 
+    @Setting(value = "scheduler", comment = "Configuration options related to the scheduler and the threads running async tasks.")
+    private SchedulerCategory scheduler = new SchedulerCategory();
+
     public GlobalConfig() {
         super();
     }
@@ -139,13 +145,18 @@ public ModuleCategory getModules() {
     }
 
     public Map<String, Predicate<InetAddress>> getIpSets() {
-        return ImmutableMap.copyOf(Maps.transformValues(this.ipSets, new Function<List<IpSet>, Predicate<InetAddress>>() {
-            @Nullable
-            @Override
-            public Predicate<InetAddress> apply(List<IpSet> input) {
-                return Predicates.and(input);
+        final Map<String, List<IpSet>> ipSets = this.ipSets;
+        if (this.ipSetPredicatesSource != ipSets) {
+            final ImmutableMap.Builder<String, Predicate<InetAddress>> builder = ImmutableMap.builder();
+            for (Map.Entry<String, List<IpSet>> entry : ipSets.entrySet()) {
+                final IpTrie trie = new IpTrie();
+                entry.getValue().forEach(trie::add);
+                builder.put(entry.getKey(), trie);
             }
-        }));
+            this.ipSetPredicates = builder.build();
+            this.ipSetPredicatesSource = ipSets;
+        }
+        return this.ipSetPredicates;
     }
 
     public ExploitCategory getExploits() {
@@ -156,8 +167,9 @@ public OptimizationCategory getOptimizations() {
         return this.optimizations;
     }
 
+    @Nullable
     public Predicate<InetAddress> getIpSet(String name) {
-        return this.ipSets.containsKey(name) ? Predicates.and(this.ipSets.get(name)) : null;
+        return getIpSets().get(name);
     }
 
     @Override
@@ -186,4 +198,8 @@ public MetricsCategory getMetricsCategory() {
         return this.metricsCategory;
     }
 
+    public SchedulerCategory getScheduler() {
+        return this.scheduler;
+    }
+
 }
@@ -33,6 +33,7 @@
 import org.spongepowered.api.data.merge.MergeFunction;
 import org.spongepowered.api.data.value.BaseValue;
 import org.spongepowered.api.entity.EntityType;
+import org.spongepowered.api.util.Tristate;
 
 import java.util.Optional;
 
@@ -57,6 +58,24 @@
 
     boolean supports(EntityType entityType);
 
+    /**
+     * Checks whether {@link #supports(DataHolder)} can be answered for every
+     * instance of the provided holder class up front. This is used by
+     * {@link org.spongepowered.common.data.util.DataProcessorDelegate} to
+     * cache the processors applicable to a holder class.
+     *
+     * <p>{@link Tristate#TRUE} means every instance is supported,
+     * {@link Tristate#FALSE} means no instance is supported, and
+     * {@link Tristate#UNDEFINED} means the holder itself has to be
+     * checked.</p>
+     *
+     * @param holderClass The holder class to check
+     * @return Whether instances of the holder class are supported
+     */
+    default Tristate supportsHolderClass(Class<?> holderClass) {
+        return Tristate.UNDEFINED;
+    }
+
     /**
      * Attempts to get the given {@link DataManipulator} of type {@code T} if
      * and only if the manipulator's required data exists from the
@@ -28,18 +28,27 @@
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import org.spongepowered.api.CatalogType;
 import org.spongepowered.api.data.key.Key;
 import org.spongepowered.api.data.manipulator.ImmutableDataManipulator;
 import org.spongepowered.api.data.value.BaseValue;
 import org.spongepowered.api.data.value.immutable.ImmutableValue;
 import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.util.ReflectionUtil;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 
+import javax.annotation.Nullable;
+
 public final class ImmutableDataCachingUtil {
 
     private ImmutableDataCachingUtil() {}
@@ -48,16 +57,43 @@ private ImmutableDataCachingUtil() {}
     public static final int MANIPULATOR_CACHE_LIMIT = 100000;
     public static final int VALUE_CACHE_LIMIT = 100000;
 
-    private static final Cache<String, ImmutableDataManipulator<?, ?>> manipulatorCache = CacheBuilder.newBuilder()
+    /**
+     * The highest int argument that is cached in an {@link ArgumentSlots}
+     * instead of the general caches, covering most block state properties.
+     */
+    private static final int MAX_SLOT_INT = 255;
+
+    private static final Cache<CacheKey, ImmutableDataManipulator<?, ?>> manipulatorCache = CacheBuilder.newBuilder()
         .maximumSize(MANIPULATOR_CACHE_LIMIT)
         .concurrencyLevel(4)
         .build();
 
-    private static final Cache<String, ImmutableValue<?>> valueCache = CacheBuilder.newBuilder()
+    private static final Cache<CacheKey, ImmutableValue<?>> valueCache = CacheBuilder.newBuilder()
         .concurrencyLevel(4)
         .maximumSize(VALUE_CACHE_LIMIT)
         .build();
 
+    private static final ClassValue<InstanceFactory> factories = new ClassValue<InstanceFactory>() {
+        @Override
+        protected InstanceFactory computeValue(final Class<?> type) {
+            return new InstanceFactory(type);
+        }
+    };
+
+    private static final ClassValue<ArgumentSlots> manipulatorSlots = new ClassValue<ArgumentSlots>() {
+        @Override
+        protected ArgumentSlots computeValue(final Class<?> type) {
+            return new ArgumentSlots();
+        }
+    };
+
+    private static final ClassValue<Map<Key<?>, ArgumentSlots>> valueSlots = new ClassValue<Map<Key<?>, ArgumentSlots>>() {
+        @Override
+        protected Map<Key<?>, ArgumentSlots> computeValue(final Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
     /**
      * Retrieves a basic manipulator from {@link Cache}. If the {@link Cache}
      * does not have the desired {@link ImmutableDataManipulator} with relative
@@ -75,13 +111,21 @@ private ImmutableDataCachingUtil() {}
      */
     @SuppressWarnings("unchecked")
     public static <T extends ImmutableDataManipulator<?, ?>> T getManipulator(final Class<T> immutableClass, final Object... args) {
-        final String key = getKey(immutableClass, args);
+        // Single boolean, enum and small int arguments don't need a key at all
+        final ArgumentSlots slots = args.length == 1 && ArgumentSlots.supports(args[0]) ? manipulatorSlots.get(immutableClass) : null;
+        if (slots != null) {
+            final Object cached = slots.get(args[0]);
+            if (cached != null) {
+                return (T) cached;
+            }
+        }
+        final CacheKey key = new CacheKey(immutableClass, null, args);
         // We can't really use the generic typing here because it's complicated...
         try {
             // Let's get the key
-            return (T) ImmutableDataCachingUtil.manipulatorCache.get(key, (Callable<ImmutableDataManipulator<?, ?>>) () -> {
+            final T manipulator = (T) ImmutableDataCachingUtil.manipulatorCache.get(key, (Callable<ImmutableDataManipulator<?, ?>>) () -> {
                     try {
-                        return createUnsafeInstance(immutableClass, args);
+                        return (ImmutableDataManipulator<?, ?>) factories.get(immutableClass).create(args);
                     } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
                         SpongeImpl.getLogger().error("Could not construct an ImmutableDataManipulator: " + immutableClass.getCanonicalName() + " with the args: "
                                                      + Arrays.toString(args), e);
@@ -89,6 +133,10 @@ private ImmutableDataCachingUtil() {}
                     throw new UnsupportedOperationException("Could not construct the ImmutableDataManipulator: " + immutableClass.getName() + " with the args: "
                                                             + Arrays.toString(args));
             });
+            if (slots != null) {
+                slots.put(args[0], manipulator);
+            }
+            return manipulator;
         } catch (Throwable e) {
             throw new UnsupportedOperationException("Could not construct the ImmutableDataManipulator: " + immutableClass.getName(), e);
         }
@@ -97,33 +145,210 @@ private ImmutableDataCachingUtil() {}
     @SuppressWarnings("unchecked")
     public static <E, V extends ImmutableValue<?>, T extends ImmutableValue<E>> T getValue(final Class<V> valueClass,
             final Key<? extends BaseValue<E>> usedKey, final E defaultArg, final E arg, final Object... extraArgs) {
-        final String key = getKey(valueClass, usedKey.getQuery().asString('.'), arg.getClass(), arg);
+        ArgumentSlots slots = null;
+        if (ArgumentSlots.supports(arg)) {
+            final Map<Key<?>, ArgumentSlots> slotsByKey = valueSlots.get(valueClass);
+            slots = slotsByKey.get(usedKey);
+            if (slots == null) {
+                slots = slotsByKey.computeIfAbsent(usedKey, k -> new ArgumentSlots());
+            }
+            final Object cached = slots.get(arg);
+            if (cached != null) {
+                return (T) cached;
+            }
+        }
+        final CacheKey key = new CacheKey(valueClass, usedKey, new Object[] {arg});
         try {
-            return (T) ImmutableDataCachingUtil.valueCache.get(key, (Callable<ImmutableValue<?>>) () -> {
+            final T value = (T) ImmutableDataCachingUtil.valueCache.get(key, (Callable<ImmutableValue<?>>) () -> {
+                    final Object[] args = new Object[3 + (extraArgs == null ? 0 : extraArgs.length)];
+                    args[0] = usedKey;
+                    args[1] = defaultArg;
+                    args[2] = arg;
+                    if (extraArgs != null) {
+                        System.arraycopy(extraArgs, 0, args, 3, extraArgs.length);
+                    }
                     try {
-                        if (extraArgs == null || extraArgs.length == 0) {
-                            return createUnsafeInstance(valueClass, usedKey, defaultArg, arg);
-                        }
-                        return createUnsafeInstance(valueClass, usedKey, defaultArg, arg, extraArgs);
+                        return (ImmutableValue<?>) factories.get(valueClass).create(args);
                     } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
                         SpongeImpl.getLogger().error("Could not construct an ImmutableValue: " + valueClass.getCanonicalName(), e);
                     }
                     throw new UnsupportedOperationException("Could not construct the ImmutableValue: " + valueClass.getName());
             });
+            if (slots != null) {
+                slots.put(arg, value);
+            }
+            return value;
         } catch (ExecutionException e) {
             throw new UnsupportedOperationException("Could not construct the ImmutableValue: " + valueClass.getName(), e);
         }
     }
 
-    private static String getKey(final Class<?> immutableClass, final Object... args) {
-        final StringBuilder builder = new StringBuilder(immutableClass.getCanonicalName() + ":");
-        for (Object object : args) {
-            if (object instanceof CatalogType) {
-                builder.append("{").append(((CatalogType) object).getId()).append("}");
+    /**
+     * A structural cache key, comparing the cached type by identity and the
+     * arguments by equality.
+     */
+    private static final class CacheKey {
+
+        private final Class<?> type;
+        @Nullable private final Key<?> key;
+        private final Object[] args;
+        private final int hashCode;
+
+        CacheKey(final Class<?> type, @Nullable final Key<?> key, final Object[] args) {
+            this.type = type;
+            this.key = key;
+            this.args = args;
+            this.hashCode = 31 * (31 * type.hashCode() + Objects.hashCode(key)) + Arrays.deepHashCode(args);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            final CacheKey other = (CacheKey) obj;
+            return this.hashCode == other.hashCode
+                   && this.type == other.type
+                   && Objects.equals(this.key, other.key)
+                   && Arrays.deepEquals(this.args, other.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+
+    /**
+     * Caches the instances created for a single boolean, enum or small int
+     * argument, which can be looked up without building a {@link CacheKey}.
+     */
+    private static final class ArgumentSlots {
+
+        private final Object[] booleans = new Object[2];
+        @Nullable private volatile Object[] ints;
+        private final Map<Enum<?>, Object> enums = new ConcurrentHashMap<>();
+
+        static boolean supports(@Nullable final Object arg) {
+            if (arg instanceof Integer) {
+                final int value = (Integer) arg;
+                return value >= 0 && value <= MAX_SLOT_INT;
+            }
+            return arg instanceof Boolean || arg instanceof Enum;
+        }
+
+        @Nullable
+        Object get(final Object arg) {
+            if (arg instanceof Boolean) {
+                return this.booleans[(Boolean) arg ? 1 : 0];
+            } else if (arg instanceof Integer) {
+                final Object[] ints = this.ints;
+                return ints == null ? null : ints[(Integer) arg];
+            }
+            return this.enums.get(arg);
+        }
+
+        // Racing puts only ever store equal instances, so plain array writes are fine
+        void put(final Object arg, final Object instance) {
+            if (arg instanceof Boolean) {
+                this.booleans[(Boolean) arg ? 1 : 0] = instance;
+            } else if (arg instanceof Integer) {
+                Object[] ints = this.ints;
+                if (ints == null) {
+                    ints = new Object[MAX_SLOT_INT + 1];
+                    this.ints = ints;
+                }
+                ints[(Integer) arg] = instance;
             } else {
-                builder.append("{").append(object.toString()).append("}");
+                this.enums.put((Enum<?>) arg, instance);
+            }
+        }
+    }
+
+    /**
+     * Creates instances of a class through constructor handles, resolved
+     * once per combination of argument classes.
+     */
+    private static final class InstanceFactory {
+
+        private final Class<?> type;
+        private volatile ResolvedConstructor[] constructors = new ResolvedConstructor[0];
+
+        InstanceFactory(final Class<?> type) {
+            this.type = type;
+        }
+
+        Object create(final Object[] args) throws InstantiationException, IllegalAccessException, InvocationTargetException {
+            ResolvedConstructor constructor = null;
+            for (final ResolvedConstructor resolved : this.constructors) {
+                if (resolved.matches(args)) {
+                    constructor = resolved;
+                    break;
+                }
+            }
+            if (constructor == null) {
+                constructor = this.resolve(args);
+            }
+            if (constructor.handle == null) {
+                return createUnsafeInstance(this.type, args);
+            }
+            try {
+                return (Object) constructor.handle.invokeExact(args);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        private synchronized ResolvedConstructor resolve(final Object[] args) {
+            final Class<?>[] argClasses = new Class<?>[args.length];
+            for (int i = 0; i < args.length; i++) {
+                argClasses[i] = args[i] == null ? null : args[i].getClass();
+            }
+            MethodHandle handle = null;
+            try {
+                final Constructor<?> constructor = ReflectionUtil.findConstructor(this.type, args);
+                // Constructors only found by unpacking array arguments are left to the reflective path
+                if (constructor.getParameterCount() == args.length && !constructor.isVarArgs()) {
+                    handle = MethodHandles.publicLookup().unreflectConstructor(constructor)
+                        .asType(MethodType.genericMethodType(args.length))
+                        .asSpreader(Object[].class, args.length);
+                }
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                // Fall back to creating the instance reflectively
+            }
+            final ResolvedConstructor resolved = new ResolvedConstructor(argClasses, handle);
+            final ResolvedConstructor[] constructors = Arrays.copyOf(this.constructors, this.constructors.length + 1);
+            constructors[constructors.length - 1] = resolved;
+            this.constructors = constructors;
+            return resolved;
+        }
+    }
+
+    private static final class ResolvedConstructor {
+
+        private final Class<?>[] argClasses;
+        @Nullable final MethodHandle handle;
+
+        ResolvedConstructor(final Class<?>[] argClasses, @Nullable final MethodHandle handle) {
+            this.argClasses = argClasses;
+            this.handle = handle;
+        }
+
+        boolean matches(final Object[] args) {
+            if (args.length != this.argClasses.length) {
+                return false;
+            }
+            for (int i = 0; i < args.length; i++) {
+                if ((args[i] == null ? null : args[i].getClass()) != this.argClasses[i]) {
+                    return false;
+                }
             }
+            return true;
         }
-        return builder.toString();
     }
 }
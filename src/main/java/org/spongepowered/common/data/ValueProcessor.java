@@ -35,6 +35,7 @@
 import org.spongepowered.api.data.value.mutable.CollectionValue;
 import org.spongepowered.api.data.value.mutable.Value;
 import org.spongepowered.api.entity.Entity;
+import org.spongepowered.api.util.Tristate;
 
 import java.util.Optional;
 
@@ -139,6 +140,24 @@
      */
     boolean supports(ValueContainer<?> container);
 
+    /**
+     * Checks whether {@link #supports(ValueContainer)} can be answered for
+     * every instance of the provided container class up front. This is used
+     * by {@link org.spongepowered.common.data.util.ValueProcessorDelegate} to
+     * cache the processors applicable to a container class.
+     *
+     * <p>{@link Tristate#TRUE} means every instance is supported,
+     * {@link Tristate#FALSE} means no instance is supported, and
+     * {@link Tristate#UNDEFINED} means the container itself has to be
+     * checked.</p>
+     *
+     * @param containerClass The container class to check
+     * @return Whether instances of the container class are supported
+     */
+    default Tristate supportsHolderClass(Class<?> containerClass) {
+        return Tristate.UNDEFINED;
+    }
+
     /**
      * Offers the provided {@link BaseValue} containing a value of the
      * appropriate value type of this {@link ValueProcessor} to offer
@@ -50,6 +50,7 @@
 import org.spongepowered.api.entity.EntityType;
 import org.spongepowered.api.world.extent.worker.procedure.BlockVolumeVisitor;
 import org.spongepowered.api.world.schematic.Palette;
+import org.spongepowered.api.world.schematic.PaletteTypes;
 import org.spongepowered.api.world.schematic.Schematic;
 import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.SpongeImplHooks;
@@ -61,19 +62,29 @@
 import org.spongepowered.common.registry.type.entity.EntityTypeRegistryModule;
 import org.spongepowered.common.util.Constants;
 import org.spongepowered.common.util.gen.ArrayMutableBlockBuffer;
+import org.spongepowered.common.world.schematic.BimapPalette;
+import org.spongepowered.common.world.schematic.BlockPaletteWrapper;
 import org.spongepowered.common.world.schematic.GlobalPalette;
 import org.spongepowered.common.world.schematic.SpongeSchematicBuilder;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import javax.annotation.Nullable;
+
 public class LegacySchematicTranslator implements DataTranslator<Schematic> {
 
     private static final LegacySchematicTranslator INSTANCE = new LegacySchematicTranslator();
     private static final TypeToken<Schematic> TYPE_TOKEN = TypeToken.of(Schematic.class);
     private static final int MAX_SIZE = 65535;
+    /**
+     * The highest id that can be stored with the Blocks, Data and AddBlocks
+     * arrays together.
+     */
+    public static final int MAX_GLOBAL_ID = 0xFFFF;
     private static final DataQuery TILE_ID = DataQuery.of("id");
     private static DataFixer VANILLA_FIXER;
 
@@ -102,6 +113,20 @@ public TypeToken<Schematic> getToken() {
 
     @Override
     public Schematic translate(DataView view) throws InvalidDataException {
+        return translate(view, null);
+    }
+
+    /**
+     * Translates a legacy schematic whose block arrays have already been
+     * combined into global palette ids, in which case the view is not
+     * expected to contain any block arrays.
+     *
+     * @param view The schematic data
+     * @param globalIds The combined block ids, or null to read them from the view
+     * @return The schematic
+     * @throws InvalidDataException If the data is not a valid schematic
+     */
+    public Schematic translate(DataView view, @Nullable ArrayMutableBlockBuffer.RawIds globalIds) throws InvalidDataException {
         if (VANILLA_FIXER == null) {
             VANILLA_FIXER = ((MinecraftServerAccessor) SpongeImpl.getServer()).accessor$getDataFixer();
         }
@@ -128,30 +153,17 @@ public Schematic translate(DataView view) throws InvalidDataException {
         int offsetZ = view.getInt(Constants.Sponge.Schematic.Legacy.WE_OFFSET_Z).orElse(0);
         Palette<BlockState> palette = GlobalPalette.getBlockPalette();
         final SpongeSchematicBuilder builder = new SpongeSchematicBuilder();
-        ArrayMutableBlockBuffer buffer = new ArrayMutableBlockBuffer(new Vector3i(-offsetX, -offsetY, -offsetZ),
-                new Vector3i(width, height, length));
-        byte[] block_ids = (byte[]) view.get(Constants.Sponge.Schematic.Legacy.BLOCKS).get();
-        byte[] block_data = (byte[]) view.get(Constants.Sponge.Schematic.Legacy.BLOCK_DATA).get();
-        byte[] add_block = (byte[]) view.get(Constants.Sponge.Schematic.Legacy.ADD_BLOCKS).orElse(null);
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                for (int z = 0; z < length; z++) {
-                    int index = (y * length + z) * width + x;
-                    final int default_state_id = block_ids[index];
-                    final int blockData = block_data[index] & 0xF;
-                    int palette_id = default_state_id << 4 | blockData;
-                    if (add_block != null) {
-                        palette_id |= add_block[index] << 12;
-                    }
-                    Optional<BlockState> blockState = palette.get(palette_id);
-                    if (!blockState.isPresent()) {
-                        // At the very least get the default state id
-                        blockState = Optional.of(((BlockType) Block.REGISTRY.getObjectById(default_state_id)).getDefaultState());
-                    }
-                    BlockState block = blockState.orElseGet(BlockTypes.COBBLESTONE::getDefaultState);
-                    buffer.setBlock(x - offsetX, y - offsetY, z - offsetZ, block);
-                }
+        final Vector3i start = new Vector3i(-offsetX, -offsetY, -offsetZ);
+        final Vector3i size = new Vector3i(width, height, length);
+        final ArrayMutableBlockBuffer buffer;
+        if (globalIds != null) {
+            if (!globalIds.getSize().equals(size)) {
+                throw new InvalidDataException(String.format("Block data was decoded for size %s but the schematic is %s", globalIds.getSize(), size));
             }
+            buffer = toLocalBuffer(globalIds, start);
+        } else {
+            buffer = new ArrayMutableBlockBuffer(start, size);
+            readBlocks(view, buffer, palette, width, height, length, offsetX, offsetY, offsetZ);
         }
         Map<Vector3i, TileEntityArchetype> tiles = Maps.newHashMap();
         List<DataView> tiledata = view.getViewList(Constants.Sponge.Schematic.Legacy.TILE_ENTITIES).orElse(null);
@@ -265,6 +277,62 @@ public DataView addTo(Schematic schematic, DataView data) {
         return data;
     }
 
+    private static void readBlocks(DataView view, ArrayMutableBlockBuffer buffer, Palette<BlockState> palette, int width, int height, int length,
+            int offsetX, int offsetY, int offsetZ) {
+        byte[] block_ids = (byte[]) view.get(Constants.Sponge.Schematic.Legacy.BLOCKS).get();
+        byte[] block_data = (byte[]) view.get(Constants.Sponge.Schematic.Legacy.BLOCK_DATA).get();
+        byte[] add_block = (byte[]) view.get(Constants.Sponge.Schematic.Legacy.ADD_BLOCKS).orElse(null);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                for (int z = 0; z < length; z++) {
+                    int index = (y * length + z) * width + x;
+                    final int default_state_id = block_ids[index];
+                    final int blockData = block_data[index] & 0xF;
+                    int palette_id = default_state_id << 4 | blockData;
+                    if (add_block != null) {
+                        palette_id |= add_block[index] << 12;
+                    }
+                    Optional<BlockState> blockState = palette.get(palette_id);
+                    if (!blockState.isPresent()) {
+                        // At the very least get the default state id
+                        blockState = Optional.of(((BlockType) Block.REGISTRY.getObjectById(default_state_id)).getDefaultState());
+                    }
+                    BlockState block = blockState.orElseGet(BlockTypes.COBBLESTONE::getDefaultState);
+                    buffer.setBlock(x - offsetX, y - offsetY, z - offsetZ, block);
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolves combined global ids to block states once per distinct id and
+     * rewrites them in place as ids of a new local palette.
+     */
+    @SuppressWarnings("deprecation")
+    private static ArrayMutableBlockBuffer toLocalBuffer(ArrayMutableBlockBuffer.RawIds globalIds, Vector3i start) {
+        final Palette<BlockState> global = GlobalPalette.getBlockPalette();
+        final BimapPalette<BlockState> local = new BimapPalette<>(PaletteTypes.LOCAL_BLOCKS);
+        final int[] localIds = new int[MAX_GLOBAL_ID + 1];
+        Arrays.fill(localIds, -1);
+        final int area = globalIds.getArea();
+        for (int i = 0; i < area; i++) {
+            final int paletteId = globalIds.get(i);
+            int localId = localIds[paletteId];
+            if (localId == -1) {
+                final BlockState state = global.get(paletteId)
+                        .orElseGet(() -> {
+                            // At the very least get the default state id
+                            final BlockType type = (BlockType) Block.REGISTRY.getObjectById(paletteId >> 4);
+                            return type == null ? BlockTypes.COBBLESTONE.getDefaultState() : type.getDefaultState();
+                        });
+                localId = local.getOrAssign(state);
+                localIds[paletteId] = localId;
+            }
+            globalIds.set(i, localId);
+        }
+        return globalIds.toBuffer(new BlockPaletteWrapper(local, org.spongepowered.api.world.schematic.BlockPaletteTypes.LOCAL), start);
+    }
+
     private static class SaveIterator implements BlockVolumeVisitor<Schematic> {
 
         private final int width;
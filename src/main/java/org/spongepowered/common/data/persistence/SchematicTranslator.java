@@ -51,6 +51,8 @@
 import org.spongepowered.api.world.schematic.Schematic;
 import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.block.SpongeTileEntityArchetypeBuilder;
+import org.spongepowered.common.data.persistence.schematic.SchematicStreamReader;
+import org.spongepowered.common.data.persistence.schematic.SchematicStreamWriter;
 import org.spongepowered.common.data.persistence.schematic.SchematicUpdater1_to_2;
 import org.spongepowered.common.data.type.SpongeTileEntityType;
 import org.spongepowered.common.entity.SpongeEntityArchetypeBuilder;
@@ -69,6 +71,8 @@
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -117,6 +121,47 @@ public TypeToken<Schematic> getToken() {
 
     @Override
     public Schematic translate(DataView unprocessed) throws InvalidDataException {
+        return translate(unprocessed, null);
+    }
+
+    /**
+     * Reads a Sponge or legacy schematic from uncompressed NBT, decoding the
+     * block data while it is read instead of translating it from a
+     * {@link DataView}. The stream is not closed.
+     *
+     * @param input The uncompressed NBT input
+     * @return The schematic
+     * @throws IOException If the stream could not be read
+     * @throws InvalidDataException If the data is not a valid schematic
+     */
+    public Schematic read(final InputStream input) throws IOException, InvalidDataException {
+        return SchematicStreamReader.read(input);
+    }
+
+    /**
+     * Writes a schematic as uncompressed NBT, encoding the block data while
+     * it is written instead of building it in a {@link DataView} first. The
+     * stream is flushed but not closed.
+     *
+     * @param schematic The schematic
+     * @param output The output to write uncompressed NBT to
+     * @throws IOException If the stream could not be written to
+     */
+    public void write(final Schematic schematic, final OutputStream output) throws IOException {
+        SchematicStreamWriter.write(schematic, output);
+    }
+
+    /**
+     * Translates a schematic whose block data has already been decoded into
+     * raw palette ids, in which case the view is not expected to contain any
+     * block data.
+     *
+     * @param unprocessed The schematic data
+     * @param blockIds The decoded block ids, or null to read them from the view
+     * @return The schematic
+     * @throws InvalidDataException If the data is not a valid schematic
+     */
+    public Schematic translate(DataView unprocessed, @Nullable ArrayMutableBlockBuffer.RawIds blockIds) throws InvalidDataException {
         if (VANILLA_FIXER == null) {
             VANILLA_FIXER = ((MinecraftServerAccessor) SpongeImpl.getServer()).accessor$getDataFixer();
         }
@@ -217,37 +262,17 @@ public Schematic translate(DataView unprocessed) throws InvalidDataException {
         final SpongeSchematicBuilder builder = new SpongeSchematicBuilder();
         builder.blockPalette(palette);
 
-        final MutableBlockVolume buffer =
-                new ArrayMutableBlockBuffer(palette, new Vector3i(-offset[0], -offset[1], -offset[2]), new Vector3i(width, height, length));
-
-        final byte[] blockdata = (byte[]) updatedView.get(Constants.Sponge.Schematic.BLOCK_DATA).orElseThrow(() -> new InvalidDataException("Missing BlockData for Schematic"));
-        int index = 0;
-        int i = 0;
-        int value = 0;
-        int varint_length = 0;
-        while (i < blockdata.length) {
-            value = 0;
-            varint_length = 0;
-
-            while (true) {
-                value |= (blockdata[i] & 127) << (varint_length++ * 7);
-                if (varint_length > 5) {
-                    throw new RuntimeException("VarInt too big (probably corrupted data)");
-                }
-                if ((blockdata[i] & 128) != 128) {
-                    i++;
-                    break;
-                }
-                i++;
+        final Vector3i start = new Vector3i(-offset[0], -offset[1], -offset[2]);
+        final Vector3i size = new Vector3i(width, height, length);
+        final MutableBlockVolume buffer;
+        if (blockIds != null) {
+            if (!blockIds.getSize().equals(size)) {
+                throw new InvalidDataException(String.format("Block data was decoded for size %s but the schematic is %s", blockIds.getSize(), size));
             }
-            // index = (y * length + z) * width + x
-            final int y = index / (width * length);
-            final int z = (index % (width * length)) / width;
-            final int x = (index % (width * length)) % width;
-            final BlockState state = palette.get(value).get();
-            buffer.setBlock(x - offset[0], y - offset[1], z - offset[2], state);
-
-            index++;
+            buffer = blockIds.toBuffer(palette, start);
+        } else {
+            buffer = new ArrayMutableBlockBuffer(palette, start, size);
+            readBlockData(updatedView, buffer, palette, width, length, offset);
         }
         builder.blocks(buffer);
 
@@ -357,6 +382,39 @@ public Schematic translate(DataView unprocessed) throws InvalidDataException {
         return builder.build();
     }
 
+    private static void readBlockData(final DataView view, final MutableBlockVolume buffer, final Palette<BlockState> palette, final int width,
+            final int length, final int[] offset) {
+        final byte[] blockdata = (byte[]) view.get(Constants.Sponge.Schematic.BLOCK_DATA).orElseThrow(() -> new InvalidDataException("Missing BlockData for Schematic"));
+        int index = 0;
+        int i = 0;
+        int value = 0;
+        int varint_length = 0;
+        while (i < blockdata.length) {
+            value = 0;
+            varint_length = 0;
+
+            while (true) {
+                value |= (blockdata[i] & 127) << (varint_length++ * 7);
+                if (varint_length > 5) {
+                    throw new RuntimeException("VarInt too big (probably corrupted data)");
+                }
+                if ((blockdata[i] & 128) != 128) {
+                    i++;
+                    break;
+                }
+                i++;
+            }
+            // index = (y * length + z) * width + x
+            final int y = index / (width * length);
+            final int z = (index % (width * length)) / width;
+            final int x = (index % (width * length)) % width;
+            final BlockState state = palette.get(value).get();
+            buffer.setBlock(x - offset[0], y - offset[1], z - offset[2], state);
+
+            index++;
+        }
+    }
+
     @Override
     public DataContainer translate(final Schematic schematic) throws InvalidDataException {
         final DataContainer data = DataContainer.createNew(DataView.SafetyMode.NO_DATA_CLONED);
@@ -366,6 +424,20 @@ public DataContainer translate(final Schematic schematic) throws InvalidDataExce
 
     @Override
     public DataView addTo(final Schematic schematic, final DataView data) {
+        return addTo(schematic, data, true);
+    }
+
+    /**
+     * Writes a schematic, optionally leaving out the block data for writers
+     * which stream it separately. In that case the palette of the schematic
+     * must already contain every block state of the schematic.
+     *
+     * @param schematic The schematic
+     * @param data The view to write to
+     * @param blockData Whether to include the block data
+     * @return The view
+     */
+    public DataView addTo(final Schematic schematic, final DataView data, final boolean blockData) {
         final int xMin = schematic.getBlockMin().getX();
         final int yMin = schematic.getBlockMin().getY();
         final int zMin = schematic.getBlockMin().getZ();
@@ -391,22 +463,8 @@ public DataView addTo(final Schematic schematic, final DataView data) {
         data.set(Constants.Sponge.Schematic.OFFSET, offset);
 
         final Palette<BlockState> palette = schematic.getPalette();
-        try (final ByteArrayOutputStream buffer = new ByteArrayOutputStream(width * height * length)) {
-            for (int y = 0; y < height; y++) {
-                final int y0 = yMin + y;
-                for (int z = 0; z < length; z++) {
-                    final int z0 = zMin + z;
-                    for (int x = 0; x < width; x++) {
-                        final int x0 = xMin + x;
-                        final BlockState state = schematic.getBlock(x0, y0, z0);
-                        writeIdToBuffer(buffer, palette.getOrAssign(state));
-                    }
-                }
-            }
-
-            data.set(Constants.Sponge.Schematic.BLOCK_DATA, buffer.toByteArray());
-        } catch (IOException e) {
-            // should never reach here
+        if (blockData) {
+            writeBlockData(schematic, data, palette);
         }
 
         final Palette<BiomeType> biomePalette = schematic.getBiomePalette();
@@ -422,7 +480,7 @@ public DataView addTo(final Schematic schematic, final DataView data) {
 
                 }
 
-                data.set(Constants.Sponge.Schematic.BLOCK_DATA, buffer.toByteArray());
+                data.set(Constants.Sponge.Schematic.BIOME_DATA, buffer.toByteArray());
             } catch (IOException e) {
                 // Should never reach here.
             }
@@ -498,6 +556,32 @@ public DataView addTo(final Schematic schematic, final DataView data) {
         return data;
     }
 
+    private void writeBlockData(final Schematic schematic, final DataView data, final Palette<BlockState> palette) {
+        final int xMin = schematic.getBlockMin().getX();
+        final int yMin = schematic.getBlockMin().getY();
+        final int zMin = schematic.getBlockMin().getZ();
+        final int width = schematic.getBlockSize().getX();
+        final int height = schematic.getBlockSize().getY();
+        final int length = schematic.getBlockSize().getZ();
+        try (final ByteArrayOutputStream buffer = new ByteArrayOutputStream(width * height * length)) {
+            for (int y = 0; y < height; y++) {
+                final int y0 = yMin + y;
+                for (int z = 0; z < length; z++) {
+                    final int z0 = zMin + z;
+                    for (int x = 0; x < width; x++) {
+                        final int x0 = xMin + x;
+                        final BlockState state = schematic.getBlock(x0, y0, z0);
+                        writeIdToBuffer(buffer, palette.getOrAssign(state));
+                    }
+                }
+            }
+
+            data.set(Constants.Sponge.Schematic.BLOCK_DATA, buffer.toByteArray());
+        } catch (IOException e) {
+            // should never reach here
+        }
+    }
+
      private void writeIdToBuffer(final ByteArrayOutputStream buffer, final int orAssign) {
         int id = orAssign;
 
@@ -0,0 +1,281 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence.schematic;
+
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTPrimitive;
+import net.minecraft.nbt.NBTTagByte;
+import net.minecraft.nbt.NBTTagByteArray;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagDouble;
+import net.minecraft.nbt.NBTTagFloat;
+import net.minecraft.nbt.NBTTagInt;
+import net.minecraft.nbt.NBTTagIntArray;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagLong;
+import net.minecraft.nbt.NBTTagLongArray;
+import net.minecraft.nbt.NBTTagShort;
+import net.minecraft.nbt.NBTTagString;
+import org.spongepowered.common.mixin.core.nbt.NBTTagLongArrayAccessor;
+import org.spongepowered.common.util.Constants;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Reads and writes single named NBT tags, so that a root compound can be
+ * processed one entry at a time instead of as a whole tree.
+ */
+final class NbtStreams {
+
+    /**
+     * The same depth limit vanilla applies when reading NBT.
+     */
+    private static final int MAX_DEPTH = 512;
+
+    /**
+     * The size of the chunks large arrays are read and written in.
+     */
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Receives the values of a varint encoded array in order.
+     */
+    interface VarIntConsumer {
+
+        void accept(int index, int value) throws IOException;
+    }
+
+    static NBTBase readTag(final DataInput in, final byte type, final int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("Tried to read NBT tag with too high complexity, depth > " + MAX_DEPTH);
+        }
+        switch (type) {
+            case Constants.NBT.TAG_BYTE:
+                return new NBTTagByte(in.readByte());
+            case Constants.NBT.TAG_SHORT:
+                return new NBTTagShort(in.readShort());
+            case Constants.NBT.TAG_INT:
+                return new NBTTagInt(in.readInt());
+            case Constants.NBT.TAG_LONG:
+                return new NBTTagLong(in.readLong());
+            case Constants.NBT.TAG_FLOAT:
+                return new NBTTagFloat(in.readFloat());
+            case Constants.NBT.TAG_DOUBLE:
+                return new NBTTagDouble(in.readDouble());
+            case Constants.NBT.TAG_BYTE_ARRAY: {
+                final byte[] array = new byte[readLength(in)];
+                in.readFully(array);
+                return new NBTTagByteArray(array);
+            }
+            case Constants.NBT.TAG_STRING:
+                return new NBTTagString(in.readUTF());
+            case Constants.NBT.TAG_LIST: {
+                final byte elementType = in.readByte();
+                final int count = in.readInt();
+                final NBTTagList list = new NBTTagList();
+                if (elementType != Constants.NBT.TAG_END) {
+                    for (int i = 0; i < count; i++) {
+                        list.appendTag(readTag(in, elementType, depth + 1));
+                    }
+                }
+                return list;
+            }
+            case Constants.NBT.TAG_COMPOUND: {
+                final NBTTagCompound compound = new NBTTagCompound();
+                byte entryType;
+                while ((entryType = in.readByte()) != Constants.NBT.TAG_END) {
+                    final String name = in.readUTF();
+                    compound.setTag(name, readTag(in, entryType, depth + 1));
+                }
+                return compound;
+            }
+            case Constants.NBT.TAG_INT_ARRAY: {
+                final int[] array = new int[readLength(in)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = in.readInt();
+                }
+                return new NBTTagIntArray(array);
+            }
+            case Constants.NBT.TAG_LONG_ARRAY: {
+                final long[] array = new long[readLength(in)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = in.readLong();
+                }
+                return new NBTTagLongArray(array);
+            }
+            default:
+                throw new IOException("Unknown NBT type " + type);
+        }
+    }
+
+    static int readLength(final DataInput in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Negative NBT array length " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Decodes a varint encoded byte array of the given length straight from
+     * the stream, without holding more than one chunk of it in memory.
+     *
+     * @return The number of values read
+     */
+    static int readVarInts(final DataInput in, final int length, final VarIntConsumer consumer) throws IOException {
+        final byte[] chunk = new byte[Math.min(length, CHUNK_SIZE)];
+        int index = 0;
+        int value = 0;
+        int shift = 0;
+        int remaining = length;
+        while (remaining > 0) {
+            final int read = Math.min(remaining, chunk.length);
+            in.readFully(chunk, 0, read);
+            remaining -= read;
+            for (int i = 0; i < read; i++) {
+                final byte b = chunk[i];
+                value |= (b & 127) << shift;
+                if ((b & 128) != 0) {
+                    shift += 7;
+                    if (shift >= 35) {
+                        throw new IOException("VarInt too big (probably corrupted data)");
+                    }
+                    continue;
+                }
+                consumer.accept(index++, value);
+                value = 0;
+                shift = 0;
+            }
+        }
+        if (shift != 0) {
+            throw new IOException("Truncated VarInt at the end of the array");
+        }
+        return index;
+    }
+
+    static int getVarIntSize(final int value) {
+        int size = 1;
+        int remaining = value;
+        while ((remaining & -128) != 0) {
+            size++;
+            remaining >>>= 7;
+        }
+        return size;
+    }
+
+    /**
+     * Writes a varint into the chunk at the given position.
+     *
+     * @return The position after the varint
+     */
+    static int writeVarInt(final byte[] chunk, final int position, final int value) {
+        int pos = position;
+        int remaining = value;
+        while ((remaining & -128) != 0) {
+            chunk[pos++] = (byte) (remaining & 127 | 128);
+            remaining >>>= 7;
+        }
+        chunk[pos++] = (byte) remaining;
+        return pos;
+    }
+
+    static void writeNamedTag(final DataOutput out, final String name, final NBTBase tag) throws IOException {
+        out.writeByte(tag.getId());
+        out.writeUTF(name);
+        writeTag(out, tag);
+    }
+
+    static void writeTag(final DataOutput out, final NBTBase tag) throws IOException {
+        switch (tag.getId()) {
+            case Constants.NBT.TAG_BYTE:
+                out.writeByte(((NBTPrimitive) tag).getByte());
+                break;
+            case Constants.NBT.TAG_SHORT:
+                out.writeShort(((NBTPrimitive) tag).getShort());
+                break;
+            case Constants.NBT.TAG_INT:
+                out.writeInt(((NBTPrimitive) tag).getInt());
+                break;
+            case Constants.NBT.TAG_LONG:
+                out.writeLong(((NBTPrimitive) tag).getLong());
+                break;
+            case Constants.NBT.TAG_FLOAT:
+                out.writeFloat(((NBTPrimitive) tag).getFloat());
+                break;
+            case Constants.NBT.TAG_DOUBLE:
+                out.writeDouble(((NBTPrimitive) tag).getDouble());
+                break;
+            case Constants.NBT.TAG_BYTE_ARRAY: {
+                final byte[] array = ((NBTTagByteArray) tag).getByteArray();
+                out.writeInt(array.length);
+                out.write(array);
+                break;
+            }
+            case Constants.NBT.TAG_STRING:
+                out.writeUTF(((NBTTagString) tag).getString());
+                break;
+            case Constants.NBT.TAG_LIST: {
+                final NBTTagList list = (NBTTagList) tag;
+                out.writeByte(list.tagCount() == 0 ? Constants.NBT.TAG_END : list.getTagType());
+                out.writeInt(list.tagCount());
+                for (int i = 0; i < list.tagCount(); i++) {
+                    writeTag(out, list.get(i));
+                }
+                break;
+            }
+            case Constants.NBT.TAG_COMPOUND: {
+                final NBTTagCompound compound = (NBTTagCompound) tag;
+                for (final String key : compound.getKeySet()) {
+                    writeNamedTag(out, key, compound.getTag(key));
+                }
+                out.writeByte(Constants.NBT.TAG_END);
+                break;
+            }
+            case Constants.NBT.TAG_INT_ARRAY: {
+                final int[] array = ((NBTTagIntArray) tag).getIntArray();
+                out.writeInt(array.length);
+                for (final int value : array) {
+                    out.writeInt(value);
+                }
+                break;
+            }
+            case Constants.NBT.TAG_LONG_ARRAY: {
+                final long[] array = ((NBTTagLongArrayAccessor) tag).accessor$getLongArray();
+                out.writeInt(array.length);
+                for (final long value : array) {
+                    out.writeLong(value);
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown NBT type " + tag.getId());
+        }
+    }
+
+    private NbtStreams() {
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence.schematic;
+
+import com.flowpowered.math.vector.Vector3i;
+import net.minecraft.nbt.NBTTagCompound;
+import org.spongepowered.api.data.DataView;
+import org.spongepowered.api.data.persistence.InvalidDataException;
+import org.spongepowered.api.world.schematic.Schematic;
+import org.spongepowered.common.data.persistence.LegacySchematicTranslator;
+import org.spongepowered.common.data.persistence.NbtTranslator;
+import org.spongepowered.common.data.persistence.SchematicTranslator;
+import org.spongepowered.common.util.Constants;
+import org.spongepowered.common.util.gen.ArrayMutableBlockBuffer;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Reads Sponge and legacy schematics from an uncompressed NBT stream, the same
+ * input {@code DataFormats.NBT} accepts, without materializing the block data.
+ *
+ * <p>Everything but the block arrays is read into a regular compound and goes
+ * through the {@link SchematicTranslator} or {@link LegacySchematicTranslator}
+ * as usual. The block arrays are decoded while they are read, straight into
+ * the packed storage the resulting block buffer will use. When the size tags
+ * come after the block data in the stream the ids are decoded in file order
+ * and rearranged once the size is known, which temporarily needs a second
+ * copy of the packed ids.</p>
+ */
+public final class SchematicStreamReader {
+
+    private static final String WIDTH = Constants.Sponge.Schematic.WIDTH.asString('.');
+    private static final String HEIGHT = Constants.Sponge.Schematic.HEIGHT.asString('.');
+    private static final String LENGTH = Constants.Sponge.Schematic.LENGTH.asString('.');
+    private static final String PALETTE_MAX = Constants.Sponge.Schematic.PALETTE_MAX.asString('.');
+    private static final String BLOCK_DATA = Constants.Sponge.Schematic.BLOCK_DATA.asString('.');
+    private static final String MATERIALS = Constants.Sponge.Schematic.Legacy.MATERIALS.asString('.');
+    private static final String LEGACY_BLOCKS = Constants.Sponge.Schematic.Legacy.BLOCKS.asString('.');
+    private static final String LEGACY_DATA = Constants.Sponge.Schematic.Legacy.BLOCK_DATA.asString('.');
+    private static final String LEGACY_ADD_BLOCKS = Constants.Sponge.Schematic.Legacy.ADD_BLOCKS.asString('.');
+
+    /**
+     * The highest id to prepare for when the palette size is not known yet.
+     */
+    private static final int DEFAULT_HIGHEST_ID = 0xFF;
+    /**
+     * The highest id the legacy Blocks and Data arrays can form together.
+     */
+    private static final int LEGACY_HIGHEST_ID = 0xFFF;
+
+    /**
+     * Reads a schematic from the given stream. The stream is not closed.
+     *
+     * @param input The uncompressed NBT input
+     * @return The schematic
+     * @throws IOException If the stream could not be read
+     * @throws InvalidDataException If the data is not a valid schematic
+     */
+    public static Schematic read(final InputStream input) throws IOException, InvalidDataException {
+        final DataInputStream in = input instanceof DataInputStream ? (DataInputStream) input : new DataInputStream(new BufferedInputStream(input));
+        if (in.readByte() != Constants.NBT.TAG_COMPOUND) {
+            throw new InvalidDataException("Schematic data does not start with a compound tag");
+        }
+        in.readUTF();
+        final SchematicStreamReader reader = new SchematicStreamReader();
+        byte type;
+        while ((type = in.readByte()) != Constants.NBT.TAG_END) {
+            final String name = in.readUTF();
+            if (type == Constants.NBT.TAG_BYTE_ARRAY && reader.readBlockArray(in, name)) {
+                continue;
+            }
+            reader.compound.setTag(name, NbtStreams.readTag(in, type, 1));
+        }
+        return reader.translate();
+    }
+
+    private final NBTTagCompound compound = new NBTTagCompound();
+    @Nullable private ArrayMutableBlockBuffer.RawIds ids;
+    /**
+     * Whether the ids were decoded in file order because the size was not
+     * known yet when the block data was read.
+     */
+    private boolean fileOrder;
+    private int highestId;
+    private int blockCount;
+    private boolean legacy;
+
+    private SchematicStreamReader() {
+    }
+
+    private boolean readBlockArray(final DataInputStream in, final String name) throws IOException {
+        if (BLOCK_DATA.equals(name)) {
+            readBlockData(in);
+            return true;
+        }
+        if (LEGACY_BLOCKS.equals(name)) {
+            readLegacyArray(in, (index, value) -> (value & 0xFF) << 4);
+            return true;
+        }
+        if (LEGACY_DATA.equals(name)) {
+            readLegacyArray(in, (index, value) -> value & 0xF);
+            return true;
+        }
+        if (LEGACY_ADD_BLOCKS.equals(name)) {
+            readLegacyAddBlocks(in);
+            return true;
+        }
+        return false;
+    }
+
+    private void readBlockData(final DataInputStream in) throws IOException {
+        final int length = NbtStreams.readLength(in);
+        final int highestId = this.compound.hasKey(PALETTE_MAX, Constants.NBT.TAG_ANY_NUMERIC)
+                ? this.compound.getInteger(PALETTE_MAX) : DEFAULT_HIGHEST_ID;
+        final Vector3i size = getSize();
+        // Every block takes at least one byte, so the array length is an upper bound for the block count
+        final ArrayMutableBlockBuffer.RawIds ids = prepare(size, length, Math.max(highestId, 0));
+        final int area = ids.getArea();
+        final Cursor cursor = this.fileOrder ? null : new Cursor(ids, size);
+        this.blockCount = NbtStreams.readVarInts(in, length, (index, value) -> {
+            if (index >= area) {
+                throw new InvalidDataException(String.format("BlockData contains more than the expected %d blocks", area));
+            }
+            ids.set(cursor == null ? index : cursor.next(), value);
+        });
+    }
+
+    private void readLegacyArray(final DataInputStream in, final ByteMapper mapper) throws IOException {
+        this.legacy = true;
+        final int length = NbtStreams.readLength(in);
+        final ArrayMutableBlockBuffer.RawIds ids = prepare(getSize(), length, LEGACY_HIGHEST_ID);
+        if (this.fileOrder ? length > ids.getArea() : length != ids.getArea()) {
+            throw new InvalidDataException(String.format("Schematic block array has length %d, expected %d", length, ids.getArea()));
+        }
+        this.blockCount = length;
+        final Cursor cursor = this.fileOrder ? null : new Cursor(ids, ids.getSize());
+        final byte[] chunk = new byte[Math.min(length, NbtStreams.CHUNK_SIZE)];
+        int index = 0;
+        while (index < length) {
+            final int read = Math.min(length - index, chunk.length);
+            in.readFully(chunk, 0, read);
+            for (int i = 0; i < read; i++, index++) {
+                final int target = cursor == null ? index : cursor.next();
+                ids.set(target, ids.get(target) | mapper.map(index, chunk[i]));
+            }
+        }
+    }
+
+    /**
+     * AddBlocks holds the upper four bits of the block ids, two per byte with
+     * the even index in the low nibble.
+     */
+    private void readLegacyAddBlocks(final DataInputStream in) throws IOException {
+        this.legacy = true;
+        final int length = NbtStreams.readLength(in);
+        final ArrayMutableBlockBuffer.RawIds ids = prepare(getSize(), length * 2, LEGACY_HIGHEST_ID);
+        final Cursor cursor = this.fileOrder ? null : new Cursor(ids, ids.getSize());
+        final int area = ids.getArea();
+        final byte[] chunk = new byte[Math.min(length, NbtStreams.CHUNK_SIZE)];
+        int index = 0;
+        int remaining = length;
+        while (remaining > 0) {
+            final int read = Math.min(remaining, chunk.length);
+            in.readFully(chunk, 0, read);
+            remaining -= read;
+            for (int i = 0; i < read; i++) {
+                for (int nibble = 0; nibble < 2 && index < area; nibble++, index++) {
+                    final int add = nibble == 0 ? chunk[i] & 0xF : (chunk[i] >> 4) & 0xF;
+                    final int target = cursor == null ? index : cursor.next();
+                    if (add != 0) {
+                        ids.set(target, ids.get(target) | add << 12);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the ids the next block array is decoded into, creating them for
+     * the given size or, if the size is not known yet, in file order for the
+     * given number of entries.
+     */
+    private ArrayMutableBlockBuffer.RawIds prepare(@Nullable final Vector3i size, final int fileOrderArea, final int highestId) {
+        if (this.ids != null) {
+            return this.ids;
+        }
+        this.highestId = highestId;
+        if (size != null) {
+            this.ids = new ArrayMutableBlockBuffer.RawIds(size, highestId);
+        } else {
+            this.ids = new ArrayMutableBlockBuffer.RawIds(new Vector3i(1, fileOrderArea, 1), highestId);
+            this.fileOrder = true;
+        }
+        return this.ids;
+    }
+
+    @Nullable
+    private Vector3i getSize() {
+        if (!this.compound.hasKey(WIDTH, Constants.NBT.TAG_ANY_NUMERIC) || !this.compound.hasKey(HEIGHT, Constants.NBT.TAG_ANY_NUMERIC)
+                || !this.compound.hasKey(LENGTH, Constants.NBT.TAG_ANY_NUMERIC)) {
+            return null;
+        }
+        final int width = this.compound.getShort(WIDTH);
+        final int height = this.compound.getShort(HEIGHT);
+        final int length = this.compound.getShort(LENGTH);
+        if (width < 0 || height < 0 || length < 0 || (long) width * height * length > Integer.MAX_VALUE) {
+            throw new InvalidDataException(String.format("Invalid schematic size (%d, %d, %d)", width, height, length));
+        }
+        return new Vector3i(width, height, length);
+    }
+
+    private Schematic translate() {
+        @Nullable ArrayMutableBlockBuffer.RawIds ids = this.ids;
+        if (ids != null) {
+            final Vector3i size = getSize();
+            if (size == null) {
+                throw new InvalidDataException("Schematic is missing its size");
+            }
+            final int area = size.getX() * size.getY() * size.getZ();
+            if (this.blockCount != area) {
+                throw new InvalidDataException(String.format("Schematic block data contains %d blocks, expected %d", this.blockCount, area));
+            }
+            if (this.fileOrder) {
+                ids = rearrange(ids, size, this.highestId);
+            }
+        }
+        final DataView view = NbtTranslator.getInstance().translateFrom(this.compound);
+        if (this.legacy || "Alpha".equalsIgnoreCase(this.compound.getString(MATERIALS))) {
+            if (ids == null) {
+                throw new InvalidDataException("Legacy schematic is missing its Blocks");
+            }
+            return LegacySchematicTranslator.get().translate(view, ids);
+        }
+        if (ids == null) {
+            throw new InvalidDataException("Missing BlockData for Schematic");
+        }
+        return SchematicTranslator.get().translate(view, ids);
+    }
+
+    private static ArrayMutableBlockBuffer.RawIds rearrange(final ArrayMutableBlockBuffer.RawIds fileOrder, final Vector3i size, final int highestId) {
+        final ArrayMutableBlockBuffer.RawIds ids = new ArrayMutableBlockBuffer.RawIds(size, highestId);
+        final Cursor cursor = new Cursor(ids, size);
+        for (int i = 0; i < ids.getArea(); i++) {
+            ids.set(cursor.next(), fileOrder.get(i));
+        }
+        return ids;
+    }
+
+    private interface ByteMapper {
+
+        int map(int index, byte value);
+    }
+
+    /**
+     * Walks the storage indices of a buffer in schematic order, which is x
+     * first, then z, then y.
+     */
+    private static final class Cursor {
+
+        private final ArrayMutableBlockBuffer.RawIds ids;
+        private final int width;
+        private final int length;
+        private int x;
+        private int y;
+        private int z;
+
+        Cursor(final ArrayMutableBlockBuffer.RawIds ids, final Vector3i size) {
+            this.ids = ids;
+            this.width = size.getX();
+            this.length = size.getZ();
+        }
+
+        int next() {
+            final int index = this.ids.getIndex(this.x, this.y, this.z);
+            if (++this.x == this.width) {
+                this.x = 0;
+                if (++this.z == this.length) {
+                    this.z = 0;
+                    this.y++;
+                }
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence.schematic;
+
+import net.minecraft.nbt.NBTTagCompound;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.data.DataContainer;
+import org.spongepowered.api.data.DataView;
+import org.spongepowered.api.world.schematic.Palette;
+import org.spongepowered.api.world.schematic.Schematic;
+import org.spongepowered.common.data.persistence.NbtTranslator;
+import org.spongepowered.common.data.persistence.SchematicTranslator;
+import org.spongepowered.common.util.Constants;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes schematics in the Sponge format as uncompressed NBT, the same output
+ * {@code DataFormats.NBT} produces, without building the block data in memory.
+ *
+ * <p>The blocks are visited twice, once to assign palette ids and measure the
+ * varint encoded block data and once to write it in chunks. Everything else is
+ * written by the {@link SchematicTranslator} as usual and emitted before the
+ * block data, so that a {@link SchematicStreamReader} knows the size and the
+ * palette by the time it reaches the blocks.</p>
+ */
+public final class SchematicStreamWriter {
+
+    /**
+     * Writes a schematic to the given stream. The stream is flushed but not
+     * closed.
+     *
+     * @param schematic The schematic
+     * @param output The output to write uncompressed NBT to
+     * @throws IOException If the stream could not be written to
+     */
+    public static void write(final Schematic schematic, final OutputStream output) throws IOException {
+        final DataOutputStream out = output instanceof DataOutputStream ? (DataOutputStream) output : new DataOutputStream(output);
+        final Palette<BlockState> palette = schematic.getPalette();
+
+        final long blockDataLength = measureBlockData(schematic, palette);
+        if (blockDataLength > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Schematic block data is too large for an NBT byte array: " + blockDataLength + " bytes");
+        }
+
+        final DataContainer data = DataContainer.createNew(DataView.SafetyMode.NO_DATA_CLONED);
+        SchematicTranslator.get().addTo(schematic, data, false);
+        final NBTTagCompound compound = NbtTranslator.getInstance().translateData(data);
+
+        out.writeByte(Constants.NBT.TAG_COMPOUND);
+        out.writeUTF("");
+        for (final String key : compound.getKeySet()) {
+            NbtStreams.writeNamedTag(out, key, compound.getTag(key));
+        }
+        out.writeByte(Constants.NBT.TAG_BYTE_ARRAY);
+        out.writeUTF(Constants.Sponge.Schematic.BLOCK_DATA.asString('.'));
+        out.writeInt((int) blockDataLength);
+        writeBlockData(schematic, palette, out);
+        out.writeByte(Constants.NBT.TAG_END);
+        out.flush();
+    }
+
+    private static long measureBlockData(final Schematic schematic, final Palette<BlockState> palette) {
+        final int xMin = schematic.getBlockMin().getX();
+        final int yMin = schematic.getBlockMin().getY();
+        final int zMin = schematic.getBlockMin().getZ();
+        final int xMax = schematic.getBlockMax().getX();
+        final int yMax = schematic.getBlockMax().getY();
+        final int zMax = schematic.getBlockMax().getZ();
+        long length = 0;
+        for (int y = yMin; y <= yMax; y++) {
+            for (int z = zMin; z <= zMax; z++) {
+                for (int x = xMin; x <= xMax; x++) {
+                    length += NbtStreams.getVarIntSize(palette.getOrAssign(schematic.getBlock(x, y, z)));
+                }
+            }
+        }
+        return length;
+    }
+
+    private static void writeBlockData(final Schematic schematic, final Palette<BlockState> palette, final DataOutputStream out) throws IOException {
+        final int xMin = schematic.getBlockMin().getX();
+        final int yMin = schematic.getBlockMin().getY();
+        final int zMin = schematic.getBlockMin().getZ();
+        final int xMax = schematic.getBlockMax().getX();
+        final int yMax = schematic.getBlockMax().getY();
+        final int zMax = schematic.getBlockMax().getZ();
+        final byte[] chunk = new byte[NbtStreams.CHUNK_SIZE];
+        // Leave room for the longest possible varint before flushing
+        final int flushAt = chunk.length - 5;
+        int position = 0;
+        for (int y = yMin; y <= yMax; y++) {
+            for (int z = zMin; z <= zMax; z++) {
+                for (int x = xMin; x <= xMax; x++) {
+                    position = NbtStreams.writeVarInt(chunk, position, palette.getOrAssign(schematic.getBlock(x, y, z)));
+                    if (position >= flushAt) {
+                        out.write(chunk, 0, position);
+                        position = 0;
+                    }
+                }
+            }
+        }
+        out.write(chunk, 0, position);
+    }
+
+    private SchematicStreamWriter() {
+    }
+}
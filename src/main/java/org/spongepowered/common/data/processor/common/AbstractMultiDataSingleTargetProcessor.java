@@ -34,7 +34,9 @@
 import org.spongepowered.api.data.merge.MergeFunction;
 import org.spongepowered.api.data.value.BaseValue;
 import org.spongepowered.api.data.value.immutable.ImmutableValue;
+import org.spongepowered.api.util.Tristate;
 import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.data.util.DataUtil;
 
 import java.util.IdentityHashMap;
 import java.util.Map;
@@ -44,9 +46,11 @@
 public abstract class AbstractMultiDataSingleTargetProcessor<Holder, T extends DataManipulator<T, I>, I extends ImmutableDataManipulator<I, T>> extends AbstractMultiDataProcessor<T, I> {
 
     protected final Class<Holder> holderClass;
+    private final boolean customSupportCheck;
 
     public AbstractMultiDataSingleTargetProcessor(Class<Holder> holderClass) {
         this.holderClass = checkNotNull(holderClass);
+        this.customSupportCheck = DataUtil.hasCustomSupportCheck(this.getClass(), AbstractMultiDataSingleTargetProcessor.class);
     }
 
     @SuppressWarnings("unchecked")
@@ -55,6 +59,14 @@ public boolean supports(DataHolder dataHolder) {
         return this.holderClass.isInstance(dataHolder) && supports((Holder) dataHolder);
     }
 
+    @Override
+    public Tristate supportsHolderClass(Class<?> holderClass) {
+        if (!this.holderClass.isAssignableFrom(holderClass)) {
+            return Tristate.FALSE;
+        }
+        return this.customSupportCheck ? Tristate.UNDEFINED : Tristate.TRUE;
+    }
+
     protected boolean supports(Holder dataHolder) {
         return true;
     }
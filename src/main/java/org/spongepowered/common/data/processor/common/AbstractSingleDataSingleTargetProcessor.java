@@ -38,6 +38,7 @@
 import org.spongepowered.api.data.value.immutable.ImmutableValue;
 import org.spongepowered.api.data.value.mutable.Value;
 import org.spongepowered.api.entity.EntityType;
+import org.spongepowered.api.util.Tristate;
 import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.data.ValueProcessor;
 import org.spongepowered.common.data.util.DataUtil;
@@ -48,10 +49,12 @@
         extends AbstractSingleDataProcessor<T, V, M, I> implements ValueProcessor<T, V> {
 
     protected final Class<Holder> holderClass;
+    private final boolean customSupportCheck;
 
     protected AbstractSingleDataSingleTargetProcessor(Key<V> key, Class<Holder> holderClass) {
         super(key);
         this.holderClass = checkNotNull(holderClass);
+        this.customSupportCheck = DataUtil.hasCustomSupportCheck(this.getClass(), AbstractSingleDataSingleTargetProcessor.class);
     }
 
     protected boolean supports(Holder dataHolder) {
@@ -75,6 +78,14 @@ public boolean supports(EntityType entityType) {
         return this.holderClass.isAssignableFrom(entityType.getEntityClass());
     }
 
+    @Override
+    public Tristate supportsHolderClass(Class<?> holderClass) {
+        if (!this.holderClass.isAssignableFrom(holderClass)) {
+            return Tristate.FALSE;
+        }
+        return this.customSupportCheck ? Tristate.UNDEFINED : Tristate.TRUE;
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     @Override
     public DataTransactionResult set(DataHolder dataHolder, M manipulator, MergeFunction function) {
@@ -36,23 +36,62 @@
 import org.spongepowered.api.data.merge.MergeFunction;
 import org.spongepowered.api.data.value.BaseValue;
 import org.spongepowered.api.entity.EntityType;
+import org.spongepowered.api.util.Tristate;
 import org.spongepowered.api.util.Tuple;
 import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.SpongeImplHooks;
 import org.spongepowered.common.data.DataProcessor;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
 
 public final class DataProcessorDelegate<M extends DataManipulator<M, I>, I extends ImmutableDataManipulator<I, M>> implements DataProcessor<M, I> {
 
     private final ImmutableList<Tuple<DataProcessor<M, I>, Timing>> processors;
+    // The processors applicable to each holder class. A new delegate is
+    // baked whenever processors are registered, so this never goes stale.
+    private final ConcurrentHashMap<Class<?>, Candidate<M, I>[]> candidates = new ConcurrentHashMap<>();
+    // Checking a lone processor directly is cheaper than the class lookup
+    @Nullable private final Candidate<M, I>[] singleCandidate;
 
+    @SuppressWarnings("unchecked")
     public DataProcessorDelegate(final ImmutableList<DataProcessor<M, I>> processors) {
         final ImmutableList.Builder<Tuple<DataProcessor<M, I>, Timing>> builder = ImmutableList.builder();
         for (final DataProcessor<M, I> processor : processors) {
             builder.add(new Tuple<>(processor, SpongeTimingsFactory.ofSafe(SpongeImpl.getPlugin(), processor.getClass().getCanonicalName())));
         }
         this.processors = builder.build();
+        if (this.processors.size() == 1) {
+            final Tuple<DataProcessor<M, I>, Timing> tuple = this.processors.get(0);
+            this.singleCandidate = new Candidate[] {new Candidate<>(tuple.getFirst(), tuple.getSecond(), true)};
+        } else {
+            this.singleCandidate = null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Candidate<M, I>[] getCandidates(final DataHolder dataHolder) {
+        if (this.singleCandidate != null) {
+            return this.singleCandidate;
+        }
+        final Candidate<M, I>[] cached = this.candidates.get(dataHolder.getClass());
+        if (cached != null) {
+            return cached;
+        }
+        return this.candidates.computeIfAbsent(dataHolder.getClass(), holderClass -> {
+            final List<Candidate<M, I>> list = new ArrayList<>(this.processors.size());
+            for (final Tuple<DataProcessor<M, I>, Timing> tuple : this.processors) {
+                final Tristate support = tuple.getFirst().supportsHolderClass(holderClass);
+                if (support != Tristate.FALSE) {
+                    list.add(new Candidate<>(tuple.getFirst(), tuple.getSecond(), support == Tristate.UNDEFINED));
+                }
+            }
+            return list.toArray(new Candidate[0]);
+        });
     }
 
     @Override
@@ -64,18 +103,18 @@ public int getPriority() {
     public boolean supports(final DataHolder dataHolder) {
         final boolean callingFromMinecraftThread = SpongeImplHooks.isMainThread();
 
-        for (final Tuple<DataProcessor<M, I>, Timing> tuple : this.processors) {
+        for (final Candidate<M, I> candidate : getCandidates(dataHolder)) {
             if (callingFromMinecraftThread) {
-                tuple.getSecond().startTiming();
+                candidate.timing.startTiming();
             }
-            if (tuple.getFirst().supports(dataHolder)) {
+            if (candidate.supports(dataHolder)) {
                 if (callingFromMinecraftThread) {
-                    tuple.getSecond().stopTiming();
+                    candidate.timing.stopTiming();
                 }
                 return true;
             }
             if (callingFromMinecraftThread) {
-                tuple.getSecond().stopTiming();
+                candidate.timing.stopTiming();
             }
         }
         return false;
@@ -102,14 +141,14 @@ public boolean supports(final EntityType entityType) {
     public Optional<M> from(final DataHolder dataHolder) {
         final boolean callingFromMinecraftThread = SpongeImplHooks.isMainThread();
 
-        for (final Tuple<DataProcessor<M, I>, Timing> tuple : this.processors) {
+        for (final Candidate<M, I> candidate : getCandidates(dataHolder)) {
             if (callingFromMinecraftThread) {
-                tuple.getSecond().startTiming();
+                candidate.timing.startTiming();
             }
-            if (tuple.getFirst().supports(dataHolder)) {
-                final Optional<M> optional = tuple.getFirst().from(dataHolder);
+            if (candidate.supports(dataHolder)) {
+                final Optional<M> optional = candidate.processor.from(dataHolder);
                 if (callingFromMinecraftThread) {
-                    tuple.getSecond().stopTiming();
+                    candidate.timing.stopTiming();
                 }
                 if (optional.isPresent()) {
                     return optional;
@@ -117,7 +156,7 @@ public Optional<M> from(final DataHolder dataHolder) {
             }
 
             if (callingFromMinecraftThread) {
-                tuple.getSecond().stopTiming();
+                candidate.timing.stopTiming();
             }
         }
         return Optional.empty();
@@ -127,21 +166,21 @@ public Optional<M> from(final DataHolder dataHolder) {
     public Optional<M> fill(final DataHolder dataHolder, final M manipulator, final MergeFunction overlap) {
         final boolean callingFromMinecraftThread = SpongeImplHooks.isMainThread();
 
-        for (final Tuple<DataProcessor<M, I>, Timing> tuple : this.processors) {
+        for (final Candidate<M, I> candidate : getCandidates(dataHolder)) {
             if (callingFromMinecraftThread) {
-                tuple.getSecond().startTiming();
+                candidate.timing.startTiming();
             }
-            if (tuple.getFirst().supports(dataHolder)) {
-                final Optional<M> optional = tuple.getFirst().fill(dataHolder, manipulator, overlap);
+            if (candidate.supports(dataHolder)) {
+                final Optional<M> optional = candidate.processor.fill(dataHolder, manipulator, overlap);
                 if (callingFromMinecraftThread) {
-                    tuple.getSecond().stopTiming();
+                    candidate.timing.stopTiming();
                 }
                 if (optional.isPresent()) {
                     return optional;
                 }
             }
             if (callingFromMinecraftThread) {
-                tuple.getSecond().stopTiming();
+                candidate.timing.stopTiming();
             }
 
         }
@@ -171,21 +210,21 @@ public Optional<M> fill(final DataContainer container, final M m) {
     public DataTransactionResult set(final DataHolder dataHolder, final M manipulator, final MergeFunction function) {
         final boolean callingFromMinecraftThread = SpongeImplHooks.isMainThread();
 
-        for (final Tuple<DataProcessor<M, I>, Timing> tuple : this.processors) {
+        for (final Candidate<M, I> candidate : getCandidates(dataHolder)) {
             if (callingFromMinecraftThread) {
-                tuple.getSecond().startTiming();
+                candidate.timing.startTiming();
             }
-            if (tuple.getFirst().supports(dataHolder)) {
-                final DataTransactionResult result = tuple.getFirst().set(dataHolder, manipulator, function);
+            if (candidate.supports(dataHolder)) {
+                final DataTransactionResult result = candidate.processor.set(dataHolder, manipulator, function);
                 if (!result.getType().equals(DataTransactionResult.Type.FAILURE)) {
                     if (callingFromMinecraftThread) {
-                        tuple.getSecond().stopTiming();
+                        candidate.timing.stopTiming();
                     }
                     return result;
                 }
             }
             if (callingFromMinecraftThread) {
-                tuple.getSecond().stopTiming();
+                candidate.timing.stopTiming();
             }
         }
         return DataTransactionResult.failResult(manipulator.asImmutable().getValues());
@@ -215,21 +254,21 @@ public Optional<I> with(final Key<? extends BaseValue<?>> key, final Object valu
     public DataTransactionResult remove(final DataHolder dataHolder) {
         final boolean callingFromMinecraftThread = SpongeImplHooks.isMainThread();
 
-        for (final Tuple<DataProcessor<M, I>, Timing> tuple : this.processors) {
+        for (final Candidate<M, I> candidate : getCandidates(dataHolder)) {
             if (callingFromMinecraftThread) {
-                tuple.getSecond().startTiming();
+                candidate.timing.startTiming();
             }
-            if (tuple.getFirst().supports(dataHolder)) {
-                final DataTransactionResult result = tuple.getFirst().remove(dataHolder);
+            if (candidate.supports(dataHolder)) {
+                final DataTransactionResult result = candidate.processor.remove(dataHolder);
                 if (callingFromMinecraftThread) {
-                    tuple.getSecond().stopTiming();
+                    candidate.timing.stopTiming();
                 }
                 if (!result.getType().equals(DataTransactionResult.Type.FAILURE)) {
                     return result;
                 }
             }
             if (callingFromMinecraftThread) {
-                tuple.getSecond().stopTiming();
+                candidate.timing.stopTiming();
             }
 
         }
@@ -240,24 +279,41 @@ public DataTransactionResult remove(final DataHolder dataHolder) {
     public Optional<M> createFrom(final DataHolder dataHolder) {
         final boolean callingFromMinecraftThread = SpongeImplHooks.isMainThread();
 
-        for (final Tuple<DataProcessor<M, I>, Timing> tuple : this.processors) {
+        for (final Candidate<M, I> candidate : getCandidates(dataHolder)) {
             if (callingFromMinecraftThread) {
-                tuple.getSecond().startTiming();
+                candidate.timing.startTiming();
             }
-            if (tuple.getFirst().supports(dataHolder)) {
-                final Optional<M> optional = tuple.getFirst().createFrom(dataHolder);
+            if (candidate.supports(dataHolder)) {
+                final Optional<M> optional = candidate.processor.createFrom(dataHolder);
                 if (callingFromMinecraftThread) {
-                    tuple.getSecond().stopTiming();
+                    candidate.timing.stopTiming();
                 }
                 if (optional.isPresent()) {
                     return optional;
                 }
             }
             if (callingFromMinecraftThread) {
-                tuple.getSecond().stopTiming();
+                candidate.timing.stopTiming();
             }
         }
         return Optional.empty();
     }
 
+    private static final class Candidate<M extends DataManipulator<M, I>, I extends ImmutableDataManipulator<I, M>> {
+
+        private final DataProcessor<M, I> processor;
+        private final Timing timing;
+        private final boolean checkHolder;
+
+        Candidate(final DataProcessor<M, I> processor, final Timing timing, final boolean checkHolder) {
+            this.processor = processor;
+            this.timing = timing;
+            this.checkHolder = checkHolder;
+        }
+
+        boolean supports(final DataHolder dataHolder) {
+            return !this.checkHolder || this.processor.supports(dataHolder);
+        }
+    }
+
 }
@@ -54,6 +54,7 @@
 import org.spongepowered.api.data.persistence.DataTranslator;
 import org.spongepowered.api.data.persistence.InvalidDataException;
 import org.spongepowered.api.data.value.BaseValue;
+import org.spongepowered.api.entity.EntityType;
 import org.spongepowered.api.text.Text;
 import org.spongepowered.api.text.serializer.TextSerializers;
 import org.spongepowered.api.util.TypeTokens;
@@ -80,6 +81,7 @@
 import org.spongepowered.common.util.Constants;
 import org.spongepowered.common.util.TypeTokenHelper;
 
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -635,4 +637,29 @@ public static void writeCustomData(final NBTTagCompound compound, final DataHold
         }
     }
 
+    /**
+     * Checks whether the given processor class, or any class between it and
+     * the provided base class, declares its own {@code supports} check. If
+     * none does, the processor's support is fully determined by the holder
+     * class it was constructed with.
+     *
+     * @param processorClass The processor class
+     * @param baseClass The base class declaring the holder class check
+     * @return True if a custom support check is declared
+     */
+    public static boolean hasCustomSupportCheck(final Class<?> processorClass, final Class<?> baseClass) {
+        for (Class<?> type = processorClass; type != null && type != baseClass; type = type.getSuperclass()) {
+            for (final Method method : type.getDeclaredMethods()) {
+                if (!"supports".equals(method.getName()) || method.getParameterCount() != 1) {
+                    continue;
+                }
+                final Class<?> parameter = method.getParameterTypes()[0];
+                if (parameter != EntityType.class) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
 }
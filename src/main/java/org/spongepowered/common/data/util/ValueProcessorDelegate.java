@@ -31,9 +31,15 @@
 import org.spongepowered.api.data.value.ValueContainer;
 import org.spongepowered.api.data.value.immutable.ImmutableValue;
 import org.spongepowered.api.data.value.mutable.Value;
+import org.spongepowered.api.util.Tristate;
 import org.spongepowered.common.data.ValueProcessor;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
 
 /**
  * This is really just a lazy class to handle processing on multiple
@@ -46,10 +52,39 @@
 
     private final Key<V> key;
     private final ImmutableList<ValueProcessor<E, V>> processors;
+    // The processors applicable to each container class. A new delegate is
+    // baked whenever processors are registered, so this never goes stale.
+    private final ConcurrentHashMap<Class<?>, Candidate<E, V>[]> candidates = new ConcurrentHashMap<>();
+    // Most keys only have a single processor, checking it directly is
+    // cheaper than the class lookup
+    @Nullable private final Candidate<E, V>[] singleCandidate;
 
+    @SuppressWarnings("unchecked")
     public ValueProcessorDelegate(Key<V> key, ImmutableList<ValueProcessor<E, V>> processors) {
         this.key = key;
         this.processors = processors;
+        this.singleCandidate = processors.size() == 1 ? new Candidate[] {new Candidate<>(processors.get(0), true)} : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Candidate<E, V>[] getCandidates(ValueContainer<?> container) {
+        if (this.singleCandidate != null) {
+            return this.singleCandidate;
+        }
+        final Candidate<E, V>[] cached = this.candidates.get(container.getClass());
+        if (cached != null) {
+            return cached;
+        }
+        return this.candidates.computeIfAbsent(container.getClass(), containerClass -> {
+            final List<Candidate<E, V>> list = new ArrayList<>(this.processors.size());
+            for (ValueProcessor<E, V> processor : this.processors) {
+                final Tristate support = processor.supportsHolderClass(containerClass);
+                if (support != Tristate.FALSE) {
+                    list.add(new Candidate<>(processor, support == Tristate.UNDEFINED));
+                }
+            }
+            return list.toArray(new Candidate[0]);
+        });
     }
 
     @Override
@@ -64,8 +99,9 @@ public int getPriority() {
 
     @Override
     public Optional<E> getValueFromContainer(ValueContainer<?> container) {
-        for (ValueProcessor<E, V> processor : this.processors) {
-            if (processor.supports(container)) {
+        for (Candidate<E, V> candidate : getCandidates(container)) {
+            final ValueProcessor<E, V> processor = candidate.processor;
+            if (candidate.supports(container)) {
                 final Optional<E> optional = processor.getValueFromContainer(container);
                 if (optional.isPresent()) {
                     return optional;
@@ -77,8 +113,9 @@ public Optional<E> getValueFromContainer(ValueContainer<?> container) {
 
     @Override
     public Optional<V> getApiValueFromContainer(ValueContainer<?> container) {
-        for (ValueProcessor<E, V> processor : this.processors) {
-            if (processor.supports(container)) {
+        for (Candidate<E, V> candidate : getCandidates(container)) {
+            final ValueProcessor<E, V> processor = candidate.processor;
+            if (candidate.supports(container)) {
                 final Optional<V> optional = processor.getApiValueFromContainer(container);
                 if (optional.isPresent()) {
                     return optional;
@@ -90,8 +127,8 @@ public Optional<V> getApiValueFromContainer(ValueContainer<?> container) {
 
     @Override
     public boolean supports(ValueContainer<?> container) {
-        for (ValueProcessor<E, V> processor : this.processors) {
-            if (processor.supports(container)) {
+        for (Candidate<E, V> candidate : getCandidates(container)) {
+            if (candidate.supports(container)) {
                 return true;
             }
         }
@@ -101,16 +138,18 @@ public boolean supports(ValueContainer<?> container) {
     @SuppressWarnings("unchecked")
     @Override
     public DataTransactionResult offerToStore(ValueContainer<?> container, E value) {
-        for (ValueProcessor<E, V> processor : this.processors) {
-            if (processor.supports(container)) {
+        for (Candidate<E, V> candidate : getCandidates(container)) {
+            final ValueProcessor<E, V> processor = candidate.processor;
+            if (candidate.supports(container)) {
                 final DataTransactionResult result = processor.offerToStore(container, value);
                 if (!result.getType().equals(DataTransactionResult.Type.FAILURE)) {
                     return result;
                 }
             }
         }
-        for (ValueProcessor<E, V> processor : this.processors) {
-            if (processor.supports(container)) {
+        for (Candidate<E, V> candidate : getCandidates(container)) {
+            final ValueProcessor<E, V> processor = candidate.processor;
+            if (candidate.supports(container)) {
                 final Optional<V> currentValueOptional = processor.getApiValueFromContainer(container);
                 if (currentValueOptional.isPresent()) {
                     V currentValue = currentValueOptional.get();
@@ -132,8 +171,9 @@ public DataTransactionResult offerToStore(ValueContainer<?> container, E value)
 
     @Override
     public DataTransactionResult removeFrom(ValueContainer<?> container) {
-        for (ValueProcessor<E, V> processor : this.processors) {
-            if (processor.supports(container)) {
+        for (Candidate<E, V> candidate : getCandidates(container)) {
+            final ValueProcessor<E, V> processor = candidate.processor;
+            if (candidate.supports(container)) {
                 final DataTransactionResult result = processor.removeFrom(container);
                 if (!result.getType().equals(DataTransactionResult.Type.FAILURE)) {
                     return result;
@@ -142,4 +182,19 @@ public DataTransactionResult removeFrom(ValueContainer<?> container) {
         }
         return DataTransactionResult.failNoData();
     }
+
+    private static final class Candidate<E, V extends BaseValue<E>> {
+
+        private final ValueProcessor<E, V> processor;
+        private final boolean checkContainer;
+
+        Candidate(ValueProcessor<E, V> processor, boolean checkContainer) {
+            this.processor = processor;
+            this.checkContainer = checkContainer;
+        }
+
+        boolean supports(ValueContainer<?> container) {
+            return !this.checkContainer || this.processor.supports(container);
+        }
+    }
 }
@@ -0,0 +1,332 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.entity;
+
+import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.shorts.Short2LongMap;
+import it.unimi.dsi.fastutil.shorts.Short2LongOpenHashMap;
+import net.minecraft.util.math.BlockPos;
+import org.spongepowered.common.util.Constants;
+
+import java.util.Arrays;
+
+/**
+ * Stores the owner and notifier of the tracked block positions of a chunk.
+ *
+ * <p>Positions are keyed by their {@link Constants.Sponge#blockPosToShort(BlockPos) short}
+ * form when they fit in it and by their {@link Constants.Sponge#blockPosToInt(BlockPos) int}
+ * form otherwise, and both indexes of a position are packed into a single
+ * long, so tracking a block costs no more than a few bytes in a primitive
+ * open addressing table.</p>
+ *
+ * <p>Positions can also be held in a compact form, a plain array of
+ * position and indexes per 16x16x16 section, which is what chunks are
+ * loaded into. A section is only inflated into the lookup tables the first
+ * time one of its positions is queried or changed, and can be
+ * {@link #compact() compacted} again once the chunk is no longer used.</p>
+ */
+public final class PlayerTrackerMap {
+
+    /**
+     * The packed value of a position that has neither an owner nor a
+     * notifier, returned for untracked positions.
+     */
+    public static final long UNTRACKED = pack(-1, -1);
+
+    private static final int SECTIONS = 16;
+    // A position followed by its packed indexes
+    private static final int SHORT_ENTRY_LENGTH = 5;
+    private static final int INT_ENTRY_LENGTH = 6;
+    private static final int INITIAL_COMPACT_LENGTH = 8 * SHORT_ENTRY_LENGTH;
+
+    private final Short2LongOpenHashMap shortPositions = new Short2LongOpenHashMap();
+    private final Int2LongOpenHashMap intPositions = new Int2LongOpenHashMap();
+    // Compacted positions of each section, and of the int positions at the last index
+    private final short[][] compactSections = new short[SECTIONS + 1][];
+    private final int[] compactLengths = new int[SECTIONS + 1];
+    private int compactSize;
+
+    public PlayerTrackerMap() {
+        this.shortPositions.defaultReturnValue(UNTRACKED);
+        this.intPositions.defaultReturnValue(UNTRACKED);
+    }
+
+    public static long pack(final int ownerIndex, final int notifierIndex) {
+        return ((long) ownerIndex << 32) | (notifierIndex & 0xFFFFFFFFL);
+    }
+
+    public static int getOwnerIndex(final long tracker) {
+        return (int) (tracker >> 32);
+    }
+
+    public static int getNotifierIndex(final long tracker) {
+        return (int) tracker;
+    }
+
+    public int size() {
+        return this.shortPositions.size() + this.intPositions.size() + this.compactSize;
+    }
+
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /**
+     * Gets the packed owner and notifier indexes of a position.
+     *
+     * @param pos The block position
+     * @return The packed indexes, or {@link #UNTRACKED}
+     */
+    public long get(final BlockPos pos) {
+        this.inflate(SECTIONS);
+        final int intKey = Constants.Sponge.blockPosToInt(pos);
+        if (this.intPositions.containsKey(intKey)) {
+            return this.intPositions.get(intKey);
+        }
+        final short shortKey = Constants.Sponge.blockPosToShort(pos);
+        this.inflate(getSection(shortKey));
+        return this.shortPositions.get(shortKey);
+    }
+
+    /**
+     * Tracks a user for a position. Setting the owner of an already tracked
+     * position also makes it the notifier.
+     *
+     * @param pos The block position
+     * @param index The unique id index of the user
+     * @param type The kind of tracking
+     */
+    public void track(final BlockPos pos, final int index, final PlayerTracker.Type type) {
+        if (pos.getY() <= 255) {
+            final short key = Constants.Sponge.blockPosToShort(pos);
+            this.inflate(getSection(key));
+            this.shortPositions.put(key, this.getTracked(this.shortPositions.containsKey(key), this.shortPositions.get(key), index, type));
+        } else {
+            final int key = Constants.Sponge.blockPosToInt(pos);
+            this.inflate(SECTIONS);
+            this.intPositions.put(key, this.getTracked(this.intPositions.containsKey(key), this.intPositions.get(key), index, type));
+        }
+    }
+
+    private long getTracked(final boolean present, final long tracker, final int index, final PlayerTracker.Type type) {
+        if (type == PlayerTracker.Type.NOTIFIER) {
+            return pack(getOwnerIndex(tracker), index);
+        }
+        return pack(index, present ? index : -1);
+    }
+
+    public void setOwner(final BlockPos pos, final int ownerIndex) {
+        if (pos.getY() <= 255) {
+            final short key = Constants.Sponge.blockPosToShort(pos);
+            this.inflate(getSection(key));
+            this.shortPositions.put(key, pack(ownerIndex, getNotifierIndex(this.shortPositions.get(key))));
+        } else {
+            final int key = Constants.Sponge.blockPosToInt(pos);
+            this.inflate(SECTIONS);
+            this.intPositions.put(key, pack(ownerIndex, getNotifierIndex(this.intPositions.get(key))));
+        }
+    }
+
+    public void setNotifier(final BlockPos pos, final int notifierIndex) {
+        if (pos.getY() <= 255) {
+            final short key = Constants.Sponge.blockPosToShort(pos);
+            this.inflate(getSection(key));
+            this.shortPositions.put(key, pack(getOwnerIndex(this.shortPositions.get(key)), notifierIndex));
+        } else {
+            final int key = Constants.Sponge.blockPosToInt(pos);
+            this.inflate(SECTIONS);
+            this.intPositions.put(key, pack(getOwnerIndex(this.intPositions.get(key)), notifierIndex));
+        }
+    }
+
+    public void remove(final BlockPos pos) {
+        this.inflate(SECTIONS);
+        final int intKey = Constants.Sponge.blockPosToInt(pos);
+        if (this.intPositions.containsKey(intKey)) {
+            this.intPositions.remove(intKey);
+        } else {
+            final short shortKey = Constants.Sponge.blockPosToShort(pos);
+            this.inflate(getSection(shortKey));
+            this.shortPositions.remove(shortKey);
+        }
+    }
+
+    /**
+     * Adds a position in its short form to the compacted positions, used
+     * when loading positions that are not known to be tracked yet.
+     *
+     * @param pos The short position
+     * @param tracker The packed indexes
+     */
+    public void putShort(final short pos, final long tracker) {
+        final int section = getSection(pos);
+        final short[] compact = this.ensureCompactCapacity(section, SHORT_ENTRY_LENGTH);
+        final int length = this.compactLengths[section];
+        compact[length] = pos;
+        writeLong(compact, length + 1, tracker);
+        this.compactLengths[section] = length + SHORT_ENTRY_LENGTH;
+        this.compactSize++;
+    }
+
+    /**
+     * Adds a position in its int form to the compacted positions, used when
+     * loading positions that are not known to be tracked yet.
+     *
+     * @param pos The int position
+     * @param tracker The packed indexes
+     */
+    public void putInt(final int pos, final long tracker) {
+        final short[] compact = this.ensureCompactCapacity(SECTIONS, INT_ENTRY_LENGTH);
+        final int length = this.compactLengths[SECTIONS];
+        compact[length] = (short) (pos >>> 16);
+        compact[length + 1] = (short) pos;
+        writeLong(compact, length + 2, tracker);
+        this.compactLengths[SECTIONS] = length + INT_ENTRY_LENGTH;
+        this.compactSize++;
+    }
+
+    /**
+     * Inflates every section, as if all of them had been accessed.
+     */
+    public void inflateAll() {
+        for (int section = 0; section <= SECTIONS; section++) {
+            this.inflate(section);
+        }
+    }
+
+    /**
+     * Moves all inflated positions back into their compact form, releasing
+     * the lookup tables.
+     */
+    public void compact() {
+        for (final Short2LongMap.Entry entry : this.shortPositions.short2LongEntrySet()) {
+            this.putShort(entry.getShortKey(), entry.getLongValue());
+        }
+        for (final Int2LongMap.Entry entry : this.intPositions.int2LongEntrySet()) {
+            this.putInt(entry.getIntKey(), entry.getLongValue());
+        }
+        this.shortPositions.clear();
+        this.shortPositions.trim();
+        this.intPositions.clear();
+        this.intPositions.trim();
+        for (int section = 0; section <= SECTIONS; section++) {
+            final short[] compact = this.compactSections[section];
+            if (compact != null && compact.length != this.compactLengths[section]) {
+                this.compactSections[section] = Arrays.copyOf(compact, this.compactLengths[section]);
+            }
+        }
+    }
+
+    /**
+     * Visits all positions in their short form, without inflating them.
+     *
+     * @param consumer The consumer of the positions and their packed indexes
+     */
+    public void forEachShortPosition(final EntryConsumer consumer) {
+        for (final Short2LongMap.Entry entry : this.shortPositions.short2LongEntrySet()) {
+            consumer.accept(entry.getShortKey(), entry.getLongValue());
+        }
+        for (int section = 0; section < SECTIONS; section++) {
+            final short[] compact = this.compactSections[section];
+            for (int i = 0; i < this.compactLengths[section]; i += SHORT_ENTRY_LENGTH) {
+                consumer.accept(compact[i], readLong(compact, i + 1));
+            }
+        }
+    }
+
+    /**
+     * Visits all positions in their int form, without inflating them.
+     *
+     * @param consumer The consumer of the positions and their packed indexes
+     */
+    public void forEachIntPosition(final EntryConsumer consumer) {
+        for (final Int2LongMap.Entry entry : this.intPositions.int2LongEntrySet()) {
+            consumer.accept(entry.getIntKey(), entry.getLongValue());
+        }
+        final short[] compact = this.compactSections[SECTIONS];
+        for (int i = 0; i < this.compactLengths[SECTIONS]; i += INT_ENTRY_LENGTH) {
+            consumer.accept(compact[i] << 16 | compact[i + 1] & 0xFFFF, readLong(compact, i + 2));
+        }
+    }
+
+    private void inflate(final int section) {
+        final short[] compact = this.compactSections[section];
+        if (compact == null) {
+            return;
+        }
+        final int length = this.compactLengths[section];
+        if (section == SECTIONS) {
+            for (int i = 0; i < length; i += INT_ENTRY_LENGTH) {
+                this.intPositions.put(compact[i] << 16 | compact[i + 1] & 0xFFFF, readLong(compact, i + 2));
+            }
+            this.compactSize -= length / INT_ENTRY_LENGTH;
+        } else {
+            for (int i = 0; i < length; i += SHORT_ENTRY_LENGTH) {
+                this.shortPositions.put(compact[i], readLong(compact, i + 1));
+            }
+            this.compactSize -= length / SHORT_ENTRY_LENGTH;
+        }
+        this.compactSections[section] = null;
+        this.compactLengths[section] = 0;
+    }
+
+    private short[] ensureCompactCapacity(final int section, final int entryLength) {
+        short[] compact = this.compactSections[section];
+        final int required = this.compactLengths[section] + entryLength;
+        if (compact == null) {
+            compact = new short[Math.max(INITIAL_COMPACT_LENGTH, required)];
+            this.compactSections[section] = compact;
+        } else if (compact.length < required) {
+            compact = Arrays.copyOf(compact, Math.max(compact.length * 2, required));
+            this.compactSections[section] = compact;
+        }
+        return compact;
+    }
+
+    private static int getSection(final short pos) {
+        return (pos >> 8) & 0xF;
+    }
+
+    private static void writeLong(final short[] array, final int index, final long value) {
+        array[index] = (short) (value >>> 48);
+        array[index + 1] = (short) (value >>> 32);
+        array[index + 2] = (short) (value >>> 16);
+        array[index + 3] = (short) value;
+    }
+
+    private static long readLong(final short[] array, final int index) {
+        return (array[index] & 0xFFFFL) << 48
+               | (array[index + 1] & 0xFFFFL) << 32
+               | (array[index + 2] & 0xFFFFL) << 16
+               | array[index + 3] & 0xFFFFL;
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        void accept(int pos, long tracker);
+    }
+}
@@ -59,6 +59,7 @@
 import org.spongepowered.common.data.util.DataUtil;
 import org.spongepowered.common.item.inventory.util.ItemStackUtil;
 import org.spongepowered.common.mixin.core.world.storage.SaveHandlerAccessor;
+import org.spongepowered.common.service.user.SpongeUserStorageService;
 import org.spongepowered.common.util.Constants;
 import org.spongepowered.common.world.WorldManager;
 
@@ -621,6 +622,7 @@ public void save() {
         try (final FileOutputStream out = new FileOutputStream(dataFile)) {
             CompressedStreamTools.writeCompressed(tag, out);
             dirtyUsers.remove(this);
+            SpongeUserStorageService.onUserDataSaved((org.spongepowered.api.profile.GameProfile) this.profile);
         } catch (IOException e) {
             SpongeImpl.getLogger().warn("Failed to save user file [{}]!", dataFile, e);
         }
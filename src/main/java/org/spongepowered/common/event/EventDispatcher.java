@@ -0,0 +1,198 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.event;
+
+import co.aikar.timings.Timing;
+import org.apache.logging.log4j.Logger;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.event.Cancellable;
+import org.spongepowered.api.event.CauseStackManager;
+import org.spongepowered.api.event.Event;
+import org.spongepowered.api.event.impl.AbstractEvent;
+import org.spongepowered.api.plugin.PluginContainer;
+import org.spongepowered.common.event.tracking.PhaseContext;
+import org.spongepowered.common.event.tracking.PhaseTracker;
+import org.spongepowered.common.event.tracking.phase.plugin.EventListenerPhaseContext;
+import org.spongepowered.common.event.tracking.phase.plugin.PluginPhase;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * Calls the listeners of an event on the main thread, in order. Every listener
+ * is called in its own cause stack frame and listener phase context, is timed
+ * separately and can't prevent the following listeners from being called by
+ * throwing an exception.
+ *
+ * <p>Dispatchers for the baked handler caches are generated by the
+ * {@link EventDispatcherFactory}, the methods used by the generated classes
+ * are public as they are defined by another class loader.</p>
+ */
+public abstract class EventDispatcher {
+
+    protected final Logger logger;
+
+    protected EventDispatcher(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Posts the event to the listeners of this dispatcher.
+     *
+     * @param event The event
+     * @return Whether the event was cancelled
+     */
+    public abstract boolean dispatch(Event event);
+
+    /**
+     * Prepares the call of a listener, the returned frame has to be closed
+     * once the listener returns.
+     *
+     * @param handler The listener
+     * @param event The event
+     * @return The frame
+     */
+    public static ListenerFrame enter(RegisteredListener<?> handler, Event event) {
+        final PluginContainer plugin = handler.getPlugin();
+        final CauseStackManager.StackFrame frame = Sponge.getCauseStackManager().pushCauseFrame();
+        PhaseContext<?> context = null;
+        try {
+            context = createPluginContext(plugin);
+            frame.pushCause(plugin);
+            if (context != null) {
+                context.buildAndSwitch();
+            }
+            final Timing timings = handler.getTimingsHandler();
+            timings.startTimingIfSync();
+            if (event instanceof AbstractEvent) {
+                ((AbstractEvent) event).currentOrder = handler.getOrder();
+            }
+            return new ListenerFrame(frame, context, timings);
+        } catch (Throwable e) {
+            if (context != null) {
+                context.close();
+            }
+            frame.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Logs an exception thrown by a listener.
+     *
+     * @param handler The listener
+     * @param event The event
+     * @param e The exception
+     */
+    public final void error(RegisteredListener<?> handler, Event event, Throwable e) {
+        this.logger.error("Could not pass {} to {}", event.getClass().getSimpleName(), handler.getPlugin(), e);
+    }
+
+    /**
+     * Finishes posting the event after the last listener was called.
+     *
+     * @param event The event
+     * @return Whether the event was cancelled
+     */
+    public static boolean complete(Event event) {
+        if (event instanceof AbstractEvent) {
+            ((AbstractEvent) event).currentOrder = null;
+        }
+        return event instanceof Cancellable && ((Cancellable) event).isCancelled();
+    }
+
+    @Nullable
+    static EventListenerPhaseContext createPluginContext(PluginContainer plugin) {
+        if (PhaseTracker.getInstance().getCurrentState().allowsEventListener()) {
+            return PluginPhase.Listener.GENERAL_LISTENER.createPhaseContext()
+                .source(plugin);
+        }
+        return null;
+    }
+
+    /**
+     * The cause stack frame, listener phase context and timing of a listener
+     * call.
+     */
+    public static final class ListenerFrame {
+
+        private final CauseStackManager.StackFrame frame;
+        @Nullable private final PhaseContext<?> context;
+        private final Timing timings;
+
+        ListenerFrame(CauseStackManager.StackFrame frame, @Nullable PhaseContext<?> context, Timing timings) {
+            this.frame = frame;
+            this.context = context;
+            this.timings = timings;
+        }
+
+        public void close() {
+            try {
+                this.timings.close();
+            } finally {
+                try {
+                    if (this.context != null) {
+                        this.context.close();
+                    }
+                } finally {
+                    this.frame.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * A dispatcher which iterates the listeners, used where generating a
+     * class isn't worth it or isn't possible.
+     */
+    static final class Simple extends EventDispatcher {
+
+        private final RegisteredListener<?>[] handlers;
+
+        Simple(Logger logger, List<RegisteredListener<?>> handlers) {
+            super(logger);
+            this.handlers = handlers.toArray(new RegisteredListener<?>[0]);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        @Override
+        public boolean dispatch(Event event) {
+            for (RegisteredListener handler : this.handlers) {
+                try {
+                    final ListenerFrame frame = enter(handler, event);
+                    try {
+                        handler.handle(event);
+                    } finally {
+                        frame.close();
+                    }
+                } catch (Throwable e) {
+                    error(handler, event, e);
+                }
+            }
+            return complete(event);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.event;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.objectweb.asm.Opcodes.AALOAD;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.ATHROW;
+import static org.objectweb.asm.Opcodes.BIPUSH;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.PUTFIELD;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.SIPUSH;
+import static org.objectweb.asm.Opcodes.V1_6;
+
+import org.apache.logging.log4j.Logger;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+import org.spongepowered.api.event.Event;
+import org.spongepowered.api.event.EventListener;
+import org.spongepowered.common.event.gen.DefineableClassLoader;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates an {@link EventDispatcher} for the listeners of an event type.
+ *
+ * <p>The generated class has a field for every listener and calls each of
+ * them from its own call site, so the calls stay monomorphic and can be
+ * inlined instead of going through a single megamorphic call in a loop. It is
+ * the same as {@link EventDispatcher.Simple} otherwise. Every class is defined
+ * by its own class loader, so it can be unloaded once the listeners change
+ * and the handler cache it belongs to is dropped.</p>
+ */
+public final class EventDispatcherFactory {
+
+    /**
+     * The most listeners a generated class calls, to stay well below the
+     * size limit of a method. Event types with more listeners are
+     * dispatched by iterating them.
+     */
+    static final int MAX_LISTENERS = 512;
+
+    private static final String BASE_DISPATCHER = Type.getInternalName(EventDispatcher.class);
+    private static final String LISTENER_FRAME = Type.getInternalName(EventDispatcher.ListenerFrame.class);
+    private static final String HANDLER_DESCRIPTOR = Type.getDescriptor(RegisteredListener.class);
+    private static final String LISTENER_DESCRIPTOR = Type.getDescriptor(EventListener.class);
+    private static final String EVENT_DESCRIPTOR = Type.getDescriptor(Event.class);
+    private static final String CONSTRUCTOR_DESCRIPTOR =
+            '(' + Type.getDescriptor(Logger.class) + Type.getDescriptor(RegisteredListener[].class) + ")V";
+
+    private final AtomicInteger id = new AtomicInteger();
+    private final String targetPackage;
+    private final ClassLoader parent;
+
+    public EventDispatcherFactory(String targetPackage, ClassLoader parent) {
+        checkNotNull(targetPackage, "targetPackage");
+        checkArgument(!targetPackage.isEmpty(), "targetPackage cannot be empty");
+        this.targetPackage = targetPackage + '.';
+        this.parent = checkNotNull(parent, "parent");
+    }
+
+    /**
+     * Creates a dispatcher for the given listeners.
+     *
+     * @param eventClass The class of the posted event, used to name the
+     *     generated class
+     * @param logger The logger for exceptions thrown by listeners
+     * @param handlers The sorted listeners
+     * @return The dispatcher
+     * @throws Exception If the class couldn't be generated
+     */
+    public EventDispatcher create(Class<?> eventClass, Logger logger, List<RegisteredListener<?>> handlers) throws Exception {
+        if (handlers.isEmpty() || handlers.size() > MAX_LISTENERS) {
+            return new EventDispatcher.Simple(logger, handlers);
+        }
+        final String eventName = eventClass.getName();
+        final String name = this.targetPackage + eventName.substring(eventName.lastIndexOf('.') + 1).replace('$', '_') + "Dispatcher_"
+                + this.id.incrementAndGet();
+        final Class<? extends EventDispatcher> dispatcherClass = new DefineableClassLoader(this.parent)
+                .defineClass(name, generateClass(name, handlers.size()));
+        return dispatcherClass.getConstructor(Logger.class, RegisteredListener[].class)
+                .newInstance(logger, handlers.toArray(new RegisteredListener<?>[0]));
+    }
+
+    static byte[] generateClass(String name, int size) {
+        name = name.replace('.', '/');
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        MethodVisitor mv;
+        FieldVisitor fv;
+
+        cw.visit(V1_6, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, name, null, BASE_DISPATCHER, null);
+        for (int i = 0; i < size; i++) {
+            fv = cw.visitField(ACC_PRIVATE + ACC_FINAL, "handler" + i, HANDLER_DESCRIPTOR, null, null);
+            fv.visitEnd();
+            fv = cw.visitField(ACC_PRIVATE + ACC_FINAL, "listener" + i, LISTENER_DESCRIPTOR, null, null);
+            fv.visitEnd();
+        }
+        {
+            mv = cw.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitMethodInsn(INVOKESPECIAL, BASE_DISPATCHER, "<init>", '(' + Type.getDescriptor(Logger.class) + ")V", false);
+            for (int i = 0; i < size; i++) {
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitVarInsn(ALOAD, 2);
+                visitIndex(mv, i);
+                mv.visitInsn(AALOAD);
+                mv.visitFieldInsn(PUTFIELD, name, "handler" + i, HANDLER_DESCRIPTOR);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitVarInsn(ALOAD, 2);
+                visitIndex(mv, i);
+                mv.visitInsn(AALOAD);
+                mv.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(RegisteredListener.class), "getListener", "()" + LISTENER_DESCRIPTOR,
+                        false);
+                mv.visitFieldInsn(PUTFIELD, name, "listener" + i, LISTENER_DESCRIPTOR);
+            }
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        {
+            // For every listener:
+            // try {
+            //     final ListenerFrame frame = EventDispatcher.enter(this.handlerN, event);
+            //     try {
+            //         this.listenerN.handle(event);
+            //     } catch (Throwable e) {
+            //         frame.close();
+            //         throw e;
+            //     }
+            //     frame.close();
+            // } catch (Throwable e) {
+            //     this.error(this.handlerN, event, e);
+            // }
+            mv = cw.visitMethod(ACC_PUBLIC, "dispatch", '(' + EVENT_DESCRIPTOR + ")Z", null, null);
+            mv.visitCode();
+            for (int i = 0; i < size; i++) {
+                final Label outerStart = new Label();
+                final Label outerEnd = new Label();
+                final Label outerHandler = new Label();
+                final Label innerStart = new Label();
+                final Label innerEnd = new Label();
+                final Label innerHandler = new Label();
+                final Label next = new Label();
+                // The inner block has to come first in the exception table
+                mv.visitTryCatchBlock(innerStart, innerEnd, innerHandler, "java/lang/Throwable");
+                mv.visitTryCatchBlock(outerStart, outerEnd, outerHandler, "java/lang/Throwable");
+
+                mv.visitLabel(outerStart);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, name, "handler" + i, HANDLER_DESCRIPTOR);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitMethodInsn(INVOKESTATIC, BASE_DISPATCHER, "enter", '(' + HANDLER_DESCRIPTOR + EVENT_DESCRIPTOR + ")L" + LISTENER_FRAME + ';',
+                        false);
+                mv.visitVarInsn(ASTORE, 2);
+                mv.visitLabel(innerStart);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, name, "listener" + i, LISTENER_DESCRIPTOR);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitMethodInsn(INVOKEINTERFACE, Type.getInternalName(EventListener.class), "handle", '(' + EVENT_DESCRIPTOR + ")V", true);
+                mv.visitLabel(innerEnd);
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitMethodInsn(INVOKEVIRTUAL, LISTENER_FRAME, "close", "()V", false);
+                mv.visitJumpInsn(GOTO, next);
+                mv.visitLabel(innerHandler);
+                mv.visitVarInsn(ASTORE, 3);
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitMethodInsn(INVOKEVIRTUAL, LISTENER_FRAME, "close", "()V", false);
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitInsn(ATHROW);
+                mv.visitLabel(outerEnd);
+                mv.visitLabel(outerHandler);
+                mv.visitVarInsn(ASTORE, 3);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, name, "handler" + i, HANDLER_DESCRIPTOR);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitMethodInsn(INVOKEVIRTUAL, BASE_DISPATCHER, "error",
+                        '(' + HANDLER_DESCRIPTOR + EVENT_DESCRIPTOR + Type.getDescriptor(Throwable.class) + ")V", false);
+                mv.visitLabel(next);
+            }
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitMethodInsn(INVOKESTATIC, BASE_DISPATCHER, "complete", '(' + EVENT_DESCRIPTOR + ")Z", false);
+            mv.visitInsn(IRETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        cw.visitEnd();
+
+        return cw.toByteArray();
+    }
+
+    private static void visitIndex(MethodVisitor mv, int index) {
+        if (index <= 5) {
+            mv.visitInsn(ICONST_0 + index);
+        } else if (index <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, index);
+        } else {
+            mv.visitIntInsn(SIPUSH, index);
+        }
+    }
+
+}
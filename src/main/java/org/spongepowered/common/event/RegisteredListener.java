@@ -40,6 +40,8 @@
 import java.util.EnumMap;
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 public final class RegisteredListener<T extends Event> implements SpongeEventListener<T>, Comparable<RegisteredListener<?>> {
 
     private final PluginContainer plugin;
@@ -50,14 +52,17 @@
     private final EventListener<? super T> listener;
 
     private final boolean beforeModifications;
+    private final boolean concurrent;
     private Timing listenerTimer;
 
-    RegisteredListener(PluginContainer plugin, EventType<T> eventType, Order order, EventListener<? super T> listener, boolean beforeModifications) {
+    RegisteredListener(PluginContainer plugin, EventType<T> eventType, Order order, EventListener<? super T> listener, boolean beforeModifications,
+            boolean concurrent) {
         this.plugin = checkNotNull(plugin, "plugin");
         this.eventType = checkNotNull(eventType, "eventType");
         this.order = checkNotNull(order, "order");
         this.listener = checkNotNull(listener, "listener");
         this.beforeModifications = beforeModifications;
+        this.concurrent = concurrent;
     }
 
     public PluginContainer getPlugin() {
@@ -76,6 +81,17 @@ public boolean isBeforeModifications() {
         return this.beforeModifications;
     }
 
+    /**
+     * Gets whether this listener may be called concurrently with other
+     * concurrent listeners of the same {@link Order} when the event is
+     * posted off the main thread.
+     *
+     * @return Whether this listener may be called concurrently
+     */
+    public boolean isConcurrent() {
+        return this.concurrent;
+    }
+
     public Timing getTimingsHandler() {
         if (this.listenerTimer == null) {
             this.listenerTimer = SpongeTimings.getPluginTimings(this.plugin, getHandle().getClass().getSimpleName());
@@ -83,6 +99,15 @@ public Timing getTimingsHandler() {
         return this.listenerTimer;
     }
 
+    /**
+     * Gets the listener which is called to handle the event.
+     *
+     * @return The listener
+     */
+    public EventListener<? super T> getListener() {
+        return this.listener;
+    }
+
     @Override
     public Object getHandle() {
         if (this.listener instanceof SpongeEventListener) {
@@ -106,6 +131,7 @@ public static final class Cache {
 
         private final List<RegisteredListener<?>> listeners;
         private final EnumMap<Order, List<RegisteredListener<?>>> listenersByOrder;
+        @Nullable volatile EventDispatcher dispatcher;
 
         Cache(List<RegisteredListener<?>> listeners) {
             this.listeners = listeners;
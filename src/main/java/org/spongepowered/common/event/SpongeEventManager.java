@@ -29,7 +29,6 @@
 
 import co.aikar.timings.Timing;
 import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
-import org.spongepowered.common.event.tracking.phase.plugin.EventListenerPhaseContext;
 import org.spongepowered.common.relocate.co.aikar.timings.TimingsManager;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
@@ -53,13 +52,10 @@
 import org.spongepowered.api.event.item.inventory.InteractInventoryEvent;
 import org.spongepowered.api.plugin.PluginContainer;
 import org.spongepowered.api.plugin.PluginManager;
-import org.spongepowered.asm.util.PrettyPrinter;
 import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.event.filter.FilterFactory;
 import org.spongepowered.common.event.gen.DefineableClassLoader;
 import org.spongepowered.common.event.tracking.PhaseContext;
-import org.spongepowered.common.event.tracking.PhaseTracker;
-import org.spongepowered.common.event.tracking.phase.plugin.PluginPhase;
 import org.spongepowered.common.bridge.inventory.ContainerBridge;
 import org.spongepowered.common.item.inventory.custom.CustomInventory;
 import org.spongepowered.common.item.inventory.custom.CustomInventoryListener;
@@ -80,6 +76,9 @@
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -98,6 +97,7 @@ public class SpongeEventManager implements EventManager {
     private final Multimap<Class<?>, RegisteredListener<?>> handlersByEvent = HashMultimap.create();
     private final Map<ClassLoader, AnnotatedEventListener.Factory> classLoaders = new IdentityHashMap<>();
     private final Set<Object> registeredListeners = new ReferenceOpenHashSet<>();
+    @Nullable private volatile ForkJoinPool asyncListenerPool;
 
     public final ListenerChecker checker = new ListenerChecker(ShouldFire.class);
 
@@ -109,6 +109,25 @@ public class SpongeEventManager implements EventManager {
     protected final LoadingCache<EventType<?>, RegisteredListener.Cache> handlersCache =
             Caffeine.newBuilder().initialCapacity(150).build(this::bakeHandlers);
 
+    /**
+     * A view of the {@link #handlersCache} for non generic events keyed by
+     * the event class, this avoids constructing a new {@link EventType} key
+     * every time such an event is posted. The baked caches are never mutated,
+     * a new one is baked after every registration change, so they can be
+     * shared directly. It is invalidated together with the
+     * {@link #handlersCache}.
+     */
+    private final Map<Class<?>, RegisteredListener.Cache> handlersCacheByClass = new ConcurrentHashMap<>(150, 0.75f, 1);
+
+    /**
+     * Generates the dispatchers of the {@link #handlersCache}. A baked cache
+     * gets its dispatcher once an event is first posted to it on the main
+     * thread, so a dispatcher is only generated again after the listeners of
+     * the event type changed.
+     */
+    private final EventDispatcherFactory dispatcherFactory =
+            new EventDispatcherFactory("org.spongepowered.common.event.dispatcher", SpongeEventManager.class.getClassLoader());
+
     @Inject
     public SpongeEventManager(Logger logger, PluginManager pluginManager) {
         this.logger = logger;
@@ -215,10 +234,15 @@ private void register(List<RegisteredListener<? extends Event>> handlers) {
         }
 
         if (changed) {
-            this.handlersCache.invalidateAll();
+            this.invalidateHandlerCaches();
         }
     }
 
+    private void invalidateHandlerCaches() {
+        this.handlersCache.invalidateAll();
+        this.handlersCacheByClass.clear();
+    }
+
     @SuppressWarnings("unchecked")
     private void registerListener(PluginContainer plugin, Object listenerObject) {
         checkNotNull(plugin, "plugin");
@@ -301,7 +325,13 @@ private static <T extends Event> RegisteredListener<T> createRegistration(Plugin
         if (GenericEvent.class.isAssignableFrom(eventType.getRawType())) {
             genericType = eventType.resolveType(GENERIC_EVENT_TYPE);
         }
-        return new RegisteredListener(plugin, new EventType(eventType.getRawType(), genericType), order, handler, beforeModifications);
+        return new RegisteredListener(plugin, new EventType(eventType.getRawType(), genericType), order, handler, beforeModifications,
+                isConcurrentPlugin(plugin));
+    }
+
+    private static boolean isConcurrentPlugin(PluginContainer plugin) {
+        return SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().getEventDispatchCategory()
+                .getConcurrentAsyncListenerPlugins().contains(plugin.getId());
     }
 
     private PluginContainer getPlugin(Object plugin) {
@@ -365,7 +395,7 @@ private void unregister(Predicate<RegisteredListener<?>> unregister) {
         }
 
         if (changed) {
-            this.handlersCache.invalidateAll();
+            this.invalidateHandlerCaches();
         }
     }
 
@@ -390,55 +420,178 @@ public void unregisterPluginListeners(Object pluginObj) {
     protected RegisteredListener.Cache getHandlerCache(Event event) {
         checkNotNull(event, "event");
         final Class<? extends Event> eventClass = event.getClass();
-        final EventType<? extends Event> eventType;
         if (event instanceof GenericEvent) {
-            eventType = new EventType(eventClass, checkNotNull(((GenericEvent) event).getGenericType()));
-        } else {
-            eventType = new EventType(eventClass, null);
+            return this.handlersCache.get(new EventType(eventClass, checkNotNull(((GenericEvent) event).getGenericType())));
+        }
+        final RegisteredListener.Cache cache = this.handlersCacheByClass.get(eventClass);
+        if (cache != null) {
+            return cache;
         }
-        return this.handlersCache.get(eventType);
+        return this.handlersCacheByClass.computeIfAbsent(eventClass, type -> this.handlersCache.get(new EventType(type, null)));
     }
 
-    @SuppressWarnings("unchecked")
-    private boolean post(Event event, List<RegisteredListener<?>> handlers) {
+    /**
+     * Posts the event to the given handlers.
+     *
+     * @param event The event
+     * @param handlers The sorted handlers
+     * @param cache The baked cache the handlers are from, which holds the
+     *     generated dispatcher, or null if they are not from a cache
+     * @return Whether the event was cancelled
+     */
+    private boolean post(Event event, List<RegisteredListener<?>> handlers, @Nullable RegisteredListener.Cache cache) {
         if (!Sponge.getServer().isMainThread()) {
             // If this event is being posted asynchronously then we don't want
             // to do any timing or cause stack changes
-            for (@SuppressWarnings("rawtypes") RegisteredListener handler : handlers) {
-                try {
-                    if (event instanceof AbstractEvent) {
-                        ((AbstractEvent) event).currentOrder = handler.getOrder();
+            return postAsync(event, handlers);
+        }
+        TimingsManager.PLUGIN_EVENT_HANDLER.startTimingIfSync();
+        if (SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().getEventDispatchCategory().isGroupListenerFrames()) {
+            return postGrouped(event, handlers);
+        }
+        final EventDispatcher dispatcher = cache == null ? new EventDispatcher.Simple(this.logger, handlers) : getDispatcher(event, cache);
+        return dispatcher.dispatch(event);
+    }
+
+    private EventDispatcher getDispatcher(Event event, RegisteredListener.Cache cache) {
+        EventDispatcher dispatcher = cache.dispatcher;
+        if (dispatcher == null) {
+            try {
+                dispatcher = this.dispatcherFactory.create(event.getClass(), this.logger, cache.getListeners());
+            } catch (Exception e) {
+                this.logger.error("Failed to generate the event dispatcher for {}", event.getClass().getName(), e);
+                dispatcher = new EventDispatcher.Simple(this.logger, cache.getListeners());
+            }
+            cache.dispatcher = dispatcher;
+        }
+        return dispatcher;
+    }
+
+    /**
+     * Posts the event to the given handlers off the main thread. Handlers
+     * which are {@link RegisteredListener#isConcurrent() concurrent} are
+     * submitted to the async listener pool, every {@link Order} acts as a
+     * barrier so all the concurrent handlers of an order complete before the
+     * remaining handlers of that order are called on the posting thread.
+     *
+     * @param event The event
+     * @param handlers The sorted handlers
+     * @return Whether the event was cancelled
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private boolean postAsync(Event event, List<RegisteredListener<?>> handlers) {
+        final int size = handlers.size();
+        int start = 0;
+        while (start < size) {
+            final Order order = handlers.get(start).getOrder();
+            int end = start + 1;
+            while (end < size && handlers.get(end).getOrder() == order) {
+                end++;
+            }
+            if (event instanceof AbstractEvent) {
+                ((AbstractEvent) event).currentOrder = order;
+            }
+            List<ForkJoinTask<?>> tasks = null;
+            for (int i = start; i < end; i++) {
+                final RegisteredListener handler = handlers.get(i);
+                if (handler.isConcurrent()) {
+                    if (tasks == null) {
+                        tasks = new ArrayList<>(end - i);
                     }
-                    handler.handle(event);
-                } catch (Throwable e) {
-                    SpongeImpl.getLogger().error("Could not pass {} to {}", event.getClass().getSimpleName(), handler.getPlugin(), e);
+                    tasks.add(getAsyncListenerPool().submit(() -> handleAsync(event, handler)));
                 }
             }
-            if (event instanceof AbstractEvent) {
-                ((AbstractEvent) event).currentOrder = null;
+            if (tasks != null) {
+                for (ForkJoinTask<?> task : tasks) {
+                    task.join();
+                }
+            }
+            for (int i = start; i < end; i++) {
+                final RegisteredListener handler = handlers.get(i);
+                if (!handler.isConcurrent()) {
+                    handleAsync(event, handler);
+                }
             }
-            return event instanceof Cancellable && ((Cancellable) event).isCancelled();
+            start = end;
         }
-        TimingsManager.PLUGIN_EVENT_HANDLER.startTimingIfSync();
-        for (@SuppressWarnings("rawtypes") RegisteredListener handler : handlers) {
+        if (event instanceof AbstractEvent) {
+            ((AbstractEvent) event).currentOrder = null;
+        }
+        return event instanceof Cancellable && ((Cancellable) event).isCancelled();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void handleAsync(Event event, RegisteredListener handler) {
+        try {
+            handler.handle(event);
+        } catch (Throwable e) {
+            SpongeImpl.getLogger().error("Could not pass {} to {}", event.getClass().getSimpleName(), handler.getPlugin(), e);
+        }
+    }
+
+    private ForkJoinPool getAsyncListenerPool() {
+        ForkJoinPool pool = this.asyncListenerPool;
+        if (pool == null) {
+            synchronized (this.lock) {
+                pool = this.asyncListenerPool;
+                if (pool == null) {
+                    final int parallelism = SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().getEventDispatchCategory()
+                            .getAsyncListenerParallelism();
+                    pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(), forkJoinPool -> {
+                        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                        thread.setName("Sponge - Async Listener Thread - " + thread.getPoolIndex());
+                        return thread;
+                    }, null, false);
+                    this.asyncListenerPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Posts the event to the given handlers on the main thread, sharing a
+     * single cause stack frame and listener phase context between each run
+     * of consecutive handlers that are owned by the same plugin. Since the
+     * handlers are sorted by {@link Order} only, this is most effective when
+     * a plugin registers several listeners for the same order.
+     *
+     * @param event The event
+     * @param handlers The sorted handlers
+     * @return Whether the event was cancelled
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private boolean postGrouped(Event event, List<RegisteredListener<?>> handlers) {
+        final int size = handlers.size();
+        int start = 0;
+        while (start < size) {
+            final PluginContainer plugin = handlers.get(start).getPlugin();
+            int end = start + 1;
+            while (end < size && handlers.get(end).getPlugin() == plugin) {
+                end++;
+            }
             try (CauseStackManager.StackFrame frame = Sponge.getCauseStackManager().pushCauseFrame();
-                 final PhaseContext<?> context = createPluginContext(handler);
-                 final Timing timings = handler.getTimingsHandler()) {
-                frame.pushCause(handler.getPlugin());
+                 final PhaseContext<?> context = EventDispatcher.createPluginContext(plugin)) {
+                frame.pushCause(plugin);
                 if (context != null) {
                     context.buildAndSwitch();
                 }
-                timings.startTimingIfSync();
-                if (event instanceof AbstractEvent) {
-                    ((AbstractEvent) event).currentOrder = handler.getOrder();
+                for (int i = start; i < end; i++) {
+                    final RegisteredListener handler = handlers.get(i);
+                    try (final Timing timings = handler.getTimingsHandler()) {
+                        timings.startTimingIfSync();
+                        if (event instanceof AbstractEvent) {
+                            ((AbstractEvent) event).currentOrder = handler.getOrder();
+                        }
+                        handler.handle(event);
+                    } catch (Throwable e) {
+                        this.logger.error("Could not pass {} to {}", event.getClass().getSimpleName(), plugin, e);
+                    }
                 }
-                handler.handle(event);
             } catch (Throwable e) {
-                // TODO - add some better handling, especially since we have the stakc frame and phase context to boot
-                final PrettyPrinter printer = new PrettyPrinter(60).add("Error with event listener handling").centre().hr();
-                printer.add("A listener threw an exception while being handled, this is usually not a sponge bug.");
-                this.logger.error("Could not pass {} to {}", event.getClass().getSimpleName(), handler.getPlugin(), e);
+                this.logger.error("Could not pass {} to {}", event.getClass().getSimpleName(), plugin, e);
             }
+            start = end;
         }
         if (event instanceof AbstractEvent) {
             ((AbstractEvent) event).currentOrder = null;
@@ -446,15 +599,6 @@ private boolean post(Event event, List<RegisteredListener<?>> handlers) {
         return event instanceof Cancellable && ((Cancellable) event).isCancelled();
     }
 
-    @Nullable
-    private EventListenerPhaseContext createPluginContext(RegisteredListener<?> handler) {
-        if (PhaseTracker.getInstance().getCurrentState().allowsEventListener()) {
-            return PluginPhase.Listener.GENERAL_LISTENER.createPhaseContext()
-                .source(handler.getPlugin());
-        }
-        return null;
-    }
-
     @Override
     public boolean post(Event event) {
         try {
@@ -477,12 +621,13 @@ public boolean postServer(Event event) {
     }
 
     public boolean post(Event event, boolean allowClientThread) {
-        return post(event, getHandlerCache(event).getListeners());
+        final RegisteredListener.Cache cache = getHandlerCache(event);
+        return post(event, cache.getListeners(), cache);
     }
 
     public boolean post(Event event, PluginContainer plugin) {
         return post(event, getHandlerCache(event).getListeners().stream()
                 .filter(l -> l.getPlugin().equals(plugin))
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList()), null);
     }
 }
@@ -271,8 +271,9 @@ public boolean setLocation(Location<World> location) {
                             ((Player) player).closeInventory(); // Call API method to make sure we capture it
                         }
 
-                        ((WorldServer) location.getExtent()).getChunkProvider()
-                            .loadChunk(location.getChunkPosition().getX(), location.getChunkPosition().getZ());
+                        // The player chunk map sends the chunk once it is loaded, so players don't need to wait for it
+                        ((ChunkProviderServerBridge) ((WorldServer) location.getExtent()).getChunkProvider())
+                            .bridge$loadChunkAsync(location.getChunkPosition().getX(), location.getChunkPosition().getZ(), false);
                     }
                     player.connection
                         .setPlayerLocation(location.getX(), location.getY(), location.getZ(), ((Entity) (Object) this).rotationYaw,
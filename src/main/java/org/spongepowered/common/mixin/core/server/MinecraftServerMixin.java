@@ -79,6 +79,7 @@
 import org.spongepowered.common.bridge.world.chunk.ChunkProviderServerBridge;
 import org.spongepowered.common.command.SpongeCommandManager;
 import org.spongepowered.common.config.SpongeConfig;
+import org.spongepowered.common.config.category.WorldCategory;
 import org.spongepowered.common.config.type.WorldConfig;
 import org.spongepowered.common.event.tracking.CauseTrackerCrashHandler;
 import org.spongepowered.common.event.tracking.PhaseTracker;
@@ -92,6 +93,7 @@
 import org.spongepowered.common.mixin.core.world.storage.WorldInfoMixin;
 import org.spongepowered.common.relocate.co.aikar.timings.TimingsManager;
 import org.spongepowered.common.resourcepack.SpongeResourcePack;
+import org.spongepowered.common.util.SpongeUsernameCache;
 import org.spongepowered.common.util.VecHelper;
 import org.spongepowered.common.world.WorldManager;
 
@@ -101,6 +103,7 @@
 import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
@@ -381,7 +384,8 @@ public void saveAllWorlds(final boolean dontLog) {
                 // Sponge start - check auto save interval in world config
                 if (this.isDedicatedServer() && this.isServerRunning()) {
                     final SpongeConfig<WorldConfig> configAdapter = ((WorldInfoBridge) world.getWorldInfo()).bridge$getConfigAdapter();
-                    final int autoSaveInterval = configAdapter.getConfig().getWorld().getAutoSaveInterval();
+                    final WorldCategory worldCategory = configAdapter.getConfig().getWorld();
+                    final int autoSaveInterval = worldCategory.getAutoSaveInterval();
                     if (log) {
                         log = configAdapter.getConfig().getLogging().logWorldAutomaticSaving();
                     }
@@ -396,12 +400,22 @@ public void saveAllWorlds(final boolean dontLog) {
                         continue;
                     }
                     if (this.tickCounter % autoSaveInterval != 0) {
+                        ((WorldServerBridge) world).bridge$tickIncrementalSave(
+                            TimeUnit.MILLISECONDS.toNanos(worldCategory.getIncrementalAutoSaveTickBudget()));
                         continue;
                     }
                     if (log) {
                         LOGGER.info("Auto-saving chunks for level \'" + world.getWorldInfo().getWorldName() + "\'/"
                                 + ((WorldServerBridge) world).bridge$getDimensionId());
                     }
+                    if (worldCategory.isIncrementalAutoSave()) {
+                        try {
+                            ((WorldServerBridge) world).bridge$startIncrementalSave(autoSaveInterval);
+                        } catch (MinecraftException ex) {
+                            ex.printStackTrace();
+                        }
+                        continue;
+                    }
                 } else if (log) {
                     LOGGER.info("Saving chunks for level \'" + world.getWorldInfo().getWorldName() + "\'/"
                         + ((WorldServerBridge) world).bridge$getDimensionId());
@@ -426,6 +440,12 @@ private void onStopServer(final CallbackInfo ci) {
         }
     }
 
+    @Inject(method = "stopServer", at = @At(value = "RETURN"))
+    private void impl$flushUsernameCacheOnStop(final CallbackInfo ci) {
+        // The cache is written from a daemon thread, make sure the last batch reaches the disk
+        SpongeUsernameCache.saveAndWait();
+    }
+
     /**
      * @author Zidane - June 2nd
      * @reason Tells the server to use our WorldManager instead of the arrays, this will
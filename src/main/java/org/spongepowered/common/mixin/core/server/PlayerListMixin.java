@@ -104,6 +104,7 @@
 import org.spongepowered.common.service.ban.SpongeIPBanList;
 import org.spongepowered.common.service.ban.SpongeUserListBans;
 import org.spongepowered.common.service.permission.SpongePermissionService;
+import org.spongepowered.common.service.user.SpongeUserStorageService;
 import org.spongepowered.common.service.whitelist.SpongeUserListWhitelist;
 import org.spongepowered.common.text.chat.ChatUtil;
 import org.spongepowered.common.util.VecHelper;
@@ -456,6 +457,11 @@ private void onSaveAllPlayerData(final CallbackInfo ci) {
         }
     }
 
+    @Inject(method = "playerLoggedIn", at = @At("HEAD"))
+    private void impl$updateUserIndexOnLogin(final EntityPlayerMP player, final CallbackInfo ci) {
+        SpongeUserStorageService.onPlayerLoggedIn((org.spongepowered.api.profile.GameProfile) player.getGameProfile());
+    }
+
     @Inject(method = "playerLoggedIn", at = @At(value = "INVOKE", target = "Lnet/minecraft/server/management/PlayerList;sendPacketToAllPlayers(Lnet/minecraft/network/Packet;)V", shift = At.Shift.BEFORE), cancellable = true)
     private void impl$sendAddPlayerListItemPacketAndPreparePlayer(final EntityPlayerMP player, final CallbackInfo ci) {
         // Create a packet to be used for players without context data
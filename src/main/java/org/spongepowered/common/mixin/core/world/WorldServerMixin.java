@@ -115,6 +115,7 @@
 import org.spongepowered.api.world.LocatableBlock;
 import org.spongepowered.api.world.PortalAgentType;
 import org.spongepowered.api.world.PortalAgentTypes;
+import org.spongepowered.api.world.extent.worker.procedure.BlockVolumeFiller;
 import org.spongepowered.api.world.gen.BiomeGenerator;
 import org.spongepowered.api.world.gen.WorldGeneratorModifier;
 import org.spongepowered.api.world.storage.WorldProperties;
@@ -182,14 +183,18 @@
 import org.spongepowered.common.world.SpongeLocatableBlockBuilder;
 import org.spongepowered.common.world.WorldManager;
 import org.spongepowered.common.world.border.PlayerBorderListener;
+import org.spongepowered.common.world.extent.worker.SpongeBlockVolumeWorker;
+import org.spongepowered.common.world.extent.worker.WorldSectionWriter;
 import org.spongepowered.common.world.gen.SpongeChunkGenerator;
 import org.spongepowered.common.world.gen.SpongeGenerationPopulator;
 import org.spongepowered.common.world.gen.SpongeWorldGenerator;
 import org.spongepowered.common.world.gen.WorldGenConstants;
 
 import javax.annotation.Nullable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -218,6 +223,9 @@ public abstract class WorldServerMixin extends WorldMixin implements WorldServer
     private int impl$dimensionId;
     @Nullable private NextTickListEntry impl$tmpScheduledObj;
     @Nullable private GenericGenerationContext impl$spawnGenerationContext;
+    @Nullable private Deque<Chunk> impl$incrementalSaveQueue;
+    @Nullable private Cause impl$incrementalSaveCause;
+    private int impl$incrementalSaveTicksLeft;
 
     @Shadow @Final private MinecraftServer server;
     @Shadow @Final private PlayerChunkMap playerChunkMap;
@@ -1189,19 +1197,107 @@ public void saveAllChunks(final boolean all, @Nullable final IProgressUpdate pro
             chunkproviderserver.saveChunks(all);
             Sponge.getEventManager().post(SpongeEventFactory.createSaveWorldEventPost(currentCause, ((org.spongepowered.api.world.World) this)));
 
-            // The chunk GC handles all queuing for chunk unloads so we return here to avoid it during a save.
-            if (this.impl$chunkGCTickInterval > 0) {
+            // When all chunks were just saved, an incremental auto-save in progress is done as well. Otherwise
+            // saveChunks stops after a few chunks and the remaining ones are left to bridge$tickIncrementalSave.
+            if (all && this.impl$incrementalSaveQueue != null) {
+                this.impl$incrementalSaveQueue.clear();
+                this.impl$completeIncrementalSave();
                 return;
             }
 
-            for (final Chunk chunk : Lists.newArrayList(chunkproviderserver.getLoadedChunks()))
+            this.impl$queueUnusedChunksForUnload();
+        }
+    }
+
+    private void impl$queueUnusedChunksForUnload() {
+        // The chunk GC handles all queuing for chunk unloads so we return here to avoid it during a save.
+        if (this.impl$chunkGCTickInterval > 0) {
+            return;
+        }
+
+        final ChunkProviderServer chunkproviderserver = this.getChunkProvider();
+        for (final Chunk chunk : Lists.newArrayList(chunkproviderserver.getLoadedChunks()))
+        {
+            if (chunk != null && !this.playerChunkMap.contains(chunk.x, chunk.z))
             {
-                if (chunk != null && !this.playerChunkMap.contains(chunk.x, chunk.z))
-                {
-                    chunkproviderserver.queueUnload(chunk);
-                }
+                chunkproviderserver.queueUnload(chunk);
+            }
+        }
+    }
+
+    @Override
+    public void bridge$startIncrementalSave(final int interval) throws MinecraftException {
+        if (this.impl$incrementalSaveQueue != null) {
+            // The previous pass fell behind, finish it before starting over
+            this.impl$completeIncrementalSave();
+        }
+
+        final ChunkProviderServer chunkProviderServer = this.getChunkProvider();
+        if (!chunkProviderServer.canSave()) {
+            return;
+        }
+
+        final Cause currentCause = Sponge.getCauseStackManager().getCurrentCause();
+        Sponge.getEventManager().post(SpongeEventFactory.createSaveWorldEventPre(currentCause, ((org.spongepowered.api.world.World) this)));
+        this.saveLevel();
+
+        final Deque<Chunk> queue = new ArrayDeque<>();
+        for (final Chunk chunk : chunkProviderServer.getLoadedChunks()) {
+            if (chunk.needsSaving(true)) {
+                queue.add(chunk);
+            }
+        }
+        this.impl$incrementalSaveQueue = queue;
+        this.impl$incrementalSaveCause = currentCause;
+        // The next pass starts on the tick the interval ends
+        this.impl$incrementalSaveTicksLeft = interval - 1;
+        if (queue.isEmpty()) {
+            this.impl$completeIncrementalSave();
+        }
+    }
+
+    @Override
+    public void bridge$tickIncrementalSave(final long budgetNanos) {
+        final Deque<Chunk> queue = this.impl$incrementalSaveQueue;
+        if (queue == null) {
+            return;
+        }
+
+        final ChunkProviderServerBridge chunkProviderServer = (ChunkProviderServerBridge) this.getChunkProvider();
+        final int ticksLeft = Math.max(1, this.impl$incrementalSaveTicksLeft--);
+        final int required = (queue.size() + ticksLeft - 1) / ticksLeft;
+        final long deadline = System.nanoTime() + budgetNanos;
+        int saved = 0;
+        this.impl$timings.chunkSaveIncremental.startTiming();
+        Chunk chunk;
+        while ((saved < required || System.nanoTime() < deadline) && (chunk = queue.poll()) != null) {
+            if (chunkProviderServer.bridge$saveChunkIfNeeded(chunk)) {
+                saved++;
             }
         }
+        this.impl$timings.chunkSaveIncremental.stopTiming();
+
+        if (queue.isEmpty()) {
+            this.impl$completeIncrementalSave();
+        }
+    }
+
+    private void impl$completeIncrementalSave() {
+        final Deque<Chunk> queue = this.impl$incrementalSaveQueue;
+        final Cause cause = this.impl$incrementalSaveCause;
+        this.impl$incrementalSaveQueue = null;
+        this.impl$incrementalSaveCause = null;
+        if (queue == null || cause == null) {
+            return;
+        }
+
+        final ChunkProviderServerBridge chunkProviderServer = (ChunkProviderServerBridge) this.getChunkProvider();
+        Chunk chunk;
+        while ((chunk = queue.poll()) != null) {
+            chunkProviderServer.bridge$saveChunkIfNeeded(chunk);
+        }
+        Sponge.getEventManager().post(SpongeEventFactory.createSaveWorldEventPost(cause, ((org.spongepowered.api.world.World) this)));
+        this.impl$queueUnusedChunksForUnload();
     }
 
     @Redirect(method = "sendQueuedBlockEvents", at = @At(value = "INVOKE", target = "Lnet/minecraft/world/DimensionType;getId()I"), expect = 0, require = 0)
@@ -2147,6 +2243,21 @@ public int getLightFor(final EnumSkyBlock type, BlockPos pos) {
         }
     }
 
+    @Override
+    public int bridge$setBlocks(final Vector3i min, final Vector3i max, final BlockVolumeFiller filler) {
+        final WorldSectionWriter writer = new WorldSectionWriter((WorldServer) (Object) this);
+        for (final int[] slice : SpongeBlockVolumeWorker.getSlices(min, max)) {
+            for (int y = slice[1]; y <= slice[4]; y++) {
+                for (int z = slice[2]; z <= slice[5]; z++) {
+                    for (int x = slice[0]; x <= slice[3]; x++) {
+                        writer.setBlock(x, y, z, (IBlockState) filler.produce(x, y, z));
+                    }
+                }
+            }
+        }
+        return writer.flush();
+    }
+
     /**
      * @author amaranth - April 25th, 2016
      * @reason Avoid 25 chunk map lookups per entity per tick by using neighbor pointers
@@ -81,6 +81,7 @@
 import org.spongepowered.common.bridge.world.chunk.ChunkBridge;
 import org.spongepowered.common.bridge.world.chunk.ChunkProviderBridge;
 import org.spongepowered.common.entity.PlayerTracker;
+import org.spongepowered.common.entity.PlayerTrackerMap;
 import org.spongepowered.common.event.ShouldFire;
 import org.spongepowered.common.event.SpongeCommonEventFactory;
 import org.spongepowered.common.event.tracking.IPhaseState;
@@ -97,7 +98,6 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -659,11 +659,9 @@ private SpongeBlockSnapshot createSpongeBlockSnapshot(
     @Override
     public void bridge$addTrackedBlockPosition(final Block block, final BlockPos pos, final User user, final PlayerTracker.Type trackerType) { }
 
+    @Nullable
     @Override
-    public Map<Integer, PlayerTracker> bridge$getTrackedIntPlayerPositions() { return Collections.emptyMap(); }
-
-    @Override
-    public Map<Short, PlayerTracker> bridge$getTrackedShortPlayerPositions() { return Collections.emptyMap(); }
+    public PlayerTrackerMap bridge$getTrackedPlayerPositions() { return null; }
 
     @Override
     public Optional<User> bridge$getBlockOwner(final BlockPos pos) { return Optional.empty(); }
@@ -684,10 +682,7 @@ private SpongeBlockSnapshot createSpongeBlockSnapshot(
     public void bridge$setBlockCreator(final BlockPos pos, @Nullable final UUID uuid) { }
 
     @Override
-    public void bridge$setTrackedIntPlayerPositions(final Map<Integer, PlayerTracker> trackedPositions) { }
-
-    @Override
-    public void bridge$setTrackedShortPlayerPositions(final Map<Short, PlayerTracker> trackedPositions) { }
+    public void bridge$setTrackedPlayerPositions(final PlayerTrackerMap trackedPositions) { }
 
     // Continuing the rest of the implementation
 
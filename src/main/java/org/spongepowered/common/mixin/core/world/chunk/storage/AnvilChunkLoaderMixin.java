@@ -28,11 +28,16 @@
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityList;
 import net.minecraft.entity.item.EntityMinecart;
+import net.minecraft.nbt.CompressedStreamTools;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.datafix.DataFixer;
+import net.minecraft.util.datafix.FixTypes;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.BlockStateContainer;
+import net.minecraft.world.chunk.NibbleArray;
 import net.minecraft.world.chunk.storage.AnvilChunkLoader;
 import net.minecraft.world.chunk.storage.RegionFileCache;
 import net.minecraft.world.storage.ThreadedFileIOBase;
@@ -59,34 +64,105 @@
 import org.spongepowered.asm.mixin.injection.callback.LocalCapture;
 import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.SpongeImplHooks;
+import org.spongepowered.common.bridge.world.WorldInfoBridge;
+import org.spongepowered.common.bridge.world.WorldServerBridge;
 import org.spongepowered.common.bridge.world.chunk.ChunkBridge;
 import org.spongepowered.common.bridge.world.chunk.storage.AnvilChunkLoaderBridge;
-import org.spongepowered.common.entity.PlayerTracker;
+import org.spongepowered.common.entity.PlayerTrackerMap;
 import org.spongepowered.common.event.ShouldFire;
 import org.spongepowered.common.registry.type.entity.EntityTypeRegistryModule;
 import org.spongepowered.common.util.Constants;
 import org.spongepowered.common.util.QueuedChunk;
 import org.spongepowered.common.util.VecHelper;
+import org.spongepowered.common.world.storage.BlockStorageSnapshot;
+import org.spongepowered.common.world.storage.ChunkWriterPool;
+import org.spongepowered.common.world.storage.PendingChunkMap;
 
+import java.io.DataInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
 
 @Mixin(AnvilChunkLoader.class)
 public abstract class AnvilChunkLoaderMixin implements AnvilChunkLoaderBridge {
 
     private ConcurrentLinkedQueue<QueuedChunk> impl$queue = new ConcurrentLinkedQueue<>();
-    private final Object impl$lock = new Object();
+    private final boolean impl$snapshotSections = SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().useAsyncChunkSerialization();
+    private final List<BlockStorageSnapshot> impl$sections = new ArrayList<>();
+    private final AtomicLong impl$serializationTime = new AtomicLong();
+    private boolean impl$savingChunk;
+    @Nullable private final ChunkWriterPool impl$writerPool = ChunkWriterPool.getInstance();
 
     @Shadow @Final private static Logger LOGGER;
     @Shadow @Final private Map<ChunkPos, NBTTagCompound> chunksToSave;
     @Shadow @Final private File chunkSaveLocation;
+    @Shadow @Final private DataFixer fixer;
     @Shadow private boolean flushing;
 
     @Shadow private void writeChunkData(final ChunkPos pos, final NBTTagCompound compound) { } // Shadow
+    @Shadow private void writeChunkToNBT(final net.minecraft.world.chunk.Chunk chunkIn, final World worldIn, final NBTTagCompound compound) { } // Shadow
+
+    @Redirect(method = "<init>",
+        at = @At(
+            value = "INVOKE",
+            target = "Lcom/google/common/collect/Maps;newConcurrentMap()Ljava/util/concurrent/ConcurrentMap;",
+            ordinal = 0,
+            remap = false))
+    private ConcurrentMap<ChunkPos, NBTTagCompound> impl$createPendingChunkMap() {
+        return new PendingChunkMap();
+    }
+
+    @Redirect(method = "saveChunk",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/world/chunk/storage/AnvilChunkLoader;writeChunkToNBT(Lnet/minecraft/world/chunk/Chunk;Lnet/minecraft/world/World;Lnet/minecraft/nbt/NBTTagCompound;)V"))
+    private void impl$snapshotChunk(final AnvilChunkLoader loader, final net.minecraft.world.chunk.Chunk chunkIn, final World worldIn,
+        final NBTTagCompound compound) {
+        this.impl$sections.clear();
+        if (!(worldIn instanceof WorldServerBridge)) {
+            this.writeChunkToNBT(chunkIn, worldIn, compound);
+            return;
+        }
+        ((WorldServerBridge) worldIn).bridge$getTimingsHandler().chunkSaveSnapshot.startTiming();
+        this.impl$savingChunk = true;
+        try {
+            this.writeChunkToNBT(chunkIn, worldIn, compound);
+        } finally {
+            this.impl$savingChunk = false;
+            ((WorldServerBridge) worldIn).bridge$getTimingsHandler().chunkSaveSnapshot.stopTiming();
+        }
+    }
+
+    /**
+     * Converting the block states of every section to their ids is the bulk
+     * of the time spent saving a chunk. When a chunk is saved, the palette
+     * and packed data of each section are copied instead, and the arrays
+     * already put in the chunk compound are filled in by the chunk IO thread.
+     */
+    @Nullable
+    @Redirect(method = "writeChunkToNBT",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/world/chunk/BlockStateContainer;getDataForNBT([BLnet/minecraft/world/chunk/NibbleArray;)Lnet/minecraft/world/chunk/NibbleArray;"))
+    private NibbleArray impl$snapshotBlockStorage(final BlockStateContainer container, final byte[] blocks, final NibbleArray meta) {
+        if (this.impl$savingChunk && this.impl$snapshotSections) {
+            final BlockStorageSnapshot snapshot = BlockStorageSnapshot.of(container, blocks, meta);
+            if (snapshot != null) {
+                this.impl$sections.add(snapshot);
+                return snapshot.getAdd();
+            }
+        }
+        return container.getDataForNBT(blocks, meta);
+    }
 
     @Inject(method = "writeChunkToNBT", at = @At(value = "RETURN"))
     private void impl$writeSpongeOwnerNotifierPosTable(final net.minecraft.world.chunk.Chunk chunkIn, final World worldIn,
@@ -94,33 +170,28 @@ public abstract class AnvilChunkLoaderMixin implements AnvilChunkLoaderBridge {
         final ChunkBridge chunk = (ChunkBridge) chunkIn;
 
         // Add tracked block positions
-        if (chunk.bridge$getTrackedShortPlayerPositions().size() > 0 || chunk.bridge$getTrackedIntPlayerPositions().size() > 0) {
+        final PlayerTrackerMap trackedPositions = chunk.bridge$getTrackedPlayerPositions();
+        if (trackedPositions != null && !trackedPositions.isEmpty()) {
             final NBTTagCompound trackedNbt = new NBTTagCompound();
             final NBTTagList positions = new NBTTagList();
             trackedNbt.setTag(Constants.Sponge.SPONGE_BLOCK_POS_TABLE, positions);
             compound.setTag(Constants.Sponge.SPONGE_DATA, trackedNbt);
 
-            for (final Map.Entry<Short, PlayerTracker> mapEntry : chunk.bridge$getTrackedShortPlayerPositions().entrySet()) {
-                final Short pos = mapEntry.getKey();
-                final int ownerUniqueIdIndex = mapEntry.getValue().ownerIndex;
-                final int notifierUniqueIdIndex = mapEntry.getValue().notifierIndex;
+            trackedPositions.forEachShortPosition((pos, tracker) -> {
                 final NBTTagCompound valueNbt = new NBTTagCompound();
-                valueNbt.setInteger("owner", ownerUniqueIdIndex);
-                valueNbt.setInteger("notifier", notifierUniqueIdIndex);
-                valueNbt.setShort("pos", pos);
+                valueNbt.setInteger("owner", PlayerTrackerMap.getOwnerIndex(tracker));
+                valueNbt.setInteger("notifier", PlayerTrackerMap.getNotifierIndex(tracker));
+                valueNbt.setShort("pos", (short) pos);
                 positions.appendTag(valueNbt);
-            }
+            });
 
-            for (final Map.Entry<Integer, PlayerTracker> mapEntry : chunk.bridge$getTrackedIntPlayerPositions().entrySet()) {
-                final Integer pos = mapEntry.getKey();
-                final int ownerUniqueIdIndex = mapEntry.getValue().ownerIndex;
-                final int notifierUniqueIdIndex = mapEntry.getValue().notifierIndex;
+            trackedPositions.forEachIntPosition((pos, tracker) -> {
                 final NBTTagCompound valueNbt = new NBTTagCompound();
-                valueNbt.setInteger("owner", ownerUniqueIdIndex);
-                valueNbt.setInteger("notifier", notifierUniqueIdIndex);
+                valueNbt.setInteger("owner", PlayerTrackerMap.getOwnerIndex(tracker));
+                valueNbt.setInteger("notifier", PlayerTrackerMap.getNotifierIndex(tracker));
                 valueNbt.setInteger("ipos", pos);
                 positions.appendTag(valueNbt);
-            }
+            });
         }
     }
 
@@ -128,33 +199,38 @@ public abstract class AnvilChunkLoaderMixin implements AnvilChunkLoaderBridge {
     private void onReadChunkFromNBT(final World worldIn, final NBTTagCompound compound, final CallbackInfoReturnable<net.minecraft.world.chunk.Chunk> ci, final int chunkX,
       final int chunkZ, final net.minecraft.world.chunk.Chunk chunkIn) {
         if (compound.hasKey(Constants.Sponge.SPONGE_DATA)) {
-            final Map<Integer, PlayerTracker> trackedIntPlayerPositions = new HashMap<>();
-            final Map<Short, PlayerTracker> trackedShortPlayerPositions = new HashMap<>();
+            final PlayerTrackerMap trackedPositions = new PlayerTrackerMap();
             final NBTTagList positions = compound.getCompoundTag(Constants.Sponge.SPONGE_DATA).getTagList(Constants.Sponge.SPONGE_BLOCK_POS_TABLE, 10);
             final ChunkBridge chunk = (ChunkBridge) chunkIn;
             for (int i = 0; i < positions.tagCount(); i++) {
                 final NBTTagCompound valueNbt = positions.getCompoundTagAt(i);
                 final boolean isShortPos = valueNbt.hasKey("pos");
-                final PlayerTracker tracker = new PlayerTracker();
+                int ownerIndex = -1;
+                int notifierIndex = -1;
                 if (valueNbt.hasKey("owner")) {
-                    tracker.ownerIndex = valueNbt.getInteger("owner");
+                    ownerIndex = valueNbt.getInteger("owner");
                 } else if (valueNbt.hasKey("uuid")) { // Migrate old data, remove in future
-                    tracker.ownerIndex = valueNbt.getInteger("uuid");
+                    ownerIndex = valueNbt.getInteger("uuid");
                 }
                 if (valueNbt.hasKey("notifier")) {
-                    tracker.notifierIndex = valueNbt.getInteger("notifier");
+                    notifierIndex = valueNbt.getInteger("notifier");
                 }
 
-                if (tracker.notifierIndex != -1 || tracker.ownerIndex != -1) {
+                if (notifierIndex != -1 || ownerIndex != -1) {
                     if (isShortPos) {
-                        trackedShortPlayerPositions.put(valueNbt.getShort("pos"), tracker);
+                        trackedPositions.putShort(valueNbt.getShort("pos"), PlayerTrackerMap.pack(ownerIndex, notifierIndex));
                     } else {
-                        trackedIntPlayerPositions.put(valueNbt.getInteger("ipos"), tracker);
+                        trackedPositions.putInt(valueNbt.getInteger("ipos"), PlayerTrackerMap.pack(ownerIndex, notifierIndex));
                     }
                 }
             }
-            chunk.bridge$setTrackedIntPlayerPositions(trackedIntPlayerPositions);
-            chunk.bridge$setTrackedShortPlayerPositions(trackedShortPlayerPositions);
+            // Sections are inflated on first access unless lazy loading has been turned off
+            if (((WorldInfoBridge) worldIn.getWorldInfo()).bridge$getConfigAdapter().getConfig().getBlockTracking().isLazyLoading()) {
+                trackedPositions.compact();
+            } else {
+                trackedPositions.inflateAll();
+            }
+            chunk.bridge$setTrackedPlayerPositions(trackedPositions);
         }
     }
 
@@ -230,10 +306,19 @@ private void onReadChunkFromNBT(final World worldIn, final NBTTagCompound compou
      */
     @Overwrite
     protected void addChunkToPending(final ChunkPos pos, final NBTTagCompound compound) {
-        synchronized (this.impl$lock) {
-            this.chunksToSave.put(pos, compound);
+        // Sponge start - Queue the sections that still need to be serialized with the chunk
+        final QueuedChunk chunk = new QueuedChunk(pos, compound, this.impl$sections.isEmpty() ? null : new ArrayList<>(this.impl$sections));
+        this.impl$sections.clear();
+        final PendingChunkMap pending = (PendingChunkMap) this.chunksToSave;
+        if (this.impl$writerPool != null) {
+            if (pending.schedule(chunk)) {
+                this.impl$writerPool.submit(this.chunkSaveLocation, pos, () -> this.impl$writeScheduledChunk(pos));
+            }
+            return;
         }
-        this.impl$queue.add(new QueuedChunk(pos, compound));
+        pending.queue(chunk);
+        this.impl$queue.add(chunk);
+        // Sponge end
 
         ThreadedFileIOBase.getThreadedIOInstance().queueIO((AnvilChunkLoader) (Object) this);
     }
@@ -252,59 +337,83 @@ public boolean writeNextIO() {
             }
 
             return false;
-        } else {
-            final ChunkPos chunkpos = chunk.coords;
-            boolean lvt_3_1_;
+        }
+        this.impl$writeChunk(chunk);
+        return true;
+    }
 
-            try {
-                // this.field_193415_c.add(chunkpos);
-                final NBTTagCompound nbttagcompound = chunk.compound;
-
-                if (nbttagcompound != null) {
-                    int attempts = 0;
-                    Exception laste = null;
-                    while (attempts++ < 5) {
-                        try {
-                            this.writeChunkData(chunkpos, nbttagcompound);
-                            laste = null;
-                            break;
-                        } catch (Exception exception) {
-                            // LOGGER.error((String)"Failed to save chunk",
-                            // (Throwable)exception);
-                            laste = exception;
-                        }
-                        try {
-                            Thread.sleep(10);
-                        } catch (InterruptedException e) {
-                            e.printStackTrace();
-                        }
-                    }
-                    if (laste != null) {
-                        laste.printStackTrace();
-                    }
-                }
+    private void impl$writeScheduledChunk(final ChunkPos pos) {
+        final QueuedChunk chunk = ((PendingChunkMap) this.chunksToSave).take(pos);
+        if (chunk != null) {
+            this.impl$writeChunk(chunk);
+        }
+    }
 
-                synchronized (this.impl$lock) {
-                    if (this.chunksToSave.get(chunkpos) == nbttagcompound) {
-                        this.chunksToSave.remove(chunkpos);
-                    }
-                }
-                // Sponge - This will not equal if a newer version is still
-                // pending
-                lvt_3_1_ = true;
-            } finally {
-                // this.field_193415_c.remove(chunkpos);
+    private void impl$writeChunk(final QueuedChunk chunk) {
+        final long start = System.nanoTime();
+        final NBTTagCompound compound = chunk.complete();
+        Exception lastException = null;
+        for (int attempts = 0; attempts < 5; attempts++) {
+            try {
+                this.writeChunkData(chunk.coords, compound);
+                lastException = null;
+                break;
+            } catch (Exception e) {
+                lastException = e;
             }
+        }
+        if (lastException != null) {
+            LOGGER.error("Failed to save chunk", lastException);
+        }
+        this.impl$serializationTime.addAndGet(System.nanoTime() - start);
+        // This will not remove the chunk if a newer version is still pending
+        ((PendingChunkMap) this.chunksToSave).written(chunk);
+    }
 
-            return lvt_3_1_;
+    @Inject(method = "flush", at = @At("HEAD"))
+    private void impl$flushChunkWriters(final CallbackInfo ci) {
+        if (this.impl$writerPool != null) {
+            this.impl$writerPool.flush();
         }
     }
 
+    @Override
+    public int bridge$getPendingWrites() {
+        return this.chunksToSave.size();
+    }
+
+    @Override
+    public long bridge$takeSerializationTime() {
+        return this.impl$serializationTime.getAndSet(0);
+    }
+
     @Override
     public Path bridge$getWorldDir() {
         return this.chunkSaveLocation.toPath();
     }
 
+    @Nullable
+    @Override
+    public NBTTagCompound bridge$readChunkData(final int x, final int z) throws IOException {
+        final NBTTagCompound pending = this.chunksToSave.get(new ChunkPos(x, z));
+        if (pending != null) {
+            return pending;
+        }
+        try (final DataInputStream stream = RegionFileCache.getChunkInputStream(this.chunkSaveLocation, x, z)) {
+            if (stream == null) {
+                return null;
+            }
+            return CompressedStreamTools.read(stream);
+        }
+    }
+
+    @Nullable
+    @Override
+    public net.minecraft.world.chunk.Chunk bridge$loadChunkFromData(final World world, final int x, final int z, final NBTTagCompound compound) {
+        // Chunks waiting to be written are up to date already, the fixer passes them through
+        return SpongeImplHooks.loadChunkFromData((AnvilChunkLoader) (Object) this, world, x, z, this.fixer.process(FixTypes.CHUNK, compound));
+    }
+
     @Inject(method = "writeChunkData", at = @At("RETURN"))
     private void impl$callSaveChunkEventPost(ChunkPos pos, NBTTagCompound compound, CallbackInfo ci) {
         if (ShouldFire.SAVE_CHUNK_EVENT_POST) {
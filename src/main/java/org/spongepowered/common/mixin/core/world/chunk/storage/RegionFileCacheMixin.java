@@ -34,6 +34,7 @@
 
 import java.io.DataInputStream;
 import java.io.File;
+import java.io.IOException;
 
 @Mixin(RegionFileCache.class)
 public abstract class RegionFileCacheMixin {
@@ -59,4 +60,17 @@ public static DataInputStream getChunkInputStream(File worldDir, int chunkX, int
         // Sponge end
         return regionfile.getChunkDataInputStream(chunkX & 31, chunkZ & 31);
     }
+
+    /**
+     * Region files are evicted from the cache by whichever thread opens one
+     * too many, while chunk writer threads may still be writing to them.
+     * Closing a region file while holding its lock waits for a write in
+     * progress to finish, instead of cutting it off halfway through.
+     */
+    @Redirect(method = "clearRegionFileReferences", at = @At(value = "INVOKE", target = "Lnet/minecraft/world/chunk/storage/RegionFile;close()V"))
+    private static void impl$closeAfterWrites(final RegionFile regionFile) throws IOException {
+        synchronized (regionFile) {
+            regionFile.close();
+        }
+    }
 }
@@ -29,6 +29,7 @@
 import net.minecraft.crash.CrashReport;
 import net.minecraft.crash.CrashReportCategory;
 import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.storage.IChunkLoader;
@@ -57,6 +58,8 @@
 import org.spongepowered.common.bridge.world.chunk.ChunkBridge;
 import org.spongepowered.common.bridge.world.chunk.ChunkProviderBridge;
 import org.spongepowered.common.bridge.world.chunk.ChunkProviderServerBridge;
+import org.spongepowered.common.bridge.world.chunk.storage.AnvilChunkLoaderBridge;
+import org.spongepowered.common.config.category.AsyncChunkLoadingCategory;
 import org.spongepowered.common.config.category.WorldCategory;
 import org.spongepowered.common.event.ShouldFire;
 import org.spongepowered.common.event.tracking.IPhaseState;
@@ -65,12 +68,14 @@
 import org.spongepowered.common.event.tracking.phase.generation.GenerationPhase;
 import org.spongepowered.common.util.CachedLong2ObjectMap;
 import org.spongepowered.common.util.Constants;
+import org.spongepowered.common.world.AsyncChunkLoader;
+import org.spongepowered.common.world.ChunkUnloadQueue;
 import org.spongepowered.common.world.SpongeEmptyChunk;
 import org.spongepowered.common.world.storage.WorldStorageUtil;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
-import java.util.Iterator;
 import java.util.concurrent.CompletableFuture;
 
 import javax.annotation.Nullable;
@@ -82,6 +87,8 @@ public abstract class ChunkProviderServerMixin implements ChunkProviderServerBri
     private boolean impl$forceChunkRequests = false;
     private long impl$chunkUnloadDelay = Constants.World.DEFAULT_CHUNK_UNLOAD_DELAY;
     private int impl$maxChunkUnloads = Constants.World.MAX_CHUNK_UNLOADS;
+    @Nullable private AsyncChunkLoader impl$asyncChunkLoader;
+    private final ChunkUnloadQueue impl$unloadQueue = new ChunkUnloadQueue();
 
     @Shadow @Final private WorldServer world;
     @Shadow @Final private IChunkLoader chunkLoader;
@@ -90,6 +97,7 @@ public abstract class ChunkProviderServerMixin implements ChunkProviderServerBri
 
     @Shadow @Nullable public abstract Chunk getLoadedChunk(int x, int z);
     @Shadow @Nullable public abstract Chunk loadChunk(int x, int z);
+    @Shadow public abstract Chunk provideChunk(int x, int z);
     @Shadow protected abstract void saveChunkExtraData(Chunk chunkIn);
     @Shadow protected abstract void saveChunkData(Chunk chunkIn);
     @Shadow public abstract boolean shadow$canSave();
@@ -107,6 +115,60 @@ public abstract class ChunkProviderServerMixin implements ChunkProviderServerBri
         this.impl$denyChunkRequests = worldCategory.getDenyChunkRequests();
         this.impl$chunkUnloadDelay = worldCategory.getChunkUnloadDelay() * 1000;
         this.impl$maxChunkUnloads = worldCategory.getMaxChunkUnloads();
+
+        final AsyncChunkLoadingCategory asyncChunkLoading =
+            SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().getAsyncChunkLoadingCategory();
+        if (asyncChunkLoading.isEnabled() && chunkLoaderIn instanceof AnvilChunkLoaderBridge) {
+            this.impl$asyncChunkLoader = new AsyncChunkLoader(worldObjIn, (ChunkProviderServer) (Object) this,
+                (AnvilChunkLoaderBridge) chunkLoaderIn, asyncChunkLoading);
+        }
+    }
+
+    @Override
+    public int bridge$getPendingChunkWrites() {
+        return this.chunkLoader instanceof AnvilChunkLoaderBridge ? ((AnvilChunkLoaderBridge) this.chunkLoader).bridge$getPendingWrites() : 0;
+    }
+
+    @Override
+    public boolean bridge$saveChunkIfNeeded(final Chunk chunk) {
+        // The chunk may have been unloaded, and therefore saved, since it was queued
+        if (this.loadedChunks.get(ChunkPos.asLong(chunk.x, chunk.z)) != chunk || !chunk.needsSaving(true)) {
+            return false;
+        }
+        this.saveChunkExtraData(chunk);
+        this.saveChunkData(chunk);
+        chunk.setModified(false);
+        return true;
+    }
+
+    @Override
+    public boolean bridge$isAsyncChunkLoadingEnabled() {
+        return this.impl$asyncChunkLoader != null;
+    }
+
+    @Override
+    public CompletableFuture<Chunk> bridge$loadChunkAsync(final int x, final int z, final boolean generate) {
+        final Chunk chunk = this.getLoadedChunk(x, z);
+        if (chunk != null) {
+            return CompletableFuture.completedFuture(chunk);
+        }
+        if (this.impl$asyncChunkLoader == null) {
+            return CompletableFuture.completedFuture(generate ? this.provideChunk(x, z) : this.loadChunk(x, z));
+        }
+        return this.impl$asyncChunkLoader.load(x, z, generate);
+    }
+
+    @Redirect(method = "loadChunkFromFile",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/world/chunk/storage/IChunkLoader;loadChunk(Lnet/minecraft/world/World;II)Lnet/minecraft/world/chunk/Chunk;"))
+    @Nullable
+    private Chunk impl$finishAsyncChunkLoad(final IChunkLoader chunkLoader, final World world, final int x, final int z) throws IOException {
+        final AsyncChunkLoader.Request request = this.impl$asyncChunkLoader == null ? null : this.impl$asyncChunkLoader.claim(x, z);
+        if (request == null) {
+            return chunkLoader.loadChunk(world, x, z);
+        }
+        return request.loadChunk();
     }
 
     @Override
@@ -128,9 +190,16 @@ public void queueUnload(final Chunk chunkIn)
             // Sponge - we avoid using the queue and simply check the unloaded flag during unloads
             //this.droppedChunksSet.add(Long.valueOf(ChunkPos.asLong(chunkIn.x, chunkIn.z)));
             chunkIn.unloadQueued = true;
+            // Sponge - Index the chunk by when it can be unloaded, so unloading does not scan every loaded chunk
+            this.impl$unloadQueue.add(chunkIn, this.impl$getUnloadTime(chunkIn));
         }
     }
 
+    private long impl$getUnloadTime(final Chunk chunk) {
+        final long scheduled = ((ChunkBridge) chunk).bridge$getScheduledForUnload();
+        return this.impl$chunkUnloadDelay > 0 && scheduled != -1 ? scheduled + this.impl$chunkUnloadDelay : 0;
+    }
+
 
 
     @Redirect(method = "provideChunk",
@@ -255,6 +324,9 @@ public void queueUnload(final Chunk chunkIn)
     public boolean tick()
     {
         // Sponge start
+        if (this.impl$asyncChunkLoader != null) {
+            this.impl$asyncChunkLoader.tick();
+        }
         final SerializationBehavior behavior = ((WorldProperties) this.world.getWorldInfo()).getSerializationBehavior();
         if (behavior != SerializationBehaviors.AUTOMATIC) {
             return false;
@@ -264,30 +336,44 @@ public boolean tick()
         if (this.shadow$canSave() && !((WorldBridge) this.world).bridge$isFake())
         {
             ((WorldServerBridge) this.world).bridge$getTimingsHandler().doChunkUnload.startTiming();
-            final Iterator<Chunk> iterator = this.loadedChunks.values().iterator();
             int chunksUnloaded = 0;
             final long now = System.currentTimeMillis();
-            while (chunksUnloaded < this.impl$maxChunkUnloads && iterator.hasNext()) {
-                final Chunk chunk = iterator.next();
+            Chunk chunk;
+            while (chunksUnloaded < this.impl$maxChunkUnloads && (chunk = this.impl$unloadQueue.poll(now)) != null) {
                 final ChunkBridge spongeChunk = (ChunkBridge) chunk;
-                if (chunk != null && chunk.unloadQueued && !spongeChunk.bridge$isPersistedChunk()) {
-                    if (this.bridge$getChunkUnloadDelay() > 0) {
-                        if ((now - spongeChunk.bridge$getScheduledForUnload()) < this.impl$chunkUnloadDelay) {
-                            continue;
-                        }
-                        spongeChunk.bridge$setScheduledForUnload(-1);
+                final long key = ChunkPos.asLong(chunk.x, chunk.z);
+                // The chunk may have been marked active again or unloaded some other way since it was queued
+                if (!chunk.unloadQueued || this.loadedChunks.get(key) != chunk) {
+                    continue;
+                }
+                if (spongeChunk.bridge$isPersistedChunk()) {
+                    chunk.unloadQueued = false;
+                    continue;
+                }
+                if (this.bridge$getChunkUnloadDelay() > 0) {
+                    final long unloadTime = this.impl$getUnloadTime(chunk);
+                    if (unloadTime > now) {
+                        this.impl$unloadQueue.add(chunk, unloadTime);
+                        continue;
                     }
-                    chunk.onUnload();
-                    this.saveChunkData(chunk);
-                    this.saveChunkExtraData(chunk);
-                    iterator.remove();
-                    chunksUnloaded++;
+                    spongeChunk.bridge$setScheduledForUnload(-1);
                 }
+                chunk.onUnload();
+                this.saveChunkData(chunk);
+                this.saveChunkExtraData(chunk);
+                this.loadedChunks.remove(key);
+                chunksUnloaded++;
             }
             ((WorldServerBridge) this.world).bridge$getTimingsHandler().doChunkUnload.stopTiming();
         }
 
         this.chunkLoader.chunkTick();
+        // Sponge start - Record the time spent serializing chunks off the server thread
+        if (this.chunkLoader instanceof AnvilChunkLoaderBridge) {
+            ((WorldServerBridge) this.world).bridge$getTimingsHandler()
+                .recordChunkSerialization(((AnvilChunkLoaderBridge) this.chunkLoader).bridge$takeSerializationTime());
+        }
+        // Sponge end
         return false;
     }
 
@@ -51,6 +51,7 @@
 import org.spongepowered.common.data.util.DataUtil;
 import org.spongepowered.common.event.tracking.IPhaseState;
 import org.spongepowered.common.event.tracking.PhaseTracker;
+import org.spongepowered.common.service.user.SpongeUserStorageService;
 import org.spongepowered.common.util.Constants;
 import org.spongepowered.common.world.WorldManager;
 import org.spongepowered.common.world.storage.SpongePlayerDataHandler;
@@ -397,6 +398,7 @@ private String modifyMinecraftExceptionOutputIfIOException(final String message)
             shift = At.Shift.AFTER))
     private void impl$saveSpongePlayerData(final EntityPlayer player, final CallbackInfo callbackInfo) {
         SpongePlayerDataHandler.savePlayer(player.getUniqueID());
+        SpongeUserStorageService.onUserDataSaved((org.spongepowered.api.profile.GameProfile) player.getGameProfile());
     }
 
     @Inject(
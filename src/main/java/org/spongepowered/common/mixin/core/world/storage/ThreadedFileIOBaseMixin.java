@@ -30,8 +30,11 @@
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.world.storage.ChunkWriterPool;
 
 import java.util.List;
 
@@ -54,4 +57,17 @@ public void onProcessQueueThreadSleep(long millis) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Chunks are written by the {@link ChunkWriterPool} instead of this
+     * thread if it is enabled, so waiting for all file IO to finish
+     * includes waiting for the pool.
+     */
+    @Inject(method = "waitForFinish", at = @At("HEAD"))
+    private void impl$flushChunkWriters(final CallbackInfo ci) {
+        final ChunkWriterPool pool = ChunkWriterPool.getInstanceIfStarted();
+        if (pool != null) {
+            pool.flush();
+        }
+    }
 }
@@ -27,25 +27,53 @@
 import net.minecraft.pathfinding.PathNavigate;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import org.spongepowered.common.bridge.world.WorldBridge;
+import org.spongepowered.common.bridge.world.chunk.ChunkProviderServerBridge;
+import org.spongepowered.common.world.AsyncChunkLoader;
+
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.Nullable;
 
 @Mixin(value = PathNavigate.class, priority = 1500)
 public class PathNavigateMixin_ChunkLoadOptimizations {
 
     @Shadow protected World world;
 
+    @Nullable private CompletableFuture<Chunk> chunkLoadOptimizations$pendingChunk;
+
     /**
      * Check if a chunk is loaded before attempting to check the state of the block
-     * return false if the chunk is not loaded
+     * return false if the chunk is not loaded. The chunk is loaded in the background
+     * if async chunk loading is enabled, so that a later attempt can use it.
      */
     @Inject(method = "canEntityStandOnPos", at = @At(value = "HEAD"), cancellable = true)
     private void canEntityStandOnPos(BlockPos pos, CallbackInfoReturnable<Boolean> cir) {
         if (!this.world.isBlockLoaded(pos)) {
             cir.setReturnValue(false);
+            if (this.chunkLoadOptimizations$pendingChunk == null && this.world instanceof WorldServer && !((WorldBridge) this.world).bridge$isFake()
+                && ((ChunkProviderServerBridge) this.world.getChunkProvider()).bridge$isAsyncChunkLoadingEnabled()) {
+                final WorldServer world = (WorldServer) this.world;
+                final CompletableFuture<Chunk> future = ((ChunkProviderServerBridge) world.getChunkProvider())
+                    .bridge$loadChunkAsync(pos.getX() >> 4, pos.getZ() >> 4, false);
+                if (!future.isDone()) {
+                    // One chunk at a time per navigator, the chunk is let go once nobody is watching it
+                    this.chunkLoadOptimizations$pendingChunk = future;
+                    future.thenAccept(chunk -> {
+                        this.chunkLoadOptimizations$pendingChunk = null;
+                        if (chunk != null) {
+                            AsyncChunkLoader.releaseIfUnused(world, chunk);
+                        }
+                    });
+                }
+            }
         }
     }
 
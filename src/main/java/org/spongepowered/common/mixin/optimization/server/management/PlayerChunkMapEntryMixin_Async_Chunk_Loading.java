@@ -0,0 +1,123 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.mixin.optimization.server.management;
+
+import net.minecraft.server.management.PlayerChunkMap;
+import net.minecraft.server.management.PlayerChunkMapEntry;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.gen.ChunkProviderServer;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.common.bridge.world.chunk.ChunkProviderServerBridge;
+import org.spongepowered.common.world.AsyncChunkLoader;
+
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.Nullable;
+
+/**
+ * Loads the chunks of player chunk map entries in the background instead of
+ * reading them when the entry is created, which happens for every chunk that
+ * comes into view of a moving or teleporting player. The entry stays in the
+ * list of entries without chunks until the load finishes, just like an entry
+ * waiting for its chunk to be generated, and a chunk that was never saved is
+ * generated synchronously as before. Forge already loads these chunks
+ * asynchronously, so none of these redirects apply there.
+ */
+@Mixin(PlayerChunkMapEntry.class)
+public abstract class PlayerChunkMapEntryMixin_Async_Chunk_Loading {
+
+    @Shadow @Final private PlayerChunkMap playerChunkMap;
+
+    @Nullable private CompletableFuture<Chunk> asyncChunkLoading$pending;
+    private boolean asyncChunkLoading$missing;
+
+    @Redirect(method = "<init>",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/world/gen/ChunkProviderServer;loadChunk(II)Lnet/minecraft/world/chunk/Chunk;"),
+        require = 0,
+        expect = 0)
+    @Nullable
+    private Chunk asyncChunkLoading$loadChunkOnConstruct(final ChunkProviderServer provider, final int x, final int z) {
+        return this.asyncChunkLoading$requestChunk(provider, x, z);
+    }
+
+    @Redirect(method = "providePlayerChunk",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/world/gen/ChunkProviderServer;loadChunk(II)Lnet/minecraft/world/chunk/Chunk;"),
+        require = 0,
+        expect = 0)
+    @Nullable
+    private Chunk asyncChunkLoading$loadChunk(final ChunkProviderServer provider, final int x, final int z) {
+        if (this.asyncChunkLoading$missing) {
+            return provider.getLoadedChunk(x, z);
+        }
+        return this.asyncChunkLoading$requestChunk(provider, x, z);
+    }
+
+    @Redirect(method = "providePlayerChunk",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/world/gen/ChunkProviderServer;provideChunk(II)Lnet/minecraft/world/chunk/Chunk;"),
+        require = 0,
+        expect = 0)
+    private Chunk asyncChunkLoading$provideChunk(final ChunkProviderServer provider, final int x, final int z) {
+        if (this.asyncChunkLoading$missing) {
+            // Only generating the chunk is left, which can't be done in the background
+            return provider.provideChunk(x, z);
+        }
+        return this.asyncChunkLoading$requestChunk(provider, x, z);
+    }
+
+    @Nullable
+    private Chunk asyncChunkLoading$requestChunk(final ChunkProviderServer provider, final int x, final int z) {
+        if (this.asyncChunkLoading$pending != null) {
+            return null;
+        }
+        final CompletableFuture<Chunk> future = ((ChunkProviderServerBridge) provider).bridge$loadChunkAsync(x, z, false);
+        if (future.isDone()) {
+            final Chunk loaded = future.getNow(null);
+            this.asyncChunkLoading$missing = loaded == null;
+            return loaded;
+        }
+        this.asyncChunkLoading$pending = future;
+        // The chunk is picked up by the next providePlayerChunk call, the player chunk map retries it every tick
+        future.thenAccept(loaded -> {
+            this.asyncChunkLoading$pending = null;
+            if (loaded == null) {
+                this.asyncChunkLoading$missing = true;
+            } else if (this.playerChunkMap.getEntry(x, z) == null) {
+                // Every player left the chunk while it was loading
+                AsyncChunkLoader.releaseIfUnused(this.playerChunkMap.getWorldServer(), loaded);
+            }
+        });
+        return null;
+    }
+}
@@ -24,7 +24,7 @@
  */
 package org.spongepowered.common.mixin.optimization.world;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import co.aikar.timings.Timing;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
@@ -33,8 +33,12 @@
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.chunk.Chunk;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.SpongeImplHooks;
+import org.spongepowered.common.bridge.world.WorldServerBridge;
 import org.spongepowered.common.bridge.world.WorldServerBridge_AsyncLighting;
 import org.spongepowered.common.bridge.world.chunk.ChunkBridge;
 import org.spongepowered.common.bridge.world.chunk.ChunkBridge_AsyncLighting;
@@ -42,18 +46,41 @@
 import org.spongepowered.common.bridge.util.math.BlockPosBridge;
 import org.spongepowered.common.mixin.core.world.WorldMixin;
 import org.spongepowered.common.util.Constants;
+import org.spongepowered.common.world.AsyncLightingEngine;
 
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
 
 import javax.annotation.Nullable;
 
 @Mixin(value = WorldServer.class)
 public abstract class WorldServerMixin_Async_Lighting extends WorldMixin implements WorldServerBridge_AsyncLighting {
 
-    private ExecutorService asyncLightingImpl$lightExecutorService =
-                Executors.newFixedThreadPool(SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().getAsyncLightingCategory().getNumThreads(), new ThreadFactoryBuilder().setNameFormat("Sponge - Async Light Thread").build());
+    // Regions of the lighting engine run concurrently, so each light thread needs its own propagation queue
+    private static final ThreadLocal<int[]> asyncLightingImpl$lightUpdateBlockList = ThreadLocal.withInitial(() -> new int[32768]);
+
+    private final AsyncLightingEngine asyncLightingImpl$lightingEngine =
+                new AsyncLightingEngine(SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().getAsyncLightingCategory().getNumThreads());
+    // Complete 3x3 neighbor lists of chunks with light updates queued since the start of the tick, only accessed from the main thread.
+    // Chunks are only unloaded during the world tick, so the lists stay valid until the next world tick starts.
+    private final Map<Chunk, List<Chunk>> asyncLightingImpl$neighborCache = new IdentityHashMap<>();
+
+    // The batch dispatched at the end of the last world tick ran alongside the entity tick and the entity tracker,
+    // this blocks the server thread if the light threads have not finished it yet.
+    @Inject(method = "tick", at = @At("HEAD"))
+    private void asyncLightingImpl$awaitLightUpdates(final CallbackInfo ci) {
+        final Timing timing = ((WorldServerBridge) this).bridge$getTimingsHandler().asyncLightingAwait;
+        timing.startTiming();
+        this.asyncLightingImpl$lightingEngine.awaitCompletion();
+        timing.stopTiming();
+        this.asyncLightingImpl$neighborCache.clear();
+    }
+
+    @Inject(method = "tick", at = @At("RETURN"))
+    private void asyncLightingImpl$dispatchLightUpdates(final CallbackInfo ci) {
+        this.asyncLightingImpl$lightingEngine.dispatch();
+    }
 
     @Override
     public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
@@ -68,6 +95,7 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
             return false;
         } else {
             final ChunkBridge_AsyncLighting spongeChunk = (ChunkBridge_AsyncLighting) currentChunk;
+            final int[] lightUpdateBlockList = asyncLightingImpl$lightUpdateBlockList.get(); // Sponge - use thread local queue
             int i = 0;
             int j = 0;
             //this.theProfiler.startSection("getBrightness"); // Sponge - don't use profiler off of main thread
@@ -78,12 +106,12 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
             final int k1 = pos.getZ();
 
             if (l > k) {
-                this.lightUpdateBlockList[j++] = 133152;
+                lightUpdateBlockList[j++] = 133152;
             } else if (l < k) {
-                this.lightUpdateBlockList[j++] = 133152 | k << 18;
+                lightUpdateBlockList[j++] = 133152 | k << 18;
 
                 while (i < j) {
-                    final int l1 = this.lightUpdateBlockList[i++];
+                    final int l1 = lightUpdateBlockList[i++];
                     final int i2 = (l1 & 63) - 32 + i1;
                     final int j2 = (l1 >> 6 & 63) - 32 + j1;
                     final int k2 = (l1 >> 12 & 63) - 32 + k1;
@@ -116,8 +144,8 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
                                     i3 = this.asyncLightingImpl$getLightForAsync(lightType, blockpos$pooledmutableblockpos, currentChunk, neighbors);
                                     // Sponge end
 
-                                    if (i3 == l2 - l4 && j < this.lightUpdateBlockList.length) {
-                                        this.lightUpdateBlockList[j++] = i4 - i1 + 32 | j4 - j1 + 32 << 6 | k4 - k1 + 32 << 12 | l2 - l4 << 18;
+                                    if (i3 == l2 - l4 && j < lightUpdateBlockList.length) {
+                                        lightUpdateBlockList[j++] = i4 - i1 + 32 | j4 - j1 + 32 << 6 | k4 - k1 + 32 << 12 | l2 - l4 << 18;
                                     }
                                 }
 
@@ -134,7 +162,7 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
             //this.theProfiler.startSection("checkedPosition < toCheckCount"); // Sponge - don't use profiler off of main thread
 
             while (i < j) {
-                final int i5 = this.lightUpdateBlockList[i++];
+                final int i5 = lightUpdateBlockList[i++];
                 final int j5 = (i5 & 63) - 32 + i1;
                 final int k5 = (i5 >> 6 & 63) - 32 + j1;
                 final int l5 = (i5 >> 12 & 63) - 32 + k1;
@@ -149,32 +177,32 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
                         final int k6 = Math.abs(j5 - i1);
                         final int l6 = Math.abs(k5 - j1);
                         final int i7 = Math.abs(l5 - k1);
-                        final boolean flag = j < this.lightUpdateBlockList.length - 6;
+                        final boolean flag = j < lightUpdateBlockList.length - 6;
 
                         if (k6 + l6 + i7 < 17 && flag) {
                             // Sponge start - use thread safe method asyncLightingImpl$getLightForAsync
                             if (this.asyncLightingImpl$getLightForAsync(lightType, blockpos1.west(), currentChunk, neighbors) < j6) {
-                                this.lightUpdateBlockList[j++] = j5 - 1 - i1 + 32 + (k5 - j1 + 32 << 6) + (l5 - k1 + 32 << 12);
+                                lightUpdateBlockList[j++] = j5 - 1 - i1 + 32 + (k5 - j1 + 32 << 6) + (l5 - k1 + 32 << 12);
                             }
 
                             if (this.asyncLightingImpl$getLightForAsync(lightType, blockpos1.east(), currentChunk, neighbors) < j6) {
-                                this.lightUpdateBlockList[j++] = j5 + 1 - i1 + 32 + (k5 - j1 + 32 << 6) + (l5 - k1 + 32 << 12);
+                                lightUpdateBlockList[j++] = j5 + 1 - i1 + 32 + (k5 - j1 + 32 << 6) + (l5 - k1 + 32 << 12);
                             }
 
                             if (this.asyncLightingImpl$getLightForAsync(lightType, blockpos1.down(), currentChunk, neighbors) < j6) {
-                                this.lightUpdateBlockList[j++] = j5 - i1 + 32 + (k5 - 1 - j1 + 32 << 6) + (l5 - k1 + 32 << 12);
+                                lightUpdateBlockList[j++] = j5 - i1 + 32 + (k5 - 1 - j1 + 32 << 6) + (l5 - k1 + 32 << 12);
                             }
 
                             if (this.asyncLightingImpl$getLightForAsync(lightType, blockpos1.up(), currentChunk, neighbors) < j6) {
-                                this.lightUpdateBlockList[j++] = j5 - i1 + 32 + (k5 + 1 - j1 + 32 << 6) + (l5 - k1 + 32 << 12);
+                                lightUpdateBlockList[j++] = j5 - i1 + 32 + (k5 + 1 - j1 + 32 << 6) + (l5 - k1 + 32 << 12);
                             }
 
                             if (this.asyncLightingImpl$getLightForAsync(lightType, blockpos1.north(), currentChunk, neighbors) < j6) {
-                                this.lightUpdateBlockList[j++] = j5 - i1 + 32 + (k5 - j1 + 32 << 6) + (l5 - 1 - k1 + 32 << 12);
+                                lightUpdateBlockList[j++] = j5 - i1 + 32 + (k5 - j1 + 32 << 6) + (l5 - 1 - k1 + 32 << 12);
                             }
 
                             if (this.asyncLightingImpl$getLightForAsync(lightType, blockpos1.south(), currentChunk, neighbors) < j6) {
-                                this.lightUpdateBlockList[j++] = j5 - i1 + 32 + (k5 - j1 + 32 << 6) + (l5 + 1 - k1 + 32 << 12);
+                                lightUpdateBlockList[j++] = j5 - i1 + 32 + (k5 - j1 + 32 << 6) + (l5 + 1 - k1 + 32 << 12);
                             }
                             // Sponge end
                         }
@@ -183,7 +211,7 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
             }
 
             // Sponge start - Asynchronous light updates
-            spongeChunk.asyncLightingBridge$getQueuedLightingUpdates(lightType).remove((Short) this.asyncLightingImpl$blockPosToShort(pos));
+            spongeChunk.asyncLightingBridge$getQueuedLightingUpdates(lightType).remove(this.asyncLightingImpl$blockPosToShort(pos));
             spongeChunk.asyncLightingBridge$getPendingLightUpdates().decrementAndGet();
             for (final net.minecraft.world.chunk.Chunk neighborChunk : neighbors) {
                 final ChunkBridge_AsyncLighting neighbor = (ChunkBridge_AsyncLighting) neighborChunk;
@@ -198,7 +226,7 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
 
     @Override
     public boolean asyncLightingBridge$updateLightAsync(final EnumSkyBlock lightType, final BlockPos pos, @Nullable Chunk currentChunk) {
-        if (this.getMinecraftServer().isServerStopped() || this.asyncLightingImpl$lightExecutorService.isShutdown()) {
+        if (this.getMinecraftServer().isServerStopped() || this.asyncLightingImpl$lightingEngine.isShutdown()) {
             return false;
         }
 
@@ -212,15 +240,53 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
         }
 
         final short shortPos = this.asyncLightingImpl$blockPosToShort(pos);
-        if (spongeChunk.asyncLightingBridge$getQueuedLightingUpdates(lightType).contains(shortPos)) {
+        if (!spongeChunk.asyncLightingBridge$getQueuedLightingUpdates(lightType).add(shortPos)) {
             return false;
         }
 
         final Chunk chunk = currentChunk;
-        spongeChunk.asyncLightingBridge$getQueuedLightingUpdates(lightType).add(shortPos);
         spongeChunk.asyncLightingBridge$getPendingLightUpdates().incrementAndGet();
         spongeChunk.asyncLightingBridge$setLightUpdateTime(chunk.getWorld().getTotalWorldTime());
 
+        final boolean isMainThread = SpongeImpl.getServer().isCallingFromMinecraftThread();
+        final List<Chunk> neighbors;
+        if (isMainThread) {
+            final List<Chunk> cachedNeighbors = this.asyncLightingImpl$neighborCache.get(chunk);
+            if (cachedNeighbors != null) {
+                neighbors = cachedNeighbors;
+            } else {
+                neighbors = this.asyncLightingImpl$getNeighbors(spongeChunk);
+                if (neighbors.size() == 8) {
+                    this.asyncLightingImpl$neighborCache.put(chunk, neighbors);
+                }
+            }
+        } else {
+            neighbors = this.asyncLightingImpl$getNeighbors(spongeChunk);
+        }
+
+        for (final net.minecraft.world.chunk.Chunk neighborChunk : neighbors) {
+            final ChunkBridge_AsyncLighting neighbor = (ChunkBridge_AsyncLighting) neighborChunk;
+            neighbor.asyncLightingBridge$getPendingLightUpdates().incrementAndGet();
+            neighbor.asyncLightingBridge$setLightUpdateTime(chunk.getWorld().getTotalWorldTime());
+        }
+
+        if (isMainThread) {
+            this.asyncLightingImpl$lightingEngine.submit(chunk, () -> {
+                this.asyncLightingBridge$checkLightAsync(lightType, pos, chunk, neighbors);
+            });
+        } else {
+            this.asyncLightingBridge$checkLightAsync(lightType, pos, chunk, neighbors);
+        }
+
+        return true;
+    }
+
+    @Override
+    public AsyncLightingEngine asyncLightingBridge$getLightingEngine() {
+        return this.asyncLightingImpl$lightingEngine;
+    }
+
+    private List<Chunk> asyncLightingImpl$getNeighbors(final ChunkBridge_AsyncLighting spongeChunk) {
         final List<Chunk> neighbors = spongeChunk.bridge$getNeighbors();
 
         // add diagonal chunks
@@ -246,28 +312,7 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
                 neighbors.add(northWestChunk);
             }
         }
-
-        for (final net.minecraft.world.chunk.Chunk neighborChunk : neighbors) {
-            final ChunkBridge_AsyncLighting neighbor = (ChunkBridge_AsyncLighting) neighborChunk;
-            neighbor.asyncLightingBridge$getPendingLightUpdates().incrementAndGet();
-            neighbor.asyncLightingBridge$setLightUpdateTime(chunk.getWorld().getTotalWorldTime());
-        }
-
-        //System.out.println("size = " + ((ThreadPoolExecutor) this.asyncLightingImpl$lightExecutorService).getQueue().size());
-        if (SpongeImpl.getServer().isCallingFromMinecraftThread()) {
-            this.asyncLightingImpl$lightExecutorService.execute(() -> {
-                this.asyncLightingBridge$checkLightAsync(lightType, pos, chunk, neighbors);
-            });
-        } else {
-            this.asyncLightingBridge$checkLightAsync(lightType, pos, chunk, neighbors);
-        }
-
-        return true;
-    }
-
-    @Override
-    public ExecutorService asyncLightingBridge$getLightingExecutor() {
-        return this.asyncLightingImpl$lightExecutorService;
+        return neighbors;
     }
 
     // Thread safe methods to retrieve a chunk during async light updates
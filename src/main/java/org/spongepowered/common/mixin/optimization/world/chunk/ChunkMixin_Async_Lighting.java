@@ -46,15 +46,13 @@
 import org.spongepowered.common.bridge.world.WorldBridge;
 import org.spongepowered.common.bridge.world.chunk.ChunkBridge_AsyncLighting;
 import org.spongepowered.common.bridge.world.chunk.ChunkProviderBridge;
+import org.spongepowered.common.util.ConcurrentChunkPosBitSet;
 import org.spongepowered.common.util.Constants;
+import org.spongepowered.common.world.AsyncLightingEngine;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nullable;
@@ -63,12 +61,12 @@
 public abstract class ChunkMixin_Async_Lighting implements ChunkBridge_AsyncLighting {
 
     // Keeps track of block positions in this chunk currently queued for sky light update
-    private Set<Short> asyncLighting$queuedSkyLightingUpdates = ConcurrentHashMap.newKeySet();
+    private final ConcurrentChunkPosBitSet asyncLighting$queuedSkyLightingUpdates = new ConcurrentChunkPosBitSet();
     // Keeps track of block positions in this chunk currently queued for block light update
-    private Set<Short> asyncLighting$queuedBlockLightingUpdates = ConcurrentHashMap.newKeySet();
+    private final ConcurrentChunkPosBitSet asyncLighting$queuedBlockLightingUpdates = new ConcurrentChunkPosBitSet();
     private AtomicInteger asyncLighting$pendingLightUpdates = new AtomicInteger();
     private long asyncLighting$lightUpdateTime;
-    private ExecutorService asyncLighting$lightExecutorService;
+    private AsyncLightingEngine asyncLighting$lightingEngine;
     private boolean asyncLighting$isServerChunk;
 
     @Shadow @Final private World world;
@@ -99,7 +97,7 @@ public abstract class ChunkMixin_Async_Lighting implements ChunkBridge_AsyncLigh
     private void asyncLighting$initializeFields(final World worldIn, final int x, final int z, final CallbackInfo ci) {
         this.asyncLighting$isServerChunk = !((WorldBridge) worldIn).bridge$isFake();
         if (this.asyncLighting$isServerChunk) {
-            this.asyncLighting$lightExecutorService = ((WorldServerBridge_AsyncLighting) worldIn).asyncLightingBridge$getLightingExecutor();
+            this.asyncLighting$lightingEngine = ((WorldServerBridge_AsyncLighting) worldIn).asyncLightingBridge$getLightingEngine();
         }
     }
 
@@ -125,7 +123,7 @@ public abstract class ChunkMixin_Async_Lighting implements ChunkBridge_AsyncLigh
             final List<Chunk> neighbors = this.asyncLighting$getSurroundingChunks();
             if (this.isGapLightingUpdated && this.world.provider.hasSkyLight() && !skipRecheckGaps && !neighbors.isEmpty())
             {
-                this.asyncLighting$lightExecutorService.execute(() -> {
+                this.asyncLighting$lightingEngine.submit((Chunk) (Object) this, () -> {
                     this.asyncLighting$recheckGapsAsync(neighbors);
                 });
                 this.isGapLightingUpdated = false;
@@ -135,7 +133,7 @@ public abstract class ChunkMixin_Async_Lighting implements ChunkBridge_AsyncLigh
 
             if (!this.isLightPopulated && this.isTerrainPopulated && !neighbors.isEmpty())
             {
-                this.asyncLighting$lightExecutorService.execute(() -> {
+                this.asyncLighting$lightingEngine.submit((Chunk) (Object) this, () -> {
                     this.asyncLighting$checkLightAsync(neighbors);
                 });
                 // set to true to avoid requeuing the same task when not finished
@@ -259,7 +257,7 @@ public abstract class ChunkMixin_Async_Lighting implements ChunkBridge_AsyncLigh
     @Inject(method = "checkLight()V", at = @At("HEAD"), cancellable = true)
     private void asyncLighting$checkLightHead(final CallbackInfo ci) {
         if (this.asyncLighting$isServerChunk) {
-            if (this.world.getMinecraftServer().isServerStopped() || this.asyncLighting$lightExecutorService.isShutdown()) {
+            if (this.world.getMinecraftServer().isServerStopped() || this.asyncLighting$lightingEngine.isShutdown()) {
                 return;
             }
 
@@ -273,17 +271,9 @@ public abstract class ChunkMixin_Async_Lighting implements ChunkBridge_AsyncLigh
             }
 
             if (SpongeImpl.getServer().isCallingFromMinecraftThread()) {
-                try {
-                    this.asyncLighting$lightExecutorService.execute(() -> {
-                        this.asyncLighting$checkLightAsync(neighborChunks);
-                    });
-                } catch (RejectedExecutionException e) {
-                    // This could happen if ServerHangWatchdog kills the server
-                    // between the start of the method and the execute() call.
-                    if (!this.world.getMinecraftServer().isServerStopped() && !this.asyncLighting$lightExecutorService.isShutdown()) {
-                        throw e;
-                    }
-                }
+                this.asyncLighting$lightingEngine.submit((Chunk) (Object) this, () -> {
+                    this.asyncLighting$checkLightAsync(neighborChunks);
+                });
             } else {
                 this.asyncLighting$checkLightAsync(neighborChunks);
             }
@@ -502,7 +492,7 @@ else if (flag && k == 0 && !this.asyncLighting$checkWorldLight(blockpos$mutableb
     @Inject(method = "relightBlock", at = @At("HEAD"), cancellable = true)
     private void asyncLighting$onRelightBlock(final int x, final int y, final int z, final CallbackInfo ci) {
         if (this.asyncLighting$isServerChunk) {
-            this.asyncLighting$lightExecutorService.execute(() -> {
+            this.asyncLighting$lightingEngine.submit((Chunk) (Object) this, () -> {
                 this.asyncLighting$relightBlockAsync(x, y, z);
             });
             ci.cancel();
@@ -702,13 +692,13 @@ else if (flag && k == 0 && !this.asyncLighting$checkWorldLight(blockpos$mutableb
     }
 
     /**
-     * Gets the list of block positions currently queued for lighting updates.
+     * Gets the set of block positions currently queued for lighting updates.
      *
      * @param type The light type
-     * @return The list of queued block positions, empty if none
+     * @return The set of queued block positions
      */
     @Override
-    public Set<Short> asyncLightingBridge$getQueuedLightingUpdates(final EnumSkyBlock type) {
+    public ConcurrentChunkPosBitSet asyncLightingBridge$getQueuedLightingUpdates(final EnumSkyBlock type) {
         if (type == EnumSkyBlock.SKY) {
             return this.asyncLighting$queuedSkyLightingUpdates;
         }
@@ -31,7 +31,10 @@
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import org.spongepowered.common.bridge.world.WorldServerBridge_AsyncLighting;
 import org.spongepowered.common.bridge.world.chunk.ChunkBridge;
 import org.spongepowered.common.bridge.world.chunk.ChunkBridge_AsyncLighting;
 
@@ -52,4 +55,10 @@ public abstract class ChunkProviderServerMixin_Async_Lighting {
                || this.world.getTotalWorldTime() - ((ChunkBridge_AsyncLighting) chunk).asyncLightingBridge$getLightUpdateTime() < 20;
 
     }
+
+    @Inject(method = "saveChunks", at = @At("HEAD"))
+    private void asyncLighting$flushLightUpdatesBeforeSave(final boolean all, final CallbackInfoReturnable<Boolean> cir) {
+        // Make sure chunks are written with all of the light updates queued up to this point
+        ((WorldServerBridge_AsyncLighting) this.world).asyncLightingBridge$getLightingEngine().flush();
+    }
 }
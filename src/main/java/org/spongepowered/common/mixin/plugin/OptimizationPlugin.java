@@ -129,6 +129,8 @@ public void postApply(String targetClassName, ClassNode targetClass, String mixi
                     OptimizationCategory::useMapOptimization)
             .put("org.spongepowered.common.mixin.optimization.server.MinecraftServerMixin_MapOptimization",
                     OptimizationCategory::useMapOptimization)
+            .put("org.spongepowered.common.mixin.optimization.server.management.PlayerChunkMapEntryMixin_Async_Chunk_Loading",
+                    OptimizationCategory::useAsyncChunkLoading)
             .put("org.spongepowered.common.mixin.optimization.tileentity.TileEntityMixin_HopperOptimization",
                     OptimizationCategory::isOptimizeHoppers)
             .put("org.spongepowered.common.mixin.optimization.tileentity.TileEntityHopperMixin_HopperOptimization",
@@ -53,14 +53,13 @@
 import org.spongepowered.common.config.SpongeConfig;
 import org.spongepowered.common.config.type.WorldConfig;
 import org.spongepowered.common.entity.PlayerTracker;
+import org.spongepowered.common.entity.PlayerTrackerMap;
 import org.spongepowered.common.event.tracking.PhaseTracker;
 import org.spongepowered.common.event.tracking.phase.generation.GenerationPhase;
 import org.spongepowered.common.profile.SpongeProfileManager;
-import org.spongepowered.common.util.Constants;
 import org.spongepowered.common.util.SpongeHooks;
 import org.spongepowered.common.util.SpongeUsernameCache;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -78,8 +77,7 @@ public abstract class ChunkMixin_Tracker implements ChunkBridge {
 
 
     @Nullable private UserStorageService trackerImpl$userStorageService;
-    private Map<Integer, PlayerTracker> trackerImpl$trackedIntBlockPositions = new HashMap<>();
-    private Map<Short, PlayerTracker> trackerImpl$trackedShortBlockPositions = new HashMap<>();
+    private PlayerTrackerMap trackerImpl$trackedBlockPositions = new PlayerTrackerMap();
 
     @Inject(method = "<init>(Lnet/minecraft/world/World;II)V", at = @At("RETURN"))
     private void tracker$setUpUserService(@Nullable final World worldIn, final int x, final int z, final CallbackInfo ci) {
@@ -135,43 +133,12 @@ public abstract class ChunkMixin_Tracker implements ChunkBridge {
 
         final WorldInfoBridge worldInfo = (WorldInfoBridge) this.world.getWorldInfo();
         final int indexForUniqueId = worldInfo.bridge$getIndexForUniqueId(user.getUniqueId());
-        if (pos.getY() <= 255) {
-            final short blockPos = Constants.Sponge.blockPosToShort(pos);
-            final PlayerTracker playerTracker = this.trackerImpl$trackedShortBlockPositions.get(blockPos);
-            if (playerTracker != null) {
-                if (trackerType == PlayerTracker.Type.OWNER) {
-                    playerTracker.ownerIndex = indexForUniqueId;
-                    playerTracker.notifierIndex = indexForUniqueId;
-                } else {
-                    playerTracker.notifierIndex = indexForUniqueId;
-                }
-            } else {
-                this.trackerImpl$trackedShortBlockPositions.put(blockPos, new PlayerTracker(indexForUniqueId, trackerType));
-            }
-        } else {
-            final int blockPos = Constants.Sponge.blockPosToInt(pos);
-            final PlayerTracker playerTracker = this.trackerImpl$trackedIntBlockPositions.get(blockPos);
-            if (playerTracker != null) {
-                if (trackerType == PlayerTracker.Type.OWNER) {
-                    playerTracker.ownerIndex = indexForUniqueId;
-                    playerTracker.notifierIndex = indexForUniqueId;
-                } else {
-                    playerTracker.notifierIndex = indexForUniqueId;
-                }
-            } else {
-                this.trackerImpl$trackedIntBlockPositions.put(blockPos, new PlayerTracker(indexForUniqueId, trackerType));
-            }
-        }
-    }
-
-    @Override
-    public Map<Integer, PlayerTracker> bridge$getTrackedIntPlayerPositions() {
-        return this.trackerImpl$trackedIntBlockPositions;
+        this.trackerImpl$trackedBlockPositions.track(pos, indexForUniqueId, trackerType);
     }
 
     @Override
-    public Map<Short, PlayerTracker> bridge$getTrackedShortPlayerPositions() {
-        return this.trackerImpl$trackedShortBlockPositions;
+    public PlayerTrackerMap bridge$getTrackedPlayerPositions() {
+        return this.trackerImpl$trackedBlockPositions;
     }
 
     @Override
@@ -179,18 +146,9 @@ public abstract class ChunkMixin_Tracker implements ChunkBridge {
         if (((WorldBridge) this.world).bridge$isFake()) {
             return Optional.empty();
         }
-        final int intKey = Constants.Sponge.blockPosToInt(pos);
-        final PlayerTracker intTracker = this.trackerImpl$trackedIntBlockPositions.get(intKey);
-        if (intTracker != null) {
-            final int notifierIndex = intTracker.ownerIndex;
-            return this.tracker$getValidatedUser(intKey, notifierIndex);
-        } else {
-            final short shortKey = Constants.Sponge.blockPosToShort(pos);
-            final PlayerTracker shortTracker = this.trackerImpl$trackedShortBlockPositions.get(shortKey);
-            if (shortTracker != null) {
-                final int notifierIndex = shortTracker.ownerIndex;
-                return this.tracker$getValidatedUser(shortKey, notifierIndex);
-            }
+        final long tracker = this.trackerImpl$trackedBlockPositions.get(pos);
+        if (tracker != PlayerTrackerMap.UNTRACKED) {
+            return this.tracker$getValidatedUser(pos, PlayerTrackerMap.getOwnerIndex(tracker));
         }
 
         return Optional.empty();
@@ -201,18 +159,9 @@ public abstract class ChunkMixin_Tracker implements ChunkBridge {
         if (((WorldBridge) this.world).bridge$isFake()) {
             return Optional.empty();
         }
-        final int key = Constants.Sponge.blockPosToInt(pos);
-        final PlayerTracker intTracker = this.trackerImpl$trackedIntBlockPositions.get(key);
-        if (intTracker != null) {
-            final int ownerIndex = intTracker.ownerIndex;
-            return this.tracker$getValidatedUUID(key, ownerIndex);
-        } else {
-            final short shortKey = Constants.Sponge.blockPosToShort(pos);
-            final PlayerTracker shortTracker = this.trackerImpl$trackedShortBlockPositions.get(shortKey);
-            if (shortTracker != null) {
-                final int ownerIndex = shortTracker.ownerIndex;
-                return this.tracker$getValidatedUUID(shortKey, ownerIndex);
-            }
+        final long tracker = this.trackerImpl$trackedBlockPositions.get(pos);
+        if (tracker != PlayerTrackerMap.UNTRACKED) {
+            return this.tracker$getValidatedUUID(pos, PlayerTrackerMap.getOwnerIndex(tracker));
         }
 
         return Optional.empty();
@@ -223,16 +172,9 @@ public abstract class ChunkMixin_Tracker implements ChunkBridge {
         if (((WorldBridge) this.world).bridge$isFake()) {
             return Optional.empty();
         }
-        final int intKey = Constants.Sponge.blockPosToInt(pos);
-        final PlayerTracker intTracker = this.trackerImpl$trackedIntBlockPositions.get(intKey);
-        if (intTracker != null) {
-            return this.tracker$getValidatedUser(intKey, intTracker.notifierIndex);
-        } else {
-            final short shortKey = Constants.Sponge.blockPosToShort(pos);
-            final PlayerTracker shortTracker = this.trackerImpl$trackedShortBlockPositions.get(shortKey);
-            if (shortTracker != null) {
-                return this.tracker$getValidatedUser(shortKey, shortTracker.notifierIndex);
-            }
+        final long tracker = this.trackerImpl$trackedBlockPositions.get(pos);
+        if (tracker != PlayerTrackerMap.UNTRACKED) {
+            return this.tracker$getValidatedUser(pos, PlayerTrackerMap.getNotifierIndex(tracker));
         }
 
         return Optional.empty();
@@ -243,23 +185,16 @@ public abstract class ChunkMixin_Tracker implements ChunkBridge {
         if (((WorldBridge) this.world).bridge$isFake()) {
             return Optional.empty();
         }
-        final int key = Constants.Sponge.blockPosToInt(pos);
-        final PlayerTracker intTracker = this.trackerImpl$trackedIntBlockPositions.get(key);
-        if (intTracker != null) {
-            return this.tracker$getValidatedUUID(key, intTracker.notifierIndex);
-        } else {
-            final short shortKey = Constants.Sponge.blockPosToShort(pos);
-            final PlayerTracker shortTracker = this.trackerImpl$trackedShortBlockPositions.get(shortKey);
-            if (shortTracker != null) {
-                return this.tracker$getValidatedUUID(shortKey, shortTracker.notifierIndex);
-            }
+        final long tracker = this.trackerImpl$trackedBlockPositions.get(pos);
+        if (tracker != PlayerTrackerMap.UNTRACKED) {
+            return this.tracker$getValidatedUUID(pos, PlayerTrackerMap.getNotifierIndex(tracker));
         }
 
         return Optional.empty();
     }
 
-    private Optional<User> tracker$getValidatedUser(final int key, final int ownerIndex) {
-        final Optional<UUID> uuid = this.tracker$getValidatedUUID(key, ownerIndex);
+    private Optional<User> tracker$getValidatedUser(final BlockPos pos, final int ownerIndex) {
+        final Optional<UUID> uuid = this.tracker$getValidatedUUID(pos, ownerIndex);
         if (uuid.isPresent()) {
             final UUID userUniqueId = uuid.get();
             // get player if online
@@ -273,12 +208,12 @@ public abstract class ChunkMixin_Tracker implements ChunkBridge {
         return Optional.empty();
     }
 
-    private Optional<UUID> tracker$getValidatedUUID(final int key, final int ownerIndex) {
+    private Optional<UUID> tracker$getValidatedUUID(final BlockPos pos, final int ownerIndex) {
         final UUID uuid = (((WorldInfoBridge) this.world.getWorldInfo()).bridge$getUniqueIdForIndex(ownerIndex)).orElse(null);
         if (uuid != null) {
             // Verify id is valid and not invalid
             if (SpongeImpl.getGlobalConfigAdapter().getConfig().getWorld().getInvalidLookupUuids().contains(uuid)) {
-                this.trackerImpl$trackedIntBlockPositions.remove(key);
+                this.trackerImpl$trackedBlockPositions.remove(pos);
                 return Optional.empty();
             }
             // player is not online, get or create user from storage
@@ -311,27 +246,8 @@ public abstract class ChunkMixin_Tracker implements ChunkBridge {
         if (((WorldBridge) this.world).bridge$isFake()) {
             return;
         }
-        if (pos.getY() <= 255) {
-            final short blockPos = Constants.Sponge.blockPosToShort(pos);
-            final PlayerTracker shortTracker = this.trackerImpl$trackedShortBlockPositions.get(blockPos);
-            if (shortTracker != null) {
-                shortTracker.notifierIndex = uuid == null ? -1 : ((WorldInfoBridge) this.world.getWorldInfo()).bridge$getIndexForUniqueId(uuid);
-            } else {
-                this.trackerImpl$trackedShortBlockPositions.put(blockPos,
-                        new PlayerTracker(uuid == null ? -1 : ((WorldInfoBridge) this.world.getWorldInfo()).bridge$getIndexForUniqueId(uuid),
-                                PlayerTracker.Type.NOTIFIER));
-            }
-        } else {
-            final int blockPos = Constants.Sponge.blockPosToInt(pos);
-            final PlayerTracker intTracker = this.trackerImpl$trackedIntBlockPositions.get(blockPos);
-            if (intTracker != null) {
-                intTracker.notifierIndex = uuid == null ? -1 : ((WorldInfoBridge) this.world.getWorldInfo()).bridge$getIndexForUniqueId(uuid);
-            } else {
-                this.trackerImpl$trackedIntBlockPositions.put(blockPos,
-                        new PlayerTracker(uuid == null ? -1 : ((WorldInfoBridge) this.world.getWorldInfo()).bridge$getIndexForUniqueId(uuid),
-                                PlayerTracker.Type.NOTIFIER));
-            }
-        }
+        this.trackerImpl$trackedBlockPositions.setNotifier(pos,
+                uuid == null ? -1 : ((WorldInfoBridge) this.world.getWorldInfo()).bridge$getIndexForUniqueId(uuid));
     }
 
     // Special setter used by API
@@ -340,35 +256,22 @@ public abstract class ChunkMixin_Tracker implements ChunkBridge {
         if (((WorldBridge) this.world).bridge$isFake()) {
             return;
         }
-        if (pos.getY() <= 255) {
-            final short blockPos = Constants.Sponge.blockPosToShort(pos);
-            final PlayerTracker shortTracker = this.trackerImpl$trackedShortBlockPositions.get(blockPos);
-            if (shortTracker != null) {
-                shortTracker.ownerIndex = uuid == null ? -1 : ((WorldInfoBridge) this.world.getWorldInfo()).bridge$getIndexForUniqueId(uuid);
-            } else {
-                this.trackerImpl$trackedShortBlockPositions.put(blockPos, new PlayerTracker(uuid == null ? -1 : ((WorldInfoBridge) this.world.getWorldInfo())
-                        .bridge$getIndexForUniqueId(uuid), PlayerTracker.Type.OWNER));
-            }
-        } else {
-            final int blockPos = Constants.Sponge.blockPosToInt(pos);
-            final PlayerTracker intTracker = this.trackerImpl$trackedIntBlockPositions.get(blockPos);
-            if (intTracker != null) {
-                intTracker.ownerIndex = uuid == null ? -1 : ((WorldInfoBridge) this.world.getWorldInfo()).bridge$getIndexForUniqueId(uuid);
-            } else {
-                this.trackerImpl$trackedIntBlockPositions.put(blockPos, new PlayerTracker(uuid == null ? -1 : ((WorldInfoBridge) this.world.getWorldInfo())
-                        .bridge$getIndexForUniqueId(uuid), PlayerTracker.Type.OWNER));
-            }
-        }
+        this.trackerImpl$trackedBlockPositions.setOwner(pos,
+                uuid == null ? -1 : ((WorldInfoBridge) this.world.getWorldInfo()).bridge$getIndexForUniqueId(uuid));
     }
 
     @Override
-    public void bridge$setTrackedIntPlayerPositions(final Map<Integer, PlayerTracker> trackedPositions) {
-        this.trackerImpl$trackedIntBlockPositions = trackedPositions;
+    public void bridge$setTrackedPlayerPositions(final PlayerTrackerMap trackedPositions) {
+        this.trackerImpl$trackedBlockPositions = trackedPositions;
     }
 
-    @Override
-    public void bridge$setTrackedShortPlayerPositions(final Map<Short, PlayerTracker> trackedPositions) {
-        this.trackerImpl$trackedShortBlockPositions = trackedPositions;
+    @Inject(method = "onUnload", at = @At("RETURN"))
+    private void trackerImpl$compactTrackedPositions(final CallbackInfo ci) {
+        if (((WorldBridge) this.world).bridge$isFake()) {
+            return;
+        }
+        // Nothing will look up owners in this chunk anymore, only saving it still needs the positions
+        this.trackerImpl$trackedBlockPositions.compact();
     }
 
     @Inject(method = "onLoad", at = @At("HEAD"))
@@ -47,6 +47,7 @@
 import org.spongepowered.api.text.channel.MessageReceiver;
 import org.spongepowered.api.text.format.TextColors;
 import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.scheduler.AsyncTaskExecutor;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -60,6 +61,7 @@
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPOutputStream;
 
 class TimingsExport extends Thread {
@@ -201,6 +203,24 @@ static void reportTimings() {
             ).build();
         }));
 
+        // Information about the async scheduler, its tasks can't be timed
+        // per tick so their wait and execution times are exported in total
+
+        final AsyncTaskExecutor asyncExecutor = SpongeImpl.getScheduler().getAsyncExecutor();
+        builder.add("async-scheduler", JSONUtil.objectBuilder()
+                .add("queued", asyncExecutor.getQueuedTaskCount())
+                .add("active", asyncExecutor.getActiveThreadCount())
+                .add("plugins", JSONUtil.mapArrayToObject(asyncExecutor.getPluginMetrics(), (metrics) -> {
+                    return JSONUtil.singleObjectPair(metrics.getPlugin().getId(), JSONUtil.arrayOf(
+                            metrics.getCompletedTaskCount(),
+                            metrics.getTotalWaitTime(TimeUnit.MILLISECONDS),
+                            metrics.getMaxWaitTime(TimeUnit.MILLISECONDS),
+                            metrics.getTotalExecutionTime(TimeUnit.MILLISECONDS)));
+                })));
+
+        builder.add("sync-scheduler", JSONUtil.objectBuilder()
+                .add("deferred", SpongeImpl.getScheduler().getDeferredSyncTaskCount()));
+
         // Information on the users Config
 
         builder.add("config", JSONUtil.objectBuilder()
@@ -67,6 +67,11 @@ public class WorldTimingsHandler {
     public final Timing syncChunkLoadTileTicksTimer;
     public final Timing syncChunkLoadPostTimer;
 
+    // Chunk Save
+    public final Timing chunkSaveSnapshot;
+    private final TimingHandler chunkSaveSerialize;
+    public final Timing chunkSaveIncremental;
+
     // Tracking
     public final Timing causeTrackerBlockTimer;
     public final Timing causeTrackerBlockBreakTimer;
@@ -76,6 +81,9 @@ public class WorldTimingsHandler {
     // Chunk population
     public final Timing chunkPopulate;
 
+    // Async lighting
+    public final Timing asyncLightingAwait;
+
     public WorldTimingsHandler(World world) {
         String name = world.getWorldInfo().getWorldName() + " - ";
 
@@ -109,6 +117,10 @@ public WorldTimingsHandler(World world) {
         this.syncChunkLoadTileTicksTimer = SpongeTimingsFactory.ofSafe(name + "chunkLoad - TileTicks");
         this.syncChunkLoadPostTimer = SpongeTimingsFactory.ofSafe(name + "chunkLoad - Post");
 
+        this.chunkSaveSnapshot = SpongeTimingsFactory.ofSafe(name + "chunkSave - Snapshot");
+        this.chunkSaveSerialize = SpongeTimingsFactory.ofSafe(name + "chunkSave - Serialize (async)");
+        this.chunkSaveIncremental = SpongeTimingsFactory.ofSafe(name + "chunkSave - Incremental Auto-Save");
+
         this.tracker1 = SpongeTimingsFactory.ofSafe(name + "tracker stage 1");
         this.tracker2 = SpongeTimingsFactory.ofSafe(name + "tracker stage 2");
         this.doTick = SpongeTimingsFactory.ofSafe(name + "doTick");
@@ -120,5 +132,20 @@ public WorldTimingsHandler(World world) {
         this.causeTrackerEntityItemTimer = SpongeTimingsFactory.ofSafe(name + "causeTracker - EntityItemCaptures");
 
         this.chunkPopulate = SpongeTimingsFactory.ofSafe(name + "chunkPopulate");
+
+        this.asyncLightingAwait = SpongeTimingsFactory.ofSafe(name + "asyncLighting - Await");
+    }
+
+    /**
+     * Records the time the chunk IO thread spent encoding and writing
+     * chunks since the last call, as timings can only be started and
+     * stopped on the server thread.
+     *
+     * @param nanos The time spent, in nanoseconds
+     */
+    public void recordChunkSerialization(long nanos) {
+        if (nanos > 0 && this.chunkSaveSerialize.enabled) {
+            this.chunkSaveSerialize.addDiff(nanos);
+        }
     }
 }
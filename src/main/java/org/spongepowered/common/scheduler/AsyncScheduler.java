@@ -24,12 +24,10 @@
  */
 package org.spongepowered.common.scheduler;
 
-import org.spongepowered.api.scheduler.Task;
 import org.spongepowered.common.SpongeImpl;
 
-import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Condition;
@@ -40,13 +38,16 @@ public class AsyncScheduler extends SchedulerBase {
 
     // Adjustable timeout for pending Tasks
     private long minimumTimeout = Long.MAX_VALUE;
-    private long lastProcessingTimestamp;
+    private final TimingWheel wheel = this.createWheel(System::nanoTime);
     // Locking mechanism
     private final Lock lock = new ReentrantLock();
     private final Condition condition = this.lock.newCondition();
     private final AtomicBoolean stateChanged = new AtomicBoolean(false);
-    // The dynamic thread pooling executor of asynchronous tasks.
-    private final ExecutorService executor = Executors.newCachedThreadPool();
+    // The bounded thread pooling executor of asynchronous tasks.
+    private final AsyncTaskExecutor executor =
+            new AsyncTaskExecutor(SpongeImpl.getGlobalConfigAdapter().getConfig().getScheduler(), this::onExecutorCapacity);
+    // Due tasks held back while the executor is saturated, guarded by the lock
+    private final Deque<ScheduledTask> heldBackTasks = new ArrayDeque<>();
 
     AsyncScheduler() {
         super(ScheduledTask.TaskSynchronicity.ASYNCHRONOUS);
@@ -57,12 +58,11 @@ public class AsyncScheduler extends SchedulerBase {
         thread.start();
     }
 
-    ExecutorService getExecutor() {
+    AsyncTaskExecutor getExecutor() {
         return this.executor;
     }
 
     private void mainLoop() {
-        this.lastProcessingTimestamp = System.nanoTime();
         while (true) {
             recalibrateMinimumTimeout();
             this.runTick();
@@ -72,40 +72,8 @@ private void mainLoop() {
     private void recalibrateMinimumTimeout() {
         this.lock.lock();
         try {
-            Set<Task> tasks = this.getScheduledTasks();
-            this.minimumTimeout = Long.MAX_VALUE;
-            long now = System.nanoTime();
-            for (Task tmpTask : tasks) {
-                ScheduledTask task = (ScheduledTask) tmpTask;
-                if (task.getState() == ScheduledTask.ScheduledTaskState.EXECUTING) {
-                    // bail out for this task. We'll signal when we complete the task.
-                    continue;
-                }
-                // Recalibrate the wait delay for processing tasks before new
-                // tasks cause the scheduler to process pending tasks.
-                if (task.offset == 0 && task.period == 0) {
-                    this.minimumTimeout = 0;
-                }
-                // The time since the task last executed or was added to the map
-                long timeSinceLast = now - task.getTimestamp();
-
-                if (task.offset > 0 && task.getState() == ScheduledTask.ScheduledTaskState.WAITING) {
-                    // There is an offset and the task hasn't run yet
-                    this.minimumTimeout = Math.min(task.offset - timeSinceLast, this.minimumTimeout);
-                }
-                if (task.period > 0 && task.getState().isActive) {
-                    // The task repeats and has run after the initial delay
-                    this.minimumTimeout = Math.min(task.period - timeSinceLast, this.minimumTimeout);
-                }
-                if (this.minimumTimeout <= 0) {
-                    break;
-                }
-            }
-            if (!tasks.isEmpty()) {
-                long latency = System.nanoTime() - this.lastProcessingTimestamp;
-                this.minimumTimeout -= (latency <= 0) ? 0 : latency;
-                this.minimumTimeout = (this.minimumTimeout < 0) ? 0 : this.minimumTimeout;
-            }
+            final long nextDeadline = this.wheel.nextDeadline();
+            this.minimumTimeout = nextDeadline == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(0L, nextDeadline - System.nanoTime());
         } finally {
             this.lock.unlock();
         }
@@ -122,6 +90,11 @@ protected void preTick() {
             }
             // We're processing now. Set to false.
             this.stateChanged.set(false);
+            // Start the tasks that were held back first, they are due the longest
+            ScheduledTask task;
+            while (!this.executor.isSaturated() && (task = this.heldBackTasks.poll()) != null) {
+                this.processTask(task);
+            }
         } catch (InterruptedException ignored) {
             // The taskMap has been modified; there is work to do.
             // Continue on without handling the Exception.
@@ -131,18 +104,39 @@ protected void preTick() {
     }
 
     @Override
-    protected void postTick() {
-        this.lastProcessingTimestamp = System.nanoTime();
+    protected void finallyPostTick() {
+        this.lock.unlock();
     }
 
     @Override
-    protected void finallyPostTick() {
-        this.lock.unlock();
+    protected void onTaskDue(ScheduledTask task) {
+        // Apply backpressure to the scheduler instead of the executor, the
+        // task waits here until the executor has room for it again.
+        if (!this.heldBackTasks.isEmpty() || this.executor.isSaturated()) {
+            this.heldBackTasks.add(task);
+            return;
+        }
+        super.onTaskDue(task);
+    }
+
+    private void onExecutorCapacity() {
+        this.lock.lock();
+        try {
+            this.stateChanged.set(true);
+            this.condition.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    protected TimingWheel getWheel(ScheduledTask task) {
+        return this.wheel;
     }
 
     @Override
     protected void executeTaskRunnable(ScheduledTask task, Runnable runnable) {
-        this.executor.submit(runnable);
+        this.executor.execute(task.getOwner(), runnable);
     }
 
     @Override
@@ -159,14 +153,18 @@ protected void addTask(ScheduledTask task) {
 
     @Override
     protected void onTaskCompletion(ScheduledTask task) {
-        if (task.getState() == ScheduledTask.ScheduledTaskState.RUNNING) {
-            this.lock.lock();
-            try {
+        this.lock.lock();
+        try {
+            // The task was due while it was still executing, hand it back
+            // so it's either started again or dropped if it got cancelled.
+            if (task.awaitingCompletion) {
+                task.awaitingCompletion = false;
+                this.requeueTask(task);
                 this.stateChanged.set(true);
                 this.condition.signalAll();
-            } finally {
-                this.lock.unlock();
             }
+        } finally {
+            this.lock.unlock();
         }
     }
 
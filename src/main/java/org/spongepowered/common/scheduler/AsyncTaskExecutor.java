@@ -0,0 +1,293 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.scheduler;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.spongepowered.api.plugin.PluginContainer;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.config.category.SchedulerCategory;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+/**
+ * The bounded thread pool which runs the tasks of the {@link AsyncScheduler}.
+ *
+ * <p>Tasks wait in a queue per plugin, the queues with waiting tasks are
+ * served in a round robin fashion whenever a worker thread becomes free, so
+ * a burst of tasks of one plugin can't starve the tasks of other plugins.
+ * The amount of running tasks is limited per plugin and in total.</p>
+ *
+ * <p>Runnables are always queued, they never run on the submitting thread.
+ * Once the amount of waiting tasks reaches the optional capacity of the
+ * queue the executor is {@link #isSaturated() saturated}, which the
+ * {@link AsyncScheduler} uses to hold back due tasks until a thread becomes
+ * free.</p>
+ */
+public final class AsyncTaskExecutor implements Executor {
+
+    private final ThreadPoolExecutor pool;
+    private final int maxThreads;
+    private final int maxThreadsPerPlugin;
+    private final int queueCapacity;
+    private final Runnable capacityListener;
+
+    // All the following state is guarded by this
+    private final Map<PluginContainer, PluginQueue> queues = new IdentityHashMap<>();
+    private final ArrayDeque<PluginQueue> ready = new ArrayDeque<>();
+    private int activeWorkers;
+    private int queued;
+    private boolean awaitingCapacity;
+
+    AsyncTaskExecutor(SchedulerCategory config, Runnable capacityListener) {
+        this.capacityListener = capacityListener;
+        final int maxThreads = config.getAsyncMaxThreads();
+        this.maxThreads = maxThreads > 0 ? maxThreads : Runtime.getRuntime().availableProcessors() * 2;
+        final int maxThreadsPerPlugin = config.getAsyncMaxThreadsPerPlugin();
+        this.maxThreadsPerPlugin = maxThreadsPerPlugin > 0 ? maxThreadsPerPlugin : this.maxThreads;
+        final int queueCapacity = config.getAsyncQueueCapacity();
+        this.queueCapacity = queueCapacity > 0 ? queueCapacity : Integer.MAX_VALUE;
+        this.pool = new ThreadPoolExecutor(Math.min(Math.max(config.getAsyncCoreThreads(), 0), this.maxThreads), this.maxThreads,
+                Math.max(config.getAsyncThreadKeepAlive(), 1), TimeUnit.SECONDS, new SynchronousQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("Sponge - Async Scheduler Thread #%d").build(), (runnable, executor) -> {
+                    // A worker is about to finish its last task but didn't poll for
+                    // a new one yet, so wait for it to pick up this worker.
+                    Uninterruptibles.putUninterruptibly(executor.getQueue(), runnable);
+                });
+    }
+
+    @Override
+    public void execute(Runnable runnable) {
+        this.execute(SpongeImpl.getPlugin(), runnable);
+    }
+
+    /**
+     * Runs the runnable on behalf of the given plugin.
+     *
+     * @param plugin The plugin owning the runnable
+     * @param runnable The runnable
+     */
+    public void execute(PluginContainer plugin, Runnable runnable) {
+        @Nullable Job next = null;
+        synchronized (this) {
+            final PluginQueue queue = this.queues.computeIfAbsent(plugin, PluginQueue::new);
+            queue.pending.add(new Job(queue, runnable));
+            this.queued++;
+            this.markReady(queue);
+            if (this.activeWorkers < this.maxThreads) {
+                next = this.pollNext();
+                if (next != null) {
+                    this.activeWorkers++;
+                }
+            }
+        }
+        if (next != null) {
+            this.pool.execute(new Worker(next));
+        }
+    }
+
+    /**
+     * Gets whether the amount of waiting tasks reached the capacity of the
+     * queue. If so, the capacity listener is notified once a waiting task
+     * got picked up by a thread.
+     *
+     * @return Whether the queue is full
+     */
+    public synchronized boolean isSaturated() {
+        if (this.queued < this.queueCapacity) {
+            return false;
+        }
+        this.awaitingCapacity = true;
+        return true;
+    }
+
+    private void markReady(PluginQueue queue) {
+        if (!queue.ready && !queue.pending.isEmpty() && queue.running < this.maxThreadsPerPlugin) {
+            queue.ready = true;
+            this.ready.add(queue);
+        }
+    }
+
+    @Nullable
+    private Job pollNext() {
+        final PluginQueue queue = this.ready.poll();
+        if (queue == null) {
+            return null;
+        }
+        queue.ready = false;
+        final Job job = queue.pending.poll();
+        this.queued--;
+        queue.running++;
+        // Move the plugin to the back so the other plugins get their turn first
+        this.markReady(queue);
+        return job;
+    }
+
+    @Nullable
+    private Job complete(Job job) {
+        final Job next;
+        final boolean notify;
+        synchronized (this) {
+            job.queue.running--;
+            this.markReady(job.queue);
+            next = this.pollNext();
+            if (next == null) {
+                this.activeWorkers--;
+            }
+            notify = this.awaitingCapacity && this.queued < this.queueCapacity;
+            if (notify) {
+                this.awaitingCapacity = false;
+            }
+        }
+        if (notify) {
+            this.capacityListener.run();
+        }
+        return next;
+    }
+
+    /**
+     * Gets the amount of tasks waiting for a free thread.
+     *
+     * @return The amount of waiting tasks
+     */
+    public synchronized int getQueuedTaskCount() {
+        return this.queued;
+    }
+
+    /**
+     * Gets the amount of threads currently running tasks.
+     *
+     * @return The amount of busy threads
+     */
+    public synchronized int getActiveThreadCount() {
+        return this.activeWorkers;
+    }
+
+    /**
+     * Gets the metrics of every plugin that submitted async tasks.
+     *
+     * @return The plugin metrics
+     */
+    public synchronized Collection<PluginQueue> getPluginMetrics() {
+        return ImmutableList.copyOf(this.queues.values());
+    }
+
+    private final class Worker implements Runnable {
+
+        @Nullable private Job job;
+
+        Worker(Job job) {
+            this.job = job;
+        }
+
+        @Override
+        public void run() {
+            while (this.job != null) {
+                this.job.run();
+                this.job = AsyncTaskExecutor.this.complete(this.job);
+            }
+        }
+    }
+
+    private static final class Job {
+
+        final PluginQueue queue;
+        private final Runnable runnable;
+        private final long queuedAt = System.nanoTime();
+
+        Job(PluginQueue queue, Runnable runnable) {
+            this.queue = queue;
+            this.runnable = runnable;
+        }
+
+        void run() {
+            final long start = System.nanoTime();
+            try {
+                this.runnable.run();
+            } catch (Throwable t) {
+                SpongeImpl.getLogger().error("An async task owned by {} threw an exception.", this.queue.plugin.getId(), t);
+            } finally {
+                this.queue.record(start - this.queuedAt, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * The waiting tasks and metrics of a single plugin.
+     */
+    public static final class PluginQueue {
+
+        final PluginContainer plugin;
+        final ArrayDeque<Job> pending = new ArrayDeque<>();
+        int running;
+        boolean ready;
+
+        private long completed;
+        private long totalWaitTime;
+        private long maxWaitTime;
+        private long totalExecutionTime;
+
+        PluginQueue(PluginContainer plugin) {
+            this.plugin = plugin;
+        }
+
+        synchronized void record(long waitTime, long executionTime) {
+            this.completed++;
+            this.totalWaitTime += waitTime;
+            this.maxWaitTime = Math.max(this.maxWaitTime, waitTime);
+            this.totalExecutionTime += executionTime;
+        }
+
+        public PluginContainer getPlugin() {
+            return this.plugin;
+        }
+
+        public synchronized long getCompletedTaskCount() {
+            return this.completed;
+        }
+
+        public synchronized long getTotalWaitTime(TimeUnit unit) {
+            return unit.convert(this.totalWaitTime, TimeUnit.NANOSECONDS);
+        }
+
+        public synchronized long getMaxWaitTime(TimeUnit unit) {
+            return unit.convert(this.maxWaitTime, TimeUnit.NANOSECONDS);
+        }
+
+        public synchronized long getTotalExecutionTime(TimeUnit unit) {
+            return unit.convert(this.totalExecutionTime, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -36,6 +36,8 @@
 import java.util.function.Consumer;
 import java.util.concurrent.TimeUnit;
 
+import javax.annotation.Nullable;
+
 /**
  * An internal representation of a {@link Task} created by a plugin.
  */
@@ -48,6 +50,16 @@ public class ScheduledTask implements Task {
     private final PluginContainer owner;
     private final Consumer<Task> consumer;
     private long timestamp;
+    // The deadline of this task within the timing wheel it's scheduled in
+    long wheelDeadline;
+    // The slot of the timing wheel holding this task, if any, and its neighbors within that slot
+    @Nullable TimingWheel.Slot wheelSlot;
+    @Nullable ScheduledTask wheelPrev;
+    @Nullable ScheduledTask wheelNext;
+    // The scheduler this task was added to
+    @Nullable SchedulerBase scheduler;
+    // Whether this task became due again while it was still executing
+    boolean awaitingCompletion;
 
     // As this state is going to be read by multiple threads
     // potentially very quickly, marking this a volatile will
@@ -136,11 +148,16 @@ public long getInterval() {
 
     @Override
     public boolean cancel() {
+        final ScheduledTaskState previous = getState();
         boolean success = false;
-        if (getState() != ScheduledTask.ScheduledTaskState.RUNNING && getState() != ScheduledTaskState.EXECUTING) {
+        if (previous != ScheduledTask.ScheduledTaskState.RUNNING && previous != ScheduledTaskState.EXECUTING) {
             success = true;
         }
         this.setState(ScheduledTask.ScheduledTaskState.CANCELED);
+        final SchedulerBase scheduler = this.scheduler;
+        if (previous != ScheduledTaskState.CANCELED && scheduler != null) {
+            scheduler.onTaskCancelled(this);
+        }
         return success;
     }
 
@@ -27,7 +27,6 @@
 import co.aikar.timings.Timing;
 import org.spongepowered.common.relocate.co.aikar.timings.TimingsManager;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.plugin.PluginContainer;
 import org.spongepowered.api.scheduler.Task;
@@ -35,10 +34,16 @@
 import org.spongepowered.common.event.tracking.PhaseContext;
 import org.spongepowered.common.event.tracking.phase.plugin.PluginPhase;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
 
 import javax.annotation.Nullable;
 
@@ -46,6 +51,11 @@ abstract class SchedulerBase {
 
     // The simple queue of all pending (and running) ScheduledTasks
     private final Map<UUID, ScheduledTask> taskMap = Maps.newConcurrentMap();
+    // The tasks which are added to the scheduler, but not yet to a wheel
+    private final Queue<ScheduledTask> addedTasks = new ConcurrentLinkedQueue<>();
+    // The tasks which got cancelled, but may still be in a wheel
+    private final Queue<ScheduledTask> cancelledTasks = new ConcurrentLinkedQueue<>();
+    private final List<TimingWheel> wheels = new ArrayList<>(2);
     private long sequenceNumber = 0L;
     private final String taskNameFmt;
 
@@ -72,6 +82,29 @@ protected long getTimestamp(ScheduledTask task) {
         return System.nanoTime();
     }
 
+    /**
+     * Creates a new {@link TimingWheel} which is advanced on every call to
+     * {@link #runTick}.
+     *
+     * @param clock The clock of the wheel
+     * @return The new wheel
+     */
+    protected final TimingWheel createWheel(LongSupplier clock) {
+        final TimingWheel wheel = new TimingWheel(clock);
+        this.wheels.add(wheel);
+        return wheel;
+    }
+
+    /**
+     * Gets the {@link TimingWheel} the task should be scheduled in, its clock
+     * must be in the unit of {@link #getTimestamp(ScheduledTask)} for the
+     * current state of the task.
+     *
+     * @param task The task
+     * @return The wheel for the task
+     */
+    protected abstract TimingWheel getWheel(ScheduledTask task);
+
     /**
      * Adds the task to the task map, will attempt to process the task on the
      * next call to {@link #runTick}.
@@ -80,7 +113,39 @@ protected long getTimestamp(ScheduledTask task) {
      */
     protected void addTask(ScheduledTask task) {
         task.setTimestamp(this.getTimestamp(task));
+        task.scheduler = this;
         this.taskMap.put(task.getUniqueId(), task);
+        this.addedTasks.add(task);
+    }
+
+    /**
+     * Removes a task which just got cancelled from the task map, it's
+     * unlinked from its wheel on the next call to {@link #runTick}. May be
+     * called from any thread.
+     *
+     * @param task The cancelled task
+     */
+    void onTaskCancelled(ScheduledTask task) {
+        this.removeTask(task);
+        this.cancelledTasks.add(task);
+    }
+
+    /**
+     * Hands the task back to the scheduler after it was held back because it
+     * became due while it was still executing.
+     *
+     * @param task The task
+     */
+    protected void requeueTask(ScheduledTask task) {
+        this.addedTasks.add(task);
+    }
+
+    private void scheduleTask(ScheduledTask task) {
+        if (task.getState() == ScheduledTask.ScheduledTaskState.CANCELED) {
+            this.removeTask(task);
+            return;
+        }
+        this.getWheel(task).add(task, task.nextExecutionTimestamp());
     }
 
     /**
@@ -93,23 +158,31 @@ protected void removeTask(ScheduledTask task) {
     }
 
     protected Optional<Task> getTask(UUID id) {
-        return Optional.<Task>ofNullable(this.taskMap.get(id));
+        return Optional.ofNullable(this.taskMap.get(id));
     }
 
     protected Set<Task> getScheduledTasks() {
-        synchronized (this.taskMap) {
-            return Sets.<Task>newHashSet(this.taskMap.values());
-        }
+        return new HashSet<>(this.taskMap.values());
     }
 
     /**
-     * Process all tasks in the map.
+     * Process all tasks that are due.
      */
     protected final void runTick() {
         this.preTick();
         TimingsManager.PLUGIN_SCHEDULER_HANDLER.startTimingIfSync();
         try {
-            this.taskMap.values().forEach(this::processTask);
+            ScheduledTask cancelled;
+            while ((cancelled = this.cancelledTasks.poll()) != null) {
+                TimingWheel.remove(cancelled);
+            }
+            ScheduledTask added;
+            while ((added = this.addedTasks.poll()) != null) {
+                this.scheduleTask(added);
+            }
+            for (TimingWheel wheel : this.wheels) {
+                wheel.advance(this::onTaskDue);
+            }
             this.postTick();
         } finally {
             this.finallyPostTick();
@@ -137,7 +210,17 @@ protected void finallyPostTick() {
     }
 
     /**
-     * Processes the task.
+     * Fired for every task that became due during a tick, before
+     * {@link #postTick()}.
+     *
+     * @param task The task which is due
+     */
+    protected void onTaskDue(ScheduledTask task) {
+        this.processTask(task);
+    }
+
+    /**
+     * Processes a task which is due.
      *
      * @param task The task to process
      */
@@ -148,34 +231,25 @@ protected void processTask(ScheduledTask task) {
             this.removeTask(task);
             return;
         }
-        // If the task is already being processed, we wait for the previous
-        // occurrence to terminate.
-        if (task.getState() == ScheduledTask.ScheduledTaskState.EXECUTING) {
+        // If the task is already being processed, or still waiting for a
+        // thread to run on, we wait for the previous occurrence to terminate,
+        // it's requeued once it completes.
+        if (task.getState() == ScheduledTask.ScheduledTaskState.SWITCHING
+                || task.getState() == ScheduledTask.ScheduledTaskState.EXECUTING) {
+            task.awaitingCompletion = true;
             return;
         }
-        long threshold = Long.MAX_VALUE;
-        // Figure out if we start a delayed Task after threshold ticks or, start
-        // it after the interval (period) of the repeating task parameter.
-        if (task.getState() == ScheduledTask.ScheduledTaskState.WAITING) {
-            threshold = task.offset;
-        } else if (task.getState() == ScheduledTask.ScheduledTaskState.RUNNING) {
-            threshold = task.period;
-        }
-        // This moment is 'now'
-        long now = this.getTimestamp(task);
-        // So, if the current time minus the timestamp of the task is greater
-        // than the delay to wait before starting the task, then start the task.
         // Repeating tasks get a reset-timestamp each time they are set RUNNING
         // If the task has a period of 0 (zero) this task will not repeat, and
         // is removed after we start it.
-        if (threshold <= (now - task.getTimestamp())) {
-            task.setState(ScheduledTask.ScheduledTaskState.SWITCHING);
-            task.setTimestamp(this.getTimestamp(task));
-            startTask(task);
-            // If task is one time shot, remove it from the map.
-            if (task.period == 0L) {
-                this.removeTask(task);
-            }
+        task.setState(ScheduledTask.ScheduledTaskState.SWITCHING);
+        task.setTimestamp(this.getTimestamp(task));
+        startTask(task);
+        // If task is one time shot, remove it from the map.
+        if (task.period == 0L) {
+            this.removeTask(task);
+        } else {
+            this.scheduleTask(task);
         }
     }
 
@@ -198,6 +198,25 @@ public void tickSyncScheduler() {
         }
     }
 
+    /**
+     * Gets the executor running the tasks of the async scheduler.
+     *
+     * @return The async executor
+     */
+    public AsyncTaskExecutor getAsyncExecutor() {
+        return this.asyncScheduler.getExecutor();
+    }
+
+    /**
+     * Gets the total amount of times a due sync task was deferred to the
+     * next tick because the sync tick budget was used up.
+     *
+     * @return The deferred sync task count
+     */
+    public long getDeferredSyncTaskCount() {
+        return this.syncScheduler.getDeferredTaskCount();
+    }
+
     public <T> CompletableFuture<T> submitAsyncTask(Callable<T> callable) {
         return Functional.asyncFailableFuture(callable, this.asyncScheduler.getExecutor());
     }
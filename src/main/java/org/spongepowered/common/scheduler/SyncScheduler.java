@@ -25,15 +25,28 @@
 package org.spongepowered.common.scheduler;
 
 import org.spongepowered.api.Sponge;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.config.category.SchedulerCategory;
 import org.spongepowered.common.event.tracking.phase.plugin.BasicPluginContext;
 import org.spongepowered.common.event.tracking.phase.plugin.PluginPhase;
 
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
 import javax.annotation.Nullable;
 
 public class SyncScheduler extends SchedulerBase {
 
     // The number of ticks elapsed since this scheduler began.
     private volatile long counter = 0L;
+    // The wheels for the tasks with a delay or interval in ticks or in real time
+    private final TimingWheel tickWheel = this.createWheel(() -> this.counter);
+    private final TimingWheel timeWheel = this.createWheel(System::nanoTime);
+    // The due tasks which wait for the tick budget, in the order they became due
+    private final ArrayDeque<ScheduledTask> dueTasks = new ArrayDeque<>();
+    private long tickBudget;
+    private long tickStart;
+    private long deferredTaskCount;
 
     SyncScheduler() {
         super(ScheduledTask.TaskSynchronicity.SYNCHRONOUS);
@@ -47,6 +60,52 @@ void tick() {
         this.runTick();
     }
 
+    /**
+     * Gets the total amount of times a due task was deferred to the next
+     * tick because the tick budget was used up.
+     *
+     * @return The deferred task count
+     */
+    long getDeferredTaskCount() {
+        return this.deferredTaskCount;
+    }
+
+    @Override
+    protected void preTick() {
+        this.tickStart = System.nanoTime();
+        this.tickBudget = TimeUnit.MILLISECONDS.toNanos(SpongeImpl.getGlobalConfigAdapter().getConfig().getScheduler().getSyncTickBudget());
+    }
+
+    @Override
+    protected void onTaskDue(ScheduledTask task) {
+        if (this.tickBudget <= 0 && this.dueTasks.isEmpty()) {
+            this.processTask(task);
+        } else if (this.isPriorityTask(task)) {
+            this.processTask(task);
+        } else {
+            this.dueTasks.add(task);
+        }
+    }
+
+    private boolean isPriorityTask(ScheduledTask task) {
+        final SchedulerCategory config = SpongeImpl.getGlobalConfigAdapter().getConfig().getScheduler();
+        return task.getOwner() == SpongeImpl.getPlugin() || config.getSyncPriorityPlugins().contains(task.getOwner().getId());
+    }
+
+    @Override
+    protected void postTick() {
+        if (this.dueTasks.isEmpty()) {
+            return;
+        }
+        // Always make progress, even if the priority tasks used up the budget
+        this.processTask(this.dueTasks.poll());
+        ScheduledTask task;
+        while ((this.tickBudget <= 0 || System.nanoTime() - this.tickStart < this.tickBudget) && (task = this.dueTasks.poll()) != null) {
+            this.processTask(task);
+        }
+        this.deferredTaskCount += this.dueTasks.size();
+    }
+
     @Override
     protected long getTimestamp(ScheduledTask task) {
         if (task.getState() == ScheduledTask.ScheduledTaskState.WAITING) {
@@ -65,6 +124,12 @@ protected long getTimestamp(ScheduledTask task) {
         return 0L;
     }
 
+    @Override
+    protected TimingWheel getWheel(ScheduledTask task) {
+        final boolean ticks = task.getState() == ScheduledTask.ScheduledTaskState.WAITING ? task.delayIsTicks : task.intervalIsTicks;
+        return ticks ? this.tickWheel : this.timeWheel;
+    }
+
     @Override
     protected void executeTaskRunnable(ScheduledTask task, Runnable runnable) {
         try (BasicPluginContext context = createContext(task)) {
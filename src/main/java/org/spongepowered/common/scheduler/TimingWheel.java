@@ -0,0 +1,244 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.scheduler;
+
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * A hierarchical hashed timing wheel of {@link ScheduledTask}s.
+ *
+ * <p>Every level of the wheel has {@link #SLOTS} slots, a slot on level
+ * {@code n} covers {@code SLOTS^n} units of time. A task is placed on the
+ * level of the most significant group of bits in which its deadline differs
+ * from the elapsed time of the wheel, tasks are cascaded down to the lower
+ * levels when the wheel reaches their slot. Advancing the wheel jumps
+ * straight to the next occupied slot, so the cost of advancing is
+ * proportional to the amount of due tasks rather than the amount of
+ * scheduled tasks or the amount of time that has passed.</p>
+ *
+ * <p>The unit of time is defined by the clock of the wheel, ticks for the
+ * {@link SyncScheduler} and nanoseconds for the {@link AsyncScheduler}.
+ * This class is not thread safe.</p>
+ */
+final class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+
+    private final LongSupplier clock;
+    private final long origin;
+    private final Slot[][] slots = new Slot[LEVELS][SLOTS];
+    // A bitmask of the non empty slots per level
+    private final long[] occupied = new long[LEVELS];
+    // Tasks whose deadline already passed when they were added
+    private final Slot expired = new Slot();
+    // The time up to which the wheel has been advanced, relative to the origin
+    private long elapsed;
+
+    private int nextLevel;
+    private int nextSlot;
+
+    TimingWheel(LongSupplier clock) {
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+    }
+
+    /**
+     * Adds the task to the wheel, it will be passed to the consumer of the
+     * first call to {@link #advance(Consumer)} once the clock of this wheel
+     * reached the deadline.
+     *
+     * @param task The task
+     * @param deadline The deadline, in the time of the clock of this wheel
+     */
+    void add(ScheduledTask task, long deadline) {
+        task.wheelDeadline = Math.max(0L, deadline - this.origin);
+        this.insert(task);
+    }
+
+    private void insert(ScheduledTask task) {
+        final long when = task.wheelDeadline;
+        if (when <= this.elapsed) {
+            this.expired.add(task);
+            return;
+        }
+        final int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(when ^ this.elapsed)) / SLOT_BITS;
+        final int slot = (int) (when >>> (level * SLOT_BITS)) & SLOT_MASK;
+        Slot tasks = this.slots[level][slot];
+        if (tasks == null) {
+            tasks = this.slots[level][slot] = new Slot();
+        }
+        tasks.add(task);
+        this.occupied[level] |= 1L << slot;
+    }
+
+    /**
+     * Unlinks the task from the wheel it's scheduled in, if any, so that it
+     * is never passed to the consumer of {@link #advance(Consumer)}. This
+     * takes constant time. The slot stays marked as occupied until the wheel
+     * reaches it, so {@link #nextDeadline()} may still report its time.
+     *
+     * <p>Must be called from the thread advancing the wheel of the task.</p>
+     *
+     * @param task The task
+     */
+    static void remove(ScheduledTask task) {
+        final Slot slot = task.wheelSlot;
+        if (slot != null) {
+            slot.unlink(task);
+        }
+    }
+
+    /**
+     * Advances the wheel up to the current time of the clock and passes
+     * every task that is due to the consumer. Tasks which are added by the
+     * consumer with a deadline that already passed are passed to the
+     * consumer on the next advance.
+     *
+     * @param consumer The consumer of the due tasks
+     */
+    void advance(Consumer<ScheduledTask> consumer) {
+        final long now = this.clock.getAsLong() - this.origin;
+        while (true) {
+            ScheduledTask task;
+            for (int count = this.expired.size(); count > 0 && (task = this.expired.poll()) != null; count--) {
+                consumer.accept(task);
+            }
+            final long next = this.nextExpiration();
+            if (next < 0 || next > now) {
+                break;
+            }
+            this.elapsed = next;
+            final Slot tasks = this.slots[this.nextLevel][this.nextSlot];
+            this.slots[this.nextLevel][this.nextSlot] = null;
+            this.occupied[this.nextLevel] &= ~(1L << this.nextSlot);
+            // Cascade the tasks of the reached slot down, the tasks of the
+            // lowest level are due and end up in the expired queue.
+            while ((task = tasks.poll()) != null) {
+                this.insert(task);
+            }
+        }
+        if (now > this.elapsed) {
+            this.elapsed = now;
+        }
+    }
+
+    /**
+     * Gets the earliest time at which {@link #advance(Consumer)} may yield
+     * a task, in the time of the clock of this wheel. This may be earlier
+     * than the actual deadline of the next task.
+     *
+     * @return The next deadline, or {@link Long#MAX_VALUE} if the wheel is empty
+     */
+    long nextDeadline() {
+        if (!this.expired.isEmpty()) {
+            return this.origin + this.elapsed;
+        }
+        final long next = this.nextExpiration();
+        return next < 0 ? Long.MAX_VALUE : this.origin + next;
+    }
+
+    private long nextExpiration() {
+        for (int level = 0; level < LEVELS; level++) {
+            final int shift = level * SLOT_BITS;
+            final int digit = (int) (this.elapsed >>> shift) & SLOT_MASK;
+            // Only the slots after the current one can be occupied
+            final long pending = this.occupied[level] & (-2L << digit);
+            if (pending != 0L) {
+                this.nextLevel = level;
+                this.nextSlot = Long.numberOfTrailingZeros(pending);
+                final long high = shift + SLOT_BITS >= Long.SIZE ? 0L : this.elapsed & (-1L << (shift + SLOT_BITS));
+                return high | ((long) this.nextSlot << shift);
+            }
+        }
+        return -1L;
+    }
+
+    /**
+     * A slot of the wheel. The tasks are linked through their own fields,
+     * so a task can be unlinked without searching the slot for it.
+     */
+    static final class Slot {
+
+        @Nullable private ScheduledTask head;
+        @Nullable private ScheduledTask tail;
+        private int size;
+
+        void add(ScheduledTask task) {
+            task.wheelSlot = this;
+            task.wheelPrev = this.tail;
+            task.wheelNext = null;
+            if (this.tail == null) {
+                this.head = task;
+            } else {
+                this.tail.wheelNext = task;
+            }
+            this.tail = task;
+            this.size++;
+        }
+
+        void unlink(ScheduledTask task) {
+            final ScheduledTask prev = task.wheelPrev;
+            final ScheduledTask next = task.wheelNext;
+            if (prev == null) {
+                this.head = next;
+            } else {
+                prev.wheelNext = next;
+            }
+            if (next == null) {
+                this.tail = prev;
+            } else {
+                next.wheelPrev = prev;
+            }
+            task.wheelSlot = null;
+            task.wheelPrev = null;
+            task.wheelNext = null;
+            this.size--;
+        }
+
+        @Nullable
+        ScheduledTask poll() {
+            final ScheduledTask task = this.head;
+            if (task != null) {
+                this.unlink(task);
+            }
+            return task;
+        }
+
+        boolean isEmpty() {
+            return this.head == null;
+        }
+
+        int size() {
+            return this.size;
+        }
+    }
+
+}
@@ -24,6 +24,8 @@
  */
 package org.spongepowered.common.service.ban;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.minecraft.server.management.PlayerList;
 import net.minecraft.server.management.UserListBans;
 import net.minecraft.server.management.UserListBansEntry;
 import net.minecraft.server.management.UserListEntry;
@@ -39,13 +41,22 @@
 import org.spongepowered.api.util.ban.BanTypes;
 import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.mixin.core.server.management.UserListAccessor;
+import org.spongepowered.common.util.IpTrie;
 import org.spongepowered.common.util.UserListUtils;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The default implementation of {@link BanService}.
@@ -56,9 +67,30 @@
  * function normally when the default {@link BanService} has not been replaced,
  * while allowing plugin-provided {@link BanService}s to be used for all aspects
  * of Vanilla bans.</p>
+ *
+ * <p>Addresses are also banned if they are in one of the ranges listed in
+ * {@link #IP_RANGE_BANS_FILE}. The file is loaded in the background when the
+ * service is created, and checked for changes every few seconds and whenever
+ * the IP ban list changes. Lookups only use the ranges which were loaded last
+ * and never read the file themselves. These ranges don't have {@link Ban}s of
+ * their own, a ban for the address is made up when it is looked up.</p>
  */
 public class SpongeBanService implements BanService {
 
+    public static final File IP_RANGE_BANS_FILE = new File(PlayerList.FILE_IPBANS.getAbsoluteFile().getParentFile(), "banned-ip-ranges.txt");
+
+    private static final long IP_RANGE_BANS_CHECK_INTERVAL_SECONDS = 5;
+
+    private final ScheduledExecutorService ipRangeBansLoader = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("Sponge - IP Range Ban Loader").setDaemon(true).build());
+    private volatile IpTrie ipRangeBans = new IpTrie();
+    // Only accessed from the loader thread
+    private long ipRangeBansModified = 0;
+
+    public SpongeBanService() {
+        this.ipRangeBansLoader.scheduleWithFixedDelay(this::checkIpRangeBans, 0, IP_RANGE_BANS_CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     @Override
     public Collection<Ban> getBans() {
@@ -94,9 +126,18 @@ public Optional<Ban.Profile> getBanFor(final GameProfile profile) {
         return Optional.ofNullable((Ban.Profile) accessor.accessor$getValues().get(accessor.accessor$getObjectKey((com.mojang.authlib.GameProfile) profile)));
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public Optional<Ban.Ip> getBanFor(final InetAddress address) {
+        final Optional<Ban.Ip> ban = this.getExactBanFor(address);
+        if (ban.isPresent() || !this.ipRangeBans.apply(address)) {
+            return ban;
+        }
+        final String value = this.getIPBanList().addressToString(new InetSocketAddress(address, 0));
+        return Optional.of((Ban.Ip) new UserListIPBansEntry(value, null, IP_RANGE_BANS_FILE.getName(), null, "Banned IP range"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<Ban.Ip> getExactBanFor(final InetAddress address) {
         final UserListAccessor<String, UserListIPBansEntry> accessor = ((UserListAccessor<String, UserListIPBansEntry>) this.getIPBanList());
 
         accessor.accessor$removeExpired();
@@ -113,9 +154,13 @@ public boolean isBanned(final GameProfile profile) {
         return accessor.accessor$getValues().containsKey(accessor.accessor$getObjectKey((com.mojang.authlib.GameProfile) profile));
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public boolean isBanned(final InetAddress address) {
+        return this.isExactlyBanned(address) || this.ipRangeBans.apply(address);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean isExactlyBanned(final InetAddress address) {
         final UserListAccessor<String, UserListIPBansEntry> accessor = ((UserListAccessor<String, UserListIPBansEntry>) this.getIPBanList());
 
         accessor.accessor$removeExpired();
@@ -135,7 +180,7 @@ public boolean pardon(final GameProfile profile) {
     @SuppressWarnings("unchecked")
     @Override
     public boolean pardon(final InetAddress address) {
-        final Optional<Ban.Ip> ban = getBanFor(address);
+        final Optional<Ban.Ip> ban = getExactBanFor(address);
         final UserListAccessor<String, UserListIPBansEntry> accessor = ((UserListAccessor<String, UserListIPBansEntry>) this.getIPBanList());
         accessor.accessor$removeExpired();
         return ban.isPresent() && removeBan(ban.get());
@@ -157,6 +202,7 @@ public boolean removeBan(final Ban ban) {
 
             final InetSocketAddress inetSocketAddress = new InetSocketAddress(((Ban.Ip) ban).getAddress(), 0);
             UserListUtils.removeEntry(this.getIPBanList(), this.getIPBanList().addressToString(inetSocketAddress));
+            this.ipRangeBansLoader.execute(this::checkIpRangeBans);
             return true;
         }
         throw new IllegalArgumentException(String.format("Ban %s had unrecognized BanType %s!", ban, ban.getType()));
@@ -174,11 +220,12 @@ public Optional<? extends Ban> addBan(final Ban ban) {
 
             UserListUtils.addEntry(this.getUserBanList(), (UserListEntry<?>) ban);
         } else if (ban.getType().equals(BanTypes.IP)) {
-            prevBan = this.getBanFor(((Ban.Ip) ban).getAddress());
+            prevBan = this.getExactBanFor(((Ban.Ip) ban).getAddress());
 
             Sponge.getEventManager().post(SpongeEventFactory.createBanIpEvent(Sponge.getCauseStackManager().getCurrentCause(), (Ban.Ip) ban));
 
             UserListUtils.addEntry(this.getIPBanList(), (UserListEntry<?>) ban);
+            this.ipRangeBansLoader.execute(this::checkIpRangeBans);
         } else {
             throw new IllegalArgumentException(String.format("Ban %s had unrecognized BanType %s!", ban, ban.getType()));
         }
@@ -190,11 +237,32 @@ public boolean hasBan(final Ban ban) {
         if (ban.getType().equals(BanTypes.PROFILE)) {
             return this.isBanned(((Ban.Profile) ban).getProfile());
         } else if (ban.getType().equals(BanTypes.IP)) {
-            return this.isBanned(((Ban.Ip) ban).getAddress());
+            return this.isExactlyBanned(((Ban.Ip) ban).getAddress());
         }
         throw new IllegalArgumentException(String.format("Ban %s had unrecognized BanType %s!", ban, ban.getType()));
     }
 
+    private void checkIpRangeBans() {
+        // 0 if the file doesn't exist
+        final long modified = IP_RANGE_BANS_FILE.lastModified();
+        if (modified != this.ipRangeBansModified) {
+            this.ipRangeBansModified = modified;
+            if (modified == 0) {
+                this.ipRangeBans = new IpTrie();
+            } else {
+                try (BufferedReader reader = Files.newBufferedReader(IP_RANGE_BANS_FILE.toPath(), StandardCharsets.UTF_8)) {
+                    final IpTrie ranges = IpTrie.read(reader, line ->
+                        SpongeImpl.getLogger().warn("Ignoring invalid IP range on line {} of {}", line, IP_RANGE_BANS_FILE.getName()));
+                    this.ipRangeBans = ranges;
+                    SpongeImpl.getLogger().info("Loaded {} banned IP ranges", ranges.size());
+                } catch (IOException | RuntimeException e) {
+                    // A runtime exception would also stop the scheduled checks
+                    SpongeImpl.getLogger().error("Could not read banned IP ranges from {}, keeping the previous ranges", IP_RANGE_BANS_FILE, e);
+                }
+            }
+        }
+    }
+
     private UserListBans getUserBanList() {
         return SpongeImpl.getServer().getPlayerList().getBannedPlayers();
     }
@@ -31,7 +31,7 @@
 import org.spongepowered.api.service.permission.Subject;
 import org.spongepowered.api.service.permission.SubjectCollection;
 import org.spongepowered.api.service.permission.SubjectReference;
-import org.spongepowered.api.util.Tristate;
+import org.spongepowered.common.service.permission.base.ResolvedPermissions;
 import org.spongepowered.common.service.permission.base.SpongeSubject;
 import org.spongepowered.common.service.permission.base.SpongeSubjectCollection;
 
@@ -123,17 +123,10 @@ public MemorySubjectData getSubjectData() {
         }
 
         @Override
-        public Tristate getPermissionValue(Set<Context> contexts, String permission) {
-            Tristate ret = super.getPermissionValue(contexts, permission);
-
-            if (ret == Tristate.UNDEFINED) {
-                ret = getDataPermissionValue(DataFactoryCollection.this.getDefaults().getTransientSubjectData(), permission);
-            }
-
-            if (ret == Tristate.UNDEFINED) {
-                ret = getDataPermissionValue(DataFactoryCollection.this.service.getDefaults().getTransientSubjectData(), permission);
-            }
-            return ret;
+        protected void collectPermissionSources(ResolvedPermissions.Builder builder) {
+            super.collectPermissionSources(builder);
+            builder.addData(DataFactoryCollection.this.getDefaults().getTransientSubjectData());
+            builder.addData(DataFactoryCollection.this.service.getDefaults().getTransientSubjectData());
         }
 
         @Override
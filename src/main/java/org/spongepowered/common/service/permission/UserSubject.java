@@ -36,6 +36,7 @@
 import org.spongepowered.api.service.permission.SubjectReference;
 import org.spongepowered.api.util.Tristate;
 import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.service.permission.base.ResolvedPermissions;
 import org.spongepowered.common.service.permission.base.SingleParentMemorySubjectData;
 import org.spongepowered.common.service.permission.base.SpongeSubject;
 
@@ -127,18 +128,20 @@ public PermissionService getService() {
     }
 
     @Override
-    public Tristate getPermissionValue(Set<Context> contexts, String permission) {
-        Tristate ret = super.getPermissionValue(contexts, permission);
-        if (ret == Tristate.UNDEFINED) {
-            ret = getDataPermissionValue(this.collection.getDefaults().getSubjectData(), permission);
+    protected void collectPermissionSources(ResolvedPermissions.Builder builder) {
+        super.collectPermissionSources(builder);
+        builder.addData(this.collection.getDefaults().getSubjectData());
+        builder.addData(this.collection.getService().getDefaults().getSubjectData());
+        if (getOpLevel() >= SpongePermissionService.getServerOpLevel()) {
+            builder.addValue(Tristate.TRUE);
         }
-        if (ret == Tristate.UNDEFINED) {
-            ret = getDataPermissionValue(this.collection.getService().getDefaults().getSubjectData(), permission);
-        }
-        if (ret == Tristate.UNDEFINED && getOpLevel() >= SpongePermissionService.getServerOpLevel()) {
-            ret = Tristate.TRUE;
-        }
-        return ret;
+    }
+
+    @Override
+    protected int getPermissionStamp() {
+        // The op level picks both the parent group and whether everything is allowed
+        final int opLevel = getOpLevel();
+        return opLevel << 1 | (opLevel >= SpongePermissionService.getServerOpLevel() ? 1 : 0);
     }
 
     @Override
@@ -35,9 +35,12 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class GlobalMemorySubjectData extends MemorySubjectData {
 
+    private final AtomicInteger permissionVersion = new AtomicInteger();
+
     /**
      * Creates a new subject data instance, using the provided service to request instances of permission subjects.
      *
@@ -47,6 +50,24 @@ public GlobalMemorySubjectData(PermissionService service) {
         super(service);
     }
 
+    /**
+     * Gets the version of the permissions and parents of this subject data,
+     * which changes every time either of them is modified.
+     *
+     * @return The version
+     */
+    public int getPermissionVersion() {
+        return this.permissionVersion.get();
+    }
+
+    /**
+     * Marks the permissions or parents of this subject data as modified. This
+     * has to happen after the modification, so anything resolved from the
+     * previous state is never considered up to date.
+     */
+    protected void onPermissionsChanged() {
+        this.permissionVersion.incrementAndGet();
+    }
 
     @Override
     public Map<Set<Context>, List<SubjectReference>> getAllParents() {
@@ -58,7 +79,9 @@ public CompletableFuture<Boolean> setPermission(Set<Context> contexts, String pe
         if (!contexts.isEmpty()) {
             return CompletableFuture.completedFuture(false);
         }
-        return super.setPermission(contexts, permission, value);
+        final CompletableFuture<Boolean> result = super.setPermission(contexts, permission, value);
+        onPermissionsChanged();
+        return result;
     }
 
     @Override
@@ -66,7 +89,9 @@ public CompletableFuture<Boolean> clearPermissions(Set<Context> contexts) {
         if (!contexts.isEmpty()) {
             return CompletableFuture.completedFuture(false);
         }
-        return super.clearPermissions(contexts);
+        final CompletableFuture<Boolean> result = super.clearPermissions(contexts);
+        onPermissionsChanged();
+        return result;
     }
 
     @Override
@@ -74,7 +99,9 @@ public CompletableFuture<Boolean> addParent(Set<Context> contexts, SubjectRefere
         if (!contexts.isEmpty()) {
             return CompletableFuture.completedFuture(false);
         }
-        return super.addParent(contexts, parent);
+        final CompletableFuture<Boolean> result = super.addParent(contexts, parent);
+        onPermissionsChanged();
+        return result;
     }
 
     @Override
@@ -82,7 +109,9 @@ public CompletableFuture<Boolean> removeParent(Set<Context> contexts, SubjectRef
         if (!contexts.isEmpty()) {
             return CompletableFuture.completedFuture(false);
         }
-        return super.removeParent(contexts, parent);
+        final CompletableFuture<Boolean> result = super.removeParent(contexts, parent);
+        onPermissionsChanged();
+        return result;
     }
 
     @Override
@@ -90,6 +119,22 @@ public CompletableFuture<Boolean> clearParents(Set<Context> contexts) {
         if (!contexts.isEmpty()) {
             return CompletableFuture.completedFuture(false);
         }
-        return super.clearParents(contexts);
+        final CompletableFuture<Boolean> result = super.clearParents(contexts);
+        onPermissionsChanged();
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> clearPermissions() {
+        final CompletableFuture<Boolean> result = super.clearPermissions();
+        onPermissionsChanged();
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> clearParents() {
+        final CompletableFuture<Boolean> result = super.clearParents();
+        onPermissionsChanged();
+        return result;
     }
 }
@@ -0,0 +1,373 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.service.permission.base;
+
+import org.spongepowered.api.service.permission.MemorySubjectData;
+import org.spongepowered.api.service.permission.Subject;
+import org.spongepowered.api.service.permission.SubjectData;
+import org.spongepowered.api.service.permission.SubjectReference;
+import org.spongepowered.api.util.Tristate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The permissions of a subject, its parents and any defaults it falls back to,
+ * flattened into a single node tree in resolution order.
+ *
+ * <p>Each node holds the value the first source in resolution order has for
+ * it, inherited from its closest valued parent node within that source as a
+ * {@code NodeTree} would. Looking up a permission is then a walk down to the
+ * deepest node matching it, without resolving parent subjects. The resolved
+ * permissions remember the version of every subject data and the stamp of
+ * every subject they were built from, and are rebuilt once any of them
+ * change.</p>
+ */
+public final class ResolvedPermissions {
+
+    /**
+     * The same split {@code NodeTree} uses for permission nodes.
+     */
+    private static final Pattern SPLIT_REGEX = Pattern.compile("\\.");
+
+    private final Object[] segments;
+    private final MemorySubjectData[] data;
+    private final int[] versions;
+    private final SpongeBaseSubject[] subjects;
+    private final int[] stamps;
+    private final boolean tracked;
+
+    private ResolvedPermissions(Builder builder) {
+        final List<Object> segments = new ArrayList<>();
+        final List<Source> group = new ArrayList<>();
+        for (final Object source : builder.sources) {
+            if (source instanceof Source) {
+                group.add((Source) source);
+            } else {
+                if (!group.isEmpty()) {
+                    segments.add(compile(group));
+                    group.clear();
+                }
+                segments.add(source);
+            }
+        }
+        if (!group.isEmpty() || segments.isEmpty()) {
+            segments.add(compile(group));
+        }
+        this.segments = segments.toArray();
+        this.data = builder.data.keySet().toArray(new MemorySubjectData[0]);
+        this.versions = new int[this.data.length];
+        for (int i = 0; i < this.data.length; i++) {
+            this.versions[i] = builder.data.get(this.data[i]);
+        }
+        this.subjects = builder.subjects.keySet().toArray(new SpongeBaseSubject[0]);
+        this.stamps = new int[this.subjects.length];
+        for (int i = 0; i < this.subjects.length; i++) {
+            this.stamps[i] = builder.subjects.get(this.subjects[i]);
+        }
+        this.tracked = builder.tracked;
+    }
+
+    /**
+     * Gets the value of a permission.
+     *
+     * @param permission The permission
+     * @return The value
+     */
+    public Tristate get(String permission) {
+        for (final Object segment : this.segments) {
+            final Tristate value = segment instanceof Node
+                    ? ((Node) segment).get(permission)
+                    : ((Subject) segment).getPermissionValue(SubjectData.GLOBAL_CONTEXT, permission);
+            if (value != Tristate.UNDEFINED) {
+                return value;
+            }
+        }
+        return Tristate.UNDEFINED;
+    }
+
+    /**
+     * Gets whether none of the subject data or subjects these permissions were
+     * resolved from have changed since. Permissions resolved from subject
+     * data without a version can't be tracked and are never valid, so they
+     * are resolved again on every check.
+     *
+     * @return Whether these permissions are still valid
+     */
+    public boolean isValid() {
+        if (!this.tracked) {
+            return false;
+        }
+        for (int i = 0; i < this.data.length; i++) {
+            if (getVersion(this.data[i]) != this.versions[i]) {
+                return false;
+            }
+        }
+        for (int i = 0; i < this.subjects.length; i++) {
+            if (this.subjects[i].getPermissionStamp() != this.stamps[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int getVersion(MemorySubjectData data) {
+        return ((GlobalMemorySubjectData) data).getPermissionVersion();
+    }
+
+    private static Node compile(List<Source> sources) {
+        final BuilderNode merged = new BuilderNode();
+        final BuilderNode[] roots = new BuilderNode[sources.size()];
+        final Tristate[] inherited = new Tristate[sources.size()];
+        for (int i = 0; i < roots.length; i++) {
+            final Source source = sources.get(i);
+            roots[i] = new BuilderNode();
+            roots[i].value = source.value;
+            for (final Map.Entry<String, Boolean> entry : source.permissions.entrySet()) {
+                BuilderNode node = roots[i];
+                BuilderNode mergedNode = merged;
+                for (final String part : SPLIT_REGEX.split(entry.getKey().toLowerCase())) {
+                    node = node.getOrCreate(part);
+                    mergedNode = mergedNode.getOrCreate(part);
+                }
+                node.value = Tristate.fromBoolean(entry.getValue());
+            }
+            // A permission of only dots has no parts and sets the root
+            inherited[i] = roots[i].value;
+        }
+        return freeze(merged, roots, inherited);
+    }
+
+    /**
+     * Computes the value of a merged node from the nodes at the same path in
+     * every source, then does the same for its children.
+     */
+    private static Node freeze(BuilderNode merged, BuilderNode[] sources, Tristate[] inherited) {
+        final Node node = new Node();
+        for (final Tristate value : inherited) {
+            if (value != Tristate.UNDEFINED) {
+                node.value = value;
+                break;
+            }
+        }
+        if (!merged.children.isEmpty()) {
+            node.init(merged.children.size());
+            for (final Map.Entry<String, BuilderNode> entry : merged.children.entrySet()) {
+                final BuilderNode[] childSources = new BuilderNode[sources.length];
+                final Tristate[] childInherited = inherited.clone();
+                for (int i = 0; i < sources.length; i++) {
+                    final BuilderNode child = sources[i] == null ? null : sources[i].children.get(entry.getKey());
+                    childSources[i] = child;
+                    if (child != null && child.value != Tristate.UNDEFINED) {
+                        childInherited[i] = child.value;
+                    }
+                }
+                node.put(entry.getKey(), freeze(entry.getValue(), childSources, childInherited));
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Collects the sources of permissions in resolution order.
+     */
+    public static final class Builder {
+
+        private final List<Object> sources = new ArrayList<>();
+        private final Map<MemorySubjectData, Integer> data = new IdentityHashMap<>();
+        private final Map<SpongeBaseSubject, Integer> subjects = new IdentityHashMap<>();
+        private boolean tracked = true;
+
+        Builder() {
+        }
+
+        /**
+         * Adds the permissions of a subject, including the parents and defaults
+         * it resolves through. Subjects which were already added are skipped,
+         * as they could not provide a value the first time either.
+         *
+         * @param subject The subject
+         */
+        public void addSubject(SpongeBaseSubject subject) {
+            if (this.subjects.containsKey(subject)) {
+                return;
+            }
+            this.subjects.put(subject, subject.getPermissionStamp());
+            subject.collectPermissionSources(this);
+        }
+
+        /**
+         * Adds the permissions of subject data, followed by its parents.
+         *
+         * @param data The subject data
+         */
+        public void addData(MemorySubjectData data) {
+            if (this.data.containsKey(data)) {
+                return;
+            }
+            if (data instanceof GlobalMemorySubjectData) {
+                this.data.put(data, getVersion(data));
+            } else {
+                // Changes to other subject data can't be noticed
+                this.tracked = false;
+                this.data.put(data, 0);
+            }
+            this.sources.add(new Source(data.getPermissions(SubjectData.GLOBAL_CONTEXT), Tristate.UNDEFINED));
+            for (final SubjectReference reference : data.getParents(SubjectData.GLOBAL_CONTEXT)) {
+                final Subject parent = reference.resolve().join();
+                if (parent instanceof SpongeBaseSubject) {
+                    addSubject((SpongeBaseSubject) parent);
+                } else {
+                    // Subjects of other services are asked directly on every check
+                    this.sources.add(parent);
+                }
+            }
+        }
+
+        /**
+         * Adds a value for every permission not defined by a previous source.
+         *
+         * @param value The value
+         */
+        public void addValue(Tristate value) {
+            this.sources.add(new Source(Collections.emptyMap(), value));
+        }
+
+        ResolvedPermissions build() {
+            return new ResolvedPermissions(this);
+        }
+    }
+
+    private static final class Source {
+
+        final Map<String, Boolean> permissions;
+        final Tristate value;
+
+        Source(Map<String, Boolean> permissions, Tristate value) {
+            this.permissions = permissions;
+            this.value = value;
+        }
+    }
+
+    private static final class BuilderNode {
+
+        final Map<String, BuilderNode> children = new HashMap<>();
+        Tristate value = Tristate.UNDEFINED;
+
+        BuilderNode getOrCreate(String part) {
+            return this.children.computeIfAbsent(part, k -> new BuilderNode());
+        }
+    }
+
+    /**
+     * A frozen node whose children are kept in an open addressing table, so
+     * they can be looked up by a region of the permission string without
+     * splitting it.
+     */
+    private static final class Node {
+
+        Tristate value = Tristate.UNDEFINED;
+        private String[] keys;
+        private Node[] children;
+        private int mask;
+
+        void init(int size) {
+            int capacity = 2;
+            while (capacity < size * 2) {
+                capacity <<= 1;
+            }
+            this.keys = new String[capacity];
+            this.children = new Node[capacity];
+            this.mask = capacity - 1;
+        }
+
+        void put(String key, Node child) {
+            int slot = spread(key.hashCode()) & this.mask;
+            while (this.keys[slot] != null) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.keys[slot] = key;
+            this.children[slot] = child;
+        }
+
+        Node child(String permission, int start, int end) {
+            if (this.keys == null) {
+                return null;
+            }
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + permission.charAt(i);
+            }
+            final int length = end - start;
+            int slot = spread(hash) & this.mask;
+            String key;
+            while ((key = this.keys[slot]) != null) {
+                if (key.length() == length && permission.regionMatches(start, key, 0, length)) {
+                    return this.children[slot];
+                }
+                slot = (slot + 1) & this.mask;
+            }
+            return null;
+        }
+
+        Tristate get(String permission) {
+            final String lower = permission.toLowerCase();
+            // Trailing empty parts are dropped by the split a NodeTree uses
+            int end = lower.length();
+            while (end > 0 && lower.charAt(end - 1) == '.') {
+                end--;
+            }
+            if (end == 0 && !lower.isEmpty()) {
+                return this.value;
+            }
+            Node node = this;
+            int start = 0;
+            while (true) {
+                int dot = lower.indexOf('.', start);
+                if (dot == -1 || dot > end) {
+                    dot = end;
+                }
+                final Node child = node.child(lower, start, dot);
+                if (child == null) {
+                    return node.value;
+                }
+                node = child;
+                if (dot == end) {
+                    return node.value;
+                }
+                start = dot + 1;
+            }
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
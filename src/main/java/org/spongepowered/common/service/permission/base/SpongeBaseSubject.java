@@ -36,8 +36,12 @@
 import java.util.Optional;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 public abstract class SpongeBaseSubject implements Subject {
 
+    @Nullable private volatile ResolvedPermissions resolvedPermissions;
+
     public abstract PermissionService getService();
 
     @Override
@@ -60,22 +64,35 @@ public boolean hasPermission(Set<Context> contexts, String permission) {
 
     @Override
     public Tristate getPermissionValue(Set<Context> contexts, String permission) {
-        return getDataPermissionValue(getTransientSubjectData(), permission);
+        ResolvedPermissions resolved = this.resolvedPermissions;
+        if (resolved == null || !resolved.isValid()) {
+            final ResolvedPermissions.Builder builder = new ResolvedPermissions.Builder();
+            builder.addSubject(this);
+            this.resolvedPermissions = resolved = builder.build();
+        }
+        return resolved.get(permission);
     }
 
-    protected Tristate getDataPermissionValue(MemorySubjectData subject, String permission) {
-        Tristate res = subject.getNodeTree(SubjectData.GLOBAL_CONTEXT).get(permission);
-
-        if (res == Tristate.UNDEFINED) {
-            for (SubjectReference parent : subject.getParents(SubjectData.GLOBAL_CONTEXT)) {
-                res = parent.resolve().join().getPermissionValue(SubjectData.GLOBAL_CONTEXT, permission);
-                if (res != Tristate.UNDEFINED) {
-                    return res;
-                }
-            }
-        }
+    /**
+     * Adds everything this subject resolves permissions from to the builder,
+     * in the order it is consulted. The subject data is followed by its
+     * parents, subjects falling back to further data add it afterwards.
+     *
+     * @param builder The builder
+     */
+    protected void collectPermissionSources(ResolvedPermissions.Builder builder) {
+        builder.addData(getTransientSubjectData());
+    }
 
-        return res;
+    /**
+     * Gets a stamp of any state outside of the subject data which affects
+     * the sources added by {@link #collectPermissionSources}, resolved
+     * permissions are rebuilt once it changes.
+     *
+     * @return The stamp
+     */
+    protected int getPermissionStamp() {
+        return 0;
     }
 
     @Override
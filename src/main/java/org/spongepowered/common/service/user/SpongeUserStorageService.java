@@ -28,14 +28,12 @@
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
-import com.google.common.collect.Sets;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.living.player.User;
 import org.spongepowered.api.profile.GameProfile;
 import org.spongepowered.api.service.user.UserStorageService;
 
 import java.util.Collection;
-import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
@@ -109,15 +107,34 @@ public boolean delete(User user) {
 
     @Override
     public Collection<GameProfile> match(String lastKnownName) {
-        lastKnownName = checkNotNull(lastKnownName, "lastKnownName").toLowerCase(Locale.ROOT);
-        Collection<GameProfile> allProfiles = UserDiscoverer.getAllProfiles();
-        Collection<GameProfile> matching = Sets.newHashSet();
-        for (GameProfile profile : allProfiles) {
-            if (profile.getName().isPresent() && profile.getName().get().startsWith(lastKnownName)) {
-                matching.add(profile);
-            }
-        }
-        return matching;
+        return UserDiscoverer.match(checkNotNull(lastKnownName, "lastKnownName"));
+    }
+
+    /**
+     * Records that the stored data of a user was written, adding them to the
+     * index of users with stored data.
+     *
+     * @param profile The profile of the user
+     */
+    public static void onUserDataSaved(GameProfile profile) {
+        UserDiscoverer.onUserDataSaved(profile);
+    }
+
+    /**
+     * Records that a player logged in, updating their name and last seen time
+     * in the index of users with stored data.
+     *
+     * @param profile The profile of the player
+     */
+    public static void onPlayerLoggedIn(GameProfile profile) {
+        UserDiscoverer.onPlayerLoggedIn(profile);
+    }
+
+    /**
+     * Writes changes to the index of users with stored data to disk.
+     */
+    public static void saveIndex() {
+        UserDiscoverer.saveIndex();
     }
 
 }
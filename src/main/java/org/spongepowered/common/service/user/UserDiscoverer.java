@@ -52,23 +52,25 @@
 import org.spongepowered.common.mixin.core.server.management.UserLIstEntryAccessor;
 import org.spongepowered.common.mixin.core.server.management.UserListAccessor;
 import org.spongepowered.common.mixin.core.world.storage.SaveHandlerAccessor;
+import org.spongepowered.common.util.SpongeUsernameCache;
 import org.spongepowered.common.world.WorldManager;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.DirectoryStream;
-import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardWatchEventKinds;
-import java.nio.file.WatchEvent;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -80,17 +82,15 @@
 
 class UserDiscoverer {
 
-    private static final Map<String, MutableWatchEvent> updateCache = new HashMap<>();
-    private static final Set<UUID> detectedStoredUUIDs = new HashSet<>();
     private static final Pattern DAT_FILENAME_SUFFIX = Pattern.compile("\\.dat$");
+    private static final int PROFILE_PAGE_SIZE = 1024;
 
-    @Nullable private static WatchService filesystemWatchService = null;
-    @Nullable private static WatchKey watchKey = null;
+    // Users with stored data, null until it has been opened (or built) for the current overworld
+    @Nullable private static volatile UserIndex index = null;
+    @Nullable private static Path indexFile = null;
 
     // Used to ensure that race conditions aren't hit when doing the filesystem checks
     private static final Object lockingObject = new Object();
-    private static boolean hasInitBeenStarted = false;
-    private static boolean scanningIO = true;
 
     // This is inherently tied to the user cache, so we use its removal listener to remove entries here.
     // Note that this cache is intended for _stored_ user data, while the GameProfileCache might contain
@@ -192,6 +192,18 @@ static User findByUsername(final String username) {
             return userCollection.iterator().next();
         }
 
+        // check users with stored data
+        final UserIndex index = UserDiscoverer.index;
+        if (index != null) {
+            final UUID uniqueId = index.getUniqueId(username);
+            if (uniqueId != null) {
+                final User indexed = findByProfile(createProfile(uniqueId, index.getName(uniqueId)));
+                if (indexed != null) {
+                    return indexed;
+                }
+            }
+        }
+
         // check mojang cache
         final PlayerProfileCache cache = SpongeImpl.getServer().getPlayerProfileCache();
         final HashSet<String> names = Sets.newHashSet(cache.getUsernames());
@@ -217,29 +229,46 @@ static User findByUsername(final String username) {
         return UserDiscoverer.findByProfile(profile);
     }
 
-    @SuppressWarnings("unchecked")
     static Collection<org.spongepowered.api.profile.GameProfile> getAllProfiles() {
-        if (scanningIO) {
+        final UserIndex index = UserDiscoverer.index;
+        if (index == null) {
             // A good temporary measure is to use the game profile cache.
             return ((GameProfileCache) SpongeImpl.getServer().getPlayerProfileCache()).getProfiles();
         }
+        return new IndexedProfiles(index, getUnindexedProfiles(index).values());
+    }
 
-        Preconditions.checkState(Sponge.isServerAvailable(), "Server is not available!");
-        if (filesystemWatchService == null || watchKey == null || !watchKey.isValid()) {
-            startFilesystemWatchService();
-            return ((GameProfileCache) SpongeImpl.getServer().getPlayerProfileCache()).getProfiles();
+    static Collection<org.spongepowered.api.profile.GameProfile> match(final String lastKnownName) {
+        final String prefix = lastKnownName.toLowerCase(Locale.ROOT);
+        final Collection<org.spongepowered.api.profile.GameProfile> matching = Sets.newHashSet();
+        final UserIndex index = UserDiscoverer.index;
+        final Collection<org.spongepowered.api.profile.GameProfile> profiles;
+        if (index == null) {
+            profiles = getAllProfiles();
+        } else {
+            index.forEachMatching(prefix, (uniqueId, name, lastSeen) -> matching.add(createProfile(uniqueId, name)));
+            profiles = getUnindexedProfiles(index).values();
         }
+        for (org.spongepowered.api.profile.GameProfile profile : profiles) {
+            if (profile.getName().isPresent() && profile.getName().get().toLowerCase(Locale.ROOT).startsWith(prefix)) {
+                matching.add(profile);
+            }
+        }
+        return matching;
+    }
 
+    /**
+     * Gets the profiles of users who are not in the index with a name, but
+     * are cached or on the whitelist or ban list.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<UUID, org.spongepowered.api.profile.GameProfile> getUnindexedProfiles(final UserIndex index) {
+        Preconditions.checkState(Sponge.isServerAvailable(), "Server is not available!");
         synchronized (lockingObject) {
             // Add all cached profiles to a new map, we don't want to alter the current "cache" map.
             final Map<UUID, org.spongepowered.api.profile.GameProfile> profiles = new HashMap<>(gameProfileCache);
-
-            // Add all known profiles from the data files
             final PlayerProfileCache profileCache = SpongeImpl.getServer().getPlayerProfileCache();
 
-            pollFilesystemWatcher();
-            getProfilesFromDetectedUUIDs(profileCache, profiles);
-
             // Add all whitelisted users
             // Note: as the equality check in GameProfile requires both the UUID and name to be equal, we have to filter
             // out the game profiles by UUID only in the whitelist and ban list. If we don't, we end up with two
@@ -256,75 +285,101 @@ static Collection<org.spongepowered.api.profile.GameProfile> getAllProfiles() {
                     ((UserListAccessor<GameProfile, UserListBansEntry>) pl.getBannedPlayers()).accessor$getValues().values(),
                     profiles,
                     profileCache);
-            return profiles.values();
+            profiles.keySet().removeIf(index::isNamed);
+            return profiles;
         }
     }
 
     static void init() {
-        if (!hasInitBeenStarted) {
-            hasInitBeenStarted = true;
-            startFilesystemWatchService();
+        Preconditions.checkState(Sponge.isServerAvailable(), "Server is not available!");
+        SpongeImpl.getScheduler().createAsyncExecutor(SpongeImpl.getPlugin())
+                    .execute(UserDiscoverer::openIndexTask);
+    }
+
+    static void onUserDataSaved(final org.spongepowered.api.profile.GameProfile profile) {
+        nonExistentUsers.remove(profile.getUniqueId());
+        final UserIndex index = UserDiscoverer.index;
+        if (index != null) {
+            index.put(profile.getUniqueId(), profile.getName().orElse(null), System.currentTimeMillis());
         }
     }
 
-    // Used to avoid blocking on a lock.
-    private static void startFilesystemWatchService() {
-        Preconditions.checkState(Sponge.isServerAvailable(), "Server is not available!");
-        scanningIO = true;
-        SpongeImpl.getScheduler().createAsyncExecutor(SpongeImpl.getPlugin())
-                    .execute(UserDiscoverer::startFilesystemWatchServiceTask);
+    static void onPlayerLoggedIn(final org.spongepowered.api.profile.GameProfile profile) {
+        final UserIndex index = UserDiscoverer.index;
+        if (index != null) {
+            // Players without stored data are added once they are saved
+            index.update(profile.getUniqueId(), profile.getName().orElse(null), System.currentTimeMillis());
+        }
+    }
+
+    static void saveIndex() {
+        final UserIndex index = UserDiscoverer.index;
+        if (index != null) {
+            index.force();
+        }
     }
 
-    private static void startFilesystemWatchServiceTask() {
-        // if we're in init, we need to remove the old service and watchkey
+    private static void openIndexTask() {
         synchronized (lockingObject) {
-            if (watchKey != null) {
-                watchKey.cancel();
-                watchKey = null;
+            final Optional<WorldServer> overworld = WorldManager.getWorldByDimensionId(0);
+            if (!overworld.isPresent()) {
+                return;
+            }
+            final Path playersDirectory = ((SaveHandlerBridge) overworld.get().getSaveHandler()).bridge$getPlayersDirectory().toPath();
+            final Path file = playersDirectory.resolveSibling(UserIndex.FILE_NAME);
+            if (file.equals(indexFile)) {
+                return;
             }
 
-            if (filesystemWatchService != null) {
+            // The overworld changed (e.g. another singleplayer world), so its users are different
+            final UserIndex previous = index;
+            index = null;
+            indexFile = null;
+            nonExistentUsers.clear();
+            if (previous != null) {
                 try {
-                    filesystemWatchService.close();
+                    previous.close();
                 } catch (IOException e) {
-                    // ignored - we're nulling this anyway
-                } finally {
-                    filesystemWatchService = null;
+                    SpongeImpl.getLogger().warn("Could not close the user index", e);
                 }
             }
 
-            detectedStoredUUIDs.clear();
-            nonExistentUsers.clear();
-
-            SaveHandlerBridge saveHandler = (SaveHandlerBridge) WorldManager.getWorldByDimensionId(0).get().getSaveHandler();
-            Set<UUID> uuids = getAvailablePlayerUUIDs(saveHandler.bridge$getPlayersDirectory().toPath());
-            detectedStoredUUIDs.addAll(uuids);
-
-            // Anything we might have cached already, we should add it here,
-            // in case it's been added but not saved yet
-            detectedStoredUUIDs.addAll(userCache.asMap().keySet());
-
-            // Setup the watch service
+            final UserIndex opened;
             try {
-                filesystemWatchService = FileSystems.getDefault().newWatchService();
-                watchKey = saveHandler.bridge$getPlayersDirectory().toPath().register(
-                        filesystemWatchService,
-                        StandardWatchEventKinds.ENTRY_CREATE,
-                        StandardWatchEventKinds.ENTRY_DELETE);
-                scanningIO = false;
+                opened = UserIndex.open(file);
             } catch (IOException e) {
-                SpongeImpl.getLogger().warn("Could not start file watcher");
-                if (filesystemWatchService != null) {
-                    // it might be the watchKey that failed, so null it out again.
-                    try {
-                        filesystemWatchService.close();
-                    } catch (IOException ex) {
-                        // ignored
-                    }
+                SpongeImpl.getLogger().error("Could not open the user index {}, only cached users will be listed", file, e);
+                return;
+            }
+            if (opened.isCreated()) {
+                // This is the only time the players directory is scanned, afterwards saves keep the index up to date
+                final long start = System.currentTimeMillis();
+                for (UUID uuid : getAvailablePlayerUUIDs(playersDirectory)) {
+                    opened.put(uuid, getLastKnownName(uuid), getLastModified(playersDirectory.resolve(uuid + ".dat")));
                 }
-                watchKey = null;
-                filesystemWatchService = null;
+                opened.force();
+                SpongeImpl.getLogger().info("Indexed {} users with stored data in {} ms", opened.size(), System.currentTimeMillis() - start);
             }
+            indexFile = file;
+            index = opened;
+        }
+    }
+
+    @Nullable
+    private static String getLastKnownName(final UUID uuid) {
+        final String name = SpongeUsernameCache.getLastKnownUsername(uuid);
+        if (name != null) {
+            return name;
+        }
+        final GameProfile profile = SpongeImpl.getServer().getPlayerProfileCache().getProfileByUUID(uuid);
+        return profile == null ? null : profile.getName();
+    }
+
+    private static long getLastModified(final Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
         }
     }
 
@@ -347,58 +402,6 @@ private static Set<UUID> getAvailablePlayerUUIDs(Path playersDirectory) {
         return ret;
     }
 
-    private static void getProfilesFromDetectedUUIDs(
-            PlayerProfileCache profileCache,
-            Map<UUID, org.spongepowered.api.profile.GameProfile> profiles) {
-
-        for (UUID uuid : detectedStoredUUIDs) {
-            final GameProfile profile = profileCache.getProfileByUUID(uuid);
-            if (profile != null) {
-                profiles.put(profile.getId(), (org.spongepowered.api.profile.GameProfile) profile);
-            }
-        }
-    }
-
-    private static void pollFilesystemWatcher() {
-        // We've already got the UUIDs, so we need to just see if the file system
-        // watcher has found any more (or removed any).
-        synchronized (updateCache) {
-            updateCache.clear(); // just in case
-            for (WatchEvent event : watchKey.pollEvents()) {
-                @SuppressWarnings("unchecked") WatchEvent<Path> ev = (WatchEvent<Path>) event;
-                Path file = ev.context();
-                String filename = file.getFileName().toString();
-
-                // We don't determine the UUIDs yet, we'll only do that if we need to.
-                updateCache.computeIfAbsent(filename, f -> new MutableWatchEvent()).set(ev.kind());
-            }
-
-            for (Map.Entry<String, MutableWatchEvent> entry : updateCache.entrySet()) {
-                @Nullable WatchEvent.Kind kind = entry.getValue().get();
-                if (kind != null) {
-                    String name = entry.getKey();
-                    UUID uuid;
-                    if (name.endsWith(".dat")) {
-                        try {
-                            uuid = UUID.fromString(name.substring(0, name.length() - 4));
-
-                            // It will only be create or delete here.
-                            if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
-                                detectedStoredUUIDs.add(uuid);
-                            } else {
-                                detectedStoredUUIDs.remove(uuid);
-                            }
-                        } catch (IllegalArgumentException ex) {
-                            // ignored, file isn't of use to us.
-                        }
-                    }
-                }
-            }
-
-            updateCache.clear();
-        }
-    }
-
     @SuppressWarnings("unchecked")
     private static void addToProfiles(
             final Collection<? extends UserListEntry<GameProfile>> gameProfiles,
@@ -428,6 +431,10 @@ static boolean delete(final UUID uniqueId) {
             return false;
         }
         boolean success = deleteStoredPlayerData(uniqueId);
+        final UserIndex index = UserDiscoverer.index;
+        if (success && index != null) {
+            index.remove(uniqueId);
+        }
         success = success && deleteWhitelistEntry(uniqueId);
         success = success && deleteBanlistEntry(uniqueId);
         return success;
@@ -482,6 +489,12 @@ private static User getFromStoredData(final org.spongepowered.api.profile.GamePr
             return null;
         }
 
+        // Data that was not saved by this server (e.g. copied over) is added once it is found
+        final UserIndex index = UserDiscoverer.index;
+        if (index != null && !index.contains(profile.getUniqueId())) {
+            index.put(profile.getUniqueId(), profile.getName().orElse(null), dataFile.lastModified());
+        }
+
         // Create the user, this will cache it too.
         // Note: this was previously before the data file check. This had the unfortunate side effect of
         // creating a user when the user wasn't asked to be created (UserStorageService#get). The effect
@@ -588,33 +601,71 @@ private static void invalidateEntry(org.spongepowered.api.profile.GameProfile pr
         });
     }
 
-    // Used to reduce the number of calls to maps.
-    static class MutableWatchEvent {
+    private static org.spongepowered.api.profile.GameProfile createProfile(final UUID uniqueId, @Nullable final String name) {
+        return (org.spongepowered.api.profile.GameProfile) new GameProfile(uniqueId, name);
+    }
+
+    /**
+     * A view of the named users in the index followed by other known users,
+     * which reads the index a page at a time as it is iterated. Like the
+     * index, it reflects changes made during iteration.
+     */
+    private static final class IndexedProfiles extends AbstractCollection<org.spongepowered.api.profile.GameProfile> {
+
+        private final UserIndex index;
+        private final Collection<org.spongepowered.api.profile.GameProfile> unindexed;
 
-        @Nullable private WatchEvent.Kind<?> kind = null;
+        IndexedProfiles(final UserIndex index, final Collection<org.spongepowered.api.profile.GameProfile> unindexed) {
+            this.index = index;
+            this.unindexed = unindexed;
+        }
 
-        @Nullable
-        public WatchEvent.Kind get() {
-            return this.kind;
+        @Override
+        public int size() {
+            return this.index.namedSize() + this.unindexed.size();
         }
 
-        public void set(WatchEvent.Kind<?> kind) {
-            if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
-                // This should never happen, we don't listen to this.
-                // However, if it does, treat it as a create, because it
-                // infers the existence of the file.
-                kind = StandardWatchEventKinds.ENTRY_CREATE;
-            }
+        @Override
+        public Iterator<org.spongepowered.api.profile.GameProfile> iterator() {
+            return new Iterator<org.spongepowered.api.profile.GameProfile>() {
 
-            if (kind == StandardWatchEventKinds.ENTRY_CREATE || kind == StandardWatchEventKinds.ENTRY_DELETE) {
-                if (this.kind != null && this.kind != kind) {
-                    this.kind = null;
-                } else {
-                    this.kind = kind;
+                private final List<org.spongepowered.api.profile.GameProfile> page = new ArrayList<>();
+                private Iterator<org.spongepowered.api.profile.GameProfile> current = Collections.emptyIterator();
+                private int next = 0;
+                private boolean indexed = true;
+
+                @Override
+                public boolean hasNext() {
+                    while (!this.current.hasNext()) {
+                        if (!this.indexed) {
+                            return false;
+                        }
+                        if (this.next >= IndexedProfiles.this.index.size()) {
+                            this.indexed = false;
+                            this.current = IndexedProfiles.this.unindexed.iterator();
+                            continue;
+                        }
+                        this.page.clear();
+                        IndexedProfiles.this.index.forEach(this.next, this.next + PROFILE_PAGE_SIZE, (uniqueId, name, lastSeen) -> {
+                            if (name != null) {
+                                this.page.add(createProfile(uniqueId, name));
+                            }
+                        });
+                        this.next += PROFILE_PAGE_SIZE;
+                        this.current = this.page.iterator();
+                    }
+                    return true;
                 }
-            }
-        }
 
+                @Override
+                public org.spongepowered.api.profile.GameProfile next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return this.current.next();
+                }
+            };
+        }
     }
 
 }
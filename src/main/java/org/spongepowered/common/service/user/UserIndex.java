@@ -0,0 +1,605 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.service.user;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+/**
+ * A persistent index of the users with stored data, keyed by unique id and
+ * by lowercase last known name.
+ *
+ * <p>Users are kept as fixed size records in a memory mapped file, which is
+ * updated in place, so the index can be reopened without scanning the player
+ * data directory. Only the two lookup tables are kept on the heap. Records
+ * are unordered, removing one moves the last record into its place.</p>
+ *
+ * <p>Every lowercase name maps to a single user, the one seen most recently
+ * when the name was indexed. When that user is renamed or removed, the name
+ * passes on to the most recently seen of the other users with it.</p>
+ */
+final class UserIndex implements Closeable {
+
+    static final String FILE_NAME = "sponge_user_index.bin";
+
+    private static final int MAGIC = 0x53505549;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int SIZE_OFFSET = 8;
+
+    private static final int RECORD_SIZE = 80;
+    private static final int MOST_BITS = 0;
+    private static final int LEAST_BITS = 8;
+    private static final int LAST_SEEN = 16;
+    private static final int NAME_HASH = 24;
+    private static final int NAME_LENGTH = 28;
+    private static final int NAME = 29;
+    static final int MAX_NAME_BYTES = RECORD_SIZE - NAME;
+
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final boolean created;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int size;
+    private int named;
+
+    // Open addressing tables of record index + 1, 0 marks an empty slot
+    private int[] byId = new int[0];
+    private int[] byName = new int[0];
+
+    private UserIndex(FileChannel channel, boolean created) {
+        this.channel = channel;
+        this.created = created;
+    }
+
+    /**
+     * Opens the index stored in the given file. A missing or unreadable file is
+     * replaced by an empty index, {@link #isCreated()} is then true.
+     *
+     * @param file The file
+     * @return The index
+     * @throws IOException If the file couldn't be opened
+     */
+    static UserIndex open(Path file) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            final long length = channel.size();
+            if (length >= HEADER_SIZE) {
+                final UserIndex existing = new UserIndex(channel, false);
+                existing.map((int) Math.min((length - HEADER_SIZE) / RECORD_SIZE, MAX_CAPACITY));
+                if (existing.load()) {
+                    return existing;
+                }
+            }
+            final UserIndex index = new UserIndex(channel, true);
+            index.map(MIN_CAPACITY);
+            index.buffer.putInt(0, MAGIC);
+            index.buffer.putInt(4, VERSION);
+            index.buffer.putInt(SIZE_OFFSET, 0);
+            index.rehash(0);
+            return index;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets whether this index was newly created when opened, and still has to
+     * be filled with the existing users.
+     *
+     * @return Whether the index was created
+     */
+    boolean isCreated() {
+        return this.created;
+    }
+
+    synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the amount of users with a known name.
+     *
+     * @return The amount of named users
+     */
+    synchronized int namedSize() {
+        return this.named;
+    }
+
+    synchronized boolean contains(UUID uniqueId) {
+        return findId(uniqueId.getMostSignificantBits(), uniqueId.getLeastSignificantBits()) >= 0;
+    }
+
+    /**
+     * Gets the last known name of a user.
+     *
+     * @param uniqueId The unique id
+     * @return The name, if the user is indexed with one
+     */
+    @Nullable
+    synchronized String getName(UUID uniqueId) {
+        final int record = findId(uniqueId.getMostSignificantBits(), uniqueId.getLeastSignificantBits());
+        return record < 0 ? null : getName(record);
+    }
+
+    synchronized boolean isNamed(UUID uniqueId) {
+        final int record = findId(uniqueId.getMostSignificantBits(), uniqueId.getLeastSignificantBits());
+        return record >= 0 && getNameLength(record) != 0;
+    }
+
+    /**
+     * Gets the unique id of the user last seen with the given name, ignoring
+     * case.
+     *
+     * @param name The name
+     * @return The unique id, if known
+     */
+    @Nullable
+    synchronized UUID getUniqueId(String name) {
+        final String lowerName = name.toLowerCase(Locale.ROOT);
+        final int record = findName(lowerName, hashName(lowerName));
+        return record < 0 ? null : getUniqueId(record);
+    }
+
+    /**
+     * Adds a user to the index, or updates their name and last seen time.
+     *
+     * @param uniqueId The unique id
+     * @param name The last known name, if any
+     * @param lastSeen The time the user was last seen, in milliseconds
+     */
+    synchronized void put(UUID uniqueId, @Nullable String name, long lastSeen) {
+        final long mostBits = uniqueId.getMostSignificantBits();
+        final long leastBits = uniqueId.getLeastSignificantBits();
+        int record = findId(mostBits, leastBits);
+        if (record < 0) {
+            if (this.size == this.capacity) {
+                grow();
+            }
+            record = this.size;
+            final int offset = offset(record);
+            this.buffer.putLong(offset + MOST_BITS, mostBits);
+            this.buffer.putLong(offset + LEAST_BITS, leastBits);
+            this.buffer.putLong(offset + LAST_SEEN, lastSeen);
+            this.buffer.put(offset + NAME_LENGTH, (byte) 0);
+            setSize(this.size + 1);
+            insert(this.byId, record, hashId(mostBits, leastBits));
+            if (this.size * 4L > this.byId.length * 3L) {
+                rehash(this.size);
+            }
+        } else {
+            final int offset = offset(record);
+            this.buffer.putLong(offset + LAST_SEEN, Math.max(lastSeen, this.buffer.getLong(offset + LAST_SEEN)));
+            final String current = getName(record);
+            if (name == null || name.equals(current)) {
+                return;
+            }
+            if (current != null) {
+                unlinkName(record);
+            }
+        }
+        if (name != null) {
+            setName(record, name);
+        }
+    }
+
+    /**
+     * Updates the name and last seen time of a user, if they are indexed.
+     *
+     * @param uniqueId The unique id
+     * @param name The last known name, if any
+     * @param lastSeen The time the user was last seen, in milliseconds
+     * @return Whether the user was indexed
+     */
+    synchronized boolean update(UUID uniqueId, @Nullable String name, long lastSeen) {
+        if (!contains(uniqueId)) {
+            return false;
+        }
+        put(uniqueId, name, lastSeen);
+        return true;
+    }
+
+    synchronized boolean remove(UUID uniqueId) {
+        final int record = findId(uniqueId.getMostSignificantBits(), uniqueId.getLeastSignificantBits());
+        if (record < 0) {
+            return false;
+        }
+        if (getNameLength(record) != 0) {
+            unlinkName(record);
+        }
+        delete(this.byId, record, hashId(record));
+        final int last = this.size - 1;
+        if (record != last) {
+            // Move the last record into the gap, relinking it under its new index
+            final boolean lastLinked = isNameLinked(last);
+            if (lastLinked) {
+                delete(this.byName, last, getNameHash(last));
+            }
+            delete(this.byId, last, hashId(last));
+            final int from = offset(last);
+            final int to = offset(record);
+            for (int i = 0; i < RECORD_SIZE; i += 8) {
+                this.buffer.putLong(to + i, this.buffer.getLong(from + i));
+            }
+            insert(this.byId, record, hashId(record));
+            if (lastLinked) {
+                insert(this.byName, record, getNameHash(record));
+            }
+        }
+        setSize(last);
+        return true;
+    }
+
+    /**
+     * Passes the records in the given range to the consumer. Records may move
+     * when users are removed, so iterating in pages while the index changes
+     * can skip or repeat users.
+     *
+     * @param from The first record, inclusive
+     * @param to The last record, exclusive
+     * @param consumer The consumer
+     */
+    synchronized void forEach(int from, int to, EntryConsumer consumer) {
+        final int end = Math.min(to, this.size);
+        for (int record = from; record < end; record++) {
+            consumer.accept(getUniqueId(record), getName(record), this.buffer.getLong(offset(record) + LAST_SEEN));
+        }
+    }
+
+    /**
+     * Passes every user whose name starts with the given prefix, ignoring
+     * case, to the consumer.
+     *
+     * @param prefix The lowercase prefix
+     * @param consumer The consumer
+     */
+    synchronized void forEachMatching(String prefix, EntryConsumer consumer) {
+        final byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        final boolean asciiPrefix = prefixBytes.length == prefix.length();
+        for (int record = 0; record < this.size; record++) {
+            final int offset = offset(record);
+            final int length = this.buffer.get(offset + NAME_LENGTH) & 0xFF;
+            if (length == 0) {
+                continue;
+            }
+            if (asciiPrefix && !startsWithAscii(offset + NAME, length, prefixBytes)) {
+                continue;
+            }
+            final String name = getName(record);
+            if (name != null && name.toLowerCase(Locale.ROOT).startsWith(prefix)) {
+                consumer.accept(getUniqueId(record), name, this.buffer.getLong(offset + LAST_SEEN));
+            }
+        }
+    }
+
+    /**
+     * Writes the changes to the index to the storage device.
+     */
+    synchronized void force() {
+        this.buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.buffer.force();
+        this.channel.close();
+    }
+
+    private boolean load() {
+        if (this.buffer.getInt(0) != MAGIC || this.buffer.getInt(4) != VERSION) {
+            return false;
+        }
+        final int size = this.buffer.getInt(SIZE_OFFSET);
+        if (size < 0 || size > this.capacity) {
+            return false;
+        }
+        this.size = size;
+        this.named = 0;
+        for (int record = 0; record < size; record++) {
+            final int length = getNameLength(record);
+            if (length > MAX_NAME_BYTES) {
+                return false;
+            }
+            if (length != 0) {
+                this.named++;
+            }
+        }
+        rehash(size);
+        for (int record = 0; record < size; record++) {
+            final int offset = offset(record);
+            if (findId(this.buffer.getLong(offset + MOST_BITS), this.buffer.getLong(offset + LEAST_BITS)) != record) {
+                // Duplicate users are never written
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void map(int capacity) throws IOException {
+        this.capacity = capacity;
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+    }
+
+    private void grow() {
+        if (this.capacity == MAX_CAPACITY) {
+            throw new IllegalStateException("The user index is full");
+        }
+        try {
+            map((int) Math.min(Math.max(MIN_CAPACITY, this.capacity * 2L), MAX_CAPACITY));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not grow the user index", e);
+        }
+    }
+
+    private void setSize(int size) {
+        this.size = size;
+        this.buffer.putInt(SIZE_OFFSET, size);
+    }
+
+    private void setName(int record, String name) {
+        final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length == 0 || bytes.length > MAX_NAME_BYTES) {
+            return;
+        }
+        final int offset = offset(record);
+        final String lowerName = name.toLowerCase(Locale.ROOT);
+        final int hash = hashName(lowerName);
+        this.buffer.putInt(offset + NAME_HASH, hash);
+        this.buffer.put(offset + NAME_LENGTH, (byte) bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            this.buffer.put(offset + NAME + i, bytes[i]);
+        }
+        this.named++;
+        final int existing = findName(lowerName, hash);
+        if (existing < 0) {
+            insert(this.byName, record, hash);
+            if (this.byName.length * 3L < this.named * 4L) {
+                rehash(this.size);
+            }
+        } else if (this.buffer.getLong(offset(existing) + LAST_SEEN) <= this.buffer.getLong(offset + LAST_SEEN)) {
+            replace(this.byName, existing, record, hash);
+        }
+    }
+
+    private void unlinkName(int record) {
+        final boolean linked = isNameLinked(record);
+        final String lowerName = linked ? getName(record).toLowerCase(Locale.ROOT) : null;
+        final int hash = getNameHash(record);
+        if (linked) {
+            delete(this.byName, record, hash);
+        }
+        this.buffer.put(offset(record) + NAME_LENGTH, (byte) 0);
+        this.named--;
+        if (lowerName != null) {
+            relinkName(lowerName, hash);
+        }
+    }
+
+    /**
+     * Links a name which lost its user to the most recently seen user that
+     * still has it, if any. This scans every record, but is only needed when
+     * a user is renamed or removed.
+     */
+    private void relinkName(String lowerName, int hash) {
+        int next = -1;
+        long nextLastSeen = Long.MIN_VALUE;
+        for (int record = 0; record < this.size; record++) {
+            final int offset = offset(record);
+            if (this.buffer.get(offset + NAME_LENGTH) == 0 || this.buffer.getInt(offset + NAME_HASH) != hash) {
+                continue;
+            }
+            final long lastSeen = this.buffer.getLong(offset + LAST_SEEN);
+            if (lastSeen >= nextLastSeen && lowerName.equals(getName(record).toLowerCase(Locale.ROOT))) {
+                next = record;
+                nextLastSeen = lastSeen;
+            }
+        }
+        if (next >= 0) {
+            insert(this.byName, next, hash);
+        }
+    }
+
+    private boolean isNameLinked(int record) {
+        return getNameLength(record) != 0 && this.byName[slotOf(this.byName, record, getNameHash(record))] == record + 1;
+    }
+
+    private void rehash(int size) {
+        int length = 16;
+        while (length * 3L < size * 4L + 4) {
+            length <<= 1;
+        }
+        this.byId = new int[length];
+        this.byName = new int[length];
+        for (int record = 0; record < size; record++) {
+            insert(this.byId, record, hashId(record));
+        }
+        for (int record = 0; record < size; record++) {
+            if (getNameLength(record) == 0) {
+                continue;
+            }
+            final String lowerName = getName(record).toLowerCase(Locale.ROOT);
+            final int hash = getNameHash(record);
+            final int existing = findName(lowerName, hash);
+            if (existing < 0) {
+                insert(this.byName, record, hash);
+            } else if (this.buffer.getLong(offset(existing) + LAST_SEEN) < this.buffer.getLong(offset(record) + LAST_SEEN)) {
+                replace(this.byName, existing, record, hash);
+            }
+        }
+    }
+
+    private int findId(long mostBits, long leastBits) {
+        final int mask = this.byId.length - 1;
+        for (int slot = hashId(mostBits, leastBits) & mask; ; slot = (slot + 1) & mask) {
+            final int entry = this.byId[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            final int offset = offset(entry - 1);
+            if (this.buffer.getLong(offset + MOST_BITS) == mostBits && this.buffer.getLong(offset + LEAST_BITS) == leastBits) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private int findName(String lowerName, int hash) {
+        final int mask = this.byName.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            final int entry = this.byName[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (getNameHash(entry - 1) == hash && lowerName.equals(getName(entry - 1).toLowerCase(Locale.ROOT))) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private static void insert(int[] table, int record, int hash) {
+        final int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = record + 1;
+    }
+
+    private static void replace(int[] table, int record, int replacement, int hash) {
+        table[slotOf(table, record, hash)] = replacement + 1;
+    }
+
+    /**
+     * Finds the slot of a record, or an empty slot if it isn't in the table.
+     */
+    private static int slotOf(int[] table, int record, int hash) {
+        final int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0 && table[slot] != record + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void delete(int[] table, int record, int hash) {
+        final int mask = table.length - 1;
+        int slot = slotOf(table, record, hash);
+        if (table[slot] == 0) {
+            return;
+        }
+        // Shift following entries back so no probe sequence is broken
+        int next = (slot + 1) & mask;
+        while (table[next] != 0) {
+            final int entry = table[next];
+            final int home = (table == this.byId ? hashId(entry - 1) : getNameHash(entry - 1)) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                table[slot] = entry;
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[slot] = 0;
+    }
+
+    private boolean startsWithAscii(int offset, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            final byte b = this.buffer.get(offset + i);
+            if (b < 0) {
+                // Let the decoded name decide
+                return true;
+            }
+            if ((b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private UUID getUniqueId(int record) {
+        final int offset = offset(record);
+        return new UUID(this.buffer.getLong(offset + MOST_BITS), this.buffer.getLong(offset + LEAST_BITS));
+    }
+
+    @Nullable
+    private String getName(int record) {
+        final int offset = offset(record);
+        final int length = this.buffer.get(offset + NAME_LENGTH) & 0xFF;
+        if (length == 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = this.buffer.get(offset + NAME + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int getNameLength(int record) {
+        return this.buffer.get(offset(record) + NAME_LENGTH) & 0xFF;
+    }
+
+    private int getNameHash(int record) {
+        return this.buffer.getInt(offset(record) + NAME_HASH);
+    }
+
+    private int hashId(int record) {
+        final int offset = offset(record);
+        return hashId(this.buffer.getLong(offset + MOST_BITS), this.buffer.getLong(offset + LEAST_BITS));
+    }
+
+    private static int hashId(long mostBits, long leastBits) {
+        final long hash = (mostBits ^ leastBits) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static int hashName(String lowerName) {
+        final int hash = lowerName.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int offset(int record) {
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+
+    interface EntryConsumer {
+
+        void accept(UUID uniqueId, @Nullable String name, long lastSeen);
+    }
+}
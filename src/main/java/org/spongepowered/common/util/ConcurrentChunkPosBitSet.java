@@ -0,0 +1,136 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A thread safe set of block positions within a single chunk, using the
+ * packed short positions of {@link Constants.Sponge#blockPosToShort}.
+ *
+ * <p>Every 16x16x16 section is backed by a bitset of 4096 bits which is
+ * only allocated once a position within that section is added, adding and
+ * removing positions afterwards doesn't allocate.</p>
+ */
+public final class ConcurrentChunkPosBitSet {
+
+    private static final int SECTIONS = 16;
+    private static final int WORDS_PER_SECTION = 4096 / Long.SIZE;
+
+    private final AtomicReferenceArray<AtomicLongArray> sections = new AtomicReferenceArray<>(SECTIONS);
+    private final AtomicInteger size = new AtomicInteger();
+
+    // The short position is packed as z (4 bits), y (8 bits) and x (4 bits),
+    // the upper nibble of y selects the section.
+    private static int section(final short pos) {
+        return (pos >>> 8) & 0xF;
+    }
+
+    private static int bit(final short pos) {
+        return (pos & 0xFF) | ((pos >>> 4) & 0xF00);
+    }
+
+    /**
+     * Adds the position to this set.
+     *
+     * @param pos The packed position
+     * @return True if the position wasn't present yet
+     */
+    public boolean add(final short pos) {
+        final int sectionIndex = section(pos);
+        AtomicLongArray section = this.sections.get(sectionIndex);
+        if (section == null) {
+            this.sections.compareAndSet(sectionIndex, null, new AtomicLongArray(WORDS_PER_SECTION));
+            section = this.sections.get(sectionIndex);
+        }
+        final int bit = bit(pos);
+        final int word = bit >>> 6;
+        final long mask = 1L << bit;
+        long value;
+        do {
+            value = section.get(word);
+            if ((value & mask) != 0) {
+                return false;
+            }
+        } while (!section.compareAndSet(word, value, value | mask));
+        this.size.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Removes the position from this set.
+     *
+     * @param pos The packed position
+     * @return True if the position was present
+     */
+    public boolean remove(final short pos) {
+        final AtomicLongArray section = this.sections.get(section(pos));
+        if (section == null) {
+            return false;
+        }
+        final int bit = bit(pos);
+        final int word = bit >>> 6;
+        final long mask = 1L << bit;
+        long value;
+        do {
+            value = section.get(word);
+            if ((value & mask) == 0) {
+                return false;
+            }
+        } while (!section.compareAndSet(word, value, value & ~mask));
+        this.size.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Gets whether the position is present in this set.
+     *
+     * @param pos The packed position
+     * @return True if the position is present
+     */
+    public boolean contains(final short pos) {
+        final AtomicLongArray section = this.sections.get(section(pos));
+        if (section == null) {
+            return false;
+        }
+        final int bit = bit(pos);
+        return (section.get(bit >>> 6) & (1L << bit)) != 0;
+    }
+
+    /**
+     * Gets the amount of positions in this set.
+     *
+     * @return The amount of positions
+     */
+    public int size() {
+        return this.size.get();
+    }
+
+    public boolean isEmpty() {
+        return this.size.get() == 0;
+    }
+}
@@ -62,7 +62,7 @@ public boolean apply(InetAddress input) {
             }
         }
         for (byte i = 0; i < overlap; ++i) {
-            if (((checkAddr[completeSegments + 1] >> (7 - i)) & 0x1) != ((address[completeSegments + 1] >> (7 - i)) & 0x1)) {
+            if (((checkAddr[completeSegments] >> (7 - i)) & 0x1) != ((address[completeSegments] >> (7 - i)) & 0x1)) {
                 return false;
             }
         }
@@ -70,6 +70,14 @@ public boolean apply(InetAddress input) {
         return true;
     }
 
+    public InetAddress getAddress() {
+        return this.addr;
+    }
+
+    public int getPrefixLength() {
+        return this.prefixLen;
+    }
+
     public static IpSet fromAddrPrefix(InetAddress address, int prefixLen) {
         validatePrefixLength(checkNotNull(address, "address"), checkNotNull(prefixLen, "prefixLen"));
         return new IpSet(address, prefixLen);
@@ -85,7 +93,7 @@ public static IpSet fromCidr(String spec) {
         int prefixLen;
         int slashIndex = checkNotNull(spec, "spec").lastIndexOf("/");
         if (slashIndex == -1) {
-            prefixLen = 32;
+            prefixLen = -1;
             addrString = spec;
         } else {
             prefixLen = Integer.parseInt(spec.substring(slashIndex + 1));
@@ -98,6 +106,10 @@ public static IpSet fromCidr(String spec) {
         } catch (UnknownHostException e) {
             throw new IllegalArgumentException(addrString + " does not contain a valid IP address");
         }
+        if (prefixLen == -1) {
+            // A single address
+            prefixLen = getMaxPrefixLength(addr);
+        }
 
         return fromAddrPrefix(addr, prefixLen);
     }
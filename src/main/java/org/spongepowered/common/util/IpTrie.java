@@ -0,0 +1,303 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Predicate;
+import com.google.common.net.InetAddresses;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of IPv4 and IPv6 address ranges, matched in time proportional to the
+ * prefix length rather than the amount of ranges.
+ *
+ * <p>Ranges are kept in a path compressed binary trie per address family,
+ * stored in parallel arrays, so even hundreds of thousands of ranges take
+ * little memory. A range inside another range is not stored.</p>
+ *
+ * <p>This class is not thread safe, it should be built before being shared.</p>
+ */
+public final class IpTrie implements Predicate<InetAddress> {
+
+    private final Tree ipv4 = new Tree(32);
+    private final Tree ipv6 = new Tree(128);
+
+    /**
+     * Reads ranges in CIDR notation, one per line. Empty lines and anything
+     * after a {@code #} are ignored, addresses without a prefix length are a
+     * range of their own. Addresses are never resolved.
+     *
+     * @param reader The reader
+     * @param invalidLine Called with the number of each line which could not be read
+     * @return The ranges
+     * @throws IOException If the reader fails
+     */
+    public static IpTrie read(BufferedReader reader, IntConsumer invalidLine) throws IOException {
+        final IpTrie trie = new IpTrie();
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            final int comment = line.indexOf('#');
+            final String spec = (comment == -1 ? line : line.substring(0, comment)).trim();
+            if (spec.isEmpty()) {
+                continue;
+            }
+            try {
+                trie.add(spec);
+            } catch (IllegalArgumentException e) {
+                invalidLine.accept(lineNumber);
+            }
+        }
+        return trie;
+    }
+
+    /**
+     * Adds a range in CIDR notation.
+     *
+     * @param spec The range
+     * @throws IllegalArgumentException If the range is invalid
+     */
+    public void add(String spec) {
+        final int slash = checkNotNull(spec, "spec").lastIndexOf('/');
+        String address = slash == -1 ? spec : spec.substring(0, slash);
+        if (address.startsWith("[") && address.endsWith("]")) {
+            address = address.substring(1, address.length() - 1);
+        }
+        final InetAddress parsed = InetAddresses.forString(address);
+        final int prefixLength;
+        if (slash == -1) {
+            prefixLength = parsed instanceof Inet4Address ? 32 : 128;
+        } else {
+            try {
+                prefixLength = Integer.parseInt(spec.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(spec + " does not contain a valid prefix length", e);
+            }
+        }
+        add(parsed, prefixLength);
+    }
+
+    public void add(IpSet set) {
+        add(set.getAddress(), set.getPrefixLength());
+    }
+
+    /**
+     * Adds the range of addresses starting with the first bits of the given
+     * address.
+     *
+     * @param address The address
+     * @param prefixLength The amount of bits of the address the range shares
+     */
+    public void add(InetAddress address, int prefixLength) {
+        final Tree tree = treeFor(checkNotNull(address, "address"));
+        if (prefixLength < 0 || prefixLength > tree.maxLength) {
+            throw new IllegalArgumentException("Invalid prefix length " + prefixLength + " for " + address);
+        }
+        final byte[] bytes = address.getAddress();
+        tree.add(high(bytes), low(bytes), prefixLength);
+    }
+
+    @Override
+    public boolean apply(InetAddress input) {
+        final byte[] bytes = input.getAddress();
+        return treeFor(input).contains(high(bytes), low(bytes));
+    }
+
+    /**
+     * Gets the amount of stored ranges, excluding those covered by others
+     * when they were added.
+     *
+     * @return The amount of ranges
+     */
+    public int size() {
+        return this.ipv4.ranges + this.ipv6.ranges;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    private Tree treeFor(InetAddress address) {
+        return address instanceof Inet4Address ? this.ipv4 : this.ipv6;
+    }
+
+    /**
+     * Gets the first 64 bits of the address, left aligned.
+     */
+    private static long high(byte[] bytes) {
+        long bits = 0;
+        final int length = Math.min(bytes.length, 8);
+        for (int i = 0; i < length; i++) {
+            bits |= (bytes[i] & 0xFFL) << (56 - 8 * i);
+        }
+        return bits;
+    }
+
+    private static long low(byte[] bytes) {
+        long bits = 0;
+        for (int i = 8; i < bytes.length; i++) {
+            bits |= (bytes[i] & 0xFFL) << (56 - 8 * (i - 8));
+        }
+        return bits;
+    }
+
+    private static long highMask(int length) {
+        return length == 0 ? 0 : length >= 64 ? -1L : -1L << (64 - length);
+    }
+
+    private static long lowMask(int length) {
+        return length <= 64 ? 0 : length >= 128 ? -1L : -1L << (128 - length);
+    }
+
+    private static int bit(long high, long low, int index) {
+        return (int) (index < 64 ? high >>> (63 - index) : low >>> (127 - index)) & 1;
+    }
+
+    /**
+     * A path compressed binary trie. Every node holds the bits of its range
+     * and the amount of them which are significant, the root is the empty
+     * range. Child 0 or 1 continues with the bit following the node's range.
+     */
+    private static final class Tree {
+
+        private static final int NONE = -1;
+
+        final int maxLength;
+        int ranges;
+
+        private long[] high = new long[16];
+        private long[] low = new long[16];
+        private byte[] length = new byte[16];
+        private int[] children = new int[32];
+        private boolean[] terminal = new boolean[16];
+        private int size;
+
+        Tree(int maxLength) {
+            this.maxLength = maxLength;
+            Arrays.fill(this.children, NONE);
+            this.size = 1;
+        }
+
+        void add(long high, long low, int length) {
+            high &= highMask(length);
+            low &= lowMask(length);
+            int node = 0;
+            while (true) {
+                if (this.terminal[node]) {
+                    // Already covered by a shorter range
+                    return;
+                }
+                final int nodeLength = length(node);
+                if (nodeLength == length) {
+                    this.terminal[node] = true;
+                    this.ranges++;
+                    return;
+                }
+                final int slot = 2 * node + bit(high, low, nodeLength);
+                final int child = this.children[slot];
+                if (child == NONE) {
+                    this.children[slot] = create(high, low, length, true);
+                    return;
+                }
+                final int limit = Math.min(length(child), length);
+                final int common = Math.min(commonLength(this.high[child], this.low[child], high, low), limit);
+                if (common == length(child)) {
+                    node = child;
+                    continue;
+                }
+                // Split the edge to the child where the ranges diverge
+                final int split = create(high & highMask(common), low & lowMask(common), common, common == length);
+                this.children[2 * split + bit(this.high[child], this.low[child], common)] = child;
+                if (common < length) {
+                    this.children[2 * split + bit(high, low, common)] = create(high, low, length, true);
+                }
+                this.children[slot] = split;
+                return;
+            }
+        }
+
+        boolean contains(long high, long low) {
+            if (this.terminal[0]) {
+                return true;
+            }
+            int node = 0;
+            while (true) {
+                final int child = this.children[2 * node + bit(high, low, length(node))];
+                if (child == NONE) {
+                    return false;
+                }
+                final int childLength = length(child);
+                if (((high ^ this.high[child]) & highMask(childLength)) != 0 || ((low ^ this.low[child]) & lowMask(childLength)) != 0) {
+                    return false;
+                }
+                if (this.terminal[child]) {
+                    return true;
+                }
+                node = child;
+            }
+        }
+
+        private int create(long high, long low, int length, boolean terminal) {
+            if (this.size == this.terminal.length) {
+                final int capacity = this.size * 2;
+                this.high = Arrays.copyOf(this.high, capacity);
+                this.low = Arrays.copyOf(this.low, capacity);
+                this.length = Arrays.copyOf(this.length, capacity);
+                this.terminal = Arrays.copyOf(this.terminal, capacity);
+                this.children = Arrays.copyOf(this.children, capacity * 2);
+                Arrays.fill(this.children, this.size * 2, capacity * 2, NONE);
+            }
+            final int node = this.size++;
+            this.high[node] = high;
+            this.low[node] = low;
+            this.length[node] = (byte) length;
+            this.terminal[node] = terminal;
+            if (terminal) {
+                this.ranges++;
+            }
+            return node;
+        }
+
+        private int length(int node) {
+            return this.length[node] & 0xFF;
+        }
+
+        private static int commonLength(long high1, long low1, long high2, long low2) {
+            final long high = high1 ^ high2;
+            if (high != 0) {
+                return Long.numberOfLeadingZeros(high);
+            }
+            return 64 + Long.numberOfLeadingZeros(low1 ^ low2);
+        }
+    }
+}
@@ -26,13 +26,45 @@
 
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.math.ChunkPos;
+import org.spongepowered.common.world.storage.BlockStorageSnapshot;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
 
 public class QueuedChunk {
     public ChunkPos coords;
     public NBTTagCompound compound;
+    @Nullable private List<BlockStorageSnapshot> sections;
 
     public QueuedChunk(ChunkPos coords, NBTTagCompound compound) {
+        this(coords, compound, null);
+    }
+
+    public QueuedChunk(ChunkPos coords, NBTTagCompound compound, @Nullable List<BlockStorageSnapshot> sections) {
         this.coords = coords;
         this.compound = compound;
+        this.sections = sections == null || sections.isEmpty() ? null : sections;
+    }
+
+    public boolean isComplete() {
+        return this.sections == null;
+    }
+
+    /**
+     * Fills in the block data of any sections that were saved as a
+     * snapshot. This happens on the chunk IO thread before the compound
+     * is written, or on whichever thread reads the compound back first.
+     *
+     * @return The completed compound
+     */
+    public synchronized NBTTagCompound complete() {
+        if (this.sections != null) {
+            for (BlockStorageSnapshot section : this.sections) {
+                section.writeTo();
+            }
+            this.sections = null;
+        }
+        return this.compound;
     }
 }
@@ -26,26 +26,41 @@
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.spongepowered.common.SpongeImpl;
+
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Type;
-import java.nio.charset.Charset;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.Nullable;
 
-import org.spongepowered.common.SpongeImpl;
-import com.google.common.base.Charsets;
-import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
-import com.google.common.io.Files;
-import com.google.common.reflect.TypeToken;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonSyntaxException;
-
 /**
  * Caches player's last known usernames
  * <p>
@@ -54,6 +69,11 @@
  * For convenience, {@link #getMap()} is provided to get an immutable copy of
  * the caches underlying map.
  *
+ * <p>The cache is persisted as an append-only log of changed entries, which
+ * is written in batches from a background thread and compacted once it grows
+ * well past the number of live entries. Loading also happens in the
+ * background; lookups made before it finishes wait for it.</p>
+ *
  * Note: This class represents Forge's UsernameCache. It is used merely used
  * to support both SpongeForge and SpongeVanilla. Original code can be found
  * here :
@@ -62,16 +82,39 @@
  */
 public final class SpongeUsernameCache {
 
-    // Thread-safe map
+    private static final int MAGIC = 0x53554331; // "SUC1"
+    private static final int HEADER_SIZE = 4;
+    private static final byte OP_SET = 1;
+    private static final byte OP_REMOVE = 2;
+    // Usernames are at most 16 characters, anything longer than this is not stored
+    static final int MAX_NAME_LENGTH = 0xFF;
+    static final int MAX_RECORD_SIZE = 1 + 16 + 2 + MAX_NAME_LENGTH;
+    static final int BUFFER_SIZE = 1 << 16;
+
+    // Compact once the log holds this many times more records than live entries
+    private static final int COMPACT_FACTOR = 3;
+    private static final int COMPACT_SLACK = 4096;
+    private static final long FLUSH_DELAY_SECONDS = 5;
+    private static final long SHUTDOWN_FLUSH_TIMEOUT_SECONDS = 30;
+
+    // Thread-safe maps
     private static Map<UUID, String> map = new ConcurrentHashMap<>();
-
-    private static final Charset charset = Charsets.UTF_8;
+    // Built on the first lookup by name, guarded by the dirty set when modified
+    @Nullable private static volatile Map<String, UUID> byName;
+    // Entries changed since the last flush, their current value is read from the map when written
+    private static final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
 
     private static File saveFile = new File(".", "usernamecache.json");
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private static File logFile = new File(".", "usernamecache.log");
 
-    private static boolean loaded = false;
-    private static boolean dirty = false;
+    private static final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("Sponge - Username Cache Writer").setDaemon(true).build());
+    private static final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    @Nullable private static volatile CompletableFuture<Void> loading;
+    // Only accessed from the writer thread
+    @Nullable private static FileChannel channel;
+    private static long records;
 
     /**
      * Internal method used to set the proper server directory when it's available
@@ -88,6 +131,7 @@ public final class SpongeUsernameCache {
      */
     public static void setServerDir(File serverDir) {
         saveFile = new File(serverDir, saveFile.getName());
+        logFile = new File(serverDir, logFile.getName());
     }
 
     /**
@@ -101,16 +145,22 @@ public static void setServerDir(File serverDir) {
     public static void setUsername(UUID uuid, String username) {
         checkNotNull(uuid);
         checkNotNull(username);
-        if (!loaded) {
-            load();
-        }
+        awaitLoaded();
 
-        if (username.equals(map.get(uuid))) {
-            return;
+        synchronized (dirty) {
+            final String previous = map.put(uuid, username);
+            if (username.equals(previous)) {
+                return;
+            }
+            final Map<String, UUID> names = byName;
+            if (names != null) {
+                if (previous != null) {
+                    names.remove(previous.toLowerCase(Locale.ROOT), uuid);
+                }
+                names.put(username.toLowerCase(Locale.ROOT), uuid);
+            }
+            markDirty(uuid);
         }
-
-        map.put(uuid, username);
-        dirty = true;
     }
 
     /**
@@ -122,13 +172,18 @@ public static void setUsername(UUID uuid, String username) {
      */
     public static boolean removeUsername(UUID uuid) {
         checkNotNull(uuid);
-        if (!loaded) {
-            load();
-        }
-
-        if (map.remove(uuid) != null) {
-            dirty = true;
-            return true;
+        awaitLoaded();
+
+        synchronized (dirty) {
+            final String previous = map.remove(uuid);
+            if (previous != null) {
+                final Map<String, UUID> names = byName;
+                if (names != null) {
+                    names.remove(previous.toLowerCase(Locale.ROOT), uuid);
+                }
+                markDirty(uuid);
+                return true;
+            }
         }
 
         return false;
@@ -147,9 +202,7 @@ public static boolean removeUsername(UUID uuid) {
     @Nullable
     public static String getLastKnownUsername(UUID uuid) {
         checkNotNull(uuid);
-        if (!loaded) {
-            load();
-        }
+        awaitLoaded();
 
         return map.get(uuid);
     }
@@ -167,17 +220,22 @@ public static String getLastKnownUsername(UUID uuid) {
     @Nullable
     public static UUID getLastKnownUUID(String username) {
         checkNotNull(username);
-        if (!loaded) {
-            load();
-        }
-
-        for (Map.Entry<UUID, String> mapEntry : map.entrySet()) {
-            if (mapEntry.getValue().equalsIgnoreCase(username)) {
-                return mapEntry.getKey();
+        awaitLoaded();
+
+        Map<String, UUID> names = byName;
+        if (names == null) {
+            synchronized (dirty) {
+                names = byName;
+                if (names == null) {
+                    names = new ConcurrentHashMap<>(map.size());
+                    for (Map.Entry<UUID, String> entry : map.entrySet()) {
+                        names.put(entry.getValue().toLowerCase(Locale.ROOT), entry.getKey());
+                    }
+                    byName = names;
+                }
             }
         }
-
-        return null;
+        return names.get(username.toLowerCase(Locale.ROOT));
     }
 
     /**
@@ -189,9 +247,7 @@ public static UUID getLastKnownUUID(String username) {
      */
     public static boolean containsUUID(UUID uuid) {
         checkNotNull(uuid);
-        if (!loaded) {
-            load();
-        }
+        awaitLoaded();
 
         return map.containsKey(uuid);
     }
@@ -202,58 +258,327 @@ public static boolean containsUUID(UUID uuid) {
      * @return the map
      */
     public static Map<UUID, String> getMap() {
-        if (!loaded) {
-            load();
-        }
+        awaitLoaded();
 
         return ImmutableMap.copyOf(map);
     }
 
     /**
-     * Save the cache to file
+     * Write any pending changes to the log in the background
      */
     public static void save() {
-        if (!loaded) {
+        if (loading == null || dirty.isEmpty()) {
             return;
         }
 
-        if (!dirty) {
+        writer.execute(SpongeUsernameCache::flush);
+    }
+
+    /**
+     * Write any pending changes to the log and wait for them to reach the
+     * disk, used when the server is stopping
+     */
+    public static void saveAndWait() {
+        if (loading == null) {
             return;
         }
 
         try {
-            // Make sure we don't save when another thread is still saving
-            Files.write(gson.toJson(map), saveFile, charset);
-            dirty = false;
-        } catch (IOException e) {
+            writer.submit(() -> {
+                flush();
+                closeChannel();
+            }).get(SHUTDOWN_FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
             SpongeImpl.getLogger().error("Failed to save username cache to file!", e);
         }
     }
 
     /**
-     * Load the cache from file
+     * Start loading the cache from file in the background
      */
-    public static void load() {
-        loaded = true;
-        if (!saveFile.exists()) return;
+    public static synchronized void load() {
+        if (loading != null) {
+            return;
+        }
+
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        loading = future;
+        writer.execute(() -> {
+            try {
+                readFromDisk();
+            } catch (Throwable t) {
+                SpongeImpl.getLogger().error("Failed to load the username cache", t);
+            } finally {
+                future.complete(null);
+            }
+        });
+    }
+
+    private static void awaitLoaded() {
+        CompletableFuture<Void> future = loading;
+        if (future == null) {
+            load();
+            future = loading;
+        }
+        future.join();
+    }
 
+    private static void markDirty(UUID uuid) {
+        dirty.add(uuid);
+        if (flushScheduled.compareAndSet(false, true)) {
+            writer.schedule(() -> {
+                flushScheduled.set(false);
+                flush();
+            }, FLUSH_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void readFromDisk() {
+        final Path log = logFile.toPath();
+        // Size the maps for a compacted log of typical names up front, rehashing dominates loading otherwise
+        final long expected = Math.max(saveFile.length() / 64, logFile.length() / (1 + 16 + 2 + 12));
+        final Map<UUID, String> loaded = new ConcurrentHashMap<>((int) Math.min(expected, 1 << 24));
+        boolean migrated = false;
+        if (Files.exists(log)) {
+            records = readLog(log, loaded);
+        } else if (saveFile.exists()) {
+            // Convert the legacy json file, it is kept around as a backup
+            readJson(saveFile.toPath(), loaded);
+            migrated = true;
+        }
+        map = loaded;
+
+        if (!migrated && records <= (long) COMPACT_FACTOR * loaded.size() + COMPACT_SLACK) {
+            return;
+        }
         try {
+            compact();
+            if (migrated) {
+                Files.move(saveFile.toPath(), saveFile.toPath().resolveSibling(saveFile.getName() + ".old"),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            SpongeImpl.getLogger().error("Failed to compact the username cache", e);
+        }
+    }
 
-            String json = Files.toString(saveFile, charset);
-            Type type = new TypeToken<Map<UUID, String>>() { private static final long serialVersionUID = 1L; }.getType();
+    /**
+     * Replays the log into the given map, truncating a partially written or
+     * corrupted tail so that new records can be appended after it.
+     *
+     * @return The number of records in the log
+     */
+    private static long readLog(Path log, Map<UUID, String> into) {
+        long count = 0;
+        long valid = 0;
+        try (FileChannel in = FileChannel.open(log, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = (ByteBuffer) ByteBuffer.allocate(BUFFER_SIZE).flip();
+            if (!fill(in, buffer, HEADER_SIZE) || buffer.getInt() != MAGIC) {
+                SpongeImpl.getLogger().error("Username cache file {} has an unknown format, discarding it", log);
+                in.close();
+                Files.move(log, log.resolveSibling(log.getFileName() + ".corrupt"), StandardCopyOption.REPLACE_EXISTING);
+                return 0;
+            }
+            valid = HEADER_SIZE;
+            while (fill(in, buffer, 1 + 16)) {
+                final byte op = buffer.get();
+                final UUID uuid = new UUID(buffer.getLong(), buffer.getLong());
+                if (op == OP_SET) {
+                    if (!fill(in, buffer, 2)) {
+                        break;
+                    }
+                    final int length = buffer.getShort() & 0xFFFF;
+                    if (!fill(in, buffer, length)) {
+                        break;
+                    }
+                    into.put(uuid, new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8));
+                    buffer.position(buffer.position() + length);
+                    valid += 1 + 16 + 2 + length;
+                } else if (op == OP_REMOVE) {
+                    into.remove(uuid);
+                    valid += 1 + 16;
+                } else {
+                    SpongeImpl.getLogger().error("Username cache file {} is corrupted after {} entries", log, count);
+                    break;
+                }
+                count++;
+            }
+            if (valid == in.size()) {
+                return count;
+            }
+        } catch (IOException e) {
+            SpongeImpl.getLogger().error("Failed to read username cache file from disk", e);
+            return count;
+        }
 
-            map = gson.fromJson(json, type);
-        } catch (JsonSyntaxException e) {
-            SpongeImpl.getLogger().error("Could not parse username cache file as valid json, deleting file", e);
-            saveFile.delete();
+        // The server stopped while a batch was being written, drop the partial record
+        try (FileChannel truncate = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            truncate.truncate(valid);
         } catch (IOException e) {
-            SpongeImpl.getLogger().error("Failed to read username cache file from disk, deleting file", e);
-            saveFile.delete();
-        } finally {
-            // Can sometimes occur when the json file is malformed
-            if (map == null) {
-                map = Maps.newHashMap();
+            SpongeImpl.getLogger().error("Failed to truncate username cache file", e);
+        }
+        return count;
+    }
+
+    /**
+     * Makes sure the buffer has at least the given number of bytes remaining,
+     * reading more from the channel if needed.
+     *
+     * @return False if the channel ended first
+     */
+    private static boolean fill(FileChannel in, ByteBuffer buffer, int needed) throws IOException {
+        if (buffer.remaining() >= needed) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < needed) {
+            if (in.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    private static void readJson(Path json, Map<UUID, String> into) {
+        try (Reader reader = Files.newBufferedReader(json, StandardCharsets.UTF_8)) {
+            final Type type = new TypeToken<Map<UUID, String>>() { private static final long serialVersionUID = 1L; }.getType();
+            final Map<UUID, String> entries = new Gson().fromJson(reader, type);
+            if (entries != null) {
+                into.putAll(entries);
+            }
+        } catch (JsonParseException | IOException e) {
+            SpongeImpl.getLogger().error("Could not read the legacy username cache file", e);
+        }
+    }
+
+    private static void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        try {
+            final FileChannel out = openChannel();
+            final RecordWriter batch = new RecordWriter(out);
+            long written = 0;
+            for (UUID uuid : dirty) {
+                dirty.remove(uuid);
+                batch.put(uuid, map.get(uuid));
+                written++;
+            }
+            batch.flush();
+            out.force(false);
+            records += written;
+
+            if (records > (long) COMPACT_FACTOR * map.size() + COMPACT_SLACK) {
+                compact();
             }
+        } catch (IOException e) {
+            SpongeImpl.getLogger().error("Failed to save username cache to file!", e);
+            closeChannel();
         }
     }
+
+    /**
+     * Rewrites the log with one record per live entry.
+     */
+    private static void compact() throws IOException {
+        final Path log = logFile.toPath();
+        final Path temp = log.resolveSibling(log.getFileName() + ".tmp");
+        long written = 0;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final RecordWriter batch = new RecordWriter(out);
+            batch.putHeader();
+            for (Map.Entry<UUID, String> entry : map.entrySet()) {
+                batch.put(entry.getKey(), entry.getValue());
+                written++;
+            }
+            batch.flush();
+            out.force(true);
+        }
+
+        closeChannel();
+        try {
+            Files.move(temp, log, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, log, StandardCopyOption.REPLACE_EXISTING);
+        }
+        records = written;
+    }
+
+    /**
+     * Collects log records in a buffer and writes them to the channel once
+     * it cannot hold another record.
+     */
+    static final class RecordWriter {
+
+        private final WritableByteChannel out;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        RecordWriter(WritableByteChannel out) {
+            this.out = out;
+        }
+
+        void putHeader() {
+            this.buffer.putInt(MAGIC);
+        }
+
+        void put(UUID uuid, @Nullable String name) throws IOException {
+            if (this.buffer.remaining() < MAX_RECORD_SIZE) {
+                flush();
+            }
+            this.buffer.put(name == null ? OP_REMOVE : OP_SET);
+            this.buffer.putLong(uuid.getMostSignificantBits());
+            this.buffer.putLong(uuid.getLeastSignificantBits());
+            if (name != null) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > MAX_NAME_LENGTH) {
+                    bytes = new byte[0];
+                }
+                this.buffer.putShort((short) bytes.length);
+                this.buffer.put(bytes);
+            }
+        }
+
+        void flush() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.out.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+
+    }
+
+    private static FileChannel openChannel() throws IOException {
+        if (channel == null) {
+            final Path log = logFile.toPath();
+            final FileChannel out = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (out.size() < HEADER_SIZE) {
+                out.truncate(0);
+                out.write((ByteBuffer) ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).flip());
+                records = 0;
+            }
+            out.position(out.size());
+            channel = out;
+        }
+        return channel;
+    }
+
+    private static void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            channel = null;
+        }
+    }
+
+    private SpongeUsernameCache() {
+    }
 }
@@ -25,7 +25,6 @@
 package org.spongepowered.common.util.gen;
 
 import com.flowpowered.math.vector.Vector3i;
-import net.minecraft.util.math.MathHelper;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockTypes;
 import org.spongepowered.api.util.DiscreteTransform3;
@@ -36,6 +35,7 @@
 import org.spongepowered.api.world.extent.worker.MutableBlockVolumeWorker;
 import org.spongepowered.api.world.schematic.Palette;
 import org.spongepowered.api.world.schematic.PaletteTypes;
+import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.world.extent.MutableBlockViewDownsize;
 import org.spongepowered.common.world.extent.MutableBlockViewTransform;
 import org.spongepowered.common.world.extent.UnmodifiableBlockVolumeWrapper;
@@ -44,6 +44,7 @@
 import org.spongepowered.common.world.schematic.BlockPaletteWrapper;
 import org.spongepowered.common.world.schematic.GlobalPalette;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Objects;
 
@@ -74,7 +75,7 @@ public ArrayMutableBlockBuffer(Palette<BlockState> palette, Vector3i start, Vect
         int airId = palette.getOrAssign(AIR);
 
         int dataSize = area();
-        this.data = new PackedBackingData(dataSize, palette.getHighestId());
+        this.data = createBackingData(dataSize, palette.getHighestId());
 
         // all blocks default to air
         if (airId != 0) {
@@ -124,14 +125,14 @@ public boolean setBlock(int x, int y, int z, BlockState block) {
                 id = newpalette.getOrAssign(block);
                 highId = newpalette.getHighestId();
 
-                newdata = new PackedBackingData(dataSize, highId);
+                newdata = createBackingData(dataSize, highId);
                 for (int i = 0; i < dataSize; i++) {
                     newdata.set(i, newpalette.getOrAssign(this.palette.get(this.data.get(i)).orElse(AIR)));
                 }
                 this.palette = newpalette;
             } else {
 
-                newdata = new PackedBackingData(dataSize, highId);
+                newdata = createBackingData(dataSize, highId);
                 for (int i = 0; i < dataSize; i++) {
                     newdata.set(i, this.data.get(i));
                 }
@@ -186,6 +187,24 @@ public ImmutableBlockVolume getImmutableBlockCopy() {
         return new ArrayImmutableBlockBuffer(this.palette, this.data.copyOf(), this.start, this.size);
     }
 
+    /**
+     * Creates packed storage for the given amount of ids, memory mapped if the
+     * buffer reaches the configured off heap threshold.
+     */
+    static BackingData createBackingData(int size, int highestValue) {
+        final int threshold = SpongeImpl.isInitialized()
+                ? SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().getBlockBufferCategory().getOffHeapThreshold()
+                : 0;
+        if (threshold > 0 && size >= threshold) {
+            try {
+                return new MappedBackingData(size, highestValue);
+            } catch (IOException e) {
+                SpongeImpl.getLogger().warn("Could not map the storage of a block buffer of {} blocks, keeping it on the heap instead", size, e);
+            }
+        }
+        return new PackedBackingData(size, highestValue);
+    }
+
     private int area() {
         return this.size.getX() * this.size.getY() * this.size.getZ();
     }
@@ -211,6 +230,68 @@ public int hashCode() {
         return Objects.hash(super.hashCode(), this.palette, this.data);
     }
 
+    /**
+     * Palette ids laid out exactly like the storage of a buffer, for readers
+     * that decode ids before the palette they refer to is known. The storage
+     * widens itself when a larger id is written and is handed over to the
+     * buffer built from it without being copied.
+     */
+    public static final class RawIds {
+
+        private final Vector3i size;
+        private final int area;
+        private final int yLine;
+        private final int yzSlice;
+        private BackingData data;
+
+        public RawIds(Vector3i size, int highestId) {
+            this.size = size;
+            this.area = size.getX() * size.getY() * size.getZ();
+            this.yLine = size.getY();
+            this.yzSlice = this.yLine * size.getZ();
+            this.data = createBackingData(this.area, highestId);
+        }
+
+        public Vector3i getSize() {
+            return this.size;
+        }
+
+        public int getArea() {
+            return this.area;
+        }
+
+        /**
+         * Gets the storage index of a position relative to the minimum of the
+         * buffer.
+         */
+        public int getIndex(int x, int y, int z) {
+            return x * this.yzSlice + z * this.yLine + y;
+        }
+
+        public int get(int index) {
+            return this.data.get(index);
+        }
+
+        public void set(int index, int id) {
+            if (id > this.data.getMax()) {
+                final BackingData newData = createBackingData(this.area, Math.max(id, this.data.getMax() * 2 + 1));
+                for (int i = 0; i < this.area; i++) {
+                    newData.set(i, this.data.get(i));
+                }
+                this.data = newData;
+            }
+            this.data.set(index, id);
+        }
+
+        /**
+         * Creates a buffer backed by these ids. The ids are not copied, so this
+         * must not be modified afterwards.
+         */
+        public ArrayMutableBlockBuffer toBuffer(Palette<BlockState> palette, Vector3i start) {
+            return new ArrayMutableBlockBuffer(palette, this.data, start, this.size);
+        }
+    }
+
     /**
      * Basically a fixed length list of non negative numbers/ids.
      */
@@ -310,7 +391,7 @@ public PackedBackingData(int size, int highestValue) {
             this.bits = bits;
 
             this.maxValue = (1 << bits) - 1;
-            this.longArray = new long[MathHelper.roundUp(size * bits, Long.SIZE) / Long.SIZE];
+            this.longArray = new long[(int) (((long) size * bits + Long.SIZE - 1) / Long.SIZE)];
         }
 
         private PackedBackingData(int size, int bits, long[] array) {
@@ -322,9 +403,10 @@ private PackedBackingData(int size, int bits, long[] array) {
 
         @Override
         public void set(int index, int value) {
-            int bitIndex = index * this.bits;
-            int longIndex = bitIndex / Long.SIZE;
-            int bitOffset = bitIndex % Long.SIZE;
+            // Widened to long, as the bit index overflows past 2^31 bits
+            long bitIndex = (long) index * this.bits;
+            int longIndex = (int) (bitIndex >>> 6);
+            int bitOffset = (int) (bitIndex & 63);
 
             this.longArray[longIndex] = this.longArray[longIndex] & ~(this.maxValue << bitOffset) | (long) value << bitOffset;
 
@@ -339,10 +421,10 @@ public void set(int index, int value) {
 
         @Override
         public int get(int index) {
-            int bitIndex = index * this.bits;
-            int longIndex = bitIndex / Long.SIZE;
-            int rightLongIndex = (bitIndex + this.bits - 1) / 64;
-            int bitOffset = bitIndex % 64;
+            long bitIndex = (long) index * this.bits;
+            int longIndex = (int) (bitIndex >>> 6);
+            int rightLongIndex = (int) ((bitIndex + this.bits - 1) >>> 6);
+            int bitOffset = (int) (bitIndex & 63);
 
             if (bitOffset + this.bits > Long.SIZE) {
                 // The entry is split between two longs
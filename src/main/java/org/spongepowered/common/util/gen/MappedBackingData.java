@@ -0,0 +1,178 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.util.gen;
+
+import org.spongepowered.common.util.gen.ArrayMutableBlockBuffer.BackingData;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Packed ids stored in a memory mapped temporary file instead of on the heap,
+ * using the same bit layout as {@link ArrayMutableBlockBuffer.PackedBackingData}.
+ * The file is deleted once it is mapped, and the pages are released once
+ * the data is garbage collected, so the operating system can page very large
+ * buffers out rather than the heap having to hold them.
+ */
+final class MappedBackingData implements BackingData {
+
+    /**
+     * Longs are mapped in segments of 2^24 (128 MiB), as a single mapping
+     * cannot exceed 2 GiB.
+     */
+    private static final int SEGMENT_SHIFT = 24;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+    private final LongBuffer[] segments;
+    private final int bits;
+    private final long maxValue;
+    private final int arraySize;
+    private final long longs;
+
+    /**
+     * Creates a new MappedBackingData starting out with enough bits to store values of {@code highestValue}.
+     *
+     * @param size The number of elements
+     * @param highestValue The highest value to prepare for
+     * @throws IOException If the temporary file could not be created or mapped
+     */
+    MappedBackingData(int size, int highestValue) throws IOException {
+        this.arraySize = size;
+        int bits;
+        for (bits = 0; 1 << bits <= highestValue; bits++);
+        this.bits = bits;
+        this.maxValue = (1L << bits) - 1;
+        this.longs = ((long) size * bits + Long.SIZE - 1) / Long.SIZE;
+        this.segments = new LongBuffer[(int) ((this.longs + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+
+        final Path file = Files.createTempFile("sponge-blocks", ".dat");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE)) {
+            for (int i = 0; i < this.segments.length; i++) {
+                final long first = (long) i << SEGMENT_SHIFT;
+                final long count = Math.min(this.longs - first, 1L << SEGMENT_SHIFT);
+                // Mapping past the end of the file grows it, with the new region reading as zeroes
+                this.segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, first * Long.BYTES, count * Long.BYTES)
+                        .order(ByteOrder.nativeOrder())
+                        .asLongBuffer();
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private long getLong(long index) {
+        return this.segments[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & SEGMENT_MASK));
+    }
+
+    private void setLong(long index, long value) {
+        this.segments[(int) (index >>> SEGMENT_SHIFT)].put((int) (index & SEGMENT_MASK), value);
+    }
+
+    @Override
+    public void set(int index, int value) {
+        final long bitIndex = (long) index * this.bits;
+        long longIndex = bitIndex >>> 6;
+        final int bitOffset = (int) (bitIndex & 63);
+
+        setLong(longIndex, getLong(longIndex) & ~(this.maxValue << bitOffset) | (long) value << bitOffset);
+
+        if (bitOffset + this.bits > Long.SIZE) {
+            // The entry is split between two longs
+            final int bitsInLeft = Long.SIZE - bitOffset;
+            final int bitsInRight = this.bits - bitsInLeft;
+            longIndex++;
+            setLong(longIndex, getLong(longIndex) >>> bitsInRight << bitsInRight | (long) value >> bitsInLeft);
+        }
+    }
+
+    @Override
+    public int get(int index) {
+        final long bitIndex = (long) index * this.bits;
+        final long longIndex = bitIndex >>> 6;
+        final int bitOffset = (int) (bitIndex & 63);
+
+        if (bitOffset + this.bits > Long.SIZE) {
+            // The entry is split between two longs
+            final int bitsInLeft = Long.SIZE - bitOffset;
+            return (int) ((getLong(longIndex) >>> bitOffset | getLong(longIndex + 1) << bitsInLeft) & this.maxValue);
+        }
+        return (int) (getLong(longIndex) >>> bitOffset & this.maxValue);
+    }
+
+    @Override
+    public BackingData copyOf() {
+        final MappedBackingData copy;
+        try {
+            copy = new MappedBackingData(this.arraySize, (int) this.maxValue);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not map a copy of the block data", e);
+        }
+        for (int i = 0; i < this.segments.length; i++) {
+            copy.segments[i].duplicate().put(this.segments[i].duplicate());
+        }
+        return copy;
+    }
+
+    @Override
+    public int getMax() {
+        return (int) this.maxValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MappedBackingData that = (MappedBackingData) o;
+        if (this.bits != that.bits || this.arraySize != that.arraySize) {
+            return false;
+        }
+        for (int i = 0; i < this.segments.length; i++) {
+            if (!this.segments[i].equals(that.segments[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 31 * this.bits + this.arraySize;
+        for (long i = 0; i < this.longs; i++) {
+            final long value = getLong(i);
+            result = 31 * result + (int) (value ^ (value >>> 32));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.gen.ChunkProviderServer;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.SpongeImplHooks;
+import org.spongepowered.common.bridge.world.WorldServerBridge;
+import org.spongepowered.common.bridge.world.chunk.ChunkBridge;
+import org.spongepowered.common.bridge.world.chunk.ChunkProviderServerBridge;
+import org.spongepowered.common.bridge.world.chunk.storage.AnvilChunkLoaderBridge;
+import org.spongepowered.common.config.category.AsyncChunkLoadingCategory;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+/**
+ * Loads the chunks of a world in the background.
+ *
+ * <p>Only reading the region file and decompressing the chunk data happen
+ * on a shared pool of loading threads. The read data is handed back to the
+ * server thread at the start of the next chunk provider tick, where the
+ * chunk is built from it through the regular
+ * {@link ChunkProviderServer#loadChunk(int, int)} path and
+ * {@link SpongeImplHooks#loadChunkFromData}, so that the chunk, its
+ * entities and tile entities, structures, population and the platform's
+ * load hooks are handled exactly as for a synchronous load. This is limited
+ * by a time budget per tick.</p>
+ *
+ * <p>If a chunk with a load in flight is requested synchronously, the
+ * server thread {@link #claim(int, int) claims} the load, either taking over
+ * the read if no loading thread has started it yet or waiting for it to
+ * finish, instead of reading the chunk a second time.</p>
+ */
+public final class AsyncChunkLoader {
+
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int CLAIMED = 2;
+
+    @Nullable private static ExecutorService workers;
+
+    private final WorldServer world;
+    private final ChunkProviderServer provider;
+    private final AnvilChunkLoaderBridge loader;
+    private final long maxTickTime;
+    // Only accessed from the server thread
+    private final Long2ObjectMap<Request> requests = new Long2ObjectOpenHashMap<>();
+    private final Queue<Request> loaded = new ConcurrentLinkedQueue<>();
+
+    public AsyncChunkLoader(final WorldServer world, final ChunkProviderServer provider, final AnvilChunkLoaderBridge loader,
+        final AsyncChunkLoadingCategory config) {
+        this.world = world;
+        this.provider = provider;
+        this.loader = loader;
+        this.maxTickTime = TimeUnit.MILLISECONDS.toNanos(Math.max(0, config.getMaxTickTime()));
+        synchronized (AsyncChunkLoader.class) {
+            if (workers == null) {
+                workers = Executors.newFixedThreadPool(Math.max(1, config.getNumThreads()),
+                    new ThreadFactoryBuilder().setNameFormat("Sponge - Async Chunk Loader - %d").setDaemon(true).build());
+            }
+        }
+    }
+
+    /**
+     * Starts loading the chunk at the given position, unless a load for it
+     * is already in flight. Must be called from the server thread, and the
+     * returned future is always completed on the server thread.
+     *
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @param generate Whether to generate the chunk if it was never saved
+     * @return The future loaded chunk, completed with null if the chunk
+     *     does not exist and should not be generated
+     */
+    public CompletableFuture<Chunk> load(final int x, final int z, final boolean generate) {
+        checkState(SpongeImplHooks.isMainThread(), "Chunks can only be requested from the server thread");
+        final long key = ChunkPos.asLong(x, z);
+        Request request = this.requests.get(key);
+        if (request == null) {
+            request = new Request(x, z);
+            this.requests.put(key, request);
+            workers.execute(request::readAsync);
+        }
+        request.generate |= generate;
+        return request.future;
+    }
+
+    /**
+     * Takes over the load in flight for the given chunk, if any, so that a
+     * synchronous load can finish it. Blocks until the chunk data is read.
+     *
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @return The claimed load, or null if the chunk is not being loaded
+     */
+    @Nullable
+    public Request claim(final int x, final int z) {
+        final Request request = this.requests.remove(ChunkPos.asLong(x, z));
+        if (request == null) {
+            return null;
+        }
+        if (request.state.compareAndSet(QUEUED, CLAIMED)) {
+            request.read();
+        } else {
+            request.await();
+        }
+        // Complete the future once the synchronous load has added the chunk
+        this.loaded.add(request);
+        return request;
+    }
+
+    /**
+     * Adds the chunks loaded since the last call to the world and completes
+     * their futures, until the time budget for this tick runs out.
+     */
+    public void tick() {
+        if (this.loaded.isEmpty()) {
+            return;
+        }
+        final ChunkProviderServerBridge bridge = (ChunkProviderServerBridge) this.provider;
+        final boolean previous = bridge.bridge$getForceChunkRequests();
+        bridge.bridge$setForceChunkRequests(true);
+        try {
+            final long end = System.nanoTime() + this.maxTickTime;
+            Request request;
+            while ((request = this.loaded.poll()) != null) {
+                if (request.future.isDone()) {
+                    continue;
+                }
+                this.finish(request);
+                if (System.nanoTime() >= end) {
+                    break;
+                }
+            }
+        } finally {
+            bridge.bridge$setForceChunkRequests(previous);
+        }
+    }
+
+    private void finish(final Request request) {
+        Chunk chunk = null;
+        try {
+            // The load is claimed again by the chunk provider unless something else loaded the chunk in the meantime
+            chunk = this.provider.loadChunk(request.x, request.z);
+            if (chunk == null && request.generate) {
+                chunk = this.provider.provideChunk(request.x, request.z);
+            }
+        } catch (RuntimeException e) {
+            SpongeImpl.getLogger().error("Failed to load chunk ({}, {}) in world {}", request.x, request.z,
+                this.world.getWorldInfo().getWorldName(), e);
+        } finally {
+            this.requests.remove(ChunkPos.asLong(request.x, request.z), request);
+            request.future.complete(chunk);
+        }
+    }
+
+    /**
+     * Lets a chunk that was loaded for a request nobody is waiting for
+     * anymore be unloaded again, unless a player is watching it.
+     *
+     * @param world The world of the chunk
+     * @param chunk The chunk
+     */
+    public static void releaseIfUnused(final WorldServer world, final Chunk chunk) {
+        if (world.getPlayerChunkMap().contains(chunk.x, chunk.z)) {
+            return;
+        }
+        // Mirrors PlayerChunkMapMixin#impl$ScheduleUnloadWithChunkGC
+        if (((WorldServerBridge) world).bridge$getChunkGCTickInterval() <= 0
+            || ((WorldServerBridge) world).bridge$getChunkUnloadDelay() <= 0) {
+            world.getChunkProvider().queueUnload(chunk);
+        } else if (!((ChunkBridge) chunk).bridge$isPersistedChunk() && world.provider.canDropChunk(chunk.x, chunk.z)) {
+            ((ChunkBridge) chunk).bridge$setScheduledForUnload(System.currentTimeMillis());
+        }
+    }
+
+    public final class Request {
+
+        final int x;
+        final int z;
+        final CompletableFuture<Chunk> future = new CompletableFuture<>();
+        final AtomicInteger state = new AtomicInteger(QUEUED);
+        private final CountDownLatch done = new CountDownLatch(1);
+        boolean generate;
+        @Nullable private NBTTagCompound compound;
+        @Nullable private IOException error;
+
+        Request(final int x, final int z) {
+            this.x = x;
+            this.z = z;
+        }
+
+        /**
+         * Builds the chunk from the data read for this load. Must be called
+         * from the server thread.
+         *
+         * @return The chunk, or null if it was never saved
+         * @throws IOException If the chunk could not be read
+         */
+        @Nullable
+        public Chunk loadChunk() throws IOException {
+            if (this.error != null) {
+                throw this.error;
+            }
+            final NBTTagCompound compound = this.compound;
+            this.compound = null;
+            return compound == null ? null : AsyncChunkLoader.this.loader.bridge$loadChunkFromData(AsyncChunkLoader.this.world, this.x, this.z,
+                compound);
+        }
+
+        void readAsync() {
+            if (!this.state.compareAndSet(QUEUED, RUNNING)) {
+                return;
+            }
+            this.read();
+            AsyncChunkLoader.this.loaded.add(this);
+        }
+
+        void read() {
+            try {
+                this.compound = AsyncChunkLoader.this.loader.bridge$readChunkData(this.x, this.z);
+            } catch (IOException e) {
+                this.error = e;
+            } catch (RuntimeException e) {
+                this.error = new IOException(e);
+            } finally {
+                this.done.countDown();
+            }
+        }
+
+        void await() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    this.done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
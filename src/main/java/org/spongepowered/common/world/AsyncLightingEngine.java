@@ -0,0 +1,188 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.chunk.Chunk;
+import org.spongepowered.common.SpongeImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.Nullable;
+
+/**
+ * Batches the asynchronous lighting work of a world and processes it in
+ * parallel.
+ *
+ * <p>Work submitted during a tick is grouped into regions of 3x3 chunks,
+ * keyed by the chunk the work is centered on. A light update started in a
+ * chunk may read and write the chunks around it, and those neighbors may in
+ * turn relight their own neighbors, so the work of a region can touch chunks
+ * up to two chunks outside of it. Regions whose coordinates are congruent
+ * modulo 3 are therefore at least six chunks apart and never touch the same
+ * chunk, which lets each batch be processed in nine passes where every region
+ * of a pass runs on its own thread, and the work within a region runs in
+ * submission order.</p>
+ *
+ * <p>Batches are dispatched at the end of the world tick and awaited at the
+ * start of the next one, so the lighting threads don't run during the block
+ * updates and chunk sending of the world tick. They do run while the server
+ * ticks the entities and the entity tracker of the world, and while the
+ * other worlds tick. Awaiting a batch blocks the server thread if the
+ * lighting threads have not caught up by then. Saving chunks {@link #flush()
+ * flushes} all outstanding work first.</p>
+ */
+public final class AsyncLightingEngine {
+
+    private static final int REGION_SIZE = 3;
+    private static final int PASSES = REGION_SIZE * REGION_SIZE;
+
+    private final ExecutorService coordinator;
+    private final ExecutorService workers;
+    private Long2ObjectMap<List<Runnable>> pending = new Long2ObjectLinkedOpenHashMap<>();
+    @Nullable private Future<?> running;
+
+    public AsyncLightingEngine(final int threads) {
+        this.coordinator = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("Sponge - Async Light Coordinator").build());
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactoryBuilder().setNameFormat("Sponge - Async Light Thread - %d").build());
+    }
+
+    /**
+     * Queues lighting work centered on the given chunk for the next batch.
+     *
+     * @param chunk The chunk the work reads and writes around
+     * @param job The lighting work
+     */
+    public void submit(final Chunk chunk, final Runnable job) {
+        if (this.isShutdown()) {
+            return;
+        }
+        final long key = ChunkPos.asLong(Math.floorDiv(chunk.x, REGION_SIZE), Math.floorDiv(chunk.z, REGION_SIZE));
+        synchronized (this) {
+            List<Runnable> jobs = this.pending.get(key);
+            if (jobs == null) {
+                jobs = new ArrayList<>();
+                this.pending.put(key, jobs);
+            }
+            jobs.add(job);
+        }
+    }
+
+    /**
+     * Hands all queued work over to the lighting threads as a new batch.
+     */
+    public void dispatch() {
+        final Long2ObjectMap<List<Runnable>> batch;
+        synchronized (this) {
+            if (this.pending.isEmpty() || this.isShutdown()) {
+                return;
+            }
+            batch = this.pending;
+            this.pending = new Long2ObjectLinkedOpenHashMap<>();
+        }
+        this.running = this.coordinator.submit(() -> this.process(batch));
+    }
+
+    /**
+     * Blocks until the last dispatched batch has been processed.
+     */
+    public void awaitCompletion() {
+        final Future<?> batch = this.running;
+        if (batch == null) {
+            return;
+        }
+        this.running = null;
+        try {
+            batch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            SpongeImpl.getLogger().error("Failed to process a batch of async light updates.", e.getCause());
+        }
+    }
+
+    /**
+     * Processes all queued and in-flight work before returning.
+     */
+    public void flush() {
+        this.awaitCompletion();
+        this.dispatch();
+        this.awaitCompletion();
+    }
+
+    public boolean isShutdown() {
+        return this.workers.isShutdown();
+    }
+
+    public void shutdownNow() {
+        synchronized (this) {
+            this.pending.clear();
+        }
+        this.coordinator.shutdownNow();
+        this.workers.shutdownNow();
+    }
+
+    private void process(final Long2ObjectMap<List<Runnable>> batch) throws InterruptedException {
+        final List<List<Callable<Object>>> passes = new ArrayList<>(PASSES);
+        for (int i = 0; i < PASSES; i++) {
+            passes.add(new ArrayList<>());
+        }
+        for (final Long2ObjectMap.Entry<List<Runnable>> entry : batch.long2ObjectEntrySet()) {
+            final long key = entry.getLongKey();
+            final int pass = Math.floorMod((int) key, REGION_SIZE) * REGION_SIZE + Math.floorMod((int) (key >> 32), REGION_SIZE);
+            final List<Runnable> jobs = entry.getValue();
+            passes.get(pass).add(() -> {
+                this.runRegion(jobs);
+                return null;
+            });
+        }
+        for (final List<Callable<Object>> pass : passes) {
+            if (pass.isEmpty()) {
+                continue;
+            }
+            // Every region of a pass is independent, only the passes themselves have to run in order
+            this.workers.invokeAll(pass);
+        }
+    }
+
+    private void runRegion(final List<Runnable> jobs) {
+        for (final Runnable job : jobs) {
+            try {
+                job.run();
+            } catch (Throwable t) {
+                SpongeImpl.getLogger().error("An async light update threw an exception.", t);
+            }
+        }
+    }
+}
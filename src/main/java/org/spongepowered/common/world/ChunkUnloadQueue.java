@@ -0,0 +1,101 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceSet;
+import net.minecraft.world.chunk.Chunk;
+
+import java.util.PriorityQueue;
+
+import javax.annotation.Nullable;
+
+/**
+ * The chunks of a world that were queued for unload, ordered by the time
+ * they are due to be unloaded. Only accessed from the server thread.
+ *
+ * <p>Chunks leave the queue only when they are polled. A chunk that was
+ * unloaded some other way, or stopped being queued for unload in the
+ * meantime, is still returned and has to be checked by the caller.</p>
+ */
+public final class ChunkUnloadQueue {
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    private final ReferenceSet<Chunk> queued = new ReferenceOpenHashSet<>();
+    private long sequence;
+
+    /**
+     * Adds a chunk to the queue, unless it is already queued.
+     *
+     * @param chunk The chunk
+     * @param due The time, in milliseconds, after which the chunk can be unloaded
+     */
+    public void add(final Chunk chunk, final long due) {
+        if (this.queued.add(chunk)) {
+            this.queue.add(new Entry(chunk, due, this.sequence++));
+        }
+    }
+
+    /**
+     * Removes the chunk that is due first, if it is due by the given time.
+     *
+     * @param now The current time, in milliseconds
+     * @return The chunk, or null if no chunk is due yet
+     */
+    @Nullable
+    public Chunk poll(final long now) {
+        final Entry entry = this.queue.peek();
+        if (entry == null || entry.due > now) {
+            return null;
+        }
+        this.queue.poll();
+        this.queued.remove(entry.chunk);
+        return entry.chunk;
+    }
+
+    public int size() {
+        return this.queue.size();
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+
+        final Chunk chunk;
+        final long due;
+        // Keeps chunks that are due at the same time in the order they were queued
+        final long sequence;
+
+        Entry(final Chunk chunk, final long due, final long sequence) {
+            this.chunk = chunk;
+            this.due = due;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(final Entry other) {
+            final int compare = Long.compare(this.due, other.due);
+            return compare != 0 ? compare : Long.compare(this.sequence, other.sequence);
+        }
+    }
+}
@@ -557,7 +557,7 @@ public static boolean unloadWorld(final WorldServer worldServer, final boolean c
                 try {
                     // Stop the lighting executor only when the world is going to unload - there's no point in running any more lighting tasks.
                     if (globalConfigAdapter.getConfig().getModules().useOptimizations() && globalConfigAdapter.getConfig().getOptimizations().useAsyncLighting()) {
-                        ((WorldServerBridge_AsyncLighting) worldServer).asyncLightingBridge$getLightingExecutor().shutdownNow();
+                        ((WorldServerBridge_AsyncLighting) worldServer).asyncLightingBridge$getLightingEngine().shutdownNow();
                     }
                 } catch (Exception e) {
                     e.printStackTrace();
@@ -27,6 +27,8 @@
 import static com.google.common.base.Preconditions.checkArgument;
 
 import com.flowpowered.math.vector.Vector3i;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.world.WorldServer;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.event.CauseStackManager;
@@ -38,11 +40,27 @@
 import org.spongepowered.api.world.extent.worker.procedure.BlockVolumeMerger;
 import org.spongepowered.api.world.extent.worker.procedure.BlockVolumeReducer;
 import org.spongepowered.api.world.extent.worker.procedure.BlockVolumeVisitor;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.SpongeImplHooks;
+import org.spongepowered.common.config.category.BlockWorkerCategory;
 import org.spongepowered.common.event.tracking.phase.plugin.BasicPluginContext;
 import org.spongepowered.common.event.tracking.phase.plugin.PluginPhase;
+import org.spongepowered.common.util.gen.AbstractBlockBuffer;
+import org.spongepowered.common.world.extent.ExtentViewDownsize;
+import org.spongepowered.common.world.extent.MutableBlockViewDownsize;
+import org.spongepowered.common.world.schematic.SpongeArchetypeVolume;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 
+import javax.annotation.Nullable;
+
 /**
  *
  */
@@ -77,6 +95,12 @@ public void map(BlockVolumeMapper mapper, MutableBlockVolume destination) {
         try (BasicPluginContext phaseState = PluginPhase.State.BLOCK_WORKER.createPhaseContext()
             .source(this)) {
             phaseState.buildAndSwitch();
+            final boolean parallel = canRunParallel(this.volume);
+            final WorldSectionWriter writer = getDirectWriter(destination);
+            if (parallel || writer != null) {
+                transfer((x, y, z) -> mapper.map(unmodifiableVolume, x, y, z), offset, destination, writer, parallel);
+                return;
+            }
             for (int z = zMin; z <= zMax; z++) {
                 for (int y = yMin; y <= yMax; y++) {
                     for (int x = xMin; x <= xMax; x++) {
@@ -110,6 +134,13 @@ public void merge(BlockVolume second, BlockVolumeMerger merger, MutableBlockVolu
         try (BasicPluginContext context = PluginPhase.State.BLOCK_WORKER.createPhaseContext()
             .source(this)) {
             context.buildAndSwitch();
+            final boolean parallel = canRunParallel(this.volume) && isDetached(second);
+            final WorldSectionWriter writer = getDirectWriter(destination);
+            if (parallel || writer != null) {
+                transfer((x, y, z) -> merger.merge(firstUnmodifiableVolume, x, y, z,
+                    secondUnmodifiableVolume, x + xOffsetSecond, y + yOffsetSecond, z + zOffsetSecond), offsetDestination, destination, writer, parallel);
+                return;
+            }
             for (int z = zMin; z <= zMax; z++) {
                 for (int y = yMin; y <= yMax; y++) {
                     for (int x = xMin; x <= xMax; x++) {
@@ -153,6 +184,27 @@ public <T> T reduce(BlockVolumeReducer<T> reducer, BiFunction<T, T, T> merge, T
         final int xMax = unmodifiableVolume.getBlockMax().getX();
         final int yMax = unmodifiableVolume.getBlockMax().getY();
         final int zMax = unmodifiableVolume.getBlockMax().getZ();
+        if (canRunParallel(this.volume)) {
+            final List<Callable<T>> tasks = new ArrayList<>();
+            for (int[] slice : getSlices(unmodifiableVolume.getBlockMin(), unmodifiableVolume.getBlockMax())) {
+                tasks.add(() -> {
+                    T sliceReduction = identity;
+                    for (int z = slice[2]; z <= slice[5]; z++) {
+                        for (int y = slice[1]; y <= slice[4]; y++) {
+                            for (int x = slice[0]; x <= slice[3]; x++) {
+                                sliceReduction = reducer.reduce(unmodifiableVolume, x, y, z, sliceReduction);
+                            }
+                        }
+                    }
+                    return sliceReduction;
+                });
+            }
+            T reduction = identity;
+            for (T sliceReduction : invokeAll(tasks)) {
+                reduction = merge.apply(reduction, sliceReduction);
+            }
+            return reduction;
+        }
         T reduction = identity;
         for (int z = zMin; z <= zMax; z++) {
             for (int y = yMin; y <= yMax; y++) {
@@ -164,6 +216,183 @@ public <T> T reduce(BlockVolumeReducer<T> reducer, BiFunction<T, T, T> merge, T
         return reduction;
     }
 
+    /**
+     * Produces the blocks of this volume slice by slice, and writes them
+     * into the destination in the same order. When running in parallel,
+     * several slices are produced at once before being written, the writes
+     * themselves always happen on the calling thread.
+     */
+    private void transfer(PositionMapper mapper, Vector3i offset, MutableBlockVolume destination, @Nullable WorldSectionWriter writer,
+        boolean parallel) {
+        final int xOffset = offset.getX();
+        final int yOffset = offset.getY();
+        final int zOffset = offset.getZ();
+        final List<int[]> slices = getSlices(this.volume.getBlockMin(), this.volume.getBlockMax());
+        final int batchSize = parallel ? getPool().getParallelism() * 4 : 1;
+        for (int start = 0; start < slices.size(); start += batchSize) {
+            final List<int[]> batch = slices.subList(start, Math.min(start + batchSize, slices.size()));
+            final List<BlockState[]> results;
+            if (parallel) {
+                final List<Callable<BlockState[]>> tasks = new ArrayList<>(batch.size());
+                for (int[] slice : batch) {
+                    tasks.add(() -> produce(mapper, slice));
+                }
+                results = invokeAll(tasks);
+            } else {
+                results = new ArrayList<>(1);
+                results.add(produce(mapper, batch.get(0)));
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                final int[] slice = batch.get(i);
+                final BlockState[] blocks = results.get(i);
+                int index = 0;
+                for (int z = slice[2]; z <= slice[5]; z++) {
+                    for (int y = slice[1]; y <= slice[4]; y++) {
+                        for (int x = slice[0]; x <= slice[3]; x++) {
+                            final BlockState block = blocks[index++];
+                            if (writer != null) {
+                                writer.setBlock(x + xOffset, y + yOffset, z + zOffset, (IBlockState) block);
+                            } else {
+                                destination.setBlock(x + xOffset, y + yOffset, z + zOffset, block);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    private static BlockState[] produce(PositionMapper mapper, int[] slice) {
+        final BlockState[] blocks = new BlockState[(slice[3] - slice[0] + 1) * (slice[4] - slice[1] + 1) * (slice[5] - slice[2] + 1)];
+        int index = 0;
+        for (int z = slice[2]; z <= slice[5]; z++) {
+            for (int y = slice[1]; y <= slice[4]; y++) {
+                for (int x = slice[0]; x <= slice[3]; x++) {
+                    blocks[index++] = mapper.map(x, y, z);
+                }
+            }
+        }
+        return blocks;
+    }
+
+    /**
+     * Splits the given bounds along chunk section borders. Each slice is
+     * stored as {@code {xMin, yMin, zMin, xMax, yMax, zMax}}.
+     */
+    public static List<int[]> getSlices(Vector3i min, Vector3i max) {
+        final List<int[]> slices = new ArrayList<>();
+        for (int sz = min.getZ() >> 4; sz <= max.getZ() >> 4; sz++) {
+            for (int sy = min.getY() >> 4; sy <= max.getY() >> 4; sy++) {
+                for (int sx = min.getX() >> 4; sx <= max.getX() >> 4; sx++) {
+                    slices.add(new int[] {
+                        Math.max(sx << 4, min.getX()), Math.max(sy << 4, min.getY()), Math.max(sz << 4, min.getZ()),
+                        Math.min((sx << 4) + 15, max.getX()), Math.min((sy << 4) + 15, max.getY()), Math.min((sz << 4) + 15, max.getZ())
+                    });
+                }
+            }
+        }
+        return slices;
+    }
+
+    private static <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        final List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : getPool().invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a block worker operation", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        return results;
+    }
+
+    private static boolean canRunParallel(BlockVolume volume) {
+        final BlockWorkerCategory config = SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().getBlockWorkerCategory();
+        if (!config.isParallelOperations() || !isDetached(volume)) {
+            return false;
+        }
+        final Vector3i size = volume.getBlockSize();
+        return (long) size.getX() * size.getY() * size.getZ() >= config.getParallelThreshold();
+    }
+
+    /**
+     * Gets whether the volume is backed by plain memory, rather than by a
+     * world, so that it can safely be read from other threads.
+     */
+    private static boolean isDetached(BlockVolume volume) {
+        if (volume instanceof SpongeArchetypeVolume) {
+            return ((SpongeArchetypeVolume) volume).getBacking() instanceof AbstractBlockBuffer;
+        }
+        return volume instanceof AbstractBlockBuffer;
+    }
+
+    @Nullable
+    private static WorldSectionWriter getDirectWriter(MutableBlockVolume destination) {
+        final WorldServer world = getDirectWorld(destination);
+        return world == null ? null : new WorldSectionWriter(world);
+    }
+
+    /**
+     * Gets the world that blocks may be placed into directly when writing
+     * into the given volume, looking through views which keep the world's
+     * coordinates.
+     */
+    @Nullable
+    static WorldServer getDirectWorld(BlockVolume volume) {
+        if (!SpongeImplHooks.isMainThread()
+            || !SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().getBlockWorkerCategory().isDirectWorldWrites()) {
+            return null;
+        }
+        while (true) {
+            if (volume instanceof WorldServer) {
+                return (WorldServer) volume;
+            } else if (volume instanceof MutableBlockViewDownsize) {
+                volume = ((MutableBlockViewDownsize) volume).getBackingVolume();
+            } else if (volume instanceof ExtentViewDownsize) {
+                volume = ((ExtentViewDownsize) volume).getBackingExtent();
+            } else {
+                return null;
+            }
+        }
+    }
+
+    private static ForkJoinPool getPool() {
+        return PoolHolder.POOL;
+    }
+
+    @FunctionalInterface
+    private interface PositionMapper {
+
+        BlockState map(int x, int y, int z);
+    }
+
+    private static final class PoolHolder {
+
+        static final ForkJoinPool POOL;
+
+        static {
+            final int parallelism = SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().getBlockWorkerCategory().getParallelism();
+            POOL = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(), pool -> {
+                final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("Sponge - Block Worker Thread - " + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+        }
+    }
+
     private Vector3i align(BlockVolume other) {
         final Vector3i thisSize = this.volume.getBlockSize();
         final Vector3i otherSize = other.getBlockSize();
@@ -24,10 +24,12 @@
  */
 package org.spongepowered.common.world.extent.worker;
 
+import net.minecraft.world.WorldServer;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.world.extent.MutableBlockVolume;
 import org.spongepowered.api.world.extent.worker.MutableBlockVolumeWorker;
 import org.spongepowered.api.world.extent.worker.procedure.BlockVolumeFiller;
+import org.spongepowered.common.bridge.world.WorldServerBridge;
 
 /**
  *
@@ -40,6 +42,11 @@ public SpongeMutableBlockVolumeWorker(V volume) {
 
     @Override
     public void fill(BlockVolumeFiller filler) {
+        final WorldServer world = getDirectWorld(this.volume);
+        if (world != null) {
+            ((WorldServerBridge) world).bridge$setBlocks(this.volume.getBlockMin(), this.volume.getBlockMax(), filler);
+            return;
+        }
         final int xMin = this.volume.getBlockMin().getX();
         final int yMin = this.volume.getBlockMin().getY();
         final int zMin = this.volume.getBlockMin().getZ();
@@ -0,0 +1,230 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.extent.worker;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.network.play.server.SPacketChunkData;
+import net.minecraft.server.management.PlayerChunkMapEntry;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.BitArray;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.EnumSkyBlock;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.IBlockStatePalette;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import org.spongepowered.common.SpongeImplHooks;
+import org.spongepowered.common.bridge.world.chunk.BlockStateContainerBridge;
+
+import javax.annotation.Nullable;
+
+/**
+ * Places blocks directly into the palettes of the {@link ExtendedBlockStorage}
+ * sections of a world, bypassing block physics, events and tracking. The
+ * changed sections are recorded, and their block counts, height maps,
+ * lighting and client updates are handled once in {@link #flush()}.
+ *
+ * <p>This must only be used on the main thread.</p>
+ */
+public final class WorldSectionWriter {
+
+    private static final IBlockState AIR = Blocks.AIR.getDefaultState();
+
+    private final WorldServer world;
+    // The chunks that were changed, mapped to a mask of their changed sections
+    private final Reference2IntMap<Chunk> changedSections = new Reference2IntOpenHashMap<>();
+    // Positions where the light emitted or blocked changed, these need
+    // block light to be propagated again once everything is placed
+    private final LongArrayList relightPositions = new LongArrayList();
+    private final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+    private final boolean hasSkyLight;
+
+    @Nullable private Chunk chunk;
+    @Nullable private ExtendedBlockStorage section;
+    private int sectionY;
+    @Nullable private BlockStateContainerBridge container;
+    @Nullable private IBlockStatePalette palette;
+    @Nullable private BitArray storage;
+    // The palette id of the last placed state, most bulk writes place the
+    // same few states over and over
+    @Nullable private IBlockState lastState;
+    private int lastId;
+    private int changed;
+
+    public WorldSectionWriter(WorldServer world) {
+        this.world = world;
+        this.hasSkyLight = world.provider.hasSkyLight();
+    }
+
+    /**
+     * Places the block state at the given position.
+     *
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     * @param state The new block state
+     * @return Whether the block changed
+     */
+    public boolean setBlock(int x, int y, int z, IBlockState state) {
+        if (y < 0 || y >= 256) {
+            return false;
+        }
+        Chunk chunk = this.chunk;
+        if (chunk == null || chunk.x != x >> 4 || chunk.z != z >> 4) {
+            chunk = this.chunk = this.world.getChunk(x >> 4, z >> 4);
+            this.section = null;
+        }
+        if (this.section == null || this.sectionY != y >> 4) {
+            final ExtendedBlockStorage[] sections = chunk.getBlockStorageArray();
+            ExtendedBlockStorage section = sections[y >> 4];
+            if (section == Chunk.NULL_BLOCK_STORAGE) {
+                if (state == AIR) {
+                    return false;
+                }
+                section = sections[y >> 4] = new ExtendedBlockStorage(y >> 4 << 4, this.hasSkyLight);
+            }
+            this.selectSection(section, y >> 4);
+        }
+        final int index = (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+        final int id = state == this.lastState ? this.lastId : this.getId(state);
+        final int currentId = this.storage.getAt(index);
+        if (currentId == id) {
+            return false;
+        }
+        IBlockState current = this.palette.getBlockState(currentId);
+        if (current == null) {
+            current = AIR;
+        }
+        this.pos.setPos(x, y, z);
+        // Same as Chunk#setBlockState, a tile entity is only replaced if its
+        // block changed, so changing the facing of a chest keeps its contents
+        if (SpongeImplHooks.hasBlockTileEntity(current.getBlock(), current)) {
+            final TileEntity tileEntity = chunk.getTileEntity(this.pos, Chunk.EnumCreateEntityType.CHECK);
+            if (tileEntity != null && SpongeImplHooks.shouldRefresh(tileEntity, this.world, this.pos, current, state)) {
+                this.world.removeTileEntity(this.pos);
+            }
+        }
+        this.storage.setAt(index, id);
+        if (SpongeImplHooks.hasBlockTileEntity(state.getBlock(), state)) {
+            final TileEntity tileEntity = chunk.getTileEntity(this.pos, Chunk.EnumCreateEntityType.CHECK);
+            if (tileEntity == null) {
+                chunk.getTileEntity(this.pos, Chunk.EnumCreateEntityType.IMMEDIATE);
+            } else {
+                tileEntity.updateContainingBlockInfo();
+            }
+        }
+        final int currentOpacity = SpongeImplHooks.getBlockLightOpacity(current, this.world, this.pos);
+        final int newOpacity = SpongeImplHooks.getBlockLightOpacity(state, this.world, this.pos);
+        // Same condition the chunk uses for its own light propagation, except
+        // that only the block light is checked here
+        if (SpongeImplHooks.getChunkPosLight(current, this.world, this.pos) != SpongeImplHooks.getChunkPosLight(state, this.world, this.pos)
+            || currentOpacity != newOpacity && (currentOpacity > newOpacity || this.section.getBlockLight(x & 15, y & 15, z & 15) > 0)) {
+            this.relightPositions.add(this.pos.toLong());
+        }
+        this.changedSections.put(chunk, this.changedSections.getInt(chunk) | 1 << this.sectionY);
+        this.changed++;
+        return true;
+    }
+
+    private void selectSection(ExtendedBlockStorage section, int sectionY) {
+        this.section = section;
+        this.sectionY = sectionY;
+        this.container = (BlockStateContainerBridge) section.getData();
+        this.palette = this.container.bridge$getPalette();
+        this.storage = this.container.bridge$getStorage();
+        this.lastState = null;
+    }
+
+    private int getId(IBlockState state) {
+        final int id = this.palette.idFor(state);
+        // Adding a state to a full palette makes the container switch to a
+        // bigger palette and a new storage array
+        if (this.container.bridge$getPalette() != this.palette) {
+            this.palette = this.container.bridge$getPalette();
+            this.storage = this.container.bridge$getStorage();
+        }
+        this.lastState = state;
+        this.lastId = id;
+        return id;
+    }
+
+    /**
+     * Updates the block counts, height maps and lighting of all changed
+     * sections, and resends the changed sections to the players watching
+     * them.
+     *
+     * @return The amount of blocks that were changed
+     */
+    public int flush() {
+        for (Reference2IntMap.Entry<Chunk> entry : this.changedSections.reference2IntEntrySet()) {
+            final Chunk chunk = entry.getKey();
+            final int mask = entry.getIntValue();
+            final ExtendedBlockStorage[] sections = chunk.getBlockStorageArray();
+            for (int sectionY = 0; sectionY < sections.length; sectionY++) {
+                if ((mask & 1 << sectionY) != 0 && sections[sectionY] != Chunk.NULL_BLOCK_STORAGE) {
+                    sections[sectionY].recalculateRefCounts();
+                }
+            }
+            // Recalculates the height map and the sky light of each column,
+            // the sideways spread is redone when the chunk is next ticked
+            chunk.generateSkylightMap();
+            chunk.setLightPopulated(false);
+            chunk.markDirty();
+        }
+        for (int i = 0; i < this.relightPositions.size(); i++) {
+            this.world.checkLightFor(EnumSkyBlock.BLOCK, BlockPos.fromLong(this.relightPositions.getLong(i)));
+        }
+        for (Reference2IntMap.Entry<Chunk> entry : this.changedSections.reference2IntEntrySet()) {
+            final Chunk chunk = entry.getKey();
+            final PlayerChunkMapEntry playerChunk = this.world.getPlayerChunkMap().getEntry(chunk.x, chunk.z);
+            if (playerChunk == null) {
+                continue;
+            }
+            final int mask = entry.getIntValue();
+            if (mask == 65535) {
+                // A mask of every section would be read as a full chunk by the client
+                playerChunk.sendPacket(new SPacketChunkData(chunk, 65534));
+                playerChunk.sendPacket(new SPacketChunkData(chunk, 1));
+            } else {
+                playerChunk.sendPacket(new SPacketChunkData(chunk, mask));
+            }
+        }
+        final int changed = this.changed;
+        this.changedSections.clear();
+        this.relightPositions.clear();
+        this.chunk = null;
+        this.section = null;
+        this.container = null;
+        this.palette = null;
+        this.storage = null;
+        this.lastState = null;
+        this.changed = 0;
+        return changed;
+    }
+}
@@ -24,36 +24,44 @@
  */
 package org.spongepowered.common.world.schematic;
 
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import org.spongepowered.api.CatalogType;
 import org.spongepowered.api.world.schematic.Palette;
 import org.spongepowered.api.world.schematic.PaletteType;
 
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.Objects;
 import java.util.Optional;
 
+import javax.annotation.Nullable;
+
+/**
+ * A local palette mapping ids to catalog types in both directions. Types are
+ * looked up by id in a plain array and ids by type in an identity keyed open
+ * addressing map, so neither direction boxes ids on the hot path of block
+ * buffers.
+ */
 public class BimapPalette<T extends CatalogType> implements Palette<T> {
 
     private static final int DEFAULT_ALLOCATION_SIZE = 64;
 
-    private final BiMap<Integer, T> ids;
-    private final BiMap<T, Integer> idsr;
+    private Object[] ids;
+    private final Reference2IntMap<T> idsr;
     private final BitSet allocation = new BitSet(DEFAULT_ALLOCATION_SIZE);
     private final PaletteType<T> paletteType;
     private int maxId = 0;
 
     public BimapPalette(PaletteType<T> paletteType) {
-        this.ids = HashBiMap.create();
-        this.idsr = this.ids.inverse();
-        this.paletteType = paletteType;
+        this(paletteType, DEFAULT_ALLOCATION_SIZE);
     }
 
     public BimapPalette(PaletteType<T> paletteType, int expectedSize) {
-        this.ids = HashBiMap.create(expectedSize);
-        this.idsr = this.ids.inverse();
+        this.ids = new Object[Math.max(expectedSize, 1)];
+        this.idsr = new Reference2IntOpenHashMap<>(expectedSize);
+        this.idsr.defaultReturnValue(-1);
         this.paletteType = paletteType;
     }
 
@@ -69,19 +77,16 @@ public int getHighestId() {
 
     @Override
     public Optional<Integer> get(T state) {
-        return Optional.ofNullable(this.idsr.get(state));
+        final int id = this.idsr.getInt(state);
+        return id == -1 ? Optional.empty() : Optional.of(id);
     }
 
     @Override
     public int getOrAssign(T state) {
-        Integer id = this.idsr.get(state);
-        if (id == null) {
-            int next = this.allocation.nextClearBit(0);
-            if (this.maxId < next) {
-                this.maxId = next;
-            }
-            this.allocation.set(next);
-            this.ids.put(next, state);
+        final int id = this.idsr.getInt(state);
+        if (id == -1) {
+            final int next = this.allocation.nextClearBit(0);
+            assign(state, next);
             return next;
         }
         return id;
@@ -89,28 +94,59 @@ public int getOrAssign(T state) {
 
     @Override
     public Optional<T> get(int id) {
-        return Optional.ofNullable(this.ids.get(id));
+        return Optional.ofNullable(getOrNull(id));
     }
 
+    /**
+     * Gets the type assigned to an id without wrapping it.
+     *
+     * @param id The id
+     * @return The type, or null if the id is not assigned
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public T getOrNull(int id) {
+        return id >= 0 && id < this.ids.length ? (T) this.ids[id] : null;
+    }
+
+    /**
+     * Assigns a type to an id. A type assigned to several ids, such as unknown
+     * states replaced with the same fallback, is resolved from all of them
+     * and maps back to the first one.
+     *
+     * @param state The type
+     * @param id The id
+     */
+    @SuppressWarnings("unchecked")
     public void assign(T state, int id) {
         if (this.maxId < id) {
             this.maxId = id;
         }
+        if (id >= this.ids.length) {
+            this.ids = Arrays.copyOf(this.ids, Math.max(id + 1, this.ids.length * 2));
+        }
+        final T previous = (T) this.ids[id];
+        if (previous != null && previous != state && this.idsr.getInt(previous) == id) {
+            this.idsr.removeInt(previous);
+        }
+        if (!this.idsr.containsKey(state)) {
+            this.idsr.put(state, id);
+        }
         this.allocation.set(id);
-        this.ids.put(id, state);
+        this.ids[id] = state;
     }
 
     @Override
     public boolean remove(T state) {
-        Integer id = this.idsr.get(state);
-        if (id == null) {
+        final int id = this.idsr.removeInt(state);
+        if (id == -1) {
             return false;
         }
         this.allocation.clear(id);
         if (id == this.maxId) {
             this.maxId = this.allocation.previousSetBit(this.maxId);
         }
-        this.ids.remove(id);
+        this.ids[id] = null;
         return true;
     }
 
@@ -128,14 +164,23 @@ public boolean equals(Object o) {
             return false;
         }
         BimapPalette<?> that = (BimapPalette<?>) o;
-        return this.maxId == that.maxId &&
-               this.ids.equals(that.ids) &&
-               this.allocation.equals(that.allocation) &&
-               this.paletteType.equals(that.paletteType);
+        if (this.maxId != that.maxId || !this.allocation.equals(that.allocation) || !this.paletteType.equals(that.paletteType)) {
+            return false;
+        }
+        for (int id = this.allocation.nextSetBit(0); id >= 0; id = this.allocation.nextSetBit(id + 1)) {
+            if (this.ids[id] != that.ids[id]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.ids, this.allocation, this.paletteType, this.maxId);
+        int idsHash = 0;
+        for (int id = this.allocation.nextSetBit(0); id >= 0; id = this.allocation.nextSetBit(id + 1)) {
+            idsHash += id ^ this.ids[id].hashCode();
+        }
+        return Objects.hash(idsHash, this.allocation, this.paletteType, this.maxId);
     }
 }
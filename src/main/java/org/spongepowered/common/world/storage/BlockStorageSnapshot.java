@@ -0,0 +1,142 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.world.chunk.BlockStateContainer;
+import net.minecraft.world.chunk.IBlockStatePalette;
+import net.minecraft.world.chunk.NibbleArray;
+import org.spongepowered.common.bridge.world.chunk.BlockStateContainerBridge;
+
+import javax.annotation.Nullable;
+
+/**
+ * A copy of the palette and packed data of a {@link BlockStateContainer},
+ * taken on the server thread while a chunk is being saved. The arrays that
+ * {@link BlockStateContainer#getDataForNBT(byte[], NibbleArray)} would have
+ * filled are already part of the chunk compound, and are filled in place by
+ * {@link #writeTo()} on the chunk IO thread.
+ */
+public final class BlockStorageSnapshot {
+
+    private static final int SIZE = 4096;
+
+    private final int bits;
+    private final long[] data;
+    private final int[] ids;
+    private final byte[] blocks;
+    private final NibbleArray meta;
+    @Nullable private final NibbleArray add;
+
+    private BlockStorageSnapshot(final int bits, final long[] data, final int[] ids, final byte[] blocks, final NibbleArray meta,
+        @Nullable final NibbleArray add) {
+        this.bits = bits;
+        this.data = data;
+        this.ids = ids;
+        this.blocks = blocks;
+        this.meta = meta;
+        this.add = add;
+    }
+
+    /**
+     * Copies the given container, if it uses a local palette. Containers
+     * using the global palette hold enough distinct states that their ids
+     * are not known without reading every block, so those are left to the
+     * caller to serialize directly.
+     *
+     * @param container The container to copy
+     * @param blocks The array receiving the low eight bits of each block id
+     * @param meta The array receiving the block metadata
+     * @return The snapshot, or null if the container uses the global palette
+     */
+    @Nullable
+    public static BlockStorageSnapshot of(final BlockStateContainer container, final byte[] blocks, final NibbleArray meta) {
+        final BlockStateContainerBridge bridge = (BlockStateContainerBridge) container;
+        final int bits = bridge.bridge$getBits();
+        if (bits > 8) {
+            return null;
+        }
+        final IBlockStatePalette palette = bridge.bridge$getPalette();
+        final int airId = Block.BLOCK_STATE_IDS.get(Blocks.AIR.getDefaultState());
+        final int[] ids = new int[1 << bits];
+        boolean extended = false;
+        for (int i = 0; i < ids.length; i++) {
+            final IBlockState state = palette.getBlockState(i);
+            final int id = state == null ? airId : Block.BLOCK_STATE_IDS.get(state);
+            ids[i] = id;
+            extended |= (id >> 12 & 15) != 0;
+        }
+        final long[] data = bridge.bridge$getStorage().getBackingLongArray().clone();
+        return new BlockStorageSnapshot(bits, data, ids, blocks, meta, extended ? new NibbleArray() : null);
+    }
+
+    /**
+     * Gets the array receiving the upper four bits of each block id, which
+     * is only present if one of the palette entries needs it.
+     *
+     * @return The add array, if needed
+     */
+    @Nullable
+    public NibbleArray getAdd() {
+        return this.add;
+    }
+
+    /**
+     * Fills the block, metadata and add arrays from the copied data. The
+     * blocks are stored in the same y, z, x order as the packed data, so
+     * each pair of entries makes up one byte of the nibble arrays.
+     */
+    public void writeTo() {
+        final byte[] meta = this.meta.getData();
+        final byte[] add = this.add == null ? null : this.add.getData();
+        for (int i = 0; i < SIZE; i += 2) {
+            final int first = this.ids[this.get(i)];
+            final int second = this.ids[this.get(i + 1)];
+            this.blocks[i] = (byte) (first >> 4 & 255);
+            this.blocks[i + 1] = (byte) (second >> 4 & 255);
+            meta[i >> 1] = (byte) (first & 15 | (second & 15) << 4);
+            if (add != null) {
+                add[i >> 1] = (byte) (first >> 12 & 15 | (second >> 12 & 15) << 4);
+            }
+        }
+    }
+
+    /**
+     * Based on BitArray#getAt, entries may span two longs.
+     */
+    private int get(final int index) {
+        final long mask = (1L << this.bits) - 1L;
+        final int bitIndex = index * this.bits;
+        final int start = bitIndex >> 6;
+        final int end = ((index + 1) * this.bits - 1) >> 6;
+        final int offset = bitIndex ^ start << 6;
+        if (start == end) {
+            return (int) (this.data[start] >>> offset & mask);
+        }
+        return (int) ((this.data[start] >>> offset | this.data[end] << (64 - offset)) & mask);
+    }
+}
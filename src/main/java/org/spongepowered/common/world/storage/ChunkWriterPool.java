@@ -0,0 +1,283 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import net.minecraft.util.math.ChunkPos;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.config.category.ChunkWriterCategory;
+
+import java.io.File;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+/**
+ * Writes saved chunks to their region files on a pool of threads, shared by
+ * all worlds.
+ *
+ * <p>Every region file belongs to one writer thread, so the writes of a
+ * region are never contended and happen in the order they were submitted.
+ * The queue of each writer is bounded, a thread submitting to a full queue
+ * waits until the writer catches up.</p>
+ */
+public final class ChunkWriterPool {
+
+    @Nullable private static volatile ChunkWriterPool instance;
+
+    private final Writer[] writers;
+    private final AtomicLong stalls = new AtomicLong();
+
+    private ChunkWriterPool(final ChunkWriterCategory config) {
+        this.writers = new Writer[Math.max(1, config.getNumThreads())];
+        for (int i = 0; i < this.writers.length; i++) {
+            this.writers[i] = new Writer(i, Math.max(1, config.getQueueSize()));
+            this.writers[i].start();
+        }
+    }
+
+    /**
+     * Gets the writer pool, starting it if chunk writers are enabled.
+     *
+     * @return The writer pool, or null if chunk writers are disabled
+     */
+    @Nullable
+    public static ChunkWriterPool getInstance() {
+        ChunkWriterPool pool = instance;
+        if (pool == null) {
+            final ChunkWriterCategory config = SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().getChunkWriterCategory();
+            if (!config.isEnabled()) {
+                return null;
+            }
+            synchronized (ChunkWriterPool.class) {
+                pool = instance;
+                if (pool == null) {
+                    pool = instance = new ChunkWriterPool(config);
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Gets the writer pool if it was started.
+     *
+     * @return The writer pool, if started
+     */
+    @Nullable
+    public static ChunkWriterPool getInstanceIfStarted() {
+        return instance;
+    }
+
+    /**
+     * Submits a chunk write to the writer owning its region file.
+     *
+     * @param regionDir The directory containing the region folder
+     * @param pos The chunk position
+     * @param write The write
+     */
+    public void submit(final File regionDir, final ChunkPos pos, final Runnable write) {
+        int hash = regionDir.hashCode();
+        hash = 31 * hash + (pos.x >> 5);
+        hash = 31 * hash + (pos.z >> 5);
+        hash ^= hash >>> 16;
+        this.writers[Math.floorMod(hash, this.writers.length)].put(write);
+    }
+
+    /**
+     * Waits until every write submitted before this call was done.
+     */
+    public void flush() {
+        final CountDownLatch latch = new CountDownLatch(this.writers.length);
+        for (final Writer writer : this.writers) {
+            writer.put(new Barrier(latch));
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getThreadCount() {
+        return this.writers.length;
+    }
+
+    /**
+     * Gets the amount of writes waiting in the queues of all writers.
+     *
+     * @return The queued writes
+     */
+    public int getQueuedWrites() {
+        int queued = 0;
+        for (final Writer writer : this.writers) {
+            queued += writer.queue.size();
+        }
+        return queued;
+    }
+
+    /**
+     * Gets the largest amount of writes waiting in the queue of a writer.
+     *
+     * @return The largest queue size
+     */
+    public int getMaxQueuedWrites() {
+        int max = 0;
+        for (final Writer writer : this.writers) {
+            max = Math.max(max, writer.queue.size());
+        }
+        return max;
+    }
+
+    public long getWrites() {
+        long writes = 0;
+        for (final Writer writer : this.writers) {
+            writes += writer.writes.get();
+        }
+        return writes;
+    }
+
+    /**
+     * Gets the average time a write took, in milliseconds.
+     *
+     * @return The average write time
+     */
+    public double getAverageWriteTime() {
+        long writes = 0;
+        long time = 0;
+        for (final Writer writer : this.writers) {
+            writes += writer.writes.get();
+            time += writer.writeTime.get();
+        }
+        return writes == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(time / writes) / 1000D;
+    }
+
+    /**
+     * Gets the longest time a write took, in milliseconds.
+     *
+     * @return The longest write time
+     */
+    public double getMaxWriteTime() {
+        long max = 0;
+        for (final Writer writer : this.writers) {
+            max = Math.max(max, writer.maxWriteTime.get());
+        }
+        return TimeUnit.NANOSECONDS.toMicros(max) / 1000D;
+    }
+
+    /**
+     * Gets how many times a thread had to wait for a full queue.
+     *
+     * @return The amount of stalls
+     */
+    public long getStalls() {
+        return this.stalls.get();
+    }
+
+    private final class Writer extends Thread {
+
+        final BlockingQueue<Runnable> queue;
+        final AtomicLong writes = new AtomicLong();
+        final AtomicLong writeTime = new AtomicLong();
+        final AtomicLong maxWriteTime = new AtomicLong();
+
+        Writer(final int index, final int queueSize) {
+            super("Sponge - Chunk Writer - " + index);
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+            this.setPriority(Thread.NORM_PRIORITY - 1);
+            // Everything is written before the server stops, see ThreadedFileIOBaseMixin
+            this.setDaemon(true);
+        }
+
+        void put(final Runnable write) {
+            if (this.queue.offer(write)) {
+                return;
+            }
+            ChunkWriterPool.this.stalls.incrementAndGet();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    this.queue.put(write);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                final Runnable write;
+                try {
+                    write = this.queue.take();
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                if (write instanceof Barrier) {
+                    write.run();
+                    continue;
+                }
+                final long start = System.nanoTime();
+                try {
+                    write.run();
+                } catch (Throwable t) {
+                    SpongeImpl.getLogger().error("Failed to write chunk", t);
+                }
+                final long time = System.nanoTime() - start;
+                this.writes.incrementAndGet();
+                this.writeTime.addAndGet(time);
+                this.maxWriteTime.accumulateAndGet(time, Math::max);
+            }
+        }
+    }
+
+    private static final class Barrier implements Runnable {
+
+        private final CountDownLatch latch;
+
+        Barrier(final CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public void run() {
+            this.latch.countDown();
+        }
+    }
+}
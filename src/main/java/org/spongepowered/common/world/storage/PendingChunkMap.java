@@ -0,0 +1,126 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.ChunkPos;
+import org.spongepowered.common.util.QueuedChunk;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * The chunks waiting to be written by an AnvilChunkLoader. Vanilla and
+ * Forge read a chunk that is loaded again while its save is still queued
+ * straight from this map, so a chunk whose block data is still held as a
+ * {@link BlockStorageSnapshot} is completed before it is handed out.
+ *
+ * <p>When chunks are written by the {@link ChunkWriterPool}, at most one
+ * write is scheduled per chunk. A chunk saved again before its write
+ * started is only written once, with its latest data.</p>
+ */
+public final class PendingChunkMap extends ConcurrentHashMap<ChunkPos, NBTTagCompound> {
+
+    private static final long serialVersionUID = 1L;
+
+    // Guarded by this
+    private final transient Map<ChunkPos, QueuedChunk> queued = new HashMap<>();
+    private final transient Set<ChunkPos> scheduled = new HashSet<>();
+
+    /**
+     * Queues the compound of a chunk to be written.
+     *
+     * @param chunk The queued chunk
+     */
+    public synchronized void queue(final QueuedChunk chunk) {
+        this.queued.put(chunk.coords, chunk);
+        this.put(chunk.coords, chunk.compound);
+    }
+
+    /**
+     * Queues the compound of a chunk to be written, replacing any previous
+     * compound of that chunk that was not written yet.
+     *
+     * @param chunk The queued chunk
+     * @return Whether a write has to be scheduled, false if one is already
+     *     scheduled and will write this compound instead
+     */
+    public synchronized boolean schedule(final QueuedChunk chunk) {
+        this.queue(chunk);
+        return this.scheduled.add(chunk.coords);
+    }
+
+    /**
+     * Takes the latest compound of a chunk for a scheduled write. Saving
+     * the chunk again after this schedules another write.
+     *
+     * @param pos The chunk position
+     * @return The queued chunk, or null if nothing is queued
+     */
+    @Nullable
+    public synchronized QueuedChunk take(final ChunkPos pos) {
+        this.scheduled.remove(pos);
+        return this.queued.get(pos);
+    }
+
+    /**
+     * Removes a written chunk, unless a newer save of it is still queued.
+     *
+     * @param chunk The written chunk
+     */
+    public synchronized void written(final QueuedChunk chunk) {
+        if (this.queued.get(chunk.coords) == chunk) {
+            this.queued.remove(chunk.coords);
+            this.remove(chunk.coords);
+        }
+    }
+
+    @Nullable
+    @Override
+    public NBTTagCompound get(final Object key) {
+        final NBTTagCompound compound = super.get(key);
+        if (compound == null) {
+            return null;
+        }
+        final QueuedChunk chunk;
+        synchronized (this) {
+            chunk = this.queued.get(key);
+            if (chunk == null || chunk.compound != super.get(key)) {
+                return super.get(key);
+            }
+        }
+        return chunk.complete();
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return super.get(key) != null;
+    }
+}
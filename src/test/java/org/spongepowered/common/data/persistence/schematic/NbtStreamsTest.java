@@ -0,0 +1,92 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence.schematic;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagString;
+import org.junit.Test;
+import org.spongepowered.common.util.Constants;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public class NbtStreamsTest {
+
+    @Test
+    public void testVarIntsAcrossChunks() throws IOException {
+        // Enough values that multi byte varints straddle the chunk boundaries
+        final int[] values = new int[NbtStreams.CHUNK_SIZE];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i * 7919) % 40000;
+        }
+        final byte[] chunk = new byte[values.length * 5];
+        int length = 0;
+        for (final int value : values) {
+            final int end = NbtStreams.writeVarInt(chunk, length, value);
+            assertEquals(NbtStreams.getVarIntSize(value), end - length);
+            length = end;
+        }
+
+        final int[] read = new int[values.length];
+        final int count = NbtStreams.readVarInts(new DataInputStream(new ByteArrayInputStream(chunk, 0, length)), length,
+                (index, value) -> read[index] = value);
+        assertEquals(values.length, count);
+        assertArrayEquals(values, read);
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedVarInt() throws IOException {
+        final byte[] data = {(byte) 0x81};
+        NbtStreams.readVarInts(new DataInputStream(new ByteArrayInputStream(data)), data.length, (index, value) -> { });
+    }
+
+    @Test
+    public void testTagRoundTrip() throws IOException {
+        final NBTTagCompound compound = new NBTTagCompound();
+        compound.setShort("Width", (short) 12);
+        compound.setIntArray("Offset", new int[] {1, -2, 3});
+        compound.setByteArray("BiomeData", new byte[] {0, 1, 2});
+        final NBTTagCompound palette = new NBTTagCompound();
+        palette.setInteger("minecraft:stone", 0);
+        compound.setTag("Palette", palette);
+        final NBTTagList mods = new NBTTagList();
+        mods.appendTag(new NBTTagString("sponge"));
+        compound.setTag("RequiredMods", mods);
+        compound.setTag("Empty", new NBTTagList());
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NbtStreams.writeTag(new DataOutputStream(bytes), compound);
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(compound, NbtStreams.readTag(in, Constants.NBT.TAG_COMPOUND, 0));
+        assertEquals(-1, in.read());
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence.schematic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTTagByteArray;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagInt;
+import net.minecraft.nbt.NBTTagShort;
+import net.minecraft.nbt.NBTTagString;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.block.BlockTypes;
+import org.spongepowered.api.data.DataContainer;
+import org.spongepowered.api.data.DataQuery;
+import org.spongepowered.api.data.persistence.DataFormats;
+import org.spongepowered.api.data.persistence.DataTranslators;
+import org.spongepowered.api.world.schematic.Schematic;
+import org.spongepowered.common.data.persistence.NbtTranslator;
+import org.spongepowered.common.data.persistence.SchematicTranslator;
+import org.spongepowered.common.util.Constants;
+import org.spongepowered.lwts.runner.LaunchWrapperTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+@RunWith(LaunchWrapperTestRunner.class)
+public class SchematicStreamTest {
+
+    private static final int WIDTH = 3;
+    private static final int HEIGHT = 2;
+    private static final int LENGTH = 4;
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final Schematic streamed;
+        final Schematic translated;
+        try (final InputStream in = new GZIPInputStream(getClass().getClassLoader().getResource("loadv2.schematic").openStream())) {
+            streamed = SchematicTranslator.get().read(in);
+        }
+        try (final InputStream in = new GZIPInputStream(getClass().getClassLoader().getResource("loadv2.schematic").openStream())) {
+            translated = DataTranslators.SCHEMATIC.translate(DataFormats.NBT.readFrom(in));
+        }
+        assertSameSchematic(translated, streamed);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SchematicTranslator.get().write(streamed, bytes);
+        assertSameSchematic(streamed, SchematicTranslator.get().read(new ByteArrayInputStream(bytes.toByteArray())));
+
+        final DataContainer container = DataFormats.NBT.readFrom(new ByteArrayInputStream(bytes.toByteArray()));
+        assertSameSchematic(streamed, DataTranslators.SCHEMATIC.translate(container));
+    }
+
+    @Test
+    public void testBlockDataBeforeSize() throws IOException {
+        final List<BlockState> states = Arrays.asList(BlockTypes.AIR.getDefaultState(), BlockTypes.STONE.getDefaultState(),
+                BlockTypes.DIRT.getDefaultState(), BlockTypes.GLASS.getDefaultState());
+        final NBTTagCompound palette = new NBTTagCompound();
+        for (int i = 0; i < states.size(); i++) {
+            palette.setInteger(states.get(i).getId(), i);
+        }
+        final byte[] blockData = new byte[WIDTH * HEIGHT * LENGTH];
+        int index = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int z = 0; z < LENGTH; z++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    index = NbtStreams.writeVarInt(blockData, index, expectedId(x, y, z));
+                }
+            }
+        }
+
+        final Map<String, NBTBase> sizeFirst = new LinkedHashMap<>();
+        sizeFirst.put(name(Constants.Sponge.Schematic.VERSION), new NBTTagInt(Constants.Sponge.Schematic.CURRENT_VERSION));
+        sizeFirst.put(name(Constants.Sponge.Schematic.DATA_VERSION), new NBTTagInt(Constants.MINECRAFT_DATA_VERSION));
+        sizeFirst.put(name(Constants.Sponge.Schematic.WIDTH), new NBTTagShort((short) WIDTH));
+        sizeFirst.put(name(Constants.Sponge.Schematic.HEIGHT), new NBTTagShort((short) HEIGHT));
+        sizeFirst.put(name(Constants.Sponge.Schematic.LENGTH), new NBTTagShort((short) LENGTH));
+        sizeFirst.put(name(Constants.Sponge.Schematic.PALETTE_MAX), new NBTTagInt(states.size()));
+        sizeFirst.put(name(Constants.Sponge.Schematic.PALETTE), palette);
+        sizeFirst.put(name(Constants.Sponge.Schematic.BLOCK_DATA), new NBTTagByteArray(blockData));
+
+        // Same tags, but the reader only learns the size after decoding the blocks in file order
+        final Map<String, NBTBase> dataFirst = new LinkedHashMap<>();
+        dataFirst.put(name(Constants.Sponge.Schematic.BLOCK_DATA), new NBTTagByteArray(blockData));
+        sizeFirst.forEach(dataFirst::putIfAbsent);
+
+        final Schematic expected = SchematicTranslator.get().read(new ByteArrayInputStream(writeCompound(sizeFirst)));
+        final Schematic rearranged = SchematicTranslator.get().read(new ByteArrayInputStream(writeCompound(dataFirst)));
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int z = 0; z < LENGTH; z++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    assertEquals(states.get(expectedId(x, y, z)), expected.getBlock(x, y, z));
+                    assertEquals(states.get(expectedId(x, y, z)), rearranged.getBlock(x, y, z));
+                }
+            }
+        }
+
+        final NBTTagCompound compound = new NBTTagCompound();
+        sizeFirst.forEach(compound::setTag);
+        assertSameSchematic(expected, SchematicTranslator.get().translate(NbtTranslator.getInstance().translateFrom(compound)));
+    }
+
+    @Test
+    public void testLegacyAddBlocks() throws IOException {
+        final Map<String, NBTBase> tags = new LinkedHashMap<>();
+        tags.put(name(Constants.Sponge.Schematic.WIDTH), new NBTTagShort((short) 3));
+        tags.put(name(Constants.Sponge.Schematic.HEIGHT), new NBTTagShort((short) 1));
+        tags.put(name(Constants.Sponge.Schematic.LENGTH), new NBTTagShort((short) 1));
+        tags.put(name(Constants.Sponge.Schematic.Legacy.MATERIALS), new NBTTagString("Alpha"));
+        // Stone, stone and redstone block, whose id does not fit in a signed byte
+        tags.put(name(Constants.Sponge.Schematic.Legacy.BLOCKS), new NBTTagByteArray(new byte[] {1, 1, (byte) 152}));
+        tags.put(name(Constants.Sponge.Schematic.Legacy.BLOCK_DATA), new NBTTagByteArray(new byte[3]));
+        // Two nibbles per byte with the even index in the low nibble, only the second block has extra bits
+        tags.put(name(Constants.Sponge.Schematic.Legacy.ADD_BLOCKS), new NBTTagByteArray(new byte[] {0x10, 0x00}));
+
+        final Schematic schematic = SchematicTranslator.get().read(new ByteArrayInputStream(writeCompound(tags)));
+        assertEquals(BlockTypes.STONE.getDefaultState(), schematic.getBlock(0, 0, 0));
+        assertNotEquals(BlockTypes.STONE.getDefaultState(), schematic.getBlock(1, 0, 0));
+        assertEquals(BlockTypes.REDSTONE_BLOCK.getDefaultState(), schematic.getBlock(2, 0, 0));
+    }
+
+    private static int expectedId(final int x, final int y, final int z) {
+        return (x + 2 * z + 3 * y) % 4;
+    }
+
+    private static String name(final DataQuery query) {
+        return query.asString('.');
+    }
+
+    private static byte[] writeCompound(final Map<String, NBTBase> tags) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(Constants.NBT.TAG_COMPOUND);
+        out.writeUTF("");
+        for (final Map.Entry<String, NBTBase> entry : tags.entrySet()) {
+            NbtStreams.writeNamedTag(out, entry.getKey(), entry.getValue());
+        }
+        out.writeByte(Constants.NBT.TAG_END);
+        return bytes.toByteArray();
+    }
+
+    private static void assertSameSchematic(final Schematic expected, final Schematic actual) {
+        assertEquals(expected.getBlockMin(), actual.getBlockMin());
+        assertEquals(expected.getBlockMax(), actual.getBlockMax());
+        for (int y = expected.getBlockMin().getY(); y <= expected.getBlockMax().getY(); y++) {
+            for (int z = expected.getBlockMin().getZ(); z <= expected.getBlockMax().getZ(); z++) {
+                for (int x = expected.getBlockMin().getX(); x <= expected.getBlockMax().getX(); x++) {
+                    assertEquals(expected.getBlock(x, y, z), actual.getBlock(x, y, z));
+                }
+            }
+        }
+        assertEquals(expected.getTileEntityArchetypes().keySet(), actual.getTileEntityArchetypes().keySet());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.entity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import net.minecraft.util.math.BlockPos;
+import org.junit.Test;
+
+public class PlayerTrackerMapTest {
+
+    @Test
+    public void testPacking() {
+        final long tracker = PlayerTrackerMap.pack(Integer.MAX_VALUE, -1);
+        assertEquals(Integer.MAX_VALUE, PlayerTrackerMap.getOwnerIndex(tracker));
+        assertEquals(-1, PlayerTrackerMap.getNotifierIndex(tracker));
+        assertEquals(-1, PlayerTrackerMap.getOwnerIndex(PlayerTrackerMap.UNTRACKED));
+        assertEquals(-1, PlayerTrackerMap.getNotifierIndex(PlayerTrackerMap.UNTRACKED));
+    }
+
+    @Test
+    public void testTrack() {
+        final PlayerTrackerMap map = new PlayerTrackerMap();
+        final BlockPos pos = new BlockPos(3, 64, 12);
+        assertTrue(map.isEmpty());
+        assertEquals(PlayerTrackerMap.UNTRACKED, map.get(pos));
+
+        map.track(pos, 4, PlayerTracker.Type.NOTIFIER);
+        assertEquals(PlayerTrackerMap.pack(-1, 4), map.get(pos));
+        // Owning an already tracked block also notifies it
+        map.track(pos, 7, PlayerTracker.Type.OWNER);
+        assertEquals(PlayerTrackerMap.pack(7, 7), map.get(pos));
+        map.track(pos, 2, PlayerTracker.Type.NOTIFIER);
+        assertEquals(PlayerTrackerMap.pack(7, 2), map.get(pos));
+
+        final BlockPos other = new BlockPos(3, 65, 12);
+        map.track(other, 5, PlayerTracker.Type.OWNER);
+        assertEquals(PlayerTrackerMap.pack(5, -1), map.get(other));
+        assertEquals(2, map.size());
+
+        map.remove(pos);
+        assertEquals(PlayerTrackerMap.UNTRACKED, map.get(pos));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testSetters() {
+        final PlayerTrackerMap map = new PlayerTrackerMap();
+        final BlockPos low = new BlockPos(0, 0, 0);
+        final BlockPos high = new BlockPos(15, 300, 15);
+
+        map.setOwner(low, 1);
+        map.setNotifier(low, 2);
+        map.setNotifier(high, 3);
+        map.setOwner(high, 4);
+        assertEquals(PlayerTrackerMap.pack(1, 2), map.get(low));
+        assertEquals(PlayerTrackerMap.pack(4, 3), map.get(high));
+        final int[] counts = new int[2];
+        map.forEachShortPosition((pos, tracker) -> counts[0]++);
+        map.forEachIntPosition((pos, tracker) -> counts[1]++);
+        assertEquals(1, counts[0]);
+        assertEquals(1, counts[1]);
+    }
+
+    @Test
+    public void testCompact() {
+        final PlayerTrackerMap map = new PlayerTrackerMap();
+        for (int y = 0; y < 300; y++) {
+            map.track(new BlockPos(y & 15, y, 15 - (y & 15)), y, PlayerTracker.Type.OWNER);
+        }
+        map.compact();
+        assertEquals(300, map.size());
+
+        final int[] count = new int[1];
+        map.forEachShortPosition((pos, tracker) -> {
+            assertEquals(PlayerTrackerMap.getOwnerIndex(tracker), (pos >> 4) & 0xFF);
+            count[0]++;
+        });
+        map.forEachIntPosition((pos, tracker) -> count[0]++);
+        assertEquals(300, count[0]);
+
+        // Looking up a position inflates its section again
+        assertEquals(PlayerTrackerMap.pack(17, -1), map.get(new BlockPos(1, 17, 14)));
+        assertEquals(PlayerTrackerMap.pack(299, -1), map.get(new BlockPos(299 & 15, 299, 15 - (299 & 15))));
+        map.track(new BlockPos(1, 17, 14), 3, PlayerTracker.Type.NOTIFIER);
+        assertEquals(PlayerTrackerMap.pack(17, 3), map.get(new BlockPos(1, 17, 14)));
+        assertEquals(300, map.size());
+    }
+}
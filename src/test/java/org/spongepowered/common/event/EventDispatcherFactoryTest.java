@@ -0,0 +1,111 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.logging.log4j.LogManager;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.spongepowered.api.event.Event;
+import org.spongepowered.api.event.EventListener;
+import org.spongepowered.api.event.Order;
+import org.spongepowered.api.plugin.PluginContainer;
+import org.spongepowered.lwts.runner.LaunchWrapperTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(LaunchWrapperTestRunner.class)
+public class EventDispatcherFactoryTest {
+
+    private final EventDispatcherFactory factory = new EventDispatcherFactory("org.spongepowered.common.event.dispatcher",
+            getClass().getClassLoader());
+
+    private static RegisteredListener<?> createListener(Order order, EventListener<Event> listener) {
+        final PluginContainer plugin = Mockito.mock(PluginContainer.class);
+        Mockito.when(plugin.getId()).thenReturn("test");
+        return new RegisteredListener<>(plugin, new EventType<>(Event.class), order, listener, false, false);
+    }
+
+    private EventDispatcher create(List<RegisteredListener<?>> handlers) throws Exception {
+        return this.factory.create(EventFilterTest.TestEvent.class, LogManager.getLogger("sponge"), handlers);
+    }
+
+    @Test
+    public void testListenersAreCalledInOrder() throws Exception {
+        final List<Integer> called = new ArrayList<>();
+        final EventDispatcher dispatcher = create(Arrays.asList(
+                createListener(Order.FIRST, event -> called.add(0)),
+                createListener(Order.DEFAULT, event -> called.add(1)),
+                createListener(Order.LAST, event -> called.add(2))));
+        assertFalse(dispatcher instanceof EventDispatcher.Simple);
+
+        assertFalse(dispatcher.dispatch(new EventFilterTest.TestEvent(EventFilterTest.TEST_CAUSE)));
+        assertEquals(Arrays.asList(0, 1, 2), called);
+    }
+
+    @Test
+    public void testExceptionDoesNotSkipListeners() throws Exception {
+        final List<Integer> called = new ArrayList<>();
+        final EventDispatcher dispatcher = create(Arrays.asList(
+                createListener(Order.DEFAULT, event -> {
+                    called.add(0);
+                    throw new IllegalStateException("Expected");
+                }),
+                createListener(Order.DEFAULT, event -> called.add(1))));
+
+        dispatcher.dispatch(new EventFilterTest.TestEvent(EventFilterTest.TEST_CAUSE));
+        assertEquals(Arrays.asList(0, 1), called);
+    }
+
+    @Test
+    public void testCancelledEvent() throws Exception {
+        final EventDispatcher dispatcher = create(Arrays.asList(
+                createListener(Order.DEFAULT, event -> ((EventFilterTest.TestEvent) event).setCancelled(true))));
+
+        final EventFilterTest.TestEvent event = new EventFilterTest.TestEvent(EventFilterTest.TEST_CAUSE);
+        assertTrue(dispatcher.dispatch(event));
+        assertTrue(event.isCancelled());
+    }
+
+    @Test
+    public void testManyListenersAreIterated() throws Exception {
+        final int[] called = new int[1];
+        final List<RegisteredListener<?>> handlers = new ArrayList<>();
+        for (int i = 0; i <= EventDispatcherFactory.MAX_LISTENERS; i++) {
+            handlers.add(createListener(Order.DEFAULT, event -> called[0]++));
+        }
+        final EventDispatcher dispatcher = create(handlers);
+        assertTrue(dispatcher instanceof EventDispatcher.Simple);
+
+        dispatcher.dispatch(new EventFilterTest.TestEvent(EventFilterTest.TEST_CAUSE));
+        assertEquals(handlers.size(), called[0]);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.launch.mixin;
+
+import net.minecraft.util.datafix.DataFixer;
+import net.minecraft.util.datafix.DataFixesManager;
+import org.spongepowered.api.data.DataView;
+import org.spongepowered.api.world.schematic.Schematic;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import org.spongepowered.common.data.persistence.LegacySchematicTranslator;
+import org.spongepowered.common.util.gen.ArrayMutableBlockBuffer;
+
+import javax.annotation.Nullable;
+
+@Mixin(value = LegacySchematicTranslator.class, remap = false)
+public class LegacySchematicTranslatorMixin_Test {
+
+    @Shadow private static DataFixer VANILLA_FIXER;
+
+    @Inject(method = "translate(Lorg/spongepowered/api/data/DataView;Lorg/spongepowered/common/util/gen/ArrayMutableBlockBuffer$RawIds;)"
+            + "Lorg/spongepowered/api/world/schematic/Schematic;", at = @At("HEAD"))
+    private void setDummyDataFixer(final DataView view, @Nullable final ArrayMutableBlockBuffer.RawIds globalIds,
+            final CallbackInfoReturnable<Schematic> cir) {
+        VANILLA_FIXER = DataFixesManager.createFixer();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.spongepowered.api.plugin.PluginContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SchedulerBaseTest {
+
+    @Test
+    public void testCancelRemovesTask() {
+        final TestScheduler scheduler = new TestScheduler();
+        final ScheduledTask task = new ScheduledTask(ScheduledTask.TaskSynchronicity.SYNCHRONOUS, t -> { }, "test", 100L, true, 10L, true,
+                Mockito.mock(PluginContainer.class));
+        scheduler.addTask(task);
+        assertTrue(scheduler.getTask(task.getUniqueId()).isPresent());
+        assertTrue(scheduler.getScheduledTasks().contains(task));
+
+        assertTrue(task.cancel());
+        assertFalse(scheduler.getTask(task.getUniqueId()).isPresent());
+        assertTrue(scheduler.getScheduledTasks().isEmpty());
+    }
+
+    @Test
+    public void testQueuedTaskIsNotStartedAgain() {
+        final TestScheduler scheduler = new TestScheduler();
+        // The executor is saturated, so the runnables stay queued
+        scheduler.runImmediately = false;
+        final ScheduledTask task = new ScheduledTask(ScheduledTask.TaskSynchronicity.ASYNCHRONOUS, t -> { }, "test", 0L, false, 10L, false,
+                Mockito.mock(PluginContainer.class));
+        scheduler.addTask(task);
+
+        scheduler.processTask(task);
+        assertEquals(1, scheduler.submitted.size());
+        assertEquals(ScheduledTask.ScheduledTaskState.SWITCHING, task.getState());
+
+        // Due again twice while the first run is still waiting in the queue
+        scheduler.processTask(task);
+        scheduler.processTask(task);
+        assertEquals(1, scheduler.submitted.size());
+        assertTrue(task.awaitingCompletion);
+
+        // Once the queued run completed, the next one may start
+        task.setState(ScheduledTask.ScheduledTaskState.EXECUTING);
+        scheduler.processTask(task);
+        assertEquals(1, scheduler.submitted.size());
+        task.setState(ScheduledTask.ScheduledTaskState.RUNNING);
+        task.awaitingCompletion = false;
+        scheduler.processTask(task);
+        assertEquals(2, scheduler.submitted.size());
+    }
+
+    private static final class TestScheduler extends SchedulerBase {
+
+        private final TimingWheel wheel = this.createWheel(System::nanoTime);
+        final List<Runnable> submitted = new ArrayList<>();
+        boolean runImmediately = true;
+
+        TestScheduler() {
+            super(ScheduledTask.TaskSynchronicity.SYNCHRONOUS);
+        }
+
+        @Override
+        protected TimingWheel getWheel(ScheduledTask task) {
+            return this.wheel;
+        }
+
+        @Override
+        protected void executeTaskRunnable(ScheduledTask task, Runnable runnable) {
+            this.submitted.add(runnable);
+            if (this.runImmediately) {
+                runnable.run();
+            }
+        }
+    }
+}
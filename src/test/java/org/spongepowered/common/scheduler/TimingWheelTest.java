@@ -0,0 +1,148 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.spongepowered.api.plugin.PluginContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TimingWheelTest {
+
+    private long now;
+
+    private static ScheduledTask createTask(long delay) {
+        return new ScheduledTask(ScheduledTask.TaskSynchronicity.SYNCHRONOUS, task -> { }, "test", delay, true, 0L, true,
+                Mockito.mock(PluginContainer.class));
+    }
+
+    @Test
+    public void testTasksAreDueAtTheirDeadline() {
+        final TimingWheel wheel = new TimingWheel(() -> this.now);
+        final List<ScheduledTask> due = new ArrayList<>();
+        final long[] delays = {1, 5, 63, 64, 65, 4095, 4096, 100000};
+        for (long delay : delays) {
+            wheel.add(createTask(delay), delay);
+        }
+        int expected = 0;
+        for (this.now = 1; this.now <= 100000; this.now++) {
+            wheel.advance(due::add);
+            while (expected < delays.length && delays[expected] <= this.now) {
+                expected++;
+            }
+            assertEquals("Unexpected amount of due tasks at " + this.now, expected, due.size());
+        }
+        for (int i = 0; i < delays.length; i++) {
+            assertEquals(delays[i], due.get(i).offset);
+        }
+    }
+
+    @Test
+    public void testLargeJumpYieldsAllDueTasks() {
+        final TimingWheel wheel = new TimingWheel(() -> this.now);
+        final List<ScheduledTask> due = new ArrayList<>();
+        for (long delay = 1; delay <= 10000; delay += 7) {
+            wheel.add(createTask(delay), delay);
+        }
+        wheel.add(createTask(20000), 20000);
+        this.now = 10000;
+        wheel.advance(due::add);
+        assertEquals(1429, due.size());
+        assertTrue(wheel.nextDeadline() > 10000 && wheel.nextDeadline() <= 20000);
+        this.now = 20000;
+        wheel.advance(due::add);
+        assertEquals(1430, due.size());
+        assertEquals(Long.MAX_VALUE, wheel.nextDeadline());
+    }
+
+    @Test
+    public void testPassedDeadlineIsDueOnNextAdvance() {
+        this.now = 50;
+        final TimingWheel wheel = new TimingWheel(() -> this.now);
+        final List<ScheduledTask> due = new ArrayList<>();
+        wheel.add(createTask(0), 10);
+        assertTrue(wheel.nextDeadline() <= this.now);
+        wheel.advance(due::add);
+        assertEquals(1, due.size());
+    }
+
+    @Test
+    public void testRemovedTasksAreNotDue() {
+        final TimingWheel wheel = new TimingWheel(() -> this.now);
+        final List<ScheduledTask> due = new ArrayList<>();
+        final ScheduledTask kept = createTask(5000);
+        final ScheduledTask removedBeforeCascade = createTask(5000);
+        final ScheduledTask removedAfterCascade = createTask(4100);
+        final ScheduledTask removedExpired = createTask(0);
+        wheel.add(kept, 5000);
+        wheel.add(removedBeforeCascade, 5000);
+        wheel.add(removedAfterCascade, 4100);
+        wheel.add(removedExpired, 0);
+
+        TimingWheel.remove(removedBeforeCascade);
+        TimingWheel.remove(removedExpired);
+        this.now = 4097;
+        wheel.advance(due::add);
+        assertTrue(due.isEmpty());
+
+        // Both remaining tasks were cascaded to a lower level by now
+        TimingWheel.remove(removedAfterCascade);
+        TimingWheel.remove(removedAfterCascade);
+        this.now = 10000;
+        wheel.advance(due::add);
+        assertEquals(1, due.size());
+        assertSame(kept, due.get(0));
+        assertEquals(Long.MAX_VALUE, wheel.nextDeadline());
+    }
+
+    @Test
+    public void testRemoveKeepsOrderOfSlot() {
+        final TimingWheel wheel = new TimingWheel(() -> this.now);
+        final List<ScheduledTask> due = new ArrayList<>();
+        final List<ScheduledTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            final ScheduledTask task = createTask(100);
+            tasks.add(task);
+            wheel.add(task, 100);
+        }
+
+        // Unlink the head, the tail and tasks in between
+        TimingWheel.remove(tasks.get(0));
+        TimingWheel.remove(tasks.get(2));
+        TimingWheel.remove(tasks.get(3));
+        TimingWheel.remove(tasks.get(5));
+        this.now = 100;
+        wheel.advance(due::add);
+        assertEquals(2, due.size());
+        assertSame(tasks.get(1), due.get(0));
+        assertSame(tasks.get(4), due.get(1));
+    }
+}
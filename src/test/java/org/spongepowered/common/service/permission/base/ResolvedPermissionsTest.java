@@ -0,0 +1,145 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.service.permission.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.spongepowered.api.service.permission.MemorySubjectData;
+import org.spongepowered.api.service.permission.PermissionService;
+import org.spongepowered.api.service.permission.SubjectData;
+import org.spongepowered.api.util.Tristate;
+
+import java.util.Random;
+
+public class ResolvedPermissionsTest {
+
+    private static final String[] PARTS = {"a", "b", "c", "Sponge", "command", ""};
+
+    private static GlobalMemorySubjectData createData() {
+        return new GlobalMemorySubjectData(Mockito.mock(PermissionService.class));
+    }
+
+    private static ResolvedPermissions resolve(MemorySubjectData... data) {
+        final ResolvedPermissions.Builder builder = new ResolvedPermissions.Builder();
+        for (MemorySubjectData subjectData : data) {
+            builder.addData(subjectData);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testEarlierDataInheritsBeforeLaterData() {
+        final GlobalMemorySubjectData first = createData();
+        final GlobalMemorySubjectData second = createData();
+        first.setPermission(SubjectData.GLOBAL_CONTEXT, "a", Tristate.FALSE);
+        second.setPermission(SubjectData.GLOBAL_CONTEXT, "a.b", Tristate.TRUE);
+        second.setPermission(SubjectData.GLOBAL_CONTEXT, "x.y", Tristate.TRUE);
+        final ResolvedPermissions resolved = resolve(first, second);
+        assertEquals(Tristate.FALSE, resolved.get("a.b.c"));
+        assertEquals(Tristate.FALSE, resolved.get("A.B"));
+        assertEquals(Tristate.TRUE, resolved.get("x.y.z"));
+        assertEquals(Tristate.UNDEFINED, resolved.get("x"));
+        assertEquals(Tristate.UNDEFINED, resolved.get("b"));
+    }
+
+    @Test
+    public void testMatchesNodeTreeResolution() {
+        final Random random = new Random(42);
+        final GlobalMemorySubjectData[] data = new GlobalMemorySubjectData[4];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = createData();
+            for (int j = 0; j < 20; j++) {
+                data[i].setPermission(SubjectData.GLOBAL_CONTEXT, randomPermission(random), random.nextBoolean() ? Tristate.TRUE : Tristate.FALSE);
+            }
+        }
+        final ResolvedPermissions resolved = resolve(data);
+        for (int i = 0; i < 10000; i++) {
+            final String permission = randomPermission(random);
+            Tristate expected = Tristate.UNDEFINED;
+            for (GlobalMemorySubjectData subjectData : data) {
+                expected = subjectData.getNodeTree(SubjectData.GLOBAL_CONTEXT).get(permission);
+                if (expected != Tristate.UNDEFINED) {
+                    break;
+                }
+            }
+            assertEquals("Unexpected value for " + permission, expected, resolved.get(permission));
+        }
+    }
+
+    @Test
+    public void testValueAppliesToUndefinedPermissions() {
+        final GlobalMemorySubjectData data = createData();
+        data.setPermission(SubjectData.GLOBAL_CONTEXT, "a.b", Tristate.FALSE);
+        final ResolvedPermissions.Builder builder = new ResolvedPermissions.Builder();
+        builder.addData(data);
+        builder.addValue(Tristate.TRUE);
+        final ResolvedPermissions resolved = builder.build();
+        assertEquals(Tristate.FALSE, resolved.get("a.b.c"));
+        assertEquals(Tristate.TRUE, resolved.get("a"));
+        assertEquals(Tristate.TRUE, resolved.get("anything"));
+    }
+
+    @Test
+    public void testModifiedDataInvalidates() {
+        final GlobalMemorySubjectData data = createData();
+        data.setPermission(SubjectData.GLOBAL_CONTEXT, "a", Tristate.TRUE);
+        final ResolvedPermissions resolved = resolve(data);
+        assertTrue(resolved.isValid());
+        data.setPermission(SubjectData.GLOBAL_CONTEXT, "b", Tristate.TRUE);
+        assertFalse(resolved.isValid());
+        final ResolvedPermissions cleared = resolve(data);
+        assertTrue(cleared.isValid());
+        data.clearPermissions();
+        assertFalse(cleared.isValid());
+    }
+
+    @Test
+    public void testUntrackedDataIsNeverValid() {
+        final MemorySubjectData data = new MemorySubjectData(Mockito.mock(PermissionService.class));
+        data.setPermission(SubjectData.GLOBAL_CONTEXT, "a", Tristate.TRUE);
+        final ResolvedPermissions resolved = resolve(createData(), data);
+        assertEquals(Tristate.TRUE, resolved.get("a"));
+        assertFalse(resolved.isValid());
+        data.setPermission(SubjectData.GLOBAL_CONTEXT, "a", Tristate.FALSE);
+        assertFalse(resolved.isValid());
+        assertEquals(Tristate.FALSE, resolve(createData(), data).get("a"));
+    }
+
+    private static String randomPermission(Random random) {
+        final StringBuilder permission = new StringBuilder();
+        final int parts = 1 + random.nextInt(4);
+        for (int i = 0; i < parts; i++) {
+            if (i > 0) {
+                permission.append('.');
+            }
+            permission.append(PARTS[random.nextInt(PARTS.length)]);
+        }
+        return permission.toString();
+    }
+}
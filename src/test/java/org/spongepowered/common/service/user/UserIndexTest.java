@@ -0,0 +1,142 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.service.user;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class UserIndexTest {
+
+    @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path file() {
+        return this.folder.getRoot().toPath().resolve(UserIndex.FILE_NAME);
+    }
+
+    @Test
+    public void testLookupsSurviveReopening() throws Exception {
+        final Map<UUID, String> users = new HashMap<>();
+        try (UserIndex index = UserIndex.open(file())) {
+            assertTrue(index.isCreated());
+            for (int i = 0; i < 5000; i++) {
+                final UUID uniqueId = UUID.randomUUID();
+                users.put(uniqueId, "Player" + i);
+                index.put(uniqueId, "Player" + i, i);
+            }
+        }
+        try (UserIndex index = UserIndex.open(file())) {
+            assertFalse(index.isCreated());
+            assertEquals(users.size(), index.size());
+            for (Map.Entry<UUID, String> entry : users.entrySet()) {
+                assertTrue(index.contains(entry.getKey()));
+                assertEquals(entry.getKey(), index.getUniqueId(entry.getValue().toUpperCase()));
+            }
+        }
+    }
+
+    @Test
+    public void testRemovingMovesLastUser() throws Exception {
+        try (UserIndex index = UserIndex.open(file())) {
+            final List<UUID> ids = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                final UUID uniqueId = UUID.randomUUID();
+                ids.add(uniqueId);
+                index.put(uniqueId, "Player" + i, i);
+            }
+            assertTrue(index.remove(ids.get(10)));
+            assertFalse(index.remove(ids.get(10)));
+            assertFalse(index.contains(ids.get(10)));
+            assertNull(index.getUniqueId("player10"));
+            assertEquals(99, index.size());
+            assertEquals(99, index.namedSize());
+            assertEquals(ids.get(99), index.getUniqueId("player99"));
+            final int[] seen = new int[1];
+            index.forEach(0, index.size(), (uniqueId, name, lastSeen) -> {
+                assertEquals("Player" + lastSeen, name);
+                seen[0]++;
+            });
+            assertEquals(99, seen[0]);
+        }
+    }
+
+    @Test
+    public void testNameIsKeptByMostRecentUser() throws Exception {
+        try (UserIndex index = UserIndex.open(file())) {
+            final UUID first = UUID.randomUUID();
+            final UUID second = UUID.randomUUID();
+            index.put(first, "Name", 10);
+            index.put(second, "name", 20);
+            assertEquals(second, index.getUniqueId("NAME"));
+            index.put(second, "Renamed", 30);
+            assertEquals(second, index.getUniqueId("renamed"));
+            assertEquals(first, index.getUniqueId("name"));
+            assertFalse(index.update(UUID.randomUUID(), "Other", 40));
+            assertTrue(index.update(first, null, 40));
+            final int[] matches = new int[1];
+            index.forEachMatching("re", (uniqueId, name, lastSeen) -> matches[0]++);
+            assertEquals(1, matches[0]);
+        }
+    }
+
+    @Test
+    public void testNamePassesOnWhenOwnerIsRemoved() throws Exception {
+        try (UserIndex index = UserIndex.open(file())) {
+            final UUID oldest = UUID.randomUUID();
+            final UUID older = UUID.randomUUID();
+            final UUID newest = UUID.randomUUID();
+            index.put(oldest, "Name", 10);
+            index.put(older, "NAME", 20);
+            index.put(newest, "name", 30);
+            // Keep the owner away from the end, so removing it moves another record
+            index.put(UUID.randomUUID(), "Other", 40);
+            assertEquals(newest, index.getUniqueId("name"));
+
+            assertTrue(index.remove(newest));
+            assertEquals(older, index.getUniqueId("name"));
+            index.put(older, "Renamed", 50);
+            assertEquals(oldest, index.getUniqueId("name"));
+            assertEquals(older, index.getUniqueId("renamed"));
+            assertTrue(index.remove(oldest));
+            assertNull(index.getUniqueId("name"));
+        }
+        try (UserIndex index = UserIndex.open(file())) {
+            assertNull(index.getUniqueId("name"));
+            assertEquals(2, index.namedSize());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ConcurrentChunkPosBitSetTest {
+
+    @Test
+    public void testAddRemove() {
+        final ConcurrentChunkPosBitSet set = new ConcurrentChunkPosBitSet();
+        assertTrue(set.add((short) 0x1234));
+        assertFalse(set.add((short) 0x1234));
+        assertTrue(set.contains((short) 0x1234));
+        assertFalse(set.contains((short) 0x1235));
+        assertEquals(1, set.size());
+        assertTrue(set.remove((short) 0x1234));
+        assertFalse(set.remove((short) 0x1234));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    public void testAllPositionsAreDistinct() {
+        final ConcurrentChunkPosBitSet set = new ConcurrentChunkPosBitSet();
+        for (int pos = 0; pos <= 0xFFFF; pos++) {
+            assertTrue(set.add((short) pos));
+        }
+        assertEquals(0x10000, set.size());
+        for (int pos = 0; pos <= 0xFFFF; pos += 2) {
+            assertTrue(set.remove((short) pos));
+        }
+        for (int pos = 0; pos <= 0xFFFF; pos++) {
+            assertEquals(pos % 2 != 0, set.contains((short) pos));
+        }
+    }
+}
@@ -61,4 +61,18 @@ public void testFullLengthSets() throws UnknownHostException {
         assertTrue(specv4.apply(InetAddress.getByName("10.0.0.1")));
         assertFalse(specv4.apply(InetAddress.getByName("10.0.0.2")));
     }
+
+    @Test
+    public void testPartialByteSets() throws UnknownHostException {
+        IpSet spec = IpSet.fromCidr("172.16.0.0/12");
+        assertTrue(spec.apply(InetAddress.getByName("172.31.255.1")));
+        assertFalse(spec.apply(InetAddress.getByName("172.32.0.1")));
+    }
+
+    @Test
+    public void testSingleAddressSets() throws UnknownHostException {
+        IpSet spec = IpSet.fromCidr("2001:db8::1");
+        assertTrue(spec.apply(InetAddress.getByName("2001:db8::1")));
+        assertFalse(spec.apply(InetAddress.getByName("2001:db8::2")));
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class IpTrieTest {
+
+    @Test
+    public void testMatchesRanges() throws UnknownHostException {
+        IpTrie trie = new IpTrie();
+        trie.add("10.42.0.0/16");
+        trie.add("172.16.0.0/12");
+        trie.add("[2064:45:300::]/40");
+        assertTrue(trie.apply(InetAddress.getByName("10.42.2.5")));
+        assertFalse(trie.apply(InetAddress.getByName("10.43.2.5")));
+        assertTrue(trie.apply(InetAddress.getByName("172.31.0.1")));
+        assertFalse(trie.apply(InetAddress.getByName("172.32.0.1")));
+        assertTrue(trie.apply(InetAddress.getByName("2064:45:310::cafe")));
+        assertFalse(trie.apply(InetAddress.getByName("2064:45:410::cafe")));
+        // IPv4 compatible IPv6 addresses aren't in IPv4 ranges
+        assertFalse(trie.apply(InetAddress.getByName("::a2a:205")));
+    }
+
+    @Test
+    public void testSplitsAndCoveredRanges() throws UnknownHostException {
+        IpTrie trie = new IpTrie();
+        trie.add("192.168.1.1");
+        trie.add("192.168.1.2");
+        trie.add("192.168.0.0/16");
+        trie.add("192.168.5.0/24");
+        assertEquals(3, trie.size());
+        assertTrue(trie.apply(InetAddress.getByName("192.168.200.1")));
+        assertFalse(trie.apply(InetAddress.getByName("192.169.0.1")));
+        trie.add("0.0.0.0/0");
+        assertTrue(trie.apply(InetAddress.getByName("8.8.8.8")));
+        assertFalse(trie.apply(InetAddress.getByName("::1")));
+    }
+
+    @Test
+    public void testMatchesIpSets() throws UnknownHostException {
+        Random random = new Random(7);
+        IpTrie trie = new IpTrie();
+        List<IpSet> sets = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            IpSet set = IpSet.fromAddrPrefix(randomAddress(random), random.nextInt(25));
+            sets.add(set);
+            trie.add(set);
+        }
+        for (int i = 0; i < 20000; i++) {
+            InetAddress address = randomAddress(random);
+            boolean expected = false;
+            for (IpSet set : sets) {
+                expected |= set.apply(address);
+            }
+            assertEquals(address.toString(), expected, trie.apply(address));
+        }
+    }
+
+    @Test
+    public void testReadSkipsCommentsAndInvalidLines() throws IOException {
+        String file = "# blocklist\n\n10.0.0.0/8 # private\nnot an address\n[fc00::]/7\n10.0.0.0/33\n";
+        List<Integer> invalid = new ArrayList<>();
+        IpTrie trie = IpTrie.read(new BufferedReader(new StringReader(file)), invalid::add);
+        assertEquals(2, trie.size());
+        assertEquals(2, invalid.size());
+        assertEquals(4, (int) invalid.get(0));
+        assertEquals(6, (int) invalid.get(1));
+        assertTrue(trie.apply(InetAddress.getByName("fd12::1")));
+    }
+
+    private static InetAddress randomAddress(Random random) throws UnknownHostException {
+        byte[] bytes = new byte[4];
+        random.nextBytes(bytes);
+        // Keep the addresses close together so ranges overlap
+        bytes[0] = (byte) (bytes[0] & 0x83);
+        return InetAddress.getByAddress(bytes);
+    }
+}
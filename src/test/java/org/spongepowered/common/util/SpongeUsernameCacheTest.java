@@ -0,0 +1,113 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.UUID;
+
+public class SpongeUsernameCacheTest {
+
+    @Test
+    public void testRecordsAreBatched() throws IOException {
+        final CountingChannel out = new CountingChannel();
+        final SpongeUsernameCache.RecordWriter batch = new SpongeUsernameCache.RecordWriter(out);
+        batch.putHeader();
+        for (int i = 0; i < 100; i++) {
+            batch.put(new UUID(0, i), "Player" + i);
+        }
+        batch.put(new UUID(0, 100), null);
+        batch.flush();
+
+        assertEquals(1, out.writes);
+        assertEquals(4 + 10 * (1 + 16 + 2 + 7) + 90 * (1 + 16 + 2 + 8) + (1 + 16), out.bytes.size());
+    }
+
+    @Test
+    public void testFullBufferIsWrittenInOneCall() throws IOException {
+        final CountingChannel out = new CountingChannel();
+        final SpongeUsernameCache.RecordWriter batch = new SpongeUsernameCache.RecordWriter(out);
+        final int perBuffer = SpongeUsernameCache.BUFFER_SIZE / SpongeUsernameCache.MAX_RECORD_SIZE;
+        assertTrue(perBuffer > 1);
+
+        final StringBuilder name = new StringBuilder();
+        for (int i = 0; i < SpongeUsernameCache.MAX_NAME_LENGTH; i++) {
+            name.append('a');
+        }
+        for (int i = 0; i < perBuffer * 3; i++) {
+            batch.put(new UUID(0, i), name.toString());
+        }
+        batch.flush();
+
+        assertEquals(3, out.writes);
+    }
+
+    @Test
+    public void testOverlongNameIsNotStored() throws IOException {
+        final CountingChannel out = new CountingChannel();
+        final SpongeUsernameCache.RecordWriter batch = new SpongeUsernameCache.RecordWriter(out);
+        final StringBuilder name = new StringBuilder();
+        for (int i = 0; i <= SpongeUsernameCache.MAX_NAME_LENGTH; i++) {
+            name.append('a');
+        }
+        batch.put(new UUID(0, 0), name.toString());
+        batch.flush();
+
+        assertEquals(1 + 16 + 2, out.bytes.size());
+    }
+
+    private static final class CountingChannel implements WritableByteChannel {
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int writes;
+
+        @Override
+        public int write(ByteBuffer src) {
+            this.writes++;
+            final int length = src.remaining();
+            this.bytes.write(src.array(), src.arrayOffset() + src.position(), length);
+            src.position(src.limit());
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+}
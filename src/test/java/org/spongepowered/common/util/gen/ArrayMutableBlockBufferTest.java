@@ -0,0 +1,135 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.util.gen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.flowpowered.math.vector.Vector3i;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.block.BlockTypes;
+import org.spongepowered.api.world.extent.ImmutableBlockVolume;
+import org.spongepowered.api.world.extent.MutableBlockVolume;
+import org.spongepowered.api.world.extent.StorageType;
+import org.spongepowered.api.world.schematic.PaletteTypes;
+import org.spongepowered.common.world.schematic.BimapPalette;
+import org.spongepowered.common.world.schematic.BlockPaletteWrapper;
+import org.spongepowered.lwts.runner.LaunchWrapperTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(LaunchWrapperTestRunner.class)
+public class ArrayMutableBlockBufferTest {
+
+    private static final Vector3i SIZE = new Vector3i(4, 4, 4);
+
+    @SuppressWarnings("deprecation")
+    private static ArrayMutableBlockBuffer createLocalBuffer() {
+        return new ArrayMutableBlockBuffer(new BlockPaletteWrapper(new BimapPalette<>(PaletteTypes.LOCAL_BLOCKS),
+                org.spongepowered.api.world.schematic.BlockPaletteTypes.LOCAL), Vector3i.ZERO, SIZE);
+    }
+
+    private static List<BlockState> distinctStates(final int count) {
+        final List<BlockState> states = new ArrayList<>(count);
+        for (final BlockState state : Sponge.getRegistry().getAllOf(BlockState.class)) {
+            if (state != BlockTypes.AIR.getDefaultState()) {
+                states.add(state);
+                if (states.size() == count) {
+                    break;
+                }
+            }
+        }
+        assertEquals(count, states.size());
+        return states;
+    }
+
+    @Test
+    public void testGrowsPastBitWidth() {
+        final ArrayMutableBlockBuffer buffer = createLocalBuffer();
+        // Each new state pushes the highest palette id up, crossing several packed widths
+        final List<BlockState> states = distinctStates(SIZE.getX() * SIZE.getZ());
+        int i = 0;
+        for (int x = 0; x < SIZE.getX(); x++) {
+            for (int z = 0; z < SIZE.getZ(); z++) {
+                buffer.setBlock(x, 1, z, states.get(i++));
+            }
+        }
+        assertTrue(buffer.getPalette().getHighestId() >= states.size());
+
+        i = 0;
+        for (int x = 0; x < SIZE.getX(); x++) {
+            for (int z = 0; z < SIZE.getZ(); z++) {
+                assertEquals(states.get(i++), buffer.getBlock(x, 1, z));
+                assertEquals(BlockTypes.AIR.getDefaultState(), buffer.getBlock(x, 0, z));
+                assertEquals(BlockTypes.AIR.getDefaultState(), buffer.getBlock(x, 2, z));
+            }
+        }
+    }
+
+    @Test
+    public void testRawIdsGrowPastBitWidth() {
+        final ArrayMutableBlockBuffer.RawIds ids = new ArrayMutableBlockBuffer.RawIds(SIZE, 1);
+        for (int i = 0; i < ids.getArea(); i++) {
+            ids.set(i, i * 37);
+        }
+        for (int i = 0; i < ids.getArea(); i++) {
+            assertEquals(i * 37, ids.get(i));
+        }
+    }
+
+    @Test
+    public void testCopyDoesNotAlias() {
+        final ArrayMutableBlockBuffer buffer = createLocalBuffer();
+        final BlockState stone = BlockTypes.STONE.getDefaultState();
+        final BlockState dirt = BlockTypes.DIRT.getDefaultState();
+        buffer.setBlock(1, 1, 1, stone);
+
+        final MutableBlockVolume copy = buffer.getBlockCopy(StorageType.STANDARD);
+        final ImmutableBlockVolume immutableCopy = buffer.getImmutableBlockCopy();
+        assertEquals(buffer, copy);
+
+        buffer.setBlock(1, 1, 1, dirt);
+        copy.setBlock(2, 2, 2, dirt);
+        assertEquals(stone, copy.getBlock(1, 1, 1));
+        assertEquals(stone, immutableCopy.getBlock(1, 1, 1));
+        assertEquals(BlockTypes.AIR.getDefaultState(), buffer.getBlock(2, 2, 2));
+        assertEquals(BlockTypes.AIR.getDefaultState(), immutableCopy.getBlock(2, 2, 2));
+    }
+
+    @Test
+    public void testCreateBackingDataFitsHighestValue() {
+        for (final int highest : new int[] {0, 1, 2, 255, 256, 4095, 65535}) {
+            final ArrayMutableBlockBuffer.BackingData data = ArrayMutableBlockBuffer.createBackingData(64, highest);
+            assertTrue(data.getMax() >= highest);
+            data.set(63, highest);
+            assertEquals(highest, data.get(63));
+            assertEquals(0, data.get(62));
+        }
+    }
+}
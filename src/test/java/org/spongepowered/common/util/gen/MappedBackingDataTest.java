@@ -0,0 +1,87 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.util.gen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class MappedBackingDataTest {
+
+    private static final int SIZE = 1000;
+
+    @Test
+    public void testMatchesPackedLayout() throws IOException {
+        // Widths that do and do not divide 64, so some entries are split between two longs
+        for (final int bits : new int[] {1, 3, 5, 8, 13, 17}) {
+            final int highest = (1 << bits) - 1;
+            final MappedBackingData mapped = new MappedBackingData(SIZE, highest);
+            final ArrayMutableBlockBuffer.PackedBackingData packed = new ArrayMutableBlockBuffer.PackedBackingData(SIZE, highest);
+            assertEquals(packed.getMax(), mapped.getMax());
+            for (int i = 0; i < SIZE; i++) {
+                final int value = (int) ((i * 2654435761L) >>> 7) & highest;
+                mapped.set(i, value);
+                packed.set(i, value);
+            }
+            for (int i = 0; i < SIZE; i++) {
+                assertEquals(packed.get(i), mapped.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testSetKeepsNeighbours() throws IOException {
+        final MappedBackingData data = new MappedBackingData(SIZE, 31);
+        for (int i = 0; i < SIZE; i++) {
+            data.set(i, 31);
+        }
+        for (int i = 0; i < SIZE; i += 2) {
+            data.set(i, 0);
+        }
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(i % 2 == 0 ? 0 : 31, data.get(i));
+        }
+    }
+
+    @Test
+    public void testCopyDoesNotAlias() throws IOException {
+        final MappedBackingData data = new MappedBackingData(SIZE, 15);
+        for (int i = 0; i < SIZE; i++) {
+            data.set(i, i % 16);
+        }
+        final ArrayMutableBlockBuffer.BackingData copy = data.copyOf();
+        assertEquals(data, copy);
+        assertEquals(data.hashCode(), copy.hashCode());
+
+        data.set(7, 0);
+        copy.set(8, 0);
+        assertEquals(7, copy.get(7));
+        assertEquals(8, data.get(8));
+        assertNotEquals(data, copy);
+    }
+}
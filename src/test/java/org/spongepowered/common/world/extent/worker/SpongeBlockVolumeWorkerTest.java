@@ -0,0 +1,112 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.extent.worker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.flowpowered.math.vector.Vector3i;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.server.management.PlayerChunkMap;
+import net.minecraft.tileentity.TileEntityChest;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.world.extent.worker.procedure.BlockVolumeFiller;
+import org.spongepowered.common.bridge.world.WorldServerBridge;
+import org.spongepowered.lwts.runner.LaunchWrapperTestRunner;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@RunWith(LaunchWrapperTestRunner.class)
+public class SpongeBlockVolumeWorkerTest {
+
+    @Test
+    public void testSlicesCoverVolumeOnce() {
+        final Vector3i min = new Vector3i(-21, 3, -1);
+        final Vector3i max = new Vector3i(17, 40, 30);
+        final List<int[]> slices = SpongeBlockVolumeWorker.getSlices(min, max);
+        final Set<Vector3i> visited = new HashSet<>();
+        for (int[] slice : slices) {
+            // Every slice has to stay within a single chunk section
+            assertEquals(slice[0] >> 4, slice[3] >> 4);
+            assertEquals(slice[1] >> 4, slice[4] >> 4);
+            assertEquals(slice[2] >> 4, slice[5] >> 4);
+            for (int z = slice[2]; z <= slice[5]; z++) {
+                for (int y = slice[1]; y <= slice[4]; y++) {
+                    for (int x = slice[0]; x <= slice[3]; x++) {
+                        assertTrue(visited.add(new Vector3i(x, y, z)));
+                    }
+                }
+            }
+        }
+        final Vector3i size = max.sub(min).add(Vector3i.ONE);
+        assertEquals(size.getX() * size.getY() * size.getZ(), visited.size());
+        assertEquals(4 * 3 * 3, slices.size());
+    }
+
+    @Test
+    public void testSingleBlockSlice() {
+        final List<int[]> slices = SpongeBlockVolumeWorker.getSlices(new Vector3i(-1, -1, -1), new Vector3i(-1, -1, -1));
+        assertEquals(1, slices.size());
+        assertEquals(-1, slices.get(0)[0]);
+        assertEquals(-1, slices.get(0)[5]);
+    }
+
+    @Test
+    public void testBulkWriteKeepsTileEntityOnStateChange() throws Exception {
+        final WorldServer world = WorldSectionWriterTest.createWorld();
+        final Chunk chunk = new Chunk(world, 0, 0);
+        when(world.getChunk(0, 0)).thenReturn(chunk);
+        when(world.getPlayerChunkMap()).thenReturn(mock(PlayerChunkMap.class));
+        final WorldServerBridge bridge = (WorldServerBridge) world;
+        when(bridge.bridge$setBlocks(any(Vector3i.class), any(Vector3i.class), any(BlockVolumeFiller.class))).thenCallRealMethod();
+
+        final BlockPos pos = new BlockPos(3, 70, 5);
+        final TileEntityChest chest = WorldSectionWriterTest.placeChest(world, chunk, pos, EnumFacing.NORTH);
+        final int changed = bridge.bridge$setBlocks(new Vector3i(0, 70, 0), new Vector3i(15, 70, 15),
+            (x, y, z) -> (BlockState) (x == pos.getX() && z == pos.getZ() ? WorldSectionWriterTest.chest(EnumFacing.EAST)
+                : Blocks.AIR.getDefaultState()));
+
+        assertEquals(1, changed);
+        verify(world, never()).removeTileEntity(any(BlockPos.class));
+        assertEquals(WorldSectionWriterTest.chest(EnumFacing.EAST), chunk.getBlockState(pos));
+        assertSame(chest, chunk.getTileEntity(pos, Chunk.EnumCreateEntityType.CHECK));
+        assertEquals(Items.DIAMOND, chest.getStackInSlot(0).getItem());
+    }
+}
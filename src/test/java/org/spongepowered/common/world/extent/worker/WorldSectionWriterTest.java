@@ -0,0 +1,120 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.extent.worker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import net.minecraft.block.BlockChest;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraft.tileentity.TileEntityChest;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldProvider;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.spongepowered.lwts.runner.LaunchWrapperTestRunner;
+
+import java.lang.reflect.Field;
+
+@RunWith(LaunchWrapperTestRunner.class)
+public class WorldSectionWriterTest {
+
+    private static final BlockPos POS = new BlockPos(3, 70, 5);
+
+    private WorldServer world;
+    private Chunk chunk;
+
+    @Before
+    public void init() throws Exception {
+        this.world = createWorld();
+        this.chunk = new Chunk(this.world, 0, 0);
+        when(this.world.getChunk(0, 0)).thenReturn(this.chunk);
+    }
+
+    static WorldServer createWorld() throws Exception {
+        final WorldServer world = mock(WorldServer.class);
+        final WorldProvider provider = mock(WorldProvider.class);
+        when(provider.hasSkyLight()).thenReturn(true);
+        final Field field = World.class.getDeclaredField("provider");
+        field.setAccessible(true);
+        field.set(world, provider);
+        return world;
+    }
+
+    /**
+     * Places a chest holding a diamond, the mocked world doesn't store the
+     * tile entity the chunk creates so it's added to the chunk directly.
+     */
+    static TileEntityChest placeChest(WorldServer world, Chunk chunk, BlockPos pos, EnumFacing facing) {
+        final WorldSectionWriter writer = new WorldSectionWriter(world);
+        assertTrue(writer.setBlock(pos.getX(), pos.getY(), pos.getZ(), chest(facing)));
+        final TileEntityChest chest = new TileEntityChest();
+        chest.setPos(pos);
+        chest.setInventorySlotContents(0, new ItemStack(Items.DIAMOND));
+        chunk.getTileEntityMap().put(pos, chest);
+        return chest;
+    }
+
+    static IBlockState chest(EnumFacing facing) {
+        return Blocks.CHEST.getDefaultState().withProperty(BlockChest.FACING, facing);
+    }
+
+    @Test
+    public void testStateChangeKeepsTileEntity() {
+        final TileEntityChest chest = placeChest(this.world, this.chunk, POS, EnumFacing.NORTH);
+        final WorldSectionWriter writer = new WorldSectionWriter(this.world);
+        assertTrue(writer.setBlock(POS.getX(), POS.getY(), POS.getZ(), chest(EnumFacing.EAST)));
+
+        verify(this.world, never()).removeTileEntity(any(BlockPos.class));
+        assertEquals(chest(EnumFacing.EAST), this.chunk.getBlockState(POS));
+        assertSame(chest, this.chunk.getTileEntity(POS, Chunk.EnumCreateEntityType.CHECK));
+        assertEquals(Items.DIAMOND, chest.getStackInSlot(0).getItem());
+    }
+
+    @Test
+    public void testBlockChangeRemovesTileEntity() {
+        placeChest(this.world, this.chunk, POS, EnumFacing.NORTH);
+        final WorldSectionWriter writer = new WorldSectionWriter(this.world);
+        assertTrue(writer.setBlock(POS.getX(), POS.getY(), POS.getZ(), Blocks.STONE.getDefaultState()));
+
+        verify(this.world).removeTileEntity(eq(POS));
+        assertEquals(Blocks.STONE.getDefaultState(), this.chunk.getBlockState(POS));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.schematic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+import org.spongepowered.api.CatalogType;
+import org.spongepowered.api.world.schematic.PaletteType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class BimapPaletteTest {
+
+    @SuppressWarnings("unchecked")
+    private static BimapPalette<CatalogType> createPalette(final int expectedSize) {
+        return new BimapPalette<>((PaletteType<CatalogType>) mock(PaletteType.class), expectedSize);
+    }
+
+    private static List<CatalogType> createTypes(final int count) {
+        final List<CatalogType> types = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            types.add(mock(CatalogType.class));
+        }
+        return types;
+    }
+
+    @Test
+    public void testGrowsPastExpectedSize() {
+        final BimapPalette<CatalogType> palette = createPalette(2);
+        final List<CatalogType> types = createTypes(100);
+        for (int i = 0; i < types.size(); i++) {
+            assertEquals(i, palette.getOrAssign(types.get(i)));
+        }
+        assertEquals(99, palette.getHighestId());
+        for (int i = 0; i < types.size(); i++) {
+            assertSame(types.get(i), palette.getOrNull(i));
+            assertEquals(Optional.of(i), palette.get(types.get(i)));
+        }
+        assertNull(palette.getOrNull(100));
+    }
+
+    @Test
+    public void testReusesRemovedIds() {
+        final BimapPalette<CatalogType> palette = createPalette(4);
+        final List<CatalogType> types = createTypes(4);
+        palette.getOrAssign(types.get(0));
+        palette.getOrAssign(types.get(1));
+        palette.getOrAssign(types.get(2));
+
+        assertTrue(palette.remove(types.get(1)));
+        assertFalse(palette.remove(types.get(1)));
+        assertFalse(palette.get(types.get(1)).isPresent());
+        assertFalse(palette.get(1).isPresent());
+        assertEquals(2, palette.getHighestId());
+
+        assertEquals(1, palette.getOrAssign(types.get(3)));
+        assertSame(types.get(3), palette.getOrNull(1));
+        assertEquals(2, palette.getHighestId());
+        assertEquals(3, palette.getEntries().size());
+    }
+
+    @Test
+    public void testRemovingHighestIdLowersIt() {
+        final BimapPalette<CatalogType> palette = createPalette(4);
+        final List<CatalogType> types = createTypes(3);
+        for (final CatalogType type : types) {
+            palette.getOrAssign(type);
+        }
+        assertTrue(palette.remove(types.get(2)));
+        assertEquals(1, palette.getHighestId());
+        assertEquals(2, palette.getOrAssign(types.get(2)));
+        assertEquals(2, palette.getHighestId());
+    }
+
+    @Test
+    public void testAssignReplacesPreviousType() {
+        final BimapPalette<CatalogType> palette = createPalette(4);
+        final List<CatalogType> types = createTypes(2);
+        palette.assign(types.get(0), 5);
+        palette.assign(types.get(1), 5);
+        assertSame(types.get(1), palette.getOrNull(5));
+        assertFalse(palette.get(types.get(0)).isPresent());
+        assertEquals(Optional.of(5), palette.get(types.get(1)));
+        // Ids below the highest assigned one are still free
+        assertEquals(0, palette.getOrAssign(types.get(0)));
+    }
+}